@@ -0,0 +1,239 @@
+package com.example.frontend;
+
+import android.content.Context;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+
+import okhttp3.Call;
+import okhttp3.Callback;
+import okhttp3.MediaType;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.RequestBody;
+import okhttp3.Response;
+
+/**
+ * Traces of user actions ("generate goal", "regenerate subgoal") on the phone.
+ * Each action is a root span; its HTTP calls (TracingInterceptor), JSON decoding and rendering
+ * are child spans, and the backend continues the same trace through the traceparent header.
+ *
+ * Finished spans are kept in memory (the last MEMORY_SPANS), appended to files/traces/spans.ndjson
+ * and, when the action ends, uploaded to POST /api/traces/spans so the backend can show where
+ * the time of one request went (phone, network, server, model).
+ */
+public final class AppTracer {
+
+    private static final String TRACES_URL = "http://10.0.2.2:8080/api/traces/spans";
+    private static final String SERVICE = "android-app";
+    private static final int MEMORY_SPANS = 500;
+    private static final int MAX_PENDING_UPLOAD = 500;
+    private static final long MAX_FILE_BYTES = 1024 * 1024;
+
+    /**
+     * One timed step of an action. Spans may be ended from any thread.
+     */
+    public static final class Span {
+        private final AppTracer tracer;
+        private final String traceId;
+        private final String spanId;
+        private final String parentSpanId;
+        private final String name;
+        private final String kind;
+        private final long startEpochNanos;
+        private final long startNanos;
+        private final Map<String, Object> attributes = new LinkedHashMap<>();
+        private String error;
+        private boolean ended;
+
+        private Span(AppTracer tracer, String traceId, String parentSpanId, String name, String kind) {
+            this.tracer = tracer;
+            this.traceId = traceId;
+            this.spanId = randomId(8);
+            this.parentSpanId = parentSpanId;
+            this.name = name;
+            this.kind = kind;
+            this.startEpochNanos = System.currentTimeMillis() * 1_000_000L;
+            this.startNanos = System.nanoTime();
+        }
+
+        public Span child(String name) {
+            return child(name, "INTERNAL");
+        }
+
+        /**
+         * @param kind "CLIENT" for calls to the backend, "INTERNAL" otherwise
+         */
+        public Span child(String name, String kind) {
+            return new Span(tracer, traceId, spanId, name, kind);
+        }
+
+        public synchronized Span setAttribute(String key, Object value) {
+            if (value != null) {
+                attributes.put(key, value);
+            }
+            return this;
+        }
+
+        public synchronized Span setError(String message) {
+            error = message != null ? message : "error";
+            return this;
+        }
+
+        /**
+         * W3C traceparent header value naming this span as the parent
+         */
+        public String traceparent() {
+            return "00-" + traceId + "-" + spanId + "-01";
+        }
+
+        public void end() {
+            long endNanos = System.nanoTime();
+            JSONObject json;
+            synchronized (this) {
+                if (ended) {
+                    return;
+                }
+                ended = true;
+                json = toJson(startEpochNanos + (endNanos - startNanos));
+            }
+            tracer.export(json, parentSpanId == null);
+        }
+
+        private JSONObject toJson(long endEpochNanos) {
+            JSONObject json = new JSONObject();
+            try {
+                json.put("traceId", traceId);
+                json.put("spanId", spanId);
+                if (parentSpanId != null) {
+                    json.put("parentSpanId", parentSpanId);
+                }
+                json.put("service", SERVICE);
+                json.put("name", name);
+                json.put("kind", kind);
+                json.put("startTimeUnixNano", startEpochNanos);
+                json.put("endTimeUnixNano", endEpochNanos);
+                json.put("status", error == null ? "OK" : "ERROR");
+                if (error != null) {
+                    json.put("error", error);
+                }
+                json.put("attributes", new JSONObject(attributes));
+            } catch (JSONException e) {
+                throw new IllegalStateException(e);
+            }
+            return json;
+        }
+    }
+
+    private static AppTracer instance;
+
+    private final File file;
+    private final ArrayDeque<JSONObject> recent = new ArrayDeque<>();
+    private final List<JSONObject> pendingUpload = new ArrayList<>();
+    // Spans are written and uploaded in order, off the UI thread
+    private final ExecutorService exportExecutor = Executors.newSingleThreadExecutor();
+    private final OkHttpClient uploadClient = new OkHttpClient();
+
+    private AppTracer(Context context) {
+        File dir = new File(context.getFilesDir(), "traces");
+        dir.mkdirs();
+        file = new File(dir, "spans.ndjson");
+    }
+
+    public static synchronized AppTracer getInstance(Context context) {
+        if (instance == null) {
+            instance = new AppTracer(context.getApplicationContext());
+        }
+        return instance;
+    }
+
+    /**
+     * Starts the root span of a user action, with a new trace id
+     */
+    public Span startTrace(String name) {
+        return new Span(this, randomId(16), null, name, "INTERNAL");
+    }
+
+    /**
+     * The most recent finished spans, oldest first
+     */
+    public synchronized List<JSONObject> recentSpans() {
+        return new ArrayList<>(recent);
+    }
+
+    private void export(JSONObject span, boolean actionEnded) {
+        synchronized (this) {
+            recent.addLast(span);
+            if (recent.size() > MEMORY_SPANS) {
+                recent.removeFirst();
+            }
+        }
+        exportExecutor.execute(() -> {
+            append(span);
+            if (pendingUpload.size() < MAX_PENDING_UPLOAD) {
+                pendingUpload.add(span);
+            }
+            if (actionEnded) {
+                upload();
+            }
+        });
+    }
+
+    private void append(JSONObject span) {
+        if (file.length() >= MAX_FILE_BYTES) {
+            file.renameTo(new File(file.getPath() + ".1"));
+        }
+        try (FileOutputStream out = new FileOutputStream(file, true)) {
+            out.write((span.toString() + "\n").getBytes(StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            System.out.println("⚠️ Could not write span: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Best effort: spans that cannot be sent are still in the file
+     */
+    private void upload() {
+        JSONArray spans = new JSONArray(pendingUpload);
+        pendingUpload.clear();
+        Request request = new Request.Builder()
+                .url(TRACES_URL)
+                .post(RequestBody.create(spans.toString(), MediaType.get("application/json; charset=utf-8")))
+                .build();
+        uploadClient.newCall(request).enqueue(new Callback() {
+            @Override
+            public void onFailure(Call call, IOException e) {
+                System.out.println("⚠️ Span upload failed: " + e.getMessage());
+            }
+
+            @Override
+            public void onResponse(Call call, Response response) {
+                response.close();
+            }
+        });
+    }
+
+    private static String randomId(int bytes) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        StringBuilder id = new StringBuilder(bytes * 2);
+        for (int i = 0; i < bytes * 2; i++) {
+            // First digit never 0, so an id can never be all zeros (invalid in W3C trace context)
+            id.append(Character.forDigit(i == 0 ? 1 + random.nextInt(15) : random.nextInt(16), 16));
+        }
+        return id.toString();
+    }
+}
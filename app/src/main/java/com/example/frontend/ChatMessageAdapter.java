@@ -0,0 +1,149 @@
+package com.example.frontend;
+
+import android.view.LayoutInflater;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.Button;
+import android.widget.TextView;
+
+import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.RecyclerView;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Recycled chat transcript for CreateGoalActivity.
+ * Messages are only ever appended, so each new message is a single notifyItemInserted.
+ */
+public class ChatMessageAdapter extends RecyclerView.Adapter<ChatMessageAdapter.MessageViewHolder> {
+
+    public static final int TYPE_USER = 0;
+    public static final int TYPE_RESPONSE = 1;
+    public static final int TYPE_ERROR = 2;
+
+    /**
+     * Actions triggered from the buttons of a response message
+     */
+    public interface ResponseActionListener {
+        void onShowSubgoals(MainGoalModel mainGoalModel);
+
+        void onTryAgain(String userInput);
+    }
+
+    /**
+     * One entry in the transcript
+     */
+    static class ChatMessage {
+        final long id;
+        final int type;
+        final String text;
+        final MainGoalModel mainGoalModel;  // only set for TYPE_RESPONSE
+        final String userInput;             // prompt that produced a TYPE_RESPONSE
+
+        ChatMessage(long id, int type, String text, MainGoalModel mainGoalModel, String userInput) {
+            this.id = id;
+            this.type = type;
+            this.text = text;
+            this.mainGoalModel = mainGoalModel;
+            this.userInput = userInput;
+        }
+    }
+
+    private final List<ChatMessage> messages = new ArrayList<>();
+    private final ResponseActionListener listener;
+    private long nextId = 0;
+
+    public ChatMessageAdapter(ResponseActionListener listener) {
+        this.listener = listener;
+        setHasStableIds(true);
+    }
+
+    public int addUserMessage(String text) {
+        return append(new ChatMessage(nextId++, TYPE_USER, text, null, null));
+    }
+
+    public int addResponseMessage(String text, MainGoalModel mainGoalModel, String userInput) {
+        return append(new ChatMessage(nextId++, TYPE_RESPONSE, text, mainGoalModel, userInput));
+    }
+
+    public int addErrorMessage(String text) {
+        return append(new ChatMessage(nextId++, TYPE_ERROR, text, null, null));
+    }
+
+    private int append(ChatMessage message) {
+        messages.add(message);
+        int position = messages.size() - 1;
+        notifyItemInserted(position);
+        return position;
+    }
+
+    @Override
+    public int getItemCount() {
+        return messages.size();
+    }
+
+    @Override
+    public int getItemViewType(int position) {
+        return messages.get(position).type;
+    }
+
+    @Override
+    public long getItemId(int position) {
+        return messages.get(position).id;
+    }
+
+    @NonNull
+    @Override
+    public MessageViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
+        LayoutInflater inflater = LayoutInflater.from(parent.getContext());
+        switch (viewType) {
+            case TYPE_RESPONSE:
+                return new ResponseViewHolder(inflater.inflate(R.layout.message_response, parent, false));
+            case TYPE_ERROR:
+                return new MessageViewHolder(inflater.inflate(R.layout.message_response_error, parent, false),
+                        R.id.messageUserText);
+            default:
+                return new MessageViewHolder(inflater.inflate(R.layout.message_user, parent, false),
+                        R.id.messageUserText);
+        }
+    }
+
+    @Override
+    public void onBindViewHolder(@NonNull MessageViewHolder holder, int position) {
+        holder.bind(messages.get(position));
+    }
+
+    // ================== VIEW HOLDERS ==================
+
+    static class MessageViewHolder extends RecyclerView.ViewHolder {
+        final TextView messageText;
+
+        MessageViewHolder(View itemView, int textViewId) {
+            super(itemView);
+            messageText = itemView.findViewById(textViewId);
+        }
+
+        void bind(ChatMessage message) {
+            messageText.setText(message.text);
+        }
+    }
+
+    class ResponseViewHolder extends MessageViewHolder {
+        final Button showSubgoalsButton;
+        final Button tryAgainButton;
+
+        ResponseViewHolder(View itemView) {
+            super(itemView, R.id.messageResponseText);
+            showSubgoalsButton = itemView.findViewById(R.id.showSubgoalsButton);
+            tryAgainButton = itemView.findViewById(R.id.tryAgainButton);
+        }
+
+        @Override
+        void bind(ChatMessage message) {
+            super.bind(message);
+            showSubgoalsButton.setOnClickListener(v -> listener.onShowSubgoals(message.mainGoalModel));
+            tryAgainButton.setOnClickListener(v -> listener.onTryAgain(message.userInput));
+        }
+    }
+}
@@ -2,15 +2,17 @@ package com.example.frontend;
 
 import android.content.Intent;
 import android.os.Bundle;
-import android.widget.GridLayout;
-import android.widget.ImageView;
 import android.widget.ImageButton;
 import androidx.appcompat.app.AppCompatActivity;
-import java.util.List;
+import androidx.recyclerview.widget.GridLayoutManager;
+import androidx.recyclerview.widget.RecyclerView;
 
 public class CollectionActivity extends AppCompatActivity {
 
-    private GridLayout gridPlants;
+    private static final int COLUMN_COUNT = 3;
+
+    private RecyclerView recyclerPlants;
+    private PlantGalleryAdapter plantAdapter;
     private ImageButton btnBack;
 
     @Override
@@ -18,7 +20,18 @@ public class CollectionActivity extends AppCompatActivity {
         super.onCreate(savedInstanceState);
         setContentView(R.layout.activity_collection);
 
-        gridPlants = findViewById(R.id.gridPlants);
+        recyclerPlants = findViewById(R.id.recyclerPlants);
+        recyclerPlants.setLayoutManager(new GridLayoutManager(this, COLUMN_COUNT));
+        recyclerPlants.setHasFixedSize(true);
+
+        // Thumbnails are decoded at the cell size, never at full drawable resolution
+        int cellSizePx = getResources().getDimensionPixelSize(R.dimen.plant_cell_size);
+        plantAdapter = new PlantGalleryAdapter(
+                PlantThumbnailLoader.getInstance(getApplicationContext().getResources()),
+                cellSizePx,
+                this::openPlantDetail);
+        recyclerPlants.setAdapter(plantAdapter);
+
         btnBack = findViewById(R.id.btnBack);
         btnBack.setOnClickListener(v -> finish());
     }
@@ -30,22 +43,7 @@ public class CollectionActivity extends AppCompatActivity {
     }
 
     private void populatePlants() {
-        gridPlants.removeAllViews();
-        List<Integer> plantDrawableList = CollectionManager.getInstance().getPlants();
-
-        for (int i = 0; i < plantDrawableList.size(); i++) {
-            int drawableRes = plantDrawableList.get(i);
-            ImageView plantView = new ImageView(this);
-            plantView.setImageResource(drawableRes);
-            plantView.setLayoutParams(new GridLayout.LayoutParams());
-            plantView.setPadding(16,16,16,16);
-            plantView.setBackgroundResource(R.drawable.rounded_box);
-            plantView.setScaleType(ImageView.ScaleType.CENTER_CROP);
-
-            int finalI = i;
-            plantView.setOnClickListener(v -> openPlantDetail(finalI));
-            gridPlants.addView(plantView);
-        }
+        plantAdapter.setPlants(CollectionManager.getInstance(this).getPlants());
     }
 
 
@@ -55,4 +53,3 @@ public class CollectionActivity extends AppCompatActivity {
         startActivity(intent);
     }
 }
-
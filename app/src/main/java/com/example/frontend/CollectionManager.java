@@ -1,28 +1,66 @@
 package com.example.frontend;
 
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.content.res.Resources;
+
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
+/**
+ * Collected plants, persisted in SharedPreferences so the collection survives process death.
+ * Plants are stored by drawable entry name because resource ids can change between builds.
+ */
 public class CollectionManager {
+    private static final String PREFS_NAME = "plant_collection";
+    private static final String KEY_PLANTS = "plants";
+    private static final String SEPARATOR = "\n";
+
     private static CollectionManager instance;
+    private final SharedPreferences prefs;
+    private final Resources resources;
     private final List<Integer> collectedPlants;
 
-    private CollectionManager() {
+    private CollectionManager(Context context) {
+        prefs = context.getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE);
+        resources = context.getResources();
         collectedPlants = new ArrayList<>();
+        load();
     }
 
-    public static CollectionManager getInstance() {
+    public static synchronized CollectionManager getInstance(Context context) {
         if (instance == null) {
-            instance = new CollectionManager();
+            instance = new CollectionManager(context.getApplicationContext());
         }
         return instance;
     }
 
-    public void addPlant(int drawableRes) {
+    public synchronized void addPlant(int drawableRes) {
         collectedPlants.add(drawableRes);
+
+        // Append only the new entry name; apply() writes to disk in the background
+        String stored = prefs.getString(KEY_PLANTS, "");
+        String entry = resources.getResourceEntryName(drawableRes);
+        prefs.edit()
+                .putString(KEY_PLANTS, stored.isEmpty() ? entry : stored + SEPARATOR + entry)
+                .apply();
     }
 
-    public List<Integer> getPlants() {
-        return collectedPlants;
+    public synchronized List<Integer> getPlants() {
+        return Collections.unmodifiableList(new ArrayList<>(collectedPlants));
+    }
+
+    private void load() {
+        String stored = prefs.getString(KEY_PLANTS, "");
+        if (stored.isEmpty()) return;
+
+        String packageName = resources.getResourcePackageName(R.drawable.ic_plant_stage1);
+        for (String entry : stored.split(SEPARATOR)) {
+            int drawableRes = resources.getIdentifier(entry, "drawable", packageName);
+            if (drawableRes != 0) {
+                collectedPlants.add(drawableRes);
+            }
+        }
     }
 }
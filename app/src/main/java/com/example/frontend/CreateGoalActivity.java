@@ -5,11 +5,13 @@ import android.graphics.drawable.GradientDrawable;
 import android.os.Bundle;
 import android.os.Handler;
 import android.os.Looper;
+import android.os.SystemClock;
 import android.util.TypedValue;
 import android.view.Gravity;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
+import android.view.ViewTreeObserver;
 import android.widget.Button;
 import android.widget.EditText;
 import android.widget.FrameLayout;
@@ -22,17 +24,18 @@ import android.widget.Toast;
 import androidx.activity.EdgeToEdge;
 import androidx.appcompat.app.AppCompatActivity;
 import androidx.constraintlayout.widget.ConstraintLayout;
-import androidx.constraintlayout.widget.ConstraintSet;
-import androidx.core.widget.NestedScrollView;
+import androidx.recyclerview.widget.LinearLayoutManager;
+import androidx.recyclerview.widget.RecyclerView;
 
 import com.google.android.material.card.MaterialCardView;
 
 import org.json.JSONException;
+import org.json.JSONObject;
 
 import java.io.IOException;
-import java.text.ParseException;
-import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
 
 import okhttp3.Call;
 import okhttp3.Callback;
@@ -46,23 +49,47 @@ public class CreateGoalActivity extends AppCompatActivity {
 
     private APIInteractor _apiInteractor;
     private LayoutInflater _layoutInflater;
-    private ArrayList<ConstraintLayout> _previousMessages;
-    private ConstraintLayout _messagesContainer;
-    private NestedScrollView _messagesScroll;
+    private ChatMessageAdapter _messagesAdapter;
+    private RecyclerView _messagesList;
     private EditText _editTextBox;
     private PopupWindow _subgoalsPopupWindow;
     private ImageButton btnBack;
 
+    // Goals are generated as backend jobs: a dropped connection polls the job again instead of
+    // paying for a second generation
+    private static final String GENERATE_URL = "http://10.0.2.2:8080/api/goals/generate";
+    private static final String JOBS_URL = "http://10.0.2.2:8080/api/goals/jobs/";
+    private static final String GOALS_URL = "http://10.0.2.2:8080/api/goals/";
+    private static final int MAX_POLL_FAILURES = 3;
+    private static final long MAX_POLL_MILLIS = TimeUnit.MINUTES.toMillis(2);  // then give up on the job
+    private static final long MAX_WAIT_SECONDS = 25;
+    private final OkHttpClient _httpClient = new OkHttpClient.Builder()
+            .readTimeout(40, TimeUnit.SECONDS)  // long polls wait up to 25 s for the result
+            .addInterceptor(new TracingInterceptor())
+            .build();
+    private final Handler _mainHandler = new Handler(Looper.getMainLooper());
+
     @Override
     protected void onCreate(Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
         EdgeToEdge.enable(this);
         setContentView(R.layout.activity_create_goal);
-        _previousMessages = new ArrayList<>();
         _layoutInflater = LayoutInflater.from(this);
-        _messagesContainer = findViewById(R.id.messagesContainer);
         _editTextBox = findViewById(R.id.editTextBox);
-        _messagesScroll = findViewById(R.id.messagesScroll);
+        _messagesList = findViewById(R.id.messagesList);
+        _messagesList.setLayoutManager(new LinearLayoutManager(this));
+        _messagesAdapter = new ChatMessageAdapter(new ChatMessageAdapter.ResponseActionListener() {
+            @Override
+            public void onShowSubgoals(MainGoalModel mainGoalModel) {
+                OpenSubGoalsPopUp(mainGoalModel);
+            }
+
+            @Override
+            public void onTryAgain(String userInput) {
+                RequestGoal(userInput, "Here is the new version", "retry");
+            }
+        });
+        _messagesList.setAdapter(_messagesAdapter);
         _apiInteractor = new APIInteractor();
         Button sendMessageButton = findViewById(R.id.sendMessageButton);
         sendMessageButton.setOnClickListener(new View.OnClickListener(){
@@ -70,36 +97,7 @@ public class CreateGoalActivity extends AppCompatActivity {
                 if (!_editTextBox.getText().toString().isEmpty()) {
                     String input = _editTextBox.getText().toString();
                     SendMessage(input);
-                    OkHttpClient client = new OkHttpClient();
-                    MediaType JSON = MediaType.get("application/json; charset=utf-8");
-                    String jsonBody = "{ \"prompt\": \"" + input + "\" }";
-                    RequestBody body = RequestBody.create(jsonBody, JSON);
-                    Request request = new Request.Builder()
-                            .url("http://10.0.2.2:8080/api/goals/generate")
-                            .post(body)
-                            .addHeader("Content-Type", "application/json")
-                            .build();
-
-                    client.newCall(request).enqueue(new Callback() {
-                        @Override
-                        public void onFailure(Call call, IOException e) {
-                            GenerateResponseError();
-                        }
-
-                        @Override
-                        public void onResponse(Call call, Response response) throws IOException {
-                            String responseBody = response.body().string();
-                            runOnUiThread(() -> {
-                                try {
-                                    GenerateResponse("Here are the subgoals for your goal", MainGoalModel.ParseJSON(responseBody), input);
-                                } catch (JSONException e) {
-                                    throw new RuntimeException(e);
-                                } catch (ParseException e) {
-                                    throw new RuntimeException(e);
-                                }
-                            });
-                        }
-                    });
+                    RequestGoal(input, "Here are the subgoals for your goal", "interactive");
                 }
             }
         });
@@ -107,121 +105,142 @@ public class CreateGoalActivity extends AppCompatActivity {
         btnBack.setOnClickListener(v -> finish());
     }
 
-    private void SendMessage(String messageInput) {
-        _editTextBox.setText("");
-        ConstraintLayout messageBox = CreateNewUserMessageBox(messageInput);
-        AlignMessage(messageBox, true);
-        _previousMessages.add(messageBox);
-        _messagesScroll.post(() -> _messagesScroll.smoothScrollTo(0, _messagesContainer.getBottom()));
-    }
+    private void RequestGoal(String userInput, String message, String priority) {
+        // The whole action is one trace: request, job polls, decoding and rendering
+        AppTracer.Span trace = AppTracer.getInstance(this).startTrace("generate goal");
+        trace.setAttribute("goaltracker.priority", priority);
+        MediaType JSON = MediaType.get("application/json; charset=utf-8");
+        String jsonBody = "{ \"prompt\": \"" + userInput + "\" }";
+        RequestBody body = RequestBody.create(jsonBody, JSON);
+        Request request = new Request.Builder()
+                .url(GENERATE_URL)
+                .post(body)
+                .addHeader("Content-Type", "application/json")
+                .addHeader("X-Goaltracker-Priority", priority)
+                .addHeader("Prefer", "respond-async")
+                // One key per send or "Try again" tap: resends of this request are not generated twice
+                .addHeader("Idempotency-Key", UUID.randomUUID().toString())
+                .tag(AppTracer.Span.class, trace)
+                .build();
 
-    private void GenerateResponse(String response, MainGoalModel mainGoalModel, String userInput) {
-        ConstraintLayout messageBox = CreateNewResponseMessageBox(response, mainGoalModel, userInput);
-        AlignMessage(messageBox, false);
-        _previousMessages.add(messageBox);
-        _messagesScroll.post(() -> _messagesScroll.smoothScrollTo(0, _messagesContainer.getBottom()));
-    }
+        _httpClient.newCall(request).enqueue(new Callback() {
+            @Override
+            public void onFailure(Call call, IOException e) {
+                runOnUiThread(() -> GenerateResponseError(trace));
+            }
 
-    private void GenerateResponseError() {
-        ConstraintLayout messageBoxResponseError = CreateNewResponseErrorMessageBox();
-        AlignMessage(messageBoxResponseError, false);
-        _previousMessages.add(messageBoxResponseError);
-        _messagesScroll.post(() -> _messagesScroll.smoothScrollTo(0, _messagesContainer.getBottom()));
+            @Override
+            public void onResponse(Call call, Response response) {
+                if (response.code() == 202) {
+                    WaitForGoalJob(response, message, userInput, trace);
+                } else {
+                    DecodeGeneratedGoal(response, message, userInput, trace);
+                }
+            }
+        });
     }
 
-    private ConstraintLayout CreateNewUserMessageBox(String messageInput) {
+    private void WaitForGoalJob(Response accepted, String message, String userInput, AppTracer.Span trace) {
+        GoalJsonDecoder.decodeAsync(accepted, GoalJsonDecoder::readJobId,
+                new GoalJsonDecoder.DecodeCallback<String>() {
+                    @Override
+                    public void onDecoded(String jobId) {
+                        PollGoalJob(jobId, message, userInput, 0,
+                                SystemClock.elapsedRealtime() + MAX_POLL_MILLIS, trace);
+                    }
 
-        ConstraintLayout messageBox = (ConstraintLayout) _layoutInflater.inflate(R.layout.message_user,
-                _messagesContainer, false);
-        messageBox.setId(View.generateViewId());
-        TextView messageBoxTextView = messageBox.findViewById(R.id.messageUserText);
-        messageBoxTextView.setText(messageInput);
-        _messagesContainer.addView(messageBox, messageBox.getLayoutParams());
-        return messageBox;
+                    @Override
+                    public void onError(Exception e) {
+                        GenerateResponseError(trace);
+                    }
+                }, trace, "decode job");
     }
 
-    private ConstraintLayout CreateNewResponseErrorMessageBox() {
-        ConstraintLayout messageBoxResponseError = (ConstraintLayout) _layoutInflater.inflate(R.layout.message_response_error,
-                _messagesContainer, false);
-        messageBoxResponseError.setId(View.generateViewId());
-        TextView messageBoxTextView = messageBoxResponseError.findViewById(R.id.messageUserText);
-        messageBoxTextView.setText("Sorry, an internal error occured");
-        _messagesContainer.addView(messageBoxResponseError, messageBoxResponseError.getLayoutParams());
-        return messageBoxResponseError;
-    }
+    private void PollGoalJob(String jobId, String message, String userInput, int failures, long deadline,
+                             AppTracer.Span trace) {
+        long remainingMillis = deadline - SystemClock.elapsedRealtime();
+        if (remainingMillis <= 0) {
+            runOnUiThread(() -> GenerateResponseTimeout(trace));
+            return;
+        }
+        long waitSeconds = Math.max(1, Math.min(MAX_WAIT_SECONDS, TimeUnit.MILLISECONDS.toSeconds(remainingMillis)));
+        Request request = new Request.Builder()
+                .url(JOBS_URL + jobId + "?wait=" + waitSeconds)
+                .get()
+                .tag(AppTracer.Span.class, trace)
+                .build();
 
-    private ConstraintLayout CreateNewResponseMessageBox(String messageInput, MainGoalModel mainGoalModel, String userInput) {
-        ConstraintLayout messageBox = (ConstraintLayout) _layoutInflater.inflate(R.layout.message_response,
-                _messagesContainer, false);
-        messageBox.setId(View.generateViewId());
-        TextView messageBoxTextView = messageBox.findViewById(R.id.messageResponseText);
-        Button showSubgoalsButton = messageBox.findViewById(R.id.showSubgoalsButton);
-        Button tryAgainButton = messageBox.findViewById(R.id.tryAgainButton);
-        showSubgoalsButton.setOnClickListener(new View.OnClickListener(){
-            public void onClick(View v) {
-                OpenSubGoalsPopUp(mainGoalModel);
+        _httpClient.newCall(request).enqueue(new Callback() {
+            @Override
+            public void onFailure(Call call, IOException e) {
+                // The job keeps running on the backend; only the connection was lost
+                if (failures < MAX_POLL_FAILURES) {
+                    _mainHandler.postDelayed(() -> PollGoalJob(jobId, message, userInput, failures + 1, deadline, trace), 2000);
+                } else {
+                    runOnUiThread(() -> GenerateResponseError(trace));
+                }
+            }
+
+            @Override
+            public void onResponse(Call call, Response response) {
+                if (response.code() == 202) {
+                    response.close();
+                    PollGoalJob(jobId, message, userInput, 0, deadline, trace);
+                } else {
+                    DecodeGeneratedGoal(response, message, userInput, trace);
+                }
             }
         });
-        tryAgainButton.setOnClickListener(new View.OnClickListener(){
-            public void onClick(View v) {
-                OkHttpClient client = new OkHttpClient();
-                MediaType JSON = MediaType.get("application/json; charset=utf-8");
-                String jsonBody = "{ \"prompt\": \"" + userInput + "\" }";
-                RequestBody body = RequestBody.create(jsonBody, JSON);
-                Request request = new Request.Builder()
-                        .url("http://10.0.2.2:8080/api/goals/generate")
-                        .post(body)
-                        .addHeader("Content-Type", "application/json")
-                        .build();
-
-                client.newCall(request).enqueue(new Callback() {
+    }
+
+    private void DecodeGeneratedGoal(Response response, String message, String userInput, AppTracer.Span trace) {
+        GoalJsonDecoder.decodeAsync(response, GoalJsonDecoder::readMainGoal,
+                new GoalJsonDecoder.DecodeCallback<MainGoalModel>() {
                     @Override
-                    public void onFailure(Call call, IOException e) {
-                        GenerateResponseError();
+                    public void onDecoded(MainGoalModel mainGoalModel) {
+                        GenerateResponse(message, mainGoalModel, userInput, trace);
                     }
 
                     @Override
-                    public void onResponse(Call call, Response response) throws IOException {
-                        String responseBody = response.body().string();
-                        runOnUiThread(() -> {
-                            try {
-                                GenerateResponse("Here is the new version", MainGoalModel.ParseJSON(responseBody), userInput);
-                            } catch (JSONException e) {
-                            } catch (ParseException e) {
-                            }
-                        });
+                    public void onError(Exception e) {
+                        GenerateResponseError(trace);
                     }
-                });
+                }, trace, "decode goal");
+    }
+
+    private void SendMessage(String messageInput) {
+        _editTextBox.setText("");
+        ScrollToMessage(_messagesAdapter.addUserMessage(messageInput));
+    }
+
+    private void GenerateResponse(String response, MainGoalModel mainGoalModel, String userInput,
+                                  AppTracer.Span trace) {
+        // Rendering ends at the next draw, after the new message is bound and laid out
+        AppTracer.Span render = trace.child("render goal");
+        ScrollToMessage(_messagesAdapter.addResponseMessage(response, mainGoalModel, userInput));
+        _messagesList.getViewTreeObserver().addOnPreDrawListener(new ViewTreeObserver.OnPreDrawListener() {
+            @Override
+            public boolean onPreDraw() {
+                _messagesList.getViewTreeObserver().removeOnPreDrawListener(this);
+                render.end();
+                trace.end();
+                return true;
             }
         });
-        messageBoxTextView.setText(messageInput);
-        _messagesContainer.addView(messageBox, messageBox.getLayoutParams());
-        return messageBox;
     }
 
-    private void AlignMessage(ConstraintLayout messageBox, Boolean userMessage){
-        ConstraintSet messageContainerConstraintSet = new ConstraintSet();
-        messageContainerConstraintSet.clone(_messagesContainer);
-        if (userMessage)
-            messageContainerConstraintSet.connect(messageBox.getId(),
-                    ConstraintSet.END, ConstraintSet.PARENT_ID, ConstraintSet.END, 10);
-        else
-            messageContainerConstraintSet.connect(messageBox.getId(),
-                    ConstraintSet.START, ConstraintSet.PARENT_ID, ConstraintSet.START, 10);
-        if (_previousMessages.isEmpty())
-            messageContainerConstraintSet.connect(messageBox.getId(),
-                    ConstraintSet.TOP, ConstraintSet.PARENT_ID, ConstraintSet.TOP, 20);
-        else
-        {
-            int previousMessageIndex = _previousMessages.size() - 1;
-            messageContainerConstraintSet.connect(messageBox.getId(),
-                    ConstraintSet.TOP, _previousMessages.get(previousMessageIndex).getId(),
-                    ConstraintSet.BOTTOM, 20);
-        }
-        messageContainerConstraintSet.constrainWidth(messageBox.getId(), ConstraintSet.MATCH_CONSTRAINT);
-        messageContainerConstraintSet.constrainHeight(messageBox.getId(), ConstraintSet.WRAP_CONTENT);
-        messageContainerConstraintSet.constrainPercentWidth(messageBox.getId(), 0.8f);
-        messageContainerConstraintSet.applyTo(_messagesContainer);
+    private void GenerateResponseError(AppTracer.Span trace) {
+        trace.setError("generation failed").end();
+        ScrollToMessage(_messagesAdapter.addErrorMessage("Sorry, an internal error occured"));
+    }
+
+    private void GenerateResponseTimeout(AppTracer.Span trace) {
+        trace.setError("generation timed out").end();
+        ScrollToMessage(_messagesAdapter.addErrorMessage("Sorry, your goal is taking too long. Please try again"));
+    }
+
+    private void ScrollToMessage(int position) {
+        _messagesList.smoothScrollToPosition(position);
     }
 
     private void OpenSubGoalsPopUp(MainGoalModel model) {
@@ -247,6 +266,14 @@ public class CreateGoalActivity extends AppCompatActivity {
             ((TextView) subgoalBox.findViewById(R.id.editTextSubgoalDescription))
                     .setText(subgoalModel.getDescription());
 
+            // Long press asks for a new version of just this subgoal, not the whole goal
+            if (!subgoalModel.isCompleted()) {
+                subgoalBox.setOnLongClickListener(v -> {
+                    RegenerateSubgoal(model, subgoalModel, subgoalBox);
+                    return true;
+                });
+            }
+
             // Important: set LayoutParams for LinearLayout
             LinearLayout.LayoutParams lp = new LinearLayout.LayoutParams(
                     ViewGroup.LayoutParams.MATCH_PARENT,
@@ -267,6 +294,58 @@ public class CreateGoalActivity extends AppCompatActivity {
     }
 
 
+    private void RegenerateSubgoal(MainGoalModel goal, SubgoalModel subgoal, View subgoalBox) {
+        String jsonBody;
+        try {
+            jsonBody = new JSONObject().put("title", subgoal.getTitle()).toString();
+        } catch (JSONException e) {
+            return;
+        }
+        AppTracer.Span trace = AppTracer.getInstance(this).startTrace("regenerate subgoal");
+        Request request = new Request.Builder()
+                .url(GOALS_URL + goal.getId() + "/subgoals/regenerate")
+                .post(RequestBody.create(jsonBody, MediaType.get("application/json; charset=utf-8")))
+                .addHeader("X-Goaltracker-Priority", "interactive")
+                .addHeader("Idempotency-Key", UUID.randomUUID().toString())
+                .tag(AppTracer.Span.class, trace)
+                .build();
+        Toast.makeText(this, "Regenerating subgoal...", Toast.LENGTH_SHORT).show();
+
+        _httpClient.newCall(request).enqueue(new Callback() {
+            @Override
+            public void onFailure(Call call, IOException e) {
+                runOnUiThread(() -> RegenerateSubgoalError(trace));
+            }
+
+            @Override
+            public void onResponse(Call call, Response response) {
+                GoalJsonDecoder.decodeAsync(response, GoalJsonDecoder::readSubgoalModel,
+                        new GoalJsonDecoder.DecodeCallback<SubgoalModel>() {
+                            @Override
+                            public void onDecoded(SubgoalModel replacement) {
+                                subgoal.replaceWith(replacement);
+                                ((TextView) subgoalBox.findViewById(R.id.editTextSubgoalTitle))
+                                        .setText(subgoal.getTitle());
+                                ((TextView) subgoalBox.findViewById(R.id.editTextSubgoalDescription))
+                                        .setText(subgoal.getDescription());
+                                GoalDetailCache.getInstance(CreateGoalActivity.this).remove(goal.getId());
+                                trace.end();
+                            }
+
+                            @Override
+                            public void onError(Exception e) {
+                                RegenerateSubgoalError(trace);
+                            }
+                        }, trace, "decode subgoal");
+            }
+        });
+    }
+
+    private void RegenerateSubgoalError(AppTracer.Span trace) {
+        trace.setError("regeneration failed").end();
+        Toast.makeText(this, "Could not regenerate this subgoal", Toast.LENGTH_SHORT).show();
+    }
+
     private void CloseSubGoalsPopUp() {
         _subgoalsPopupWindow.dismiss();
     }
@@ -0,0 +1,218 @@
+package com.example.frontend;
+
+import android.content.Context;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.JsonWriter;
+import android.util.LruCache;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import okhttp3.Call;
+import okhttp3.Callback;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+
+/**
+ * Goal details keyed by goal id, kept in memory and on disk.
+ * Lookups are answered from the cache immediately when possible and then revalidated
+ * against GET /api/goals/{id} in the background (stale-while-revalidate).
+ */
+public final class GoalDetailCache {
+
+    private static final String BASE_URL = "http://10.0.2.2:8080/api/goals";
+    private static final int MEMORY_ENTRIES = 64;
+
+    /**
+     * Receives goal details on the UI thread. May be called twice: once from the cache
+     * and once more when the background revalidation returns.
+     */
+    public interface Listener {
+        void onGoalLoaded(MainPageActivity.ApiGoal goal);
+
+        void onError(Exception e);
+    }
+
+    private static GoalDetailCache instance;
+
+    private final LruCache<Integer, MainPageActivity.ApiGoal> memory = new LruCache<>(MEMORY_ENTRIES);
+    private final File diskDir;
+    private final OkHttpClient client = new OkHttpClient();
+    private final ExecutorService diskExecutor = Executors.newSingleThreadExecutor();
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+
+    private GoalDetailCache(Context context) {
+        diskDir = new File(context.getCacheDir(), "goals");
+        diskDir.mkdirs();
+    }
+
+    public static synchronized GoalDetailCache getInstance(Context context) {
+        if (instance == null) {
+            instance = new GoalDetailCache(context.getApplicationContext());
+        }
+        return instance;
+    }
+
+    // ================== READS ==================
+
+    /**
+     * Serve a goal from memory or disk, then revalidate it from the backend.
+     */
+    public void get(int goalId, Listener listener) {
+        MainPageActivity.ApiGoal cached = memory.get(goalId);
+        if (cached != null) {
+            listener.onGoalLoaded(cached);
+            revalidate(goalId, listener, true);
+            return;
+        }
+
+        diskExecutor.execute(() -> {
+            MainPageActivity.ApiGoal fromDisk = readFromDisk(goalId);
+            if (fromDisk != null) {
+                memory.put(goalId, fromDisk);
+                mainHandler.post(() -> listener.onGoalLoaded(fromDisk));
+            }
+            mainHandler.post(() -> revalidate(goalId, listener, fromDisk != null));
+        });
+    }
+
+    /**
+     * Warm the memory cache for a goal the user is likely to open next.
+     * Does nothing if the goal is already in memory.
+     */
+    public void prefetch(int goalId) {
+        if (memory.get(goalId) != null) return;
+
+        diskExecutor.execute(() -> {
+            MainPageActivity.ApiGoal fromDisk = readFromDisk(goalId);
+            if (fromDisk != null) {
+                memory.put(goalId, fromDisk);
+            } else {
+                mainHandler.post(() -> revalidate(goalId, null, false));
+            }
+        });
+    }
+
+    // ================== WRITES ==================
+
+    /**
+     * Seed the cache with goals the caller already holds, e.g. the list from GET /api/goals/
+     */
+    public void putAll(List<MainPageActivity.ApiGoal> goals) {
+        for (MainPageActivity.ApiGoal goal : goals) {
+            put(goal);
+        }
+    }
+
+    public void put(MainPageActivity.ApiGoal goal) {
+        memory.put(goal.id, goal);
+        diskExecutor.execute(() -> writeToDisk(goal));
+    }
+
+    /**
+     * Keep the cached copy in sync with a subgoal completed on the main page.
+     */
+    public void markSubgoalCompleted(int goalId, int subgoalIndex) {
+        MainPageActivity.ApiGoal goal = memory.get(goalId);
+        if (goal == null || subgoalIndex < 0 || subgoalIndex >= goal.subgoals.size()) return;
+        goal.subgoals.get(subgoalIndex).completed = true;
+        diskExecutor.execute(() -> writeToDisk(goal));
+    }
+
+    public void remove(int goalId) {
+        memory.remove(goalId);
+        diskExecutor.execute(() -> diskFile(goalId).delete());
+    }
+
+    // ================== NETWORK ==================
+
+    /**
+     * GET /api/goals/{id} - refresh one goal; the listener is optional.
+     * Errors are not reported when the caller already got a cached copy.
+     */
+    private void revalidate(int goalId, Listener listener, boolean servedFromCache) {
+        Request request = new Request.Builder()
+                .url(BASE_URL + "/" + goalId)
+                .get()
+                .build();
+
+        client.newCall(request).enqueue(new Callback() {
+            @Override
+            public void onFailure(Call call, IOException e) {
+                if (listener != null && !servedFromCache) mainHandler.post(() -> listener.onError(e));
+            }
+
+            @Override
+            public void onResponse(Call call, Response response) {
+                GoalJsonDecoder.decodeAsync(response, GoalJsonDecoder::readGoal,
+                        new GoalJsonDecoder.DecodeCallback<MainPageActivity.ApiGoal>() {
+                            @Override
+                            public void onDecoded(MainPageActivity.ApiGoal goal) {
+                                put(goal);
+                                if (listener != null) listener.onGoalLoaded(goal);
+                            }
+
+                            @Override
+                            public void onError(Exception e) {
+                                if (listener != null && !servedFromCache) listener.onError(e);
+                            }
+                        });
+            }
+        });
+    }
+
+    // ================== DISK ==================
+
+    private File diskFile(int goalId) {
+        return new File(diskDir, goalId + ".json");
+    }
+
+    private MainPageActivity.ApiGoal readFromDisk(int goalId) {
+        File file = diskFile(goalId);
+        if (!file.exists()) return null;
+        try (InputStream in = new FileInputStream(file)) {
+            return GoalJsonDecoder.decode(in, GoalJsonDecoder::readGoal);
+        } catch (IOException e) {
+            file.delete();  // corrupt entry, fall back to the network
+            return null;
+        }
+    }
+
+    private void writeToDisk(MainPageActivity.ApiGoal goal) {
+        // Write to a temp file and rename so a crash never leaves a half-written entry
+        File tmp = new File(diskDir, goal.id + ".json.tmp");
+        try (JsonWriter writer = new JsonWriter(
+                new OutputStreamWriter(new FileOutputStream(tmp), StandardCharsets.UTF_8))) {
+            writer.beginObject();
+            writer.name("id").value(goal.id);
+            writer.name("title").value(goal.title);
+            writer.name("description").value(goal.description);
+            writer.name("deadline").value(goal.deadline);
+            writer.name("subgoals").beginArray();
+            for (MainPageActivity.ApiSubgoal sub : goal.subgoals) {
+                writer.beginObject();
+                writer.name("goalId").value(sub.goalId);
+                writer.name("title").value(sub.title);
+                writer.name("description").value(sub.description);
+                writer.name("completed").value(sub.completed);
+                writer.endObject();
+            }
+            writer.endArray();
+            writer.endObject();
+        } catch (IOException e) {
+            tmp.delete();
+            return;
+        }
+        tmp.renameTo(diskFile(goal.id));
+    }
+}
@@ -0,0 +1,248 @@
+package com.example.frontend;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.util.JsonReader;
+import android.util.JsonToken;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+
+/**
+ * Streaming decoder for goal responses from the backend.
+ * Reads the response byte stream token by token with JsonReader and builds
+ * ApiGoal / MainGoalModel objects directly, without an intermediate String or org.json tree.
+ */
+public final class GoalJsonDecoder {
+
+    // Single background thread shared by all screens; decoding never runs on the UI thread
+    private static final ExecutorService DECODE_EXECUTOR = Executors.newSingleThreadExecutor();
+    private static final Handler MAIN_HANDLER = new Handler(Looper.getMainLooper());
+
+    private GoalJsonDecoder() {
+    }
+
+    /**
+     * Reads a value from an open JsonReader.
+     */
+    public interface Decoder<T> {
+        T decode(JsonReader reader) throws IOException;
+    }
+
+    /**
+     * Receives the finished result on the UI thread.
+     */
+    public interface DecodeCallback<T> {
+        void onDecoded(T result);
+
+        void onError(Exception e);
+    }
+
+    // ================== ASYNC ENTRY POINT ==================
+
+    /**
+     * Decode a response body on the background executor and deliver the result on the UI thread.
+     * The response is always closed, including when it is unsuccessful.
+     */
+    public static <T> void decodeAsync(Response response, Decoder<T> decoder, DecodeCallback<T> callback) {
+        decodeAsync(response, decoder, callback, null, null);
+    }
+
+    /**
+     * Same, timing the decode (including reading the body off the network) as a child span of
+     * the traced action.
+     *
+     * @param action   span of the user action, or null
+     * @param spanName name of the decode span
+     */
+    public static <T> void decodeAsync(Response response, Decoder<T> decoder, DecodeCallback<T> callback,
+                                       AppTracer.Span action, String spanName) {
+        DECODE_EXECUTOR.execute(() -> {
+            AppTracer.Span span = action != null ? action.child(spanName) : null;
+            try (Response r = response) {
+                ResponseBody body = r.body();
+                if (!r.isSuccessful() || body == null) {
+                    throw new IOException("Server returned " + r.code());
+                }
+                T result = decode(body.byteStream(), decoder);
+                if (span != null) span.end();
+                MAIN_HANDLER.post(() -> callback.onDecoded(result));
+            } catch (Exception e) {
+                if (span != null) span.setError(e.toString()).end();
+                MAIN_HANDLER.post(() -> callback.onError(e));
+            }
+        });
+    }
+
+    /**
+     * Decode a stream synchronously on the calling thread.
+     */
+    public static <T> T decode(InputStream in, Decoder<T> decoder) throws IOException {
+        try (JsonReader reader = new JsonReader(new InputStreamReader(in, StandardCharsets.UTF_8))) {
+            return decoder.decode(reader);
+        }
+    }
+
+    // ================== DECODERS ==================
+
+    /**
+     * GET /api/goals/ - array of goals
+     */
+    public static List<MainPageActivity.ApiGoal> readGoalList(JsonReader reader) throws IOException {
+        List<MainPageActivity.ApiGoal> goals = new ArrayList<>();
+        reader.beginArray();
+        while (reader.hasNext()) {
+            goals.add(readGoal(reader));
+        }
+        reader.endArray();
+        return goals;
+    }
+
+    /**
+     * A single goal object
+     */
+    public static MainPageActivity.ApiGoal readGoal(JsonReader reader) throws IOException {
+        MainPageActivity.ApiGoal goal = new MainPageActivity.ApiGoal();
+        goal.description = "";
+        goal.deadline = "";
+        goal.subgoals = new ArrayList<>();
+
+        reader.beginObject();
+        while (reader.hasNext()) {
+            switch (reader.nextName()) {
+                case "id": goal.id = reader.nextInt(); break;
+                case "title": goal.title = nextStringOrNull(reader); break;
+                case "description": goal.description = nextStringOrDefault(reader, ""); break;
+                case "deadline": goal.deadline = nextStringOrDefault(reader, ""); break;
+                case "subgoals":
+                    if (reader.peek() == JsonToken.NULL) {
+                        reader.nextNull();
+                        break;
+                    }
+                    reader.beginArray();
+                    while (reader.hasNext()) {
+                        goal.subgoals.add(readSubgoal(reader));
+                    }
+                    reader.endArray();
+                    break;
+                default: reader.skipValue(); break;
+            }
+        }
+        reader.endObject();
+        return goal;
+    }
+
+    private static MainPageActivity.ApiSubgoal readSubgoal(JsonReader reader) throws IOException {
+        MainPageActivity.ApiSubgoal subgoal = new MainPageActivity.ApiSubgoal();
+        subgoal.description = "";
+
+        reader.beginObject();
+        while (reader.hasNext()) {
+            switch (reader.nextName()) {
+                case "goalId": subgoal.goalId = reader.nextInt(); break;
+                case "title": subgoal.title = nextStringOrNull(reader); break;
+                case "description": subgoal.description = nextStringOrDefault(reader, ""); break;
+                // Backend serializes Subgoal.getIsCompleted() as "isCompleted"
+                case "completed":
+                case "isCompleted": subgoal.completed = nextLenientBoolean(reader); break;
+                default: reader.skipValue(); break;
+            }
+        }
+        reader.endObject();
+        return subgoal;
+    }
+
+    /**
+     * POST /api/goals/generate - a goal as MainGoalModel for the chat screen
+     */
+    public static MainGoalModel readMainGoal(JsonReader reader) throws IOException {
+        MainPageActivity.ApiGoal goal = readGoal(reader);
+
+        List<SubgoalModel> subgoals = new ArrayList<>(goal.subgoals.size());
+        int numCompleted = 0;
+        for (MainPageActivity.ApiSubgoal sub : goal.subgoals) {
+            subgoals.add(new SubgoalModel(sub.goalId, sub.title, sub.description, sub.completed));
+            if (sub.completed) numCompleted++;
+        }
+
+        Date deadline = null;
+        if (!goal.deadline.isEmpty()) {
+            try {
+                deadline = new SimpleDateFormat("yyyy-MM-dd", Locale.US).parse(goal.deadline);
+            } catch (ParseException e) {
+                throw new IOException("Invalid deadline: " + goal.deadline, e);
+            }
+        }
+
+        return new MainGoalModel(goal.id, goal.title, goal.description, null, subgoals, deadline,
+                false, subgoals.size(), numCompleted);
+    }
+
+    /**
+     * POST /api/goals/{id}/subgoals/regenerate - the replacement subgoal
+     */
+    public static SubgoalModel readSubgoalModel(JsonReader reader) throws IOException {
+        MainPageActivity.ApiSubgoal sub = readSubgoal(reader);
+        if (sub.title == null) {
+            throw new IOException("Missing subgoal title");
+        }
+        return new SubgoalModel(sub.goalId, sub.title, sub.description, sub.completed);
+    }
+
+    /**
+     * 202 from POST /api/goals/generate (async) or GET /api/goals/jobs/{id} - the job id
+     */
+    public static String readJobId(JsonReader reader) throws IOException {
+        String jobId = null;
+        reader.beginObject();
+        while (reader.hasNext()) {
+            if (reader.nextName().equals("jobId")) {
+                jobId = nextStringOrNull(reader);
+            } else {
+                reader.skipValue();
+            }
+        }
+        reader.endObject();
+        if (jobId == null) {
+            throw new IOException("Missing jobId");
+        }
+        return jobId;
+    }
+
+    // ================== HELPERS ==================
+
+    private static String nextStringOrNull(JsonReader reader) throws IOException {
+        if (reader.peek() == JsonToken.NULL) {
+            reader.nextNull();
+            return null;
+        }
+        return reader.nextString();
+    }
+
+    private static String nextStringOrDefault(JsonReader reader, String fallback) throws IOException {
+        String value = nextStringOrNull(reader);
+        return value != null ? value : fallback;
+    }
+
+    private static boolean nextLenientBoolean(JsonReader reader) throws IOException {
+        switch (reader.peek()) {
+            case BOOLEAN: return reader.nextBoolean();
+            case STRING: return Boolean.parseBoolean(reader.nextString());
+            case NULL: reader.nextNull(); return false;
+            default: reader.skipValue(); return false;
+        }
+    }
+}
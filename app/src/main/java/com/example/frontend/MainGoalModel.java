@@ -1,14 +1,5 @@
 package com.example.frontend;
 
-import org.json.JSONArray;
-import org.json.JSONException;
-import org.json.JSONObject;
-
-import java.text.ParseException;
-import java.text.SimpleDateFormat;
-import java.time.LocalDate;
-import java.time.format.DateTimeFormatter;
-import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
 
@@ -39,27 +30,8 @@ public class MainGoalModel {
 
     }
 
-    public static MainGoalModel ParseJSON(String jsonString) throws JSONException, ParseException {
-        MainGoalModel model = new MainGoalModel();
-        JSONObject object = new JSONObject(jsonString);
-        model.id = Integer.parseInt(object.getString("id"));
-        model.title = object.getString("title");
-        SimpleDateFormat sdf = new SimpleDateFormat("yyyy-MM-dd");
-        model.deadline = sdf.parse(object.getString("deadline"));
-//        model.numTotalSubgoals = Integer.parseInt(object.getString("numTotalSubgoals"));
-//        model.numCompletedSubgoals = 0;
-        JSONArray array = object.getJSONArray("subgoals");
-        model.subgoalsList = new ArrayList<>();
-        for (int i = 0; i < array.length(); i++) {
-            JSONObject subgoalJSONObject = array.getJSONObject(i);
-            int goalId = Integer.parseInt(subgoalJSONObject.getString("goalId"));
-            String subgoalTitle = subgoalJSONObject.getString("title");
-            String subgoalDescription = subgoalJSONObject.getString("description");
-            Boolean subgoalIsCompleted = Boolean.parseBoolean(subgoalJSONObject.getString("isCompleted"));
-            model.subgoalsList.add(new SubgoalModel(goalId, subgoalTitle, subgoalDescription, subgoalIsCompleted));
-        }
-        model.isComplete = false;
-        return model;
+    public int getId() {
+        return id;
     }
 
     public String getTitle() {
@@ -5,11 +5,11 @@ import android.os.Bundle;
 import android.view.View;
 import android.widget.*;
 import androidx.appcompat.app.AppCompatActivity;
-import org.json.JSONArray;
 import org.json.JSONObject;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.UUID;
 
 import okhttp3.*;
 
@@ -84,6 +84,7 @@ public class MainPageActivity extends AppCompatActivity {
             if (!goalList.isEmpty()) {
                 currentGoalIndex = (currentGoalIndex - 1 + goalList.size()) % goalList.size();
                 showCurrentGoal();
+                prefetchAdjacentGoals();
             }
         });
 
@@ -91,6 +92,7 @@ public class MainPageActivity extends AppCompatActivity {
             if (!goalList.isEmpty()) {
                 currentGoalIndex = (currentGoalIndex + 1) % goalList.size();
                 showCurrentGoal();
+                prefetchAdjacentGoals();
             }
         });
 
@@ -101,6 +103,7 @@ public class MainPageActivity extends AppCompatActivity {
 
             if (isChecked) {
                 g.completed[g.currentSubgoalIndex] = true;
+                GoalDetailCache.getInstance(this).markSubgoalCompleted(g.id, g.currentSubgoalIndex);
 
                 // ✅ Update backend: mark subgoal as complete
                 markSubgoalComplete(g.id, g.subgoals[g.currentSubgoalIndex], true);
@@ -134,7 +137,8 @@ public class MainPageActivity extends AppCompatActivity {
                 Goal currentGoal = goalList.get(currentGoalIndex);
 
                 Intent intent = new Intent(MainPageActivity.this, PlantDetailActivity.class);
-                intent.putExtra("GOAL_TITLE", currentGoal.title); // ✅ Pass the goal title
+                intent.putExtra("GOAL_ID", currentGoal.id); // ✅ Details are served from GoalDetailCache by id
+                intent.putExtra("GOAL_TITLE", currentGoal.title);
                 startActivity(intent);
             } else {
                 Toast.makeText(MainPageActivity.this, "No goal to display", Toast.LENGTH_SHORT).show();
@@ -174,74 +178,29 @@ public class MainPageActivity extends AppCompatActivity {
             }
 
             @Override
-            public void onResponse(Call call, Response response) throws IOException {
-                if (response.isSuccessful() && response.body() != null) {
-                    try {
-                        String jsonData = response.body().string();
-
-                        // ✅ Parse JSON using built-in JSONArray
-                        JSONArray jsonArray = new JSONArray(jsonData);
-                        List<ApiGoal> apiGoals = parseGoalsFromJson(jsonArray);
+            public void onResponse(Call call, Response response) {
+                // ✅ Stream-decode JSON off the UI thread, only the finished list comes back here
+                GoalJsonDecoder.decodeAsync(response, GoalJsonDecoder::readGoalList,
+                        new GoalJsonDecoder.DecodeCallback<List<ApiGoal>>() {
+                            @Override
+                            public void onDecoded(List<ApiGoal> apiGoals) {
+                                // ✅ Seed the detail cache so opening a plant needs no round trip
+                                GoalDetailCache.getInstance(MainPageActivity.this).putAll(apiGoals);
+                                updateGoalListFromApi(apiGoals);
+                                showCurrentGoal();
+                            }
 
-                        runOnUiThread(() -> {
-                            updateGoalListFromApi(apiGoals);
-                            showCurrentGoal();
-                        });
-                    } catch (Exception e) {
-                        runOnUiThread(() -> {
-                            Toast.makeText(MainPageActivity.this,
-                                    "Error parsing goals: " + e.getMessage(),
-                                    Toast.LENGTH_SHORT).show();
+                            @Override
+                            public void onError(Exception e) {
+                                Toast.makeText(MainPageActivity.this,
+                                        "Failed to load goals: " + e.getMessage(),
+                                        Toast.LENGTH_SHORT).show();
+                            }
                         });
-                    }
-                } else {
-                    runOnUiThread(() -> {
-                        Toast.makeText(MainPageActivity.this,
-                                "Failed to load goals from server",
-                                Toast.LENGTH_SHORT).show();
-                    });
-                }
             }
         });
     }
 
-    /**
-     * ✅ Parse JSON array into ApiGoal objects
-     */
-    private List<ApiGoal> parseGoalsFromJson(JSONArray jsonArray) throws Exception {
-        List<ApiGoal> goals = new ArrayList<>();
-
-        for (int i = 0; i < jsonArray.length(); i++) {
-            JSONObject goalJson = jsonArray.getJSONObject(i);
-
-            ApiGoal apiGoal = new ApiGoal();
-            apiGoal.id = Integer.parseInt(goalJson.getString("id"));
-            apiGoal.title = goalJson.getString("title");
-            apiGoal.description = goalJson.optString("description", "");
-            apiGoal.deadline = goalJson.optString("deadline", "");
-
-            // Parse subgoals array
-            JSONArray subgoalsJson = goalJson.getJSONArray("subgoals");
-            apiGoal.subgoals = new ArrayList<>();
-
-            for (int j = 0; j < subgoalsJson.length(); j++) {
-                JSONObject subgoalJson = subgoalsJson.getJSONObject(j);
-
-                ApiSubgoal apiSubgoal = new ApiSubgoal();
-                apiSubgoal.goalId = subgoalJson.getInt("goalId");
-                apiSubgoal.title = subgoalJson.getString("title");
-                apiSubgoal.description = subgoalJson.optString("description", "");
-                apiSubgoal.completed = subgoalJson.optBoolean("completed", false);
-
-                apiGoal.subgoals.add(apiSubgoal);
-            }
-
-            goals.add(apiGoal);
-        }
-
-        return goals;
-    }
-
     /**
      * ✅ PATCH /api/goals/{goalId}/subgoals/complete - Mark subgoal as complete
      */
@@ -260,6 +219,7 @@ public class MainPageActivity extends AppCompatActivity {
             Request request = new Request.Builder()
                     .url(BASE_URL + "/" + goalId + "/subgoals/complete")
                     .patch(body)
+                    .addHeader("Idempotency-Key", UUID.randomUUID().toString())
                     .build();
 
             client.newCall(request).enqueue(new Callback() {
@@ -293,6 +253,7 @@ public class MainPageActivity extends AppCompatActivity {
         Request request = new Request.Builder()
                 .url(BASE_URL + "/" + goalId)
                 .delete()
+                .addHeader("Idempotency-Key", UUID.randomUUID().toString())
                 .build();
 
         client.newCall(request).enqueue(new Callback() {
@@ -310,6 +271,7 @@ public class MainPageActivity extends AppCompatActivity {
                 if (response.isSuccessful()) {
                     runOnUiThread(() -> {
                         System.out.println("✅ Goal deleted from backend");
+                        GoalDetailCache.getInstance(MainPageActivity.this).remove(goalId);
                         // Remove from local list
                         goalList.remove(goal);
                         if (goalList.isEmpty()) {
@@ -400,6 +362,17 @@ public class MainPageActivity extends AppCompatActivity {
         }
     }
 
+    /**
+     * Warm the detail cache for the goals reachable with btnPrevGoal / btnNextGoal
+     */
+    private void prefetchAdjacentGoals() {
+        int size = goalList.size();
+        if (size < 2) return;
+        GoalDetailCache cache = GoalDetailCache.getInstance(this);
+        cache.prefetch(goalList.get((currentGoalIndex + 1) % size).id);
+        cache.prefetch(goalList.get((currentGoalIndex - 1 + size) % size).id);
+    }
+
     /**
      * Show celebration animation when goal is complete
      */
@@ -425,7 +398,7 @@ public class MainPageActivity extends AppCompatActivity {
      */
     private void animatePlantToCollection(Goal g) {
         int plantDrawable = getPlantDrawableForGoal(g);
-        CollectionManager.getInstance().addPlant(plantDrawable);
+        CollectionManager.getInstance(this).addPlant(plantDrawable);
 
         int[] plantLoc = new int[2];
         int[] starLoc = new int[2];
@@ -9,9 +9,6 @@ import android.widget.Toast;
 import androidx.appcompat.app.AppCompatActivity;
 import androidx.core.content.ContextCompat;
 
-import org.json.JSONArray;
-import org.json.JSONObject;
-
 import java.io.IOException;
 import java.net.URLEncoder;
 import java.nio.charset.StandardCharsets;
@@ -46,9 +43,12 @@ public class PlantDetailActivity extends AppCompatActivity {
 
         btnBack.setOnClickListener(v -> finish());
 
-        // Get goal title passed from MainPageActivity
+        // Get goal id passed from MainPageActivity, title lookup is only a fallback
+        int goalId = getIntent().getIntExtra("GOAL_ID", -1);
         String goalTitle = getIntent().getStringExtra("GOAL_TITLE");
-        if (goalTitle != null && !goalTitle.isEmpty()) {
+        if (goalId >= 0) {
+            loadGoalById(goalId);
+        } else if (goalTitle != null && !goalTitle.isEmpty()) {
             fetchGoalByTitle(goalTitle);
         } else {
             Toast.makeText(this, "Goal title missing", Toast.LENGTH_SHORT).show();
@@ -56,6 +56,26 @@ public class PlantDetailActivity extends AppCompatActivity {
         }
     }
 
+    /**
+     * Show goal data from GoalDetailCache; it is revalidated against the backend in the background
+     */
+    private void loadGoalById(int goalId) {
+        GoalDetailCache.getInstance(this).get(goalId, new GoalDetailCache.Listener() {
+            @Override
+            public void onGoalLoaded(MainPageActivity.ApiGoal goal) {
+                showGoal(goal);
+            }
+
+            @Override
+            public void onError(Exception e) {
+                Toast.makeText(
+                        PlantDetailActivity.this,
+                        "Failed to load goal: " + e.getMessage(),
+                        Toast.LENGTH_SHORT).show();
+            }
+        });
+    }
+
     /**
      * Fetch goal data by title from backend
      */
@@ -81,61 +101,24 @@ public class PlantDetailActivity extends AppCompatActivity {
                 }
 
                 @Override
-                public void onResponse(Call call, Response response) throws IOException {
-                    if (!response.isSuccessful() || response.body() == null) {
-                        runOnUiThread(() -> {
-                            Toast.makeText(
-                                    PlantDetailActivity.this,
-                                    "Failed to fetch goal from server",
-                                    Toast.LENGTH_SHORT).show();
-                        });
-                        response.close();
-                        return;
-                    }
-
-                    String jsonData = response.body().string();
-                    response.close();
-
-                    try {
-                        JSONObject goalJson = new JSONObject(jsonData);
-
-                        String goalTitle = goalJson.getString("title");
-                        String goalDescription = goalJson.optString("description", "");
-
-                        JSONArray subgoalsJson = goalJson.getJSONArray("subgoals");
-
-                        runOnUiThread(() -> {
-                            tvGoalTitle.setText(goalTitle);
-                            tvGoalDescription.setText(goalDescription);
-
-                            subgoalContainer.removeAllViews(); // clear any old views
-
-                            try {
-                                for (int i = 0; i < subgoalsJson.length(); i++) {
-                                    JSONObject sub = subgoalsJson.getJSONObject(i);
-                                    String subTitle = sub.getString("title");
-                                    String subDescription = sub.optString("description", "");
-                                    boolean completed = sub.optBoolean("completed", false);
-
-                                    addSubgoalView(subTitle, subDescription, completed);
+                public void onResponse(Call call, Response response) {
+                    // ✅ Decode on the background executor, only bind views on the UI thread
+                    GoalJsonDecoder.decodeAsync(response, GoalJsonDecoder::readGoal,
+                            new GoalJsonDecoder.DecodeCallback<MainPageActivity.ApiGoal>() {
+                                @Override
+                                public void onDecoded(MainPageActivity.ApiGoal goal) {
+                                    showGoal(goal);
                                 }
-                            } catch (Exception e) {
-                                Toast.makeText(
-                                        PlantDetailActivity.this,
-                                        "Failed to parse subgoals: " + e.getMessage(),
-                                        Toast.LENGTH_SHORT).show();
-                                e.printStackTrace();
-                            }
-                        });
-
-                    } catch (Exception e) {
-                        runOnUiThread(() -> Toast.makeText(
-                                PlantDetailActivity.this,
-                                "Failed to parse goal JSON: " + e.getMessage(),
-                                Toast.LENGTH_SHORT).show()
-                        );
-                        e.printStackTrace();
-                    }
+
+                                @Override
+                                public void onError(Exception e) {
+                                    Toast.makeText(
+                                            PlantDetailActivity.this,
+                                            "Failed to fetch goal from server: " + e.getMessage(),
+                                            Toast.LENGTH_SHORT).show();
+                                    e.printStackTrace();
+                                }
+                            });
                 }
             });
         } catch (Exception e) {
@@ -143,6 +126,17 @@ public class PlantDetailActivity extends AppCompatActivity {
         }
     }
 
+    private void showGoal(MainPageActivity.ApiGoal goal) {
+        if (isFinishing() || isDestroyed()) return;
+        tvGoalTitle.setText(goal.title);
+        tvGoalDescription.setText(goal.description);
+
+        subgoalContainer.removeAllViews(); // clear any old views
+        for (MainPageActivity.ApiSubgoal sub : goal.subgoals) {
+            addSubgoalView(sub.title, sub.description, sub.completed);
+        }
+    }
+
     /**
      * Dynamically create subgoal views
      */
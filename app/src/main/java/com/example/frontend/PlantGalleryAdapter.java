@@ -0,0 +1,79 @@
+package com.example.frontend;
+
+import android.view.LayoutInflater;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.ImageView;
+
+import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.RecyclerView;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Grid of collected plants. Cells are recycled and thumbnails come from PlantThumbnailLoader.
+ */
+public class PlantGalleryAdapter extends RecyclerView.Adapter<PlantGalleryAdapter.PlantViewHolder> {
+
+    public interface OnPlantClickListener {
+        void onPlantClick(int index);
+    }
+
+    private final List<Integer> plants = new ArrayList<>();
+    private final PlantThumbnailLoader thumbnailLoader;
+    private final int cellSizePx;
+    private final OnPlantClickListener listener;
+
+    public PlantGalleryAdapter(PlantThumbnailLoader thumbnailLoader, int cellSizePx, OnPlantClickListener listener) {
+        this.thumbnailLoader = thumbnailLoader;
+        this.cellSizePx = cellSizePx;
+        this.listener = listener;
+    }
+
+    /**
+     * Replace the shown plants. The collection only grows, so the common case is a range insert.
+     */
+    public void setPlants(List<Integer> newPlants) {
+        int oldSize = plants.size();
+        if (newPlants.size() >= oldSize && newPlants.subList(0, oldSize).equals(plants)) {
+            if (newPlants.size() == oldSize) return;
+            plants.addAll(newPlants.subList(oldSize, newPlants.size()));
+            notifyItemRangeInserted(oldSize, newPlants.size() - oldSize);
+        } else {
+            plants.clear();
+            plants.addAll(newPlants);
+            notifyDataSetChanged();
+        }
+    }
+
+    @Override
+    public int getItemCount() {
+        return plants.size();
+    }
+
+    @NonNull
+    @Override
+    public PlantViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
+        View view = LayoutInflater.from(parent.getContext()).inflate(R.layout.item_plant, parent, false);
+        return new PlantViewHolder(view);
+    }
+
+    @Override
+    public void onBindViewHolder(@NonNull PlantViewHolder holder, int position) {
+        thumbnailLoader.load(plants.get(position), cellSizePx, holder.plantView);
+        holder.plantView.setOnClickListener(v -> {
+            int index = holder.getBindingAdapterPosition();
+            if (index != RecyclerView.NO_POSITION) listener.onPlantClick(index);
+        });
+    }
+
+    static class PlantViewHolder extends RecyclerView.ViewHolder {
+        final ImageView plantView;
+
+        PlantViewHolder(View itemView) {
+            super(itemView);
+            plantView = (ImageView) itemView;
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package com.example.frontend;
+
+import android.content.res.Resources;
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.LruCache;
+import android.widget.ImageView;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Decodes plant drawables once, downsampled to the gallery cell size, and keeps the
+ * results in a memory-bounded LRU cache shared by every CollectionActivity.
+ */
+public final class PlantThumbnailLoader {
+
+    private static PlantThumbnailLoader instance;
+
+    private final Resources resources;
+    private final LruCache<String, Bitmap> cache;
+    private final ExecutorService decodeExecutor = Executors.newSingleThreadExecutor();
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+
+    private PlantThumbnailLoader(Resources resources) {
+        this.resources = resources;
+
+        // Use 1/8th of the available heap, measured in kilobytes
+        int cacheSizeKb = (int) (Runtime.getRuntime().maxMemory() / 1024 / 8);
+        cache = new LruCache<String, Bitmap>(cacheSizeKb) {
+            @Override
+            protected int sizeOf(String key, Bitmap bitmap) {
+                return bitmap.getByteCount() / 1024;
+            }
+        };
+    }
+
+    public static synchronized PlantThumbnailLoader getInstance(Resources resources) {
+        if (instance == null) {
+            instance = new PlantThumbnailLoader(resources);
+        }
+        return instance;
+    }
+
+    /**
+     * Bind a thumbnail to the view. Cached thumbnails are set immediately, otherwise the
+     * drawable is decoded in the background and set only if the view was not recycled meanwhile.
+     */
+    public void load(int drawableRes, int cellSizePx, ImageView target) {
+        String key = drawableRes + ":" + cellSizePx;
+        target.setTag(R.id.plantThumbnail, key);
+
+        Bitmap cached = cache.get(key);
+        if (cached != null) {
+            target.setImageBitmap(cached);
+            return;
+        }
+
+        target.setImageDrawable(null);
+        decodeExecutor.execute(() -> {
+            Bitmap bitmap = cache.get(key);
+            if (bitmap == null) {
+                bitmap = decodeSampled(drawableRes, cellSizePx);
+                if (bitmap == null) return;
+                cache.put(key, bitmap);
+            }
+            Bitmap result = bitmap;
+            mainHandler.post(() -> {
+                if (key.equals(target.getTag(R.id.plantThumbnail))) {
+                    target.setImageBitmap(result);
+                }
+            });
+        });
+    }
+
+    private Bitmap decodeSampled(int drawableRes, int cellSizePx) {
+        // First pass reads only the bounds to pick a power-of-two sample size
+        BitmapFactory.Options options = new BitmapFactory.Options();
+        options.inJustDecodeBounds = true;
+        BitmapFactory.decodeResource(resources, drawableRes, options);
+
+        options.inSampleSize = calculateInSampleSize(options.outWidth, options.outHeight, cellSizePx);
+        options.inJustDecodeBounds = false;
+        return BitmapFactory.decodeResource(resources, drawableRes, options);
+    }
+
+    private static int calculateInSampleSize(int width, int height, int cellSizePx) {
+        int inSampleSize = 1;
+        while (width / (inSampleSize * 2) >= cellSizePx && height / (inSampleSize * 2) >= cellSizePx) {
+            inSampleSize *= 2;
+        }
+        return inSampleSize;
+    }
+}
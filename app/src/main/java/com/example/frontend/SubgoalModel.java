@@ -22,6 +22,14 @@ public class SubgoalModel {
         return description;
     }
 
+    /**
+     * Takes over the text of a regenerated subgoal
+     */
+    public void replaceWith(SubgoalModel replacement) {
+        this.title = replacement.title;
+        this.description = replacement.description;
+    }
+
     public boolean isCompleted() {
         return isCompleted;
     }
@@ -0,0 +1,45 @@
+package com.example.frontend;
+
+import java.io.IOException;
+import java.util.regex.Pattern;
+
+import okhttp3.Interceptor;
+import okhttp3.Request;
+import okhttp3.Response;
+
+/**
+ * Times backend calls that belong to a traced action and passes the trace on.
+ * A request tagged with its action's span (Request.Builder.tag(AppTracer.Span.class, span)) gets
+ * a CLIENT child span and a traceparent header; untagged requests pass through unchanged.
+ * The span ends when the response headers arrive; reading the body is part of the decode span.
+ */
+public final class TracingInterceptor implements Interceptor {
+
+    private static final Pattern ID_SEGMENT = Pattern.compile("/(\\d+|[0-9a-fA-F-]{32,36})(?=/|$)");
+
+    @Override
+    public Response intercept(Chain chain) throws IOException {
+        Request request = chain.request();
+        AppTracer.Span action = request.tag(AppTracer.Span.class);
+        if (action == null) {
+            return chain.proceed(request);
+        }
+
+        AppTracer.Span span = action.child(
+                request.method() + " " + ID_SEGMENT.matcher(request.url().encodedPath()).replaceAll("/{id}"), "CLIENT");
+        span.setAttribute("http.method", request.method());
+        span.setAttribute("http.target", request.url().encodedPath());
+        try {
+            Response response = chain.proceed(request.newBuilder()
+                    .header("traceparent", span.traceparent())
+                    .build());
+            span.setAttribute("http.status_code", response.code());
+            return response;
+        } catch (IOException e) {
+            span.setError(e.toString());
+            throw e;
+        } finally {
+            span.end();
+        }
+    }
+}
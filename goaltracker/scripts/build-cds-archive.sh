@@ -0,0 +1,29 @@
+#!/usr/bin/env bash
+# Builds an extracted, CDS-archived copy of the goaltracker jar for fast startup.
+#
+#   ./mvnw package                 # add spring-boot:process-aot before package for AOT
+#   scripts/build-cds-archive.sh [path/to/goaltracker.jar] [output dir]
+#
+# Run the result with:
+#   java -XX:SharedArchiveFile=<output dir>/application.jsa [-Dspring.aot.enabled=true] \
+#        -jar <output dir>/<jar name> --spring.profiles.active=fast-startup
+set -euo pipefail
+
+JAR="${1:-target/goaltracker-0.0.1-SNAPSHOT.jar}"
+OUT="${2:-target/cds}"
+
+rm -rf "$OUT"
+# Extracted layout (Spring Boot 3.3+) lets the JVM archive classes from plain jars
+java -Djarmode=tools -jar "$JAR" extract --destination "$OUT"
+
+APP_JAR="$OUT/$(basename "$JAR")"
+AOT_FLAG=()
+if [[ "${AOT:-0}" == "1" ]]; then
+    AOT_FLAG=(-Dspring.aot.enabled=true)
+fi
+
+# Training run: start the context, dump the loaded classes and exit right after refresh
+java -XX:ArchiveClassesAtExit="$OUT/application.jsa" -Dspring.context.exit=onRefresh \
+    "${AOT_FLAG[@]}" -jar "$APP_JAR" --spring.profiles.active=fast-startup
+
+echo "CDS archive written to $OUT/application.jsa"
@@ -0,0 +1,53 @@
+#!/usr/bin/env bash
+# Measures time-to-first-request of goaltracker: from JVM launch until GET /api/goals/ succeeds.
+#
+#   scripts/startup-benchmark.sh [runs]
+#
+# Compares the default mode, the fast-startup profile, and fast-startup with the CDS archive
+# (and AOT when AOT=1) built by scripts/build-cds-archive.sh.
+set -euo pipefail
+
+RUNS="${1:-5}"
+JAR="${JAR:-target/goaltracker-0.0.1-SNAPSHOT.jar}"
+CDS_DIR="${CDS_DIR:-target/cds}"
+PORT="${PORT:-18080}"
+URL="http://localhost:$PORT/api/goals/"
+
+now_ms() { date +%s%3N; }
+
+measure() {
+    local start pid elapsed
+    start=$(now_ms)
+    "$@" --server.port="$PORT" > /dev/null 2>&1 &
+    pid=$!
+    until curl -sf -o /dev/null "$URL"; do
+        if ! kill -0 "$pid" 2> /dev/null; then
+            echo "failed" && return
+        fi
+        sleep 0.02
+    done
+    elapsed=$(( $(now_ms) - start ))
+    kill "$pid" && wait "$pid" 2> /dev/null || true
+    echo "$elapsed"
+}
+
+run_mode() {
+    local name="$1"; shift
+    local results=()
+    for ((i = 0; i < RUNS; i++)); do
+        results+=("$(measure "$@")")
+    done
+    local median
+    median=$(printf '%s\n' "${results[@]}" | sort -n | sed -n "$(( (RUNS + 1) / 2 ))p")
+    printf '%-24s median %6s ms   runs: %s\n' "$name" "$median" "${results[*]}"
+}
+
+run_mode "default" java -jar "$JAR"
+run_mode "fast-startup" java -jar "$JAR" --spring.profiles.active=fast-startup
+
+if [[ -f "$CDS_DIR/application.jsa" ]]; then
+    AOT_FLAG=()
+    [[ "${AOT:-0}" == "1" ]] && AOT_FLAG=(-Dspring.aot.enabled=true)
+    run_mode "fast-startup + CDS" java -XX:SharedArchiveFile="$CDS_DIR/application.jsa" "${AOT_FLAG[@]}" \
+        -jar "$CDS_DIR/$(basename "$JAR")" --spring.profiles.active=fast-startup
+fi
@@ -0,0 +1,458 @@
+package com.backend.goaltracker.cluster;
+
+import com.backend.goaltracker.idempotency.IdempotencyFilter;
+import com.backend.goaltracker.scheduler.Lane;
+import com.backend.goaltracker.security.FirebaseTokenFilter;
+import com.backend.goaltracker.tracing.Span;
+import com.backend.goaltracker.tracing.Tracer;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import entities.Goal;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.DefaultResponseErrorHandler;
+import org.springframework.web.client.HttpStatusCodeException;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestTemplate;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Cluster mode: routes requests to the node that owns their routing key (user id or prompt),
+ * so node-local caches keep their hit rate when the service runs as several replicas.
+ *
+ * Configuration (all nodes use the same node list and secret):
+ *   goaltracker.cluster.enabled=true
+ *   goaltracker.cluster.self=http://localhost:8080
+ *   goaltracker.cluster.nodes=http://localhost:8080,http://localhost:8081,http://localhost:8082
+ *   goaltracker.cluster.secret=<shared secret>
+ *
+ * Forwarded requests are signed with an HMAC of the secret over the request line, send time, body
+ * digest and X-User-Id; the owner only treats a request as forwarded (already rate limited, not to
+ * be forwarded again) when the signature checks out.
+ * ForwardedRequestFilter hides the forwarding headers of every other request.
+ *
+ * Goals must live in a shared store (goaltracker.store.type=file) so any node can serve reads.
+ */
+@Component
+public class ClusterRouter {
+
+    public static final String FORWARDED_HEADER = "X-Goaltracker-Forwarded";
+    public static final String FORWARD_SIGNATURE_HEADER = "X-Goaltracker-Forward-Signature";
+    public static final String FORWARD_TIMESTAMP_HEADER = "X-Goaltracker-Forward-Timestamp";
+    public static final String USER_HEADER = "X-User-Id";
+
+    /**
+     * Request attribute set by ForwardedRequestFilter on a request with a valid forward signature
+     */
+    public static final String FORWARDED_ATTRIBUTE = "goaltracker.cluster.forwardedBy";
+
+    private static final String HMAC_ALGORITHM = "HmacSHA256";
+    private static final long MAX_FORWARD_SKEW_MILLIS = 60_000;
+    private static final String EMPTY_BODY_DIGEST = SpooledBody.digestOf(new byte[0]);
+
+    // Configured like RestTemplate's own JSON converter, so a forwarded body is the JSON it would send
+    private static final ObjectMapper BODY_MAPPER = Jackson2ObjectMapperBuilder.json().build();
+
+    // Describe one connection rather than the response, so they are not relayed (RFC 9110, section 7.6.1).
+    // Content-Length is recomputed for the relayed body.
+    private static final Set<String> HOP_BY_HOP_HEADERS = Set.of("connection", "keep-alive", "proxy-authenticate",
+            "proxy-authorization", "proxy-connection", "te", "trailer", "transfer-encoding", "upgrade", "content-length");
+
+    private final boolean enabled;
+    private final String self;
+    private final ConsistentHashRing ring;
+    private final byte[] secret;
+    // The JDK HttpClient: the default HttpURLConnection factory cannot send PATCH
+    private final RestTemplate restTemplate = new RestTemplate(new JdkClientHttpRequestFactory());
+    // For streamed forwards, which relay error responses as they are instead of throwing
+    private final RestTemplate streamingTemplate = new RestTemplate(new JdkClientHttpRequestFactory());
+
+    public ClusterRouter(@Value("${goaltracker.cluster.enabled:false}") boolean enabled,
+                         @Value("${goaltracker.cluster.self:http://localhost:8080}") String self,
+                         @Value("${goaltracker.cluster.nodes:}") String nodes,
+                         @Value("${goaltracker.cluster.virtual-nodes:128}") int virtualNodes,
+                         @Value("${goaltracker.cluster.secret:}") String secret) {
+        List<String> nodeList = Arrays.stream(nodes.split(","))
+                .map(String::trim)
+                .filter(node -> !node.isEmpty())
+                .collect(Collectors.toList());
+        if (!nodeList.contains(self)) {
+            nodeList.add(self);
+        }
+
+        this.enabled = enabled && nodeList.size() > 1;
+        this.self = self;
+        this.ring = new ConsistentHashRing(nodeList, virtualNodes);
+        this.secret = secret.getBytes(StandardCharsets.UTF_8);
+        this.streamingTemplate.setErrorHandler(new DefaultResponseErrorHandler() {
+            @Override
+            public boolean hasError(ClientHttpResponse response) {
+                return false;
+            }
+        });
+
+        if (this.enabled) {
+            System.out.println("✅ Cluster mode: " + self + " in " + ring.getNodes());
+            if (secret.isEmpty()) {
+                System.out.println("⚠️ goaltracker.cluster.secret is not set: forwarded requests are treated as external"
+                        + " (rate limited again on the owner)");
+            }
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * This node's base URL, as other nodes reach it
+     */
+    public String getSelf() {
+        return self;
+    }
+
+    public boolean isLocal(String routingKey) {
+        return !enabled || self.equals(ring.ownerOf(routingKey));
+    }
+
+    /**
+     * Routing key for a request: the caller's user id if known, otherwise the given fallback.
+     * A verified Firebase uid takes precedence over the X-User-Id header.
+     */
+    public String routingKey(HttpServletRequest request, String fallback) {
+        String userId = userId(request);
+        return userId != null && !userId.isEmpty() ? "user:" + userId : fallback;
+    }
+
+    /**
+     * Routing key of a stored goal: its owner's requests, and so the goal itself, are served by
+     * the node owning this key
+     */
+    public static String routingKey(Goal goal) {
+        String ownerId = goal.getOwnerId();
+        return ownerId != null && !ownerId.isEmpty() ? "user:" + ownerId : "goal:" + goal.getId();
+    }
+
+    /**
+     * @return true if the request was forwarded by another node (see ForwardedRequestFilter)
+     */
+    public static boolean isForwarded(HttpServletRequest request) {
+        return request.getAttribute(FORWARDED_ATTRIBUTE) != null;
+    }
+
+    /**
+     * Checks the forward signature of a request that claims to come from another node.
+     *
+     * @param bodyDigest hex SHA-256 of the request body as received
+     * @return the forwarding node, or null if the request is not a valid forward
+     */
+    public String verifyForward(HttpServletRequest request, String bodyDigest) {
+        String node = request.getHeader(FORWARDED_HEADER);
+        String signature = request.getHeader(FORWARD_SIGNATURE_HEADER);
+        String timestamp = request.getHeader(FORWARD_TIMESTAMP_HEADER);
+        if (!enabled || secret.length == 0 || node == null || signature == null || timestamp == null
+                || !ring.getNodes().contains(node)) {
+            return null;
+        }
+        long sentAt;
+        try {
+            sentAt = Long.parseLong(timestamp);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+        if (Math.abs(System.currentTimeMillis() - sentAt) > MAX_FORWARD_SKEW_MILLIS) {
+            return null;
+        }
+        byte[] expected = sign(node, request.getMethod(), pathAndQuery(request), timestamp, bodyDigest,
+                request.getHeader(USER_HEADER)).getBytes(StandardCharsets.US_ASCII);
+        return MessageDigest.isEqual(expected, signature.getBytes(StandardCharsets.US_ASCII)) ? node : null;
+    }
+
+    /**
+     * HMAC-SHA256 of the forwarding node, method, path with query, send time, body digest and
+     * X-User-Id (empty if absent), hex encoded
+     */
+    private String sign(String node, String method, String pathAndQuery, String timestamp, String bodyDigest,
+                        String userId) {
+        try {
+            Mac mac = Mac.getInstance(HMAC_ALGORITHM);
+            mac.init(new SecretKeySpec(secret, HMAC_ALGORITHM));
+            byte[] digest = mac.doFinal(String.join("\n", node, method, pathAndQuery, timestamp, bodyDigest,
+                    userId != null ? userId : "").getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(HMAC_ALGORITHM + " unavailable", e);
+        }
+    }
+
+    private static String pathAndQuery(HttpServletRequest request) {
+        return request.getRequestURI() + (request.getQueryString() != null ? "?" + request.getQueryString() : "");
+    }
+
+    public static String userId(HttpServletRequest request) {
+        Object uid = request.getAttribute(FirebaseTokenFilter.UID_ATTRIBUTE);
+        return uid != null ? uid.toString() : request.getHeader(USER_HEADER);
+    }
+
+    /**
+     * Forwards the request to the owning node if this node is not the owner.
+     * Returns empty when the request should be handled locally: cluster mode is off, this node
+     * owns the key, the request was already forwarded once, or the owner is unreachable.
+     *
+     * @param routingKey key used to pick the owner
+     * @param request    incoming request (method, path, query, user, priority, Prefer and Idempotency-Key headers are forwarded)
+     * @param body       request body to forward, or null
+     */
+    public Optional<ResponseEntity<String>> forwardIfRemote(String routingKey, HttpServletRequest request, Object body) {
+        if (!enabled || isForwarded(request)) {
+            return Optional.empty();
+        }
+        String owner = ring.ownerOf(routingKey);
+        if (self.equals(owner)) {
+            return Optional.empty();
+        }
+
+        return forwardTo(owner, request, body);
+    }
+
+    /**
+     * Forwards the request to the given node.
+     * Returns empty if the node is unreachable, so the caller can handle the request locally.
+     */
+    public Optional<ResponseEntity<String>> forwardTo(String node, HttpServletRequest request, Object body) {
+        // Path and query are already encoded: a URI keeps RestTemplate from encoding them again
+        String pathAndQuery = pathAndQuery(request);
+        URI url = URI.create(node + pathAndQuery);
+
+        // Serialized here rather than by RestTemplate, so the signed digest covers the bytes sent
+        byte[] bytes;
+        try {
+            bytes = body != null ? BODY_MAPPER.writeValueAsBytes(body) : null;
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Cannot forward request body", e);
+        }
+        HttpHeaders headers = forwardHeaders(request, pathAndQuery,
+                bytes != null ? SpooledBody.digestOf(bytes) : EMPTY_BODY_DIGEST);
+        headers.setContentType(MediaType.APPLICATION_JSON);
+
+        try (Span span = Tracer.start("cluster forward", Span.Kind.CLIENT)) {
+            span.setAttribute("goaltracker.node", node);
+            if (span.isRecording()) {
+                headers.set(Tracer.TRACEPARENT_HEADER, span.traceparent());
+            }
+            try {
+                ResponseEntity<String> response = restTemplate.exchange(url,
+                        HttpMethod.valueOf(request.getMethod()), new HttpEntity<>(bytes, headers), String.class);
+                span.setAttribute("http.status_code", response.getStatusCode().value());
+                return Optional.of(relay(response.getStatusCode().value(), response.getHeaders(), response.getBody(),
+                        currentResponse()));
+            } catch (HttpStatusCodeException e) {
+                span.setAttribute("http.status_code", e.getStatusCode().value());
+                return Optional.of(relay(e.getStatusCode().value(), e.getResponseHeaders(), e.getResponseBodyAsString(),
+                        currentResponse()));
+            } catch (ResourceAccessException e) {
+                // Node is down: serving locally costs locality but keeps the request alive
+                System.err.println("Cluster node " + node + " unreachable, handling locally: " + e.getMessage());
+                span.setError("unreachable: " + e.getMessage());
+                return Optional.empty();
+            }
+        }
+    }
+
+    /**
+     * Outcome of streamIfRemote. Close it once the request is handled: it may hold the request body.
+     */
+    public static final class Streamed implements Closeable {
+        private final HttpServletRequest local;
+        private final SpooledBody body;
+
+        private Streamed(HttpServletRequest local, SpooledBody body) {
+            this.local = local;
+            this.body = body;
+        }
+
+        /**
+         * @return true if the owner answered and its response was written to this node's response
+         */
+        public boolean isForwarded() {
+            return local == null;
+        }
+
+        /**
+         * The request to handle locally, with its body still readable
+         */
+        public HttpServletRequest request() {
+            return local;
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (body != null) {
+                body.close();
+            }
+        }
+    }
+
+    /**
+     * Like forwardIfRemote, for requests and responses too large to hold as a String (bulk export
+     * and import): the request body is spooled to a temp file once it gets large, and the owner's
+     * response is copied to this node's response as it arrives, byte for byte.
+     */
+    public Streamed streamIfRemote(String routingKey, HttpServletRequest request, HttpServletResponse response)
+            throws IOException {
+        if (!enabled || isForwarded(request)) {
+            return new Streamed(request, null);
+        }
+        String node = ring.ownerOf(routingKey);
+        if (self.equals(node)) {
+            return new Streamed(request, null);
+        }
+
+        boolean hasBody = request.getContentLengthLong() > 0 || request.getHeader(HttpHeaders.TRANSFER_ENCODING) != null;
+        SpooledBody body = hasBody ? SpooledBody.read(request.getInputStream()) : null;
+        String pathAndQuery = pathAndQuery(request);
+        HttpHeaders headers = forwardHeaders(request, pathAndQuery, body != null ? body.digest() : EMPTY_BODY_DIGEST);
+        if (request.getContentType() != null) {
+            headers.set(HttpHeaders.CONTENT_TYPE, request.getContentType());
+        }
+
+        try (Span span = Tracer.start("cluster forward", Span.Kind.CLIENT)) {
+            span.setAttribute("goaltracker.node", node);
+            if (span.isRecording()) {
+                headers.set(Tracer.TRACEPARENT_HEADER, span.traceparent());
+            }
+            try {
+                streamingTemplate.execute(URI.create(node + pathAndQuery), HttpMethod.valueOf(request.getMethod()),
+                        forwarded -> {
+                            forwarded.getHeaders().putAll(headers);
+                            if (body != null) {
+                                try (InputStream in = body.open()) {
+                                    in.transferTo(forwarded.getBody());
+                                }
+                            }
+                        },
+                        owner -> {
+                            span.setAttribute("http.status_code", owner.getStatusCode().value());
+                            response.setStatus(owner.getStatusCode().value());
+                            owner.getHeaders().forEach((name, values) -> {
+                                if (!HOP_BY_HOP_HEADERS.contains(name.toLowerCase(Locale.ROOT)) && !values.isEmpty()) {
+                                    response.setHeader(name, values.get(0));
+                                    values.stream().skip(1).forEach(value -> response.addHeader(name, value));
+                                }
+                            });
+                            owner.getBody().transferTo(response.getOutputStream());
+                            return null;
+                        });
+                if (body != null) {
+                    body.close();
+                }
+                return new Streamed(null, null);
+            } catch (ResourceAccessException e) {
+                if (response.isCommitted()) {
+                    throw e;  // the owner failed halfway through its response
+                }
+                System.err.println("Cluster node " + node + " unreachable, handling locally: " + e.getMessage());
+                span.setError("unreachable: " + e.getMessage());
+                return new Streamed(body != null ? body.replayInto(request) : request, body);
+            }
+        } catch (IOException | RuntimeException e) {
+            if (body != null) {
+                body.close();
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Forwarding, signature, caller and priority headers for a forward of this request
+     *
+     * @param bodyDigest hex SHA-256 of the body that will be sent
+     */
+    private HttpHeaders forwardHeaders(HttpServletRequest request, String pathAndQuery, String bodyDigest) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(FORWARDED_HEADER, self);
+        String userId = userId(request);
+        if (secret.length > 0) {
+            String timestamp = Long.toString(System.currentTimeMillis());
+            headers.set(FORWARD_TIMESTAMP_HEADER, timestamp);
+            headers.set(FORWARD_SIGNATURE_HEADER,
+                    sign(self, request.getMethod(), pathAndQuery, timestamp, bodyDigest, userId));
+        }
+        String authorization = request.getHeader(HttpHeaders.AUTHORIZATION);
+        if (authorization != null) {
+            headers.set(HttpHeaders.AUTHORIZATION, authorization);
+        }
+        if (userId != null) {
+            headers.set(USER_HEADER, userId);
+        }
+        for (String forwardedHeader : new String[]{Lane.HEADER, "Prefer", IdempotencyFilter.KEY_HEADER}) {
+            String value = request.getHeader(forwardedHeader);
+            if (value != null) {
+                headers.set(forwardedHeader, value);
+            }
+        }
+        return headers;
+    }
+
+    /**
+     * The owner's response as this node's: status, body and end-to-end headers (Retry-After,
+     * Location, Idempotent-Replayed, the plan source, traceresponse, ...). A header this node's
+     * filters already set (traceresponse, CORS) is replaced rather than sent twice.
+     *
+     * @param local this node's response, or null
+     */
+    static ResponseEntity<String> relay(int status, HttpHeaders upstream, String body, HttpServletResponse local) {
+        HttpHeaders headers = new HttpHeaders();
+        if (upstream != null) {
+            upstream.forEach((name, values) -> {
+                if (HOP_BY_HOP_HEADERS.contains(name.toLowerCase(Locale.ROOT)) || values.isEmpty()) {
+                    return;
+                }
+                if (local != null && local.containsHeader(name)) {
+                    local.setHeader(name, values.get(0));
+                } else {
+                    headers.addAll(name, values);
+                }
+            });
+        }
+        if (headers.getContentType() == null) {
+            headers.setContentType(MediaType.APPLICATION_JSON);
+        }
+        return ResponseEntity.status(status)
+                .headers(headers)
+                .body(body);
+    }
+
+    private static HttpServletResponse currentResponse() {
+        return RequestContextHolder.getRequestAttributes() instanceof ServletRequestAttributes attributes
+                ? attributes.getResponse() : null;
+    }
+}
@@ -0,0 +1,78 @@
+package com.backend.goaltracker.cluster;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Consistent-hash ring with virtual nodes.
+ * Every instance builds the same ring from the same node list, so all nodes agree on
+ * the owner of a key without talking to each other. Adding a node only moves ~1/N of the keys.
+ */
+public class ConsistentHashRing {
+
+    private final NavigableMap<Long, String> ring = new TreeMap<>();
+    private final Set<String> nodes = new LinkedHashSet<>();
+    private final int virtualNodes;
+
+    public ConsistentHashRing(Collection<String> nodes, int virtualNodes) {
+        if (virtualNodes <= 0) {
+            throw new IllegalArgumentException("virtualNodes must be positive");
+        }
+        this.virtualNodes = virtualNodes;
+        for (String node : nodes) {
+            addNode(node);
+        }
+    }
+
+    public void addNode(String node) {
+        if (!nodes.add(node)) return;
+        for (int i = 0; i < virtualNodes; i++) {
+            ring.put(hash(node + "#" + i), node);
+        }
+    }
+
+    public void removeNode(String node) {
+        if (!nodes.remove(node)) return;
+        for (int i = 0; i < virtualNodes; i++) {
+            ring.remove(hash(node + "#" + i));
+        }
+    }
+
+    /**
+     * Returns the node owning the key: the first virtual node clockwise from the key's hash.
+     */
+    public String ownerOf(String key) {
+        if (ring.isEmpty()) {
+            throw new IllegalStateException("Hash ring has no nodes");
+        }
+        Map.Entry<Long, String> entry = ring.ceilingEntry(hash(key));
+        return entry != null ? entry.getValue() : ring.firstEntry().getValue();
+    }
+
+    public Set<String> getNodes() {
+        return Collections.unmodifiableSet(nodes);
+    }
+
+    /**
+     * 64-bit FNV-1a followed by a murmur3 finalizer to spread similar keys ("node#1", "node#2").
+     */
+    static long hash(String key) {
+        long h = 0xcbf29ce484222325L;
+        for (byte b : key.getBytes(StandardCharsets.UTF_8)) {
+            h ^= b;
+            h *= 0x100000001b3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
@@ -0,0 +1,81 @@
+package com.backend.goaltracker.cluster;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Tells forwarded cluster requests from external ones. A request whose forward signature checks
+ * out is marked with ClusterRouter.FORWARDED_ATTRIBUTE; any other request has the forwarding
+ * headers removed, so a client cannot skip rate limiting by sending X-Goaltracker-Forwarded.
+ * The body of a request that claims to be forwarded is read (and spooled) first, since the
+ * signature covers its digest.
+ */
+public class ForwardedRequestFilter extends OncePerRequestFilter {
+
+    private static final Set<String> FORWARDING_HEADERS = new TreeSet<>(String.CASE_INSENSITIVE_ORDER);
+
+    static {
+        FORWARDING_HEADERS.addAll(List.of(ClusterRouter.FORWARDED_HEADER,
+                ClusterRouter.FORWARD_SIGNATURE_HEADER, ClusterRouter.FORWARD_TIMESTAMP_HEADER));
+    }
+
+    private final ClusterRouter clusterRouter;
+
+    public ForwardedRequestFilter(ClusterRouter clusterRouter) {
+        this.clusterRouter = clusterRouter;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        if (request.getHeader(ClusterRouter.FORWARDED_HEADER) == null) {
+            chain.doFilter(request, response);
+            return;
+        }
+        try (SpooledBody body = SpooledBody.read(request.getInputStream())) {
+            HttpServletRequest replayed = body.replayInto(request);
+            String node = clusterRouter.verifyForward(request, body.digest());
+            if (node != null) {
+                replayed.setAttribute(ClusterRouter.FORWARDED_ATTRIBUTE, node);
+                chain.doFilter(replayed, response);
+            } else {
+                chain.doFilter(new WithoutForwardingHeaders(replayed), response);
+            }
+        }
+    }
+
+    private static final class WithoutForwardingHeaders extends HttpServletRequestWrapper {
+
+        WithoutForwardingHeaders(HttpServletRequest request) {
+            super(request);
+        }
+
+        @Override
+        public String getHeader(String name) {
+            return FORWARDING_HEADERS.contains(name) ? null : super.getHeader(name);
+        }
+
+        @Override
+        public Enumeration<String> getHeaders(String name) {
+            return FORWARDING_HEADERS.contains(name) ? Collections.emptyEnumeration() : super.getHeaders(name);
+        }
+
+        @Override
+        public Enumeration<String> getHeaderNames() {
+            List<String> names = Collections.list(super.getHeaderNames());
+            names.removeIf(FORWARDING_HEADERS::contains);
+            return Collections.enumeration(names);
+        }
+    }
+}
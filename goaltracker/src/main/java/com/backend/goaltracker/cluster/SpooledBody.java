@@ -0,0 +1,172 @@
+package com.backend.goaltracker.cluster;
+
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+/**
+ * A request body read once and kept so it can be sent again: in memory up to a threshold, in a
+ * temp file beyond it, so a large upload (a goal import) is never held in memory.
+ * Its SHA-256 is taken while it is read, for the forward signature.
+ */
+final class SpooledBody implements Closeable {
+
+    static final int MEMORY_THRESHOLD = 64 * 1024;
+
+    private final byte[] bytes;  // null when spooled to file
+    private final Path file;
+    private final long length;
+    private final String digest;
+
+    private SpooledBody(byte[] bytes, Path file, long length, MessageDigest sha256) {
+        this.bytes = bytes;
+        this.file = file;
+        this.length = length;
+        this.digest = HexFormat.of().formatHex(sha256.digest());
+    }
+
+    static SpooledBody read(InputStream body) throws IOException {
+        MessageDigest sha256 = sha256();
+        DigestInputStream in = new DigestInputStream(body, sha256);
+        ByteArrayOutputStream memory = new ByteArrayOutputStream();
+        byte[] buffer = new byte[8192];
+        int n;
+        while ((n = in.read(buffer)) != -1) {
+            memory.write(buffer, 0, n);
+            if (memory.size() > MEMORY_THRESHOLD) {
+                return spillToFile(memory, in, sha256);
+            }
+        }
+        return new SpooledBody(memory.toByteArray(), null, memory.size(), sha256);
+    }
+
+    /**
+     * Hex SHA-256 of a body held in memory, as digest() gives for the same bytes
+     */
+    static String digestOf(byte[] body) {
+        return HexFormat.of().formatHex(sha256().digest(body));
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 unavailable", e);
+        }
+    }
+
+    private static SpooledBody spillToFile(ByteArrayOutputStream head, InputStream rest, MessageDigest sha256)
+            throws IOException {
+        Path file = Files.createTempFile("goaltracker-forward-", ".body");
+        try (OutputStream out = Files.newOutputStream(file)) {
+            head.writeTo(out);
+            long length = head.size() + rest.transferTo(out);
+            return new SpooledBody(null, file, length, sha256);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(file);
+            throw e;
+        }
+    }
+
+    long length() {
+        return length;
+    }
+
+    /**
+     * Hex SHA-256 of the body
+     */
+    String digest() {
+        return digest;
+    }
+
+    InputStream open() throws IOException {
+        return bytes != null ? new ByteArrayInputStream(bytes) : Files.newInputStream(file);
+    }
+
+    /**
+     * The request with this body in place of its already consumed one
+     */
+    HttpServletRequest replayInto(HttpServletRequest request) {
+        return new HttpServletRequestWrapper(request) {
+            @Override
+            public ServletInputStream getInputStream() throws IOException {
+                return new Replay(open());
+            }
+
+            @Override
+            public BufferedReader getReader() throws IOException {
+                String encoding = request.getCharacterEncoding();
+                Charset charset = encoding != null ? Charset.forName(encoding) : StandardCharsets.UTF_8;
+                return new BufferedReader(new InputStreamReader(getInputStream(), charset));
+            }
+        };
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (file != null) {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    private static final class Replay extends ServletInputStream {
+        private final InputStream in;
+        private boolean finished;
+
+        Replay(InputStream in) {
+            this.in = in;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = in.read();
+            finished = b == -1;
+            return b;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            int n = in.read(buffer, offset, length);
+            finished = n == -1;
+            return n;
+        }
+
+        @Override
+        public boolean isFinished() {
+            return finished;
+        }
+
+        @Override
+        public boolean isReady() {
+            return true;
+        }
+
+        @Override
+        public void setReadListener(ReadListener listener) {
+            throw new UnsupportedOperationException("blocking reads only");
+        }
+
+        @Override
+        public void close() throws IOException {
+            in.close();
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package com.backend.goaltracker.config;
+
+import com.backend.goaltracker.security.FirebaseTokenFilter;
+import com.backend.goaltracker.security.FirebaseTokenVerifier;
+import com.backend.goaltracker.security.SigningKeyCache;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Objects;
+
+/**
+ * Firebase ID-token authentication for /api/*. Off unless goaltracker.auth.enabled=true.
+ * goaltracker.auth.jwks-url can point at a local key server for tests.
+ */
+@Configuration
+@ConditionalOnProperty(name = "goaltracker.auth.enabled", havingValue = "true")
+public class AuthConfig {
+
+    @Bean(destroyMethod = "close")
+    public SigningKeyCache signingKeyCache(
+            @Value("${goaltracker.auth.jwks-url:https://www.googleapis.com/service_accounts/v1/jwk/securetoken@system.gserviceaccount.com}") String jwksUrl) {
+        SigningKeyCache keyCache = new SigningKeyCache(jwksUrl, Duration.ofHours(1), Duration.ofSeconds(30));
+        keyCache.start();
+        return keyCache;
+    }
+
+    /**
+     * Tokens must be issued for the FirebaseApp's project; goaltracker.auth.project-id applies when
+     * no credentials are configured. The app is requested on the first verification, which is what
+     * initializes it in goaltracker.firebase.init-mode=lazy.
+     */
+    @Bean
+    public FirebaseTokenVerifier firebaseTokenVerifier(SigningKeyCache signingKeyCache,
+                                                       FirebaseConfig firebaseConfig,
+                                                       @Value("${goaltracker.auth.project-id:goaltrack-95875}") String projectId,
+                                                       @Value("${goaltracker.auth.max-cached-tokens:100000}") int maxCachedTokens) {
+        return new FirebaseTokenVerifier(signingKeyCache,
+                () -> firebaseConfig.getFirebaseApp()
+                        .map(app -> app.getOptions().getProjectId())
+                        .filter(Objects::nonNull)
+                        .orElse(projectId),
+                maxCachedTokens, Clock.systemUTC());
+    }
+
+    @Bean
+    public FilterRegistrationBean<FirebaseTokenFilter> firebaseTokenFilter(FirebaseTokenVerifier verifier,
+                                                                           ObjectMapper objectMapper) {
+        FilterRegistrationBean<FirebaseTokenFilter> registration = new FilterRegistrationBean<>(
+                new FirebaseTokenFilter(verifier, objectMapper));
+        registration.addUrlPatterns("/api/*");
+        registration.setOrder(1);
+        return registration;
+    }
+}
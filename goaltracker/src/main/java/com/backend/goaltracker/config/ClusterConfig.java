@@ -0,0 +1,24 @@
+package com.backend.goaltracker.config;
+
+import com.backend.goaltracker.cluster.ClusterRouter;
+import com.backend.goaltracker.cluster.ForwardedRequestFilter;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Checks the signature of requests forwarded by other cluster nodes (see ClusterRouter).
+ * Registered also outside cluster mode, where it removes the forwarding headers of every request.
+ */
+@Configuration
+public class ClusterConfig {
+
+    @Bean
+    public FilterRegistrationBean<ForwardedRequestFilter> forwardedRequestFilter(ClusterRouter clusterRouter) {
+        FilterRegistrationBean<ForwardedRequestFilter> registration = new FilterRegistrationBean<>(
+                new ForwardedRequestFilter(clusterRouter));
+        registration.addUrlPatterns("/api/*");
+        registration.setOrder(-1);  // before everything that looks at the forwarding headers
+        return registration;
+    }
+}
@@ -3,40 +3,94 @@ package com.backend.goaltracker.config;
 import com.google.auth.oauth2.GoogleCredentials;
 import com.google.firebase.FirebaseApp;
 import com.google.firebase.FirebaseOptions;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.core.io.ClassPathResource;
 
 import jakarta.annotation.PostConstruct;
 import java.io.IOException;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 
+/**
+ * Initializes the Firebase Admin SDK.
+ * goaltracker.firebase.init-mode controls when the credentials are read:
+ *   eager      - during context startup (default)
+ *   background - on a separate thread, so startup does not wait for it
+ *   lazy       - on first use of getFirebaseApp(), i.e. the first token verification
+ */
 @Configuration
 public class FirebaseConfig {
 
+    @Value("${goaltracker.firebase.init-mode:eager}")
+    private String initMode;
+
+    private volatile CompletableFuture<Optional<FirebaseApp>> firebaseApp;
+
     @PostConstruct
     public void initialize() {
+        switch (initMode) {
+            case "lazy":
+                System.out.println("Firebase will be initialized on first use");
+                break;
+            case "background":
+                firebaseApp = CompletableFuture.supplyAsync(this::initializeFirebase);
+                break;
+            default:
+                firebaseApp = CompletableFuture.completedFuture(initializeFirebase());
+                break;
+        }
+    }
+
+    /**
+     * @return the initialized FirebaseApp, or empty if no credentials are configured.
+     * Blocks if a background initialization is still running.
+     */
+    public Optional<FirebaseApp> getFirebaseApp() {
+        CompletableFuture<Optional<FirebaseApp>> app = firebaseApp;
+        if (app == null) {
+            synchronized (this) {
+                if (firebaseApp == null) {
+                    firebaseApp = CompletableFuture.completedFuture(initializeFirebase());
+                }
+                app = firebaseApp;
+            }
+        }
+        return app.join();
+    }
+
+    boolean isInitialized() {
+        return firebaseApp != null;
+    }
+
+    private Optional<FirebaseApp> initializeFirebase() {
         try {
             // ✅ Check if Firebase is already initialized (prevents test errors)
-            if (FirebaseApp.getApps().isEmpty()) {
-                ClassPathResource resource = new ClassPathResource("goaltrack-95875-firebase-adminsdk-fbsvc-ccef1fb91e.json");
-
-                // ✅ Only initialize if the file exists (skip in tests)
-                if (resource.exists()) {
-                    GoogleCredentials credentials = GoogleCredentials
-                            .fromStream(resource.getInputStream());
-
-                    FirebaseOptions options = FirebaseOptions.builder()
-                            .setCredentials(credentials)
-                            .build();
-
-                    FirebaseApp.initializeApp(options);
-                    System.out.println("✅ Firebase initialized successfully");
-                } else {
-                    System.out.println("⚠️ Firebase config not found - skipping initialization (test mode?)");
-                }
+            if (!FirebaseApp.getApps().isEmpty()) {
+                return Optional.of(FirebaseApp.getInstance());
+            }
+
+            ClassPathResource resource = new ClassPathResource("goaltrack-95875-firebase-adminsdk-fbsvc-ccef1fb91e.json");
+
+            // ✅ Only initialize if the file exists (skip in tests)
+            if (resource.exists()) {
+                GoogleCredentials credentials = GoogleCredentials
+                        .fromStream(resource.getInputStream());
+
+                FirebaseOptions options = FirebaseOptions.builder()
+                        .setCredentials(credentials)
+                        .build();
+
+                FirebaseApp app = FirebaseApp.initializeApp(options);
+                System.out.println("✅ Firebase initialized successfully");
+                return Optional.of(app);
+            } else {
+                System.out.println("⚠️ Firebase config not found - skipping initialization (test mode?)");
             }
         } catch (IOException e) {
             System.err.println("❌ Failed to initialize Firebase: " + e.getMessage());
             // Don't throw exception - allow app to start without Firebase
         }
+        return Optional.empty();
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,34 @@
+package com.backend.goaltracker.config;
+
+import com.backend.goaltracker.idempotency.IdempotencyFilter;
+import com.backend.goaltracker.idempotency.IdempotencyStore;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Idempotency-Key support on generate, subgoal completion and delete, so client retries do not
+ * repeat a paid Gemini call or a mutation. Disable with goaltracker.idempotency.enabled=false.
+ */
+@Configuration
+@ConditionalOnProperty(name = "goaltracker.idempotency.enabled", havingValue = "true", matchIfMissing = true)
+public class IdempotencyConfig {
+
+    @Bean
+    public FilterRegistrationBean<IdempotencyFilter> idempotencyFilter(
+            IdempotencyStore store,
+            ObjectMapper objectMapper,
+            @Value("${goaltracker.idempotency.max-body-bytes:65536}") int maxBodyBytes,
+            @Value("${goaltracker.idempotency.wait-ms:5000}") long waitMillis) {
+        FilterRegistrationBean<IdempotencyFilter> registration = new FilterRegistrationBean<>(
+                new IdempotencyFilter(store, objectMapper, maxBodyBytes, waitMillis));
+        registration.addUrlPatterns("/api/goals/*");   // the filter skips requests without the header
+        // After FirebaseTokenFilter (keys are scoped per verified user) and before the rate limit,
+        // so a replayed response does not use up a token
+        registration.setOrder(2);
+        return registration;
+    }
+}
@@ -0,0 +1,54 @@
+package com.backend.goaltracker.config;
+
+import com.backend.goaltracker.cluster.ClusterRouter;
+import com.backend.goaltracker.ratelimit.GenerateRateLimitFilter;
+import com.backend.goaltracker.ratelimit.TokenBucketRateLimiter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Token-bucket rate limits on the requests that call Gemini (goal generation and subgoal
+ * regeneration), so one client cannot burn the Gemini quota, and per IP on trace span uploads.
+ * Disable with goaltracker.ratelimit.enabled=false.
+ */
+@Configuration
+@EnableScheduling
+@ConditionalOnProperty(name = "goaltracker.ratelimit.enabled", havingValue = "true", matchIfMissing = true)
+public class RateLimitConfig {
+
+    private final TokenBucketRateLimiter userLimiter;
+    private final TokenBucketRateLimiter ipLimiter;
+
+    public RateLimitConfig(@Value("${goaltracker.ratelimit.user.burst:5}") int userBurst,
+                           @Value("${goaltracker.ratelimit.user.refill-per-minute:10}") double userRefillPerMinute,
+                           @Value("${goaltracker.ratelimit.ip.burst:20}") int ipBurst,
+                           @Value("${goaltracker.ratelimit.ip.refill-per-minute:60}") double ipRefillPerMinute,
+                           @Value("${goaltracker.ratelimit.idle-evict-minutes:10}") long idleEvictMinutes) {
+        this.userLimiter = new TokenBucketRateLimiter(userBurst, userRefillPerMinute / 60,
+                idleEvictMinutes, TimeUnit.MINUTES, System::nanoTime);
+        this.ipLimiter = new TokenBucketRateLimiter(ipBurst, ipRefillPerMinute / 60,
+                idleEvictMinutes, TimeUnit.MINUTES, System::nanoTime);
+    }
+
+    @Bean
+    public FilterRegistrationBean<GenerateRateLimitFilter> generateRateLimitFilter(ClusterRouter clusterRouter) {
+        FilterRegistrationBean<GenerateRateLimitFilter> registration = new FilterRegistrationBean<>(
+                new GenerateRateLimitFilter(userLimiter, ipLimiter, clusterRouter));
+        registration.addUrlPatterns("/api/goals/*", "/api/traces/*");   // the filter skips the other requests
+        registration.setOrder(3);  // after FirebaseTokenFilter (verified uid) and IdempotencyFilter (replays)
+        return registration;
+    }
+
+    @Scheduled(fixedDelay = 60_000)
+    public void evictIdleBuckets() {
+        userLimiter.evictIdle();
+        ipLimiter.evictIdle();
+    }
+}
@@ -0,0 +1,25 @@
+package com.backend.goaltracker.config;
+
+import com.backend.goaltracker.tracing.Tracer;
+import com.backend.goaltracker.tracing.TracingFilter;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Server spans for every API request, joined to the app's trace through the traceparent header.
+ * Disable with goaltracker.tracing.enabled=false; nothing below the filter records spans then.
+ */
+@Configuration
+@ConditionalOnProperty(name = "goaltracker.tracing.enabled", havingValue = "true", matchIfMissing = true)
+public class TracingConfig {
+
+    @Bean
+    public FilterRegistrationBean<TracingFilter> tracingFilter(Tracer tracer) {
+        FilterRegistrationBean<TracingFilter> registration = new FilterRegistrationBean<>(new TracingFilter(tracer));
+        registration.addUrlPatterns("/api/*");
+        registration.setOrder(0);  // first, so token checks, replays and rate limiting are inside the request span
+        return registration;
+    }
+}
@@ -1,39 +1,64 @@
 package com.backend.goaltracker.controller;
 
-import com.backend.goaltracker.service.GeminiService;
+import com.backend.goaltracker.cluster.ClusterRouter;
+import com.backend.goaltracker.jobs.GenerationJob;
+import com.backend.goaltracker.jobs.GenerationJobService;
+import com.backend.goaltracker.scheduler.Lane;
+import com.backend.goaltracker.search.GoalSearchService;
+import com.backend.goaltracker.service.GenerationOutcome;
+import com.backend.goaltracker.service.GoalGenerationService;
+import com.backend.goaltracker.service.SubgoalRegenerationService;
+import com.backend.goaltracker.stats.GoalStatsService;
+import com.backend.goaltracker.store.GoalStore;
 import com.backend.goaltracker.util.PromptValidator;
-import com.backend.goaltracker.util.GoalResponseValidator;
 import entities.Goal;
-import entities.GoalResponseDTO;
-import entities.Subgoal;
-import entities.SubgoalDTO;
+import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
-import org.springframework.web.client.HttpClientErrorException;
-import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.web.context.request.async.DeferredResult;
 
-import java.time.LocalDate;
-import java.time.format.DateTimeFormatter;
+import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
 
 @RestController
 @RequestMapping("/api/goals")
 @CrossOrigin("*")
 public class GoalController {
 
-    @Autowired
-    private GeminiService geminiService;
+    static final long MAX_JOB_WAIT_SECONDS = 30;
 
     @Autowired
     private PromptValidator promptValidator;
 
     @Autowired
-    private GoalResponseValidator responseValidator;
+    private GoalGenerationService generationService;
+
+    @Autowired
+    private SubgoalRegenerationService subgoalRegeneration;
+
+    @Autowired
+    private GenerationJobService generationJobs;
+
+    @Autowired
+    private GoalStore goalStore;
+
+    @Autowired
+    private ClusterRouter clusterRouter;
+
+    @Autowired
+    private GoalStatsService goalStatsService;
+
+    @Autowired
+    private GoalSearchService goalSearchService;
 
     @PostMapping("/generate")
-    public ResponseEntity<?> generateGoal(@RequestBody Map<String, String> request) {
+    public ResponseEntity<?> generateGoal(@RequestBody Map<String, String> request, HttpServletRequest httpRequest) {
         String userPrompt = request.get("prompt");
 
         if (userPrompt == null || userPrompt.isEmpty()) {
@@ -41,6 +66,12 @@ public class GoalController {
                     .body(Map.of("error", "Prompt is required"));
         }
 
+        Lane lane = Lane.fromHeader(httpRequest.getHeader(Lane.HEADER));
+        if (lane == null) {
+            return ResponseEntity.badRequest()
+                    .body(Map.of("error", "Unknown priority: " + httpRequest.getHeader(Lane.HEADER)));
+        }
+
         try {
             System.out.println("=== Goal Generation Started ===");
             System.out.println("Original prompt: " + userPrompt);
@@ -56,136 +87,275 @@ public class GoalController {
                         .body(Map.of("error", e.getMessage()));
             }
 
-            // ✅ STEP 2: Call Gemini API with sanitized prompt
-            String jsonResponse = geminiService.generateGoal(sanitizedPrompt);
+            // ✅ Cluster mode: the node owning this user/prompt handles it, so its caches stay warm
+            String routingKey = clusterRouter.routingKey(httpRequest, "prompt:" + sanitizedPrompt.toLowerCase());
+            Optional<ResponseEntity<String>> forwarded = clusterRouter.forwardIfRemote(routingKey, httpRequest, request);
+            if (forwarded.isPresent()) {
+                return forwarded.get();
+            }
 
-            // Parse Gemini API response JSON
-            ObjectMapper mapper = new ObjectMapper();
-            JsonNode root = mapper.readTree(jsonResponse);
+            // ✅ Async mode ("Prefer: respond-async"): answer with a job id right away, so a dropped
+            // connection cannot lose the result; the client fetches it from /jobs/{id}
+            if (GenerationJobService.prefersAsync(httpRequest.getHeader("Prefer"))) {
+                GenerationJob job = generationJobs.submit(sanitizedPrompt, ClusterRouter.userId(httpRequest), lane);
+                if (job == null) {
+                    return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                            .header(HttpHeaders.RETRY_AFTER, "5")
+                            .body(Map.of("error", "Too many pending generation jobs"));
+                }
+                System.out.println("Queued generation job " + job.getId());
+                return jobPending(job);
+            }
 
-            System.out.println("=== Parsing Gemini Response ===");
-            System.out.println("Full response tree: " + root.toPrettyString());
+            return generationService.generate(sanitizedPrompt, ClusterRouter.userId(httpRequest), lane)
+                    .toResponseEntity();
 
-            // ✅ Extract text from Gemini API response
-            JsonNode candidatesNode = root.path("candidates");
-            if (candidatesNode.isMissingNode() || candidatesNode.isEmpty()) {
-                return ResponseEntity.internalServerError()
-                        .body(Map.of("error", "No candidates in Gemini response"));
-            }
+        } catch (Exception e) {
+            System.err.println("=== Unexpected Error ===");
+            e.printStackTrace();
 
-            JsonNode contentNode = candidatesNode.get(0).path("content");
-            if (contentNode.isMissingNode()) {
-                return ResponseEntity.internalServerError()
-                        .body(Map.of("error", "No content in Gemini response"));
-            }
+            return ResponseEntity.internalServerError()
+                    .body(Map.of(
+                            "error", "Internal server error",
+                            "message", e.getMessage(),
+                            "type", e.getClass().getSimpleName()
+                    ));
+        }
+    }
 
-            JsonNode partsNode = contentNode.path("parts");
-            if (partsNode.isMissingNode() || partsNode.isEmpty()) {
-                return ResponseEntity.internalServerError()
-                        .body(Map.of("error", "No parts in Gemini response"));
+    /**
+     * Result of an async generation (long poll). Waits up to {@code wait} seconds for the job to finish:
+     * a finished job answers exactly like a synchronous /generate would have, an unfinished one with 202.
+     */
+    @GetMapping("/jobs/{id}")
+    public DeferredResult<ResponseEntity<?>> getGenerationJob(@PathVariable String id,
+                                                              @RequestParam(value = "wait", defaultValue = "25") long waitSeconds,
+                                                              HttpServletRequest httpRequest) {
+        long waitMillis = TimeUnit.SECONDS.toMillis(Math.min(Math.max(waitSeconds, 0), MAX_JOB_WAIT_SECONDS));
+        DeferredResult<ResponseEntity<?>> result = new DeferredResult<>();
+
+        GenerationJob job = generationJobs.find(id);
+        if (job == null) {
+            result.setResult(ResponseEntity.status(404)
+                    .body(Map.of("error", "Job not found: " + id + " (results are kept for "
+                            + generationJobs.getResultTtlMinutes() + " minutes)")));
+            return result;
+        }
+
+        // An unfinished job from a shared job directory is waited for on the node running it
+        if (!job.isDone() && !generationJobs.isLocal(job) && clusterRouter.isEnabled()
+                && !ClusterRouter.isForwarded(httpRequest)) {
+            Optional<ResponseEntity<String>> forwarded = clusterRouter.forwardTo(job.getNode(), httpRequest, null);
+            if (forwarded.isPresent()) {
+                result.setResult(forwarded.get());
+                return result;
             }
+        }
 
-            String textOutput = partsNode.get(0).path("text").asText();
+        CompletableFuture<GenerationJob> done = generationJobs.whenDone(job);
+        if (done.isDone() || waitMillis == 0) {
+            result.setResult(done.isDone() ? jobResult(done.join()) : jobPending(job));
+            return result;
+        }
 
-            if (textOutput == null || textOutput.isEmpty()) {
-                return ResponseEntity.internalServerError()
-                        .body(Map.of("error", "Empty text in Gemini response"));
-            }
+        // Answered when the job finishes or the wait is over; no servlet thread is held meanwhile
+        DeferredResult<ResponseEntity<?>> longPoll = new DeferredResult<>(waitMillis, () -> {
+            GenerationJob current = generationJobs.find(id);
+            return jobPending(current != null ? current : job);
+        });
+        done.thenAccept(finished -> longPoll.setResult(jobResult(finished)));
+        return longPoll;
+    }
 
-            System.out.println("Extracted text: " + textOutput);
+    private static ResponseEntity<?> jobPending(GenerationJob job) {
+        String location = "/api/goals/jobs/" + job.getId();
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("jobId", job.getId());
+        body.put("state", job.getState().name().toLowerCase());
+        body.put("location", location);
+        return ResponseEntity.status(HttpStatus.ACCEPTED)
+                .header(HttpHeaders.LOCATION, location)
+                .body(body);
+    }
 
-            // ✅ Clean the response (remove markdown code blocks if present)
-            String cleanedJson = textOutput.trim();
-            if (cleanedJson.startsWith("```json")) {
-                cleanedJson = cleanedJson.substring(7);
-            }
-            if (cleanedJson.startsWith("```")) {
-                cleanedJson = cleanedJson.substring(3);
-            }
-            if (cleanedJson.endsWith("```")) {
-                cleanedJson = cleanedJson.substring(0, cleanedJson.length() - 3);
-            }
-            cleanedJson = cleanedJson.trim();
+    private static ResponseEntity<?> jobResult(GenerationJob job) {
+        return new GenerationOutcome(job.getStatus(), job.getBody(), job.getPlanSource(), job.getRetryAfterSeconds())
+                .toResponseEntity();
+    }
 
-            System.out.println("Cleaned JSON: " + cleanedJson);
+    // ================== GOAL ENDPOINTS ==================
 
-            // ✅ Parse the structured JSON into DTO
-            GoalResponseDTO dto = mapper.readValue(cleanedJson, GoalResponseDTO.class);
-            System.out.println("Parsed DTO - Title: " + dto.title + ", Subgoals: " + dto.subgoals.size());
+    @GetMapping("/")
+    public ResponseEntity<?> getAllGoals(HttpServletRequest httpRequest) {
+        // Without a user id there is no owner to route to; any node can read the shared store
+        if (ClusterRouter.userId(httpRequest) != null) {
+            Optional<ResponseEntity<String>> forwarded = clusterRouter.forwardIfRemote(
+                    clusterRouter.routingKey(httpRequest, null), httpRequest, null);
+            if (forwarded.isPresent()) {
+                return forwarded.get();
+            }
+        }
+        // Only the caller's own goals (the anonymous ones for a request without a user id)
+        return ResponseEntity.ok(goalStore.findByOwner(ClusterRouter.userId(httpRequest)));
+    }
 
-            // ✅ STEP 3: Validate and fix the response DTO
-            try {
-                dto = responseValidator.validateAndFix(dto);
-                System.out.println("Response validated and fixed");
-            } catch (IllegalArgumentException e) {
-                System.err.println("Response validation failed: " + e.getMessage());
-                return ResponseEntity.internalServerError()
-                        .body(Map.of("error", "Invalid response from AI: " + e.getMessage()));
+    /**
+     * Aggregate progress of the caller's goals, served from incrementally maintained rollups.
+     * Requests without a user id get the stats of all anonymous goals.
+     */
+    @GetMapping("/stats")
+    public ResponseEntity<?> getStats(HttpServletRequest httpRequest) {
+        String userId = ClusterRouter.userId(httpRequest);
+        if (userId != null) {
+            // The owning node sees every change to this user's goals, so its rollup is the complete one
+            Optional<ResponseEntity<String>> forwarded = clusterRouter.forwardIfRemote(
+                    clusterRouter.routingKey(httpRequest, null), httpRequest, null);
+            if (forwarded.isPresent()) {
+                return forwarded.get();
             }
+        }
+        return ResponseEntity.ok(goalStatsService.getStats(userId));
+    }
 
-            // ✅ STEP 4: Convert DTO into Goal entity
-            Goal goal = convertToGoalEntity(dto);
+    /**
+     * Ranked full-text search over goal and subgoal titles and descriptions.
+     * Every word must match, and the last letters of a word may be left out ("mara" finds "marathon").
+     * Only the caller's own goals are searched.
+     */
+    @GetMapping("/search")
+    public ResponseEntity<?> searchGoals(@RequestParam("q") String query,
+                                         @RequestParam(value = "limit", defaultValue = "20") int limit,
+                                         HttpServletRequest httpRequest) {
+        if (query.isBlank()) {
+            return ResponseEntity.badRequest()
+                    .body(Map.of("error", "Query is required"));
+        }
+        if (ClusterRouter.userId(httpRequest) != null) {
+            // Like /stats: the owning node indexes every change to this user's goals
+            Optional<ResponseEntity<String>> forwarded = clusterRouter.forwardIfRemote(
+                    clusterRouter.routingKey(httpRequest, null), httpRequest, null);
+            if (forwarded.isPresent()) {
+                return forwarded.get();
+            }
+        }
+        return ResponseEntity.ok(goalSearchService.search(query, ClusterRouter.userId(httpRequest),
+                Math.min(Math.max(limit, 1), 100)));
+    }
 
-            System.out.println("=== Goal Generation Successful ===");
-            return ResponseEntity.ok(goal);
+    @GetMapping("/{id}")
+    public ResponseEntity<?> getGoal(@PathVariable int id, HttpServletRequest httpRequest) {
+        Optional<ResponseEntity<String>> forwarded = clusterRouter.forwardIfRemote(
+                clusterRouter.routingKey(httpRequest, "goal:" + id), httpRequest, null);
+        if (forwarded.isPresent()) {
+            return forwarded.get();
+        }
 
-        } catch (HttpClientErrorException e) {
-            System.err.println("=== Gemini API HTTP Error ===");
-            System.err.println("Status: " + e.getStatusCode());
-            System.err.println("Response: " + e.getResponseBodyAsString());
+        return findVisible(id, httpRequest)
+                .<ResponseEntity<?>>map(ResponseEntity::ok)
+                .orElseGet(() -> goalNotFound(id));
+    }
 
-            return ResponseEntity.status(e.getStatusCode())
-                    .body(Map.of(
-                            "error", "Gemini API Error",
-                            "status", e.getStatusCode().toString(),
-                            "details", e.getResponseBodyAsString()
-                    ));
-        } catch (Exception e) {
-            System.err.println("=== Unexpected Error ===");
-            e.printStackTrace();
+    @GetMapping("/by-title/{title}")
+    public ResponseEntity<?> getGoalByTitle(@PathVariable String title, HttpServletRequest httpRequest) {
+        // The app URL-encodes titles with URLEncoder, which turns spaces into '+'
+        String userId = ClusterRouter.userId(httpRequest);
+        return goalStore.findByTitle(userId, title)
+                .or(() -> goalStore.findByTitle(userId, title.replace('+', ' ')))
+                .<ResponseEntity<?>>map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.status(404)
+                        .body(Map.of("error", "Goal not found: " + title)));
+    }
 
-            return ResponseEntity.internalServerError()
-                    .body(Map.of(
-                            "error", "Internal server error",
-                            "message", e.getMessage(),
-                            "type", e.getClass().getSimpleName()
-                    ));
+    @PatchMapping("/{id}/subgoals/complete")
+    public ResponseEntity<?> completeSubgoal(@PathVariable int id,
+                                             @RequestBody Map<String, Object> request,
+                                             HttpServletRequest httpRequest) {
+        Object subgoalTitle = request.get("title");
+        if (subgoalTitle == null) {
+            return ResponseEntity.badRequest()
+                    .body(Map.of("error", "Subgoal title is required"));
         }
+
+        Optional<ResponseEntity<String>> forwarded = clusterRouter.forwardIfRemote(
+                clusterRouter.routingKey(httpRequest, "goal:" + id), httpRequest, request);
+        if (forwarded.isPresent()) {
+            return forwarded.get();
+        }
+
+        if (findVisible(id, httpRequest).isEmpty()) {
+            return goalNotFound(id);
+        }
+        Optional<Goal> goal = goalStore.completeSubgoal(id, subgoalTitle.toString());
+        if (goal.isEmpty()) {
+            return goalNotFound(id);
+        }
+        return ResponseEntity.ok(goal.get());
     }
 
     /**
-     * Convert validated DTO to Goal entity
-     * This method now receives a validated DTO with guaranteed fields
+     * Replaces one incomplete subgoal with a newly generated one and returns the replacement.
+     * Body: {"title": subgoal to replace, "feedback": optional note on what to change}
      */
-    private Goal convertToGoalEntity(GoalResponseDTO dto) {
-        // Parse deadline (already validated and in ISO format from validator)
-        LocalDate deadline;
-        try {
-            deadline = LocalDate.parse(dto.deadline);
-        } catch (Exception e) {
-            // Fallback (should rarely happen due to validator)
+    @PostMapping("/{id}/subgoals/regenerate")
+    public ResponseEntity<?> regenerateSubgoal(@PathVariable int id,
+                                               @RequestBody Map<String, Object> request,
+                                               HttpServletRequest httpRequest) {
+        Object subgoalTitle = request.get("title");
+        if (subgoalTitle == null) {
+            return ResponseEntity.badRequest()
+                    .body(Map.of("error", "Subgoal title is required"));
+        }
+        Lane lane = Lane.fromHeader(httpRequest.getHeader(Lane.HEADER));
+        if (lane == null) {
+            return ResponseEntity.badRequest()
+                    .body(Map.of("error", "Unknown priority: " + httpRequest.getHeader(Lane.HEADER)));
+        }
+
+        String feedback = null;
+        if (request.get("feedback") != null) {
             try {
-                DateTimeFormatter formatter = DateTimeFormatter.ofPattern("dd/MM/yyyy");
-                deadline = LocalDate.parse(dto.deadline, formatter);
-            } catch (Exception e2) {
-                deadline = LocalDate.now().plusMonths(1);
+                feedback = promptValidator.sanitizePrompt(request.get("feedback").toString());
+            } catch (IllegalArgumentException e) {
+                return ResponseEntity.badRequest()
+                        .body(Map.of("error", e.getMessage()));
             }
         }
 
-        Goal goal = new Goal();
-        goal.setId(Integer.parseInt(dto.id));
-        goal.setTitle(dto.title);
-        goal.setDescription(dto.description);
-        goal.setDeadline(deadline);
+        Optional<ResponseEntity<String>> forwarded = clusterRouter.forwardIfRemote(
+                clusterRouter.routingKey(httpRequest, "goal:" + id), httpRequest, request);
+        if (forwarded.isPresent()) {
+            return forwarded.get();
+        }
+
+        return subgoalRegeneration.regenerate(id, subgoalTitle.toString(), feedback,
+                ClusterRouter.userId(httpRequest), lane).toResponseEntity();
+    }
+
+    @DeleteMapping("/{id}")
+    public ResponseEntity<?> deleteGoal(@PathVariable int id, HttpServletRequest httpRequest) {
+        Optional<ResponseEntity<String>> forwarded = clusterRouter.forwardIfRemote(
+                clusterRouter.routingKey(httpRequest, "goal:" + id), httpRequest, null);
+        if (forwarded.isPresent()) {
+            return forwarded.get();
+        }
 
-        for (SubgoalDTO sgDto : dto.subgoals) {
-            Subgoal subgoal = new Subgoal();
-            subgoal.setGoalId(goal.getId());
-            subgoal.setTitle(sgDto.title);
-            subgoal.setDescription(sgDto.description);
-            goal.addSubgoal(subgoal);
+        if (findVisible(id, httpRequest).isEmpty() || !goalStore.delete(id)) {
+            return goalNotFound(id);
         }
+        return ResponseEntity.noContent().build();
+    }
+
+    /**
+     * The goal, unless it belongs to another user: someone else's goal answers 404 like a
+     * missing one, so ids of other users' goals cannot be probed
+     */
+    private Optional<Goal> findVisible(int id, HttpServletRequest httpRequest) {
+        String userId = ClusterRouter.userId(httpRequest);
+        return goalStore.findById(id).filter(goal -> goal.isVisibleTo(userId));
+    }
 
-        return goal;
+    private ResponseEntity<?> goalNotFound(int id) {
+        return ResponseEntity.status(404)
+                .body(Map.of("error", "Goal not found: " + id));
     }
 }
\ No newline at end of file
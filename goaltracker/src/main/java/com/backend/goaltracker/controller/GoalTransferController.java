@@ -0,0 +1,97 @@
+package com.backend.goaltracker.controller;
+
+import com.backend.goaltracker.cluster.ClusterRouter;
+import com.backend.goaltracker.transfer.GoalTransferService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * Bulk export and import of goals, for backups and moving goals between stores.
+ * Both stream: neither the response nor the request body is held in memory.
+ * In cluster mode both are served by the node owning the caller, like the caller's other requests.
+ */
+@RestController
+@RequestMapping("/api/goals")
+@CrossOrigin("*")
+public class GoalTransferController {
+
+    @Autowired
+    private GoalTransferService transferService;
+
+    @Autowired
+    private ClusterRouter clusterRouter;
+
+    /**
+     * The caller's goals in id order, as NDJSON (default) or ?format=binary.
+     * Written straight to the response, so long exports are not cut off by an async timeout.
+     */
+    @GetMapping("/export")
+    public void exportGoals(@RequestParam(value = "format", defaultValue = "ndjson") String format,
+                            HttpServletRequest request,
+                            HttpServletResponse response) throws IOException {
+        GoalTransferService.Format parsed = parseFormat(format);
+        if (parsed == null) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Unknown format: " + format);
+        }
+        String userId = ClusterRouter.userId(request);
+        if (userId != null) {
+            try (ClusterRouter.Streamed forwarded = clusterRouter.streamIfRemote(
+                    clusterRouter.routingKey(request, null), request, response)) {
+                if (forwarded.isForwarded()) {
+                    return;
+                }
+            }
+        }
+        boolean binary = parsed == GoalTransferService.Format.BINARY;
+        response.setContentType(binary ? "application/octet-stream" : "application/x-ndjson");
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+                "attachment; filename=\"goals." + (binary ? "bin" : "ndjson") + "\"");
+        long written = transferService.export(response.getOutputStream(), parsed, userId);
+        System.out.println("✅ Exported " + written + " goals");
+    }
+
+    /**
+     * Adds the goals in the request body (NDJSON, or ?format=binary) under new ids, owned by the caller.
+     * Malformed records are skipped and reported; the rest are imported.
+     */
+    @PostMapping("/import")
+    public ResponseEntity<?> importGoals(@RequestParam(value = "format", defaultValue = "ndjson") String format,
+                                         HttpServletRequest request,
+                                         HttpServletResponse response) throws IOException {
+        GoalTransferService.Format parsed = parseFormat(format);
+        if (parsed == null) {
+            return ResponseEntity.badRequest()
+                    .body(Map.of("error", "Unknown format: " + format));
+        }
+        String userId = ClusterRouter.userId(request);
+        String routingKey = userId != null ? clusterRouter.routingKey(request, null) : null;
+        try (ClusterRouter.Streamed forwarded = routingKey != null
+                ? clusterRouter.streamIfRemote(routingKey, request, response) : null) {
+            if (forwarded != null && forwarded.isForwarded()) {
+                return null;  // the owner's response is already written
+            }
+            HttpServletRequest local = forwarded != null ? forwarded.request() : request;
+            return ResponseEntity.ok(transferService.importGoals(local.getInputStream(), parsed, userId).toMap());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest()
+                    .body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    private static GoalTransferService.Format parseFormat(String format) {
+        try {
+            return GoalTransferService.Format.parse(format);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package com.backend.goaltracker.controller;
+
+import com.backend.goaltracker.idempotency.IdempotencyStore;
+import com.backend.goaltracker.library.PlanLibrary;
+import com.backend.goaltracker.routing.ModelRouter;
+import com.backend.goaltracker.scheduler.GenerationScheduler;
+import com.backend.goaltracker.similarity.SimilarPromptCache;
+import com.backend.goaltracker.usage.TokenUsageMeter;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+/**
+ * Operational counters for dashboards. Values are per node and reset on restart.
+ */
+@RestController
+@RequestMapping("/api/metrics")
+@CrossOrigin("*")
+public class MetricsController {
+
+    @Autowired
+    private SimilarPromptCache similarPrompts;
+
+    @Autowired
+    private TokenUsageMeter tokenUsage;
+
+    @Autowired
+    private GenerationScheduler generationScheduler;
+
+    @Autowired
+    private PlanLibrary planLibrary;
+
+    @Autowired
+    private ModelRouter modelRouter;
+
+    @Autowired
+    private IdempotencyStore idempotencyStore;
+
+    /**
+     * Hit rate of the near-duplicate prompt cache in front of Gemini
+     */
+    @GetMapping("/similar-prompts")
+    public ResponseEntity<?> similarPrompts() {
+        return ResponseEntity.ok(similarPrompts.stats());
+    }
+
+    /**
+     * Gemini tokens used on this node, in total and per endpoint
+     */
+    @GetMapping("/tokens")
+    public ResponseEntity<?> tokens() {
+        return ResponseEntity.ok(tokenUsage.summary());
+    }
+
+    /**
+     * One user's tokens per endpoint, today's usage and the remaining daily quota
+     */
+    @GetMapping("/tokens/users/{userId}")
+    public ResponseEntity<?> userTokens(@PathVariable String userId) {
+        return ResponseEntity.ok(tokenUsage.userSummary(TokenUsageMeter.ANONYMOUS.equals(userId) ? null : userId));
+    }
+
+    /**
+     * Queue depth, drops and queue-wait percentiles of each generation priority lane
+     */
+    @GetMapping("/generation-scheduler")
+    public ResponseEntity<?> generationScheduler() {
+        return ResponseEntity.ok(generationScheduler.stats());
+    }
+
+    /**
+     * Hit rate and classification time of the pre-generated plan library
+     */
+    @GetMapping("/plan-library")
+    public ResponseEntity<?> planLibrary() {
+        return ResponseEntity.ok(planLibrary.stats());
+    }
+
+    /**
+     * Calls, errors, fallbacks and latency histogram of each configured model
+     */
+    @GetMapping("/models")
+    public ResponseEntity<?> models() {
+        return ResponseEntity.ok(modelRouter.stats());
+    }
+
+    /**
+     * Stored Idempotency-Key responses, replays and keys reused with a different request
+     */
+    @GetMapping("/idempotency")
+    public ResponseEntity<?> idempotency() {
+        return ResponseEntity.ok(idempotencyStore.stats());
+    }
+}
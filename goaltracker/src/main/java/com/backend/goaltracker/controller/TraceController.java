@@ -0,0 +1,66 @@
+package com.backend.goaltracker.controller;
+
+import com.backend.goaltracker.tracing.InMemorySpanExporter;
+import com.backend.goaltracker.tracing.Tracer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Recent traces kept in memory on this node, and the upload endpoint for the app's own spans.
+ */
+@RestController
+@RequestMapping("/api/traces")
+@CrossOrigin("*")
+public class TraceController {
+
+    private static final int MAX_UPLOADED_SPANS = 500;
+    private static final String CLIENT_SERVICE = "android-app";
+
+    @Autowired
+    private Tracer tracer;
+
+    @Autowired
+    private InMemorySpanExporter spans;
+
+    /**
+     * The latest requests, newest first, with their trace ids
+     */
+    @GetMapping("")
+    public ResponseEntity<?> recentRequests(@RequestParam(value = "limit", defaultValue = "50") int limit) {
+        return ResponseEntity.ok(spans.recentRequests(Math.max(1, Math.min(limit, 500))));
+    }
+
+    /**
+     * All kept spans of one trace, and how its time splits into client, network, queue, server and model
+     */
+    @GetMapping("/{traceId}")
+    public ResponseEntity<?> trace(@PathVariable String traceId) {
+        Map<String, Object> breakdown = spans.breakdown(traceId, tracer.getService());
+        if (breakdown == null) {
+            return ResponseEntity.status(404)
+                    .body(Map.of("error", "No spans kept for trace " + traceId));
+        }
+        return ResponseEntity.ok(breakdown);
+    }
+
+    /**
+     * Spans recorded by the app (HTTP calls, JSON decoding, rendering), as a JSON array
+     */
+    @PostMapping("/spans")
+    public ResponseEntity<?> uploadSpans(@RequestBody List<Map<String, Object>> uploaded) {
+        if (uploaded.size() > MAX_UPLOADED_SPANS) {
+            return ResponseEntity.badRequest()
+                    .body(Map.of("error", "At most " + MAX_UPLOADED_SPANS + " spans per upload"));
+        }
+        try {
+            return ResponseEntity.ok(Map.of("accepted", tracer.importSpans(uploaded, CLIENT_SERVICE)));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest()
+                    .body(Map.of("error", e.getMessage()));
+        }
+    }
+}
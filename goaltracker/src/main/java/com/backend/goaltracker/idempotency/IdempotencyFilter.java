@@ -0,0 +1,260 @@
+package com.backend.goaltracker.idempotency;
+
+import com.backend.goaltracker.cluster.ClusterRouter;
+import com.backend.goaltracker.service.GenerationOutcome;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.regex.Pattern;
+
+/**
+ * Honors an Idempotency-Key header on goal generation, subgoal regeneration, subgoal completion
+ * and goal deletion:
+ *  - the first request with a key runs and its response is stored,
+ *  - a retry with the same key and body gets the stored response (Idempotent-Replayed: true),
+ *  - a retry while the first request is still running waits a few seconds for its response,
+ *    then gets 409 with Retry-After rather than holding a servlet thread for the whole call,
+ *  - the same key with a different body is rejected with 422.
+ * Keys are scoped per user, method and path. Requests without the header are not affected.
+ *
+ * 5xx and 429 responses are passed to waiting duplicates but not kept, so a later retry runs again.
+ */
+public class IdempotencyFilter extends OncePerRequestFilter {
+
+    public static final String KEY_HEADER = "Idempotency-Key";
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+
+    private static final int MAX_KEY_LENGTH = 255;
+    private static final long MAX_WAIT_MILLIS = 10_000;
+    private static final Pattern GOAL_PATH = Pattern.compile(".*/api/goals/\\d+");
+    private static final String[] STORED_HEADERS = {
+            HttpHeaders.LOCATION, HttpHeaders.RETRY_AFTER, GenerationOutcome.PLAN_SOURCE_HEADER};
+
+    private final IdempotencyStore store;
+    private final ObjectMapper mapper;
+    private final int maxBodyBytes;
+    private final long waitMillis;
+
+    /**
+     * @param waitMillis how long a duplicate waits for the first request; at most 10 s
+     */
+    public IdempotencyFilter(IdempotencyStore store, ObjectMapper mapper, int maxBodyBytes, long waitMillis) {
+        this.store = store;
+        this.mapper = mapper;
+        this.maxBodyBytes = maxBodyBytes;
+        this.waitMillis = Math.min(waitMillis, MAX_WAIT_MILLIS);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return request.getHeader(KEY_HEADER) == null || !isCovered(request.getMethod(), request.getRequestURI());
+    }
+
+    static boolean isCovered(String method, String path) {
+        return switch (method) {
+            case "POST" -> path.endsWith("/api/goals/generate") || path.endsWith("/subgoals/regenerate");
+            case "PATCH" -> path.endsWith("/subgoals/complete");
+            case "DELETE" -> GOAL_PATH.matcher(path).matches();
+            default -> false;
+        };
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String key = request.getHeader(KEY_HEADER).trim();
+        if (key.isEmpty() || key.length() > MAX_KEY_LENGTH) {
+            writeError(response, 400, "Idempotency-Key must be 1 to " + MAX_KEY_LENGTH + " characters");
+            return;
+        }
+        // Bodies here are a prompt or a subgoal title; anything larger is not worth storing against
+        byte[] body = request.getInputStream().readNBytes(maxBodyBytes + 1);
+        if (body.length > maxBodyBytes) {
+            writeError(response, 413, "Request body too large for an idempotent request");
+            return;
+        }
+
+        String userId = ClusterRouter.userId(request);
+        String scope = (userId != null ? userId : "") + " " + request.getMethod() + " "
+                + request.getRequestURI() + " " + key;
+        String fingerprint = fingerprint(request.getQueryString(), body);
+
+        while (true) {
+            IdempotencyStore.Claim claim = store.claim(scope, fingerprint);
+            if (claim.conflict) {
+                writeError(response, 422, "Idempotency-Key was already used with a different request");
+                return;
+            }
+            if (claim.owner) {
+                run(new CachedBodyRequest(request, body), response, chain, scope, claim);
+                return;
+            }
+            try {
+                replay(claim.response.get(waitMillis, TimeUnit.MILLISECONDS), response);
+                return;
+            } catch (TimeoutException e) {
+                response.setHeader(HttpHeaders.RETRY_AFTER, "5");
+                writeError(response, 409, "A request with this Idempotency-Key is still in progress");
+                return;
+            } catch (ExecutionException e) {
+                // The first request failed without a response and released the key: try to claim it
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new ServletException(e);
+            }
+        }
+    }
+
+    private void run(HttpServletRequest request, HttpServletResponse response, FilterChain chain,
+                     String scope, IdempotencyStore.Claim claim) throws ServletException, IOException {
+        ContentCachingResponseWrapper cached = new ContentCachingResponseWrapper(response);
+        try {
+            chain.doFilter(request, cached);
+        } catch (IOException | ServletException | RuntimeException e) {
+            store.abandon(scope, claim, e);
+            throw e;
+        }
+
+        Map<String, String> headers = new LinkedHashMap<>();
+        for (String name : STORED_HEADERS) {
+            String value = cached.getHeader(name);
+            if (value != null) headers.put(name, value);
+        }
+        int status = cached.getStatus();
+        IdempotencyStore.StoredResponse stored = new IdempotencyStore.StoredResponse(
+                status, cached.getContentType(), headers, cached.getContentAsByteArray());
+        store.complete(scope, claim, stored, status < 500 && status != 429);
+        cached.copyBodyToResponse();
+    }
+
+    private static void replay(IdempotencyStore.StoredResponse stored, HttpServletResponse response)
+            throws IOException {
+        response.setStatus(stored.status);
+        if (stored.contentType != null) {
+            response.setContentType(stored.contentType);
+        }
+        stored.headers.forEach(response::setHeader);
+        response.setHeader(REPLAYED_HEADER, "true");
+        response.setContentLength(stored.body.length);
+        response.getOutputStream().write(stored.body);
+    }
+
+    private void writeError(HttpServletResponse response, int status, String message) throws IOException {
+        response.setStatus(status);
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        mapper.writeValue(response.getOutputStream(), Map.of("error", message));
+    }
+
+    private static String fingerprint(String query, byte[] body) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            if (query != null) {
+                digest.update(query.getBytes(StandardCharsets.UTF_8));
+            }
+            digest.update((byte) 0);
+            return HexFormat.of().formatHex(digest.digest(body));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Hands the already-read body to the controller
+     */
+    private static final class CachedBodyRequest extends HttpServletRequestWrapper {
+        private final byte[] body;
+
+        CachedBodyRequest(HttpServletRequest request, byte[] body) {
+            super(request);
+            this.body = body;
+        }
+
+        @Override
+        public ServletInputStream getInputStream() {
+            ByteArrayInputStream in = new ByteArrayInputStream(body);
+            return new ServletInputStream() {
+                @Override
+                public int read() {
+                    return in.read();
+                }
+
+                @Override
+                public int read(byte[] b, int off, int len) {
+                    return in.read(b, off, len);
+                }
+
+                @Override
+                public boolean isFinished() {
+                    return in.available() == 0;
+                }
+
+                @Override
+                public boolean isReady() {
+                    return true;
+                }
+
+                /**
+                 * The whole body is already in memory: it is available at once and stays ready
+                 * until it has been read.
+                 */
+                @Override
+                public void setReadListener(ReadListener listener) {
+                    if (listener == null) {
+                        throw new NullPointerException("listener");
+                    }
+                    try {
+                        if (!isFinished()) {
+                            listener.onDataAvailable();
+                        }
+                        if (isFinished()) {
+                            listener.onAllDataRead();
+                        }
+                    } catch (IOException e) {
+                        listener.onError(e);
+                    }
+                }
+            };
+        }
+
+        @Override
+        public BufferedReader getReader() {
+            String encoding = getCharacterEncoding();
+            return new BufferedReader(new InputStreamReader(getInputStream(),
+                    encoding != null ? Charset.forName(encoding) : StandardCharsets.UTF_8));
+        }
+
+        @Override
+        public int getContentLength() {
+            return body.length;
+        }
+
+        @Override
+        public long getContentLengthLong() {
+            return body.length;
+        }
+    }
+}
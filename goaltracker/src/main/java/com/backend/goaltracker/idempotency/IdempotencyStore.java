@@ -0,0 +1,190 @@
+package com.backend.goaltracker.idempotency;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Responses of requests sent with an Idempotency-Key, so that retries get the first response
+ * instead of running the request again.
+ *
+ * The first request with a key claims it and runs; its response is published through a future,
+ * so duplicates arriving while it is still running wait for the same result. Completed entries
+ * are kept for the TTL. The store holds at most max-entries keys and drops the oldest beyond
+ * that; a dropped key behaves as if it had never been used.
+ */
+@Component
+public class IdempotencyStore {
+
+    /**
+     * What a replay sends back
+     */
+    public static final class StoredResponse {
+        public final int status;
+        public final String contentType;
+        public final Map<String, String> headers;
+        public final byte[] body;
+
+        public StoredResponse(int status, String contentType, Map<String, String> headers, byte[] body) {
+            this.status = status;
+            this.contentType = contentType;
+            this.headers = Map.copyOf(headers);
+            this.body = body;
+        }
+    }
+
+    /**
+     * Result of claiming a key. The owner runs the request and must call complete() or abandon();
+     * everyone else waits on the response.
+     */
+    public static final class Claim {
+        public final boolean owner;
+        public final boolean conflict;   // the key was used with a different request
+        public final CompletableFuture<StoredResponse> response;
+        private final Entry entry;
+
+        private Claim(boolean owner, boolean conflict, Entry entry) {
+            this.owner = owner;
+            this.conflict = conflict;
+            this.entry = entry;
+            this.response = entry != null ? entry.response : null;
+        }
+    }
+
+    private static final class Entry {
+        final String fingerprint;
+        final CompletableFuture<StoredResponse> response = new CompletableFuture<>();
+        long expiresAt;
+
+        Entry(String fingerprint, long expiresAt) {
+            this.fingerprint = fingerprint;
+            this.expiresAt = expiresAt;
+        }
+    }
+
+    private final int maxEntries;
+    private final long ttlNanos;
+    private final LongSupplier nanoClock;
+    private final LinkedHashMap<String, Entry> entries;   // oldest claim first, guarded by this
+
+    private final LongAdder claims = new LongAdder();
+    private final LongAdder replays = new LongAdder();
+    private final LongAdder joinedInFlight = new LongAdder();
+    private final LongAdder conflicts = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    @Autowired
+    public IdempotencyStore(@Value("${goaltracker.idempotency.max-entries:5000}") int maxEntries,
+                            @Value("${goaltracker.idempotency.ttl-seconds:86400}") long ttlSeconds) {
+        this(maxEntries, Duration.ofSeconds(ttlSeconds), System::nanoTime);
+    }
+
+    IdempotencyStore(int maxEntries, Duration ttl, LongSupplier nanoClock) {
+        this.maxEntries = maxEntries;
+        this.ttlNanos = ttl.toNanos();
+        this.nanoClock = nanoClock;
+        this.entries = new LinkedHashMap<>(16, 0.75f, false) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                if (size() <= IdempotencyStore.this.maxEntries) {
+                    return false;
+                }
+                evictions.increment();
+                return true;
+            }
+        };
+    }
+
+    /**
+     * Claims the key for a request with the given fingerprint, or returns the request already
+     * holding it.
+     */
+    public synchronized Claim claim(String key, String fingerprint) {
+        long now = nanoClock.getAsLong();
+        Entry existing = entries.get(key);
+        if (existing != null && now - existing.expiresAt >= 0) {
+            entries.remove(key);
+            existing = null;
+        }
+        if (existing == null) {
+            // Runs that never complete (a stuck request) still expire after the TTL
+            Entry entry = new Entry(fingerprint, now + ttlNanos);
+            entries.put(key, entry);
+            claims.increment();
+            return new Claim(true, false, entry);
+        }
+        if (!existing.fingerprint.equals(fingerprint)) {
+            conflicts.increment();
+            return new Claim(false, true, null);
+        }
+        (existing.response.isDone() ? replays : joinedInFlight).increment();
+        return new Claim(false, false, existing);
+    }
+
+    /**
+     * Publishes the owner's response to everyone waiting on it. With keep=false the key is
+     * released afterwards, so the next retry runs the request again.
+     */
+    public void complete(String key, Claim claim, StoredResponse response, boolean keep) {
+        synchronized (this) {
+            if (entries.get(key) == claim.entry) {
+                if (keep) {
+                    claim.entry.expiresAt = nanoClock.getAsLong() + ttlNanos;
+                } else {
+                    entries.remove(key);
+                }
+            }
+        }
+        claim.entry.response.complete(response);
+    }
+
+    /**
+     * Releases a key whose request failed without a response; waiting duplicates retry the claim.
+     */
+    public void abandon(String key, Claim claim, Throwable failure) {
+        synchronized (this) {
+            if (entries.get(key) == claim.entry) {
+                entries.remove(key);
+            }
+        }
+        claim.entry.response.completeExceptionally(failure);
+    }
+
+    @Scheduled(fixedDelay = 60_000)
+    public synchronized void evictExpired() {
+        long now = nanoClock.getAsLong();
+        Iterator<Entry> it = entries.values().iterator();
+        while (it.hasNext()) {
+            Entry entry = it.next();
+            if (now - entry.expiresAt >= 0) {
+                it.remove();
+            }
+        }
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("entries", size());
+        stats.put("maxEntries", maxEntries);
+        stats.put("ttlSeconds", Duration.ofNanos(ttlNanos).toSeconds());
+        stats.put("claims", claims.sum());
+        stats.put("replays", replays.sum());
+        stats.put("joinedInFlight", joinedInFlight.sum());
+        stats.put("conflicts", conflicts.sum());
+        stats.put("evictions", evictions.sum());
+        return stats;
+    }
+}
@@ -0,0 +1,164 @@
+package com.backend.goaltracker.jobs;
+
+import com.backend.goaltracker.scheduler.Lane;
+import com.fasterxml.jackson.databind.JsonNode;
+
+/**
+ * An async goal generation, as stored in its job file.
+ * Instances are not shared between threads while they change: GenerationJobService replaces a
+ * job with an updated copy on every state change.
+ */
+public class GenerationJob {
+
+    public enum State {
+        PENDING,   // queued, or interrupted by a restart and queued again
+        RUNNING,
+        DONE,      // result available until the result TTL runs out
+        FAILED     // its file could not be written; answered with 500 from this node's memory
+    }
+
+    private String id;
+    private String node;       // base URL of the node that runs it
+    private String prompt;     // sanitized
+    private String userId;
+    private Lane lane;
+    private State state;
+    private int attempts;
+    private long createdAt;
+    private Long finishedAt;
+
+    // Result of a DONE job: what POST /generate would have answered
+    private Integer status;
+    private JsonNode body;
+    private String planSource;
+    private Long retryAfterSeconds;
+
+    public GenerationJob() {
+    }
+
+    GenerationJob copy() {
+        GenerationJob copy = new GenerationJob();
+        copy.id = id;
+        copy.node = node;
+        copy.prompt = prompt;
+        copy.userId = userId;
+        copy.lane = lane;
+        copy.state = state;
+        copy.attempts = attempts;
+        copy.createdAt = createdAt;
+        copy.finishedAt = finishedAt;
+        copy.status = status;
+        copy.body = body;
+        copy.planSource = planSource;
+        copy.retryAfterSeconds = retryAfterSeconds;
+        return copy;
+    }
+
+    public boolean isDone() {
+        return state == State.DONE || state == State.FAILED;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public String getNode() {
+        return node;
+    }
+
+    public void setNode(String node) {
+        this.node = node;
+    }
+
+    public String getPrompt() {
+        return prompt;
+    }
+
+    public void setPrompt(String prompt) {
+        this.prompt = prompt;
+    }
+
+    public String getUserId() {
+        return userId;
+    }
+
+    public void setUserId(String userId) {
+        this.userId = userId;
+    }
+
+    public Lane getLane() {
+        return lane;
+    }
+
+    public void setLane(Lane lane) {
+        this.lane = lane;
+    }
+
+    public State getState() {
+        return state;
+    }
+
+    public void setState(State state) {
+        this.state = state;
+    }
+
+    public int getAttempts() {
+        return attempts;
+    }
+
+    public void setAttempts(int attempts) {
+        this.attempts = attempts;
+    }
+
+    public long getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(long createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public Long getFinishedAt() {
+        return finishedAt;
+    }
+
+    public void setFinishedAt(Long finishedAt) {
+        this.finishedAt = finishedAt;
+    }
+
+    public Integer getStatus() {
+        return status;
+    }
+
+    public void setStatus(Integer status) {
+        this.status = status;
+    }
+
+    public JsonNode getBody() {
+        return body;
+    }
+
+    public void setBody(JsonNode body) {
+        this.body = body;
+    }
+
+    public String getPlanSource() {
+        return planSource;
+    }
+
+    public void setPlanSource(String planSource) {
+        this.planSource = planSource;
+    }
+
+    public Long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+
+    public void setRetryAfterSeconds(Long retryAfterSeconds) {
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+}
@@ -0,0 +1,332 @@
+package com.backend.goaltracker.jobs;
+
+import com.backend.goaltracker.cluster.ClusterRouter;
+import com.backend.goaltracker.scheduler.Lane;
+import com.backend.goaltracker.service.GenerationOutcome;
+import com.backend.goaltracker.service.GoalGenerationService;
+import com.backend.goaltracker.tracing.Span;
+import com.backend.goaltracker.tracing.Tracer;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+
+import jakarta.annotation.PreDestroy;
+import java.io.UncheckedIOException;
+import java.nio.file.Paths;
+import java.time.Clock;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Async goal generation: POST /generate with "Prefer: respond-async" queues a job and returns
+ * its id, and a pool of job workers (sized independently of the web threads) runs the
+ * generations. Results stay available for the result TTL, so a client whose connection dropped
+ * fetches the finished plan instead of paying for a second generation.
+ *
+ * Every state change is written to the job directory before it becomes visible. Jobs that were
+ * pending or running when the node stopped are queued again on startup (a generation that was
+ * interrupted mid-call runs again).
+ *
+ * Properties (goaltracker.jobs.*): dir (data/jobs), workers (2), max-pending (1000),
+ * result-ttl-minutes (60).
+ */
+@Service
+public class GenerationJobService {
+
+    public static final String PREFER_ASYNC = "respond-async";
+
+    /**
+     * Runs one generation; GoalGenerationService in production
+     */
+    interface Generator {
+        GenerationOutcome generate(String sanitizedPrompt, String userId, Lane lane);
+    }
+
+    private final Generator generator;
+    private final GenerationJobStore store;
+    private final String node;
+    private final int workerCount;
+    private final int maxPending;
+    private final long resultTtlMillis;
+    private final Clock clock;
+    private final ObjectMapper mapper = new ObjectMapper()
+            .findAndRegisterModules()
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+
+    private final ConcurrentMap<String, GenerationJob> jobs = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, CompletableFuture<GenerationJob>> completions = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, Span> traceParents = new ConcurrentHashMap<>();   // request span per queued job
+    private final BlockingQueue<String> pending = new LinkedBlockingQueue<>();
+    private final AtomicInteger unfinished = new AtomicInteger();
+    private ExecutorService workers;
+    private ScheduledExecutorService sweeper;
+
+    @Autowired
+    public GenerationJobService(GoalGenerationService generationService, ClusterRouter clusterRouter,
+                                @Value("${goaltracker.jobs.dir:data/jobs}") String dir,
+                                @Value("${goaltracker.jobs.workers:2}") int workerCount,
+                                @Value("${goaltracker.jobs.max-pending:1000}") int maxPending,
+                                @Value("${goaltracker.jobs.result-ttl-minutes:60}") long resultTtlMinutes) {
+        this(generationService::generate, new GenerationJobStore(Paths.get(dir)), clusterRouter.getSelf(),
+                workerCount, maxPending, TimeUnit.MINUTES.toMillis(resultTtlMinutes), Clock.systemUTC());
+    }
+
+    GenerationJobService(Generator generator, GenerationJobStore store, String node, int workerCount,
+                         int maxPending, long resultTtlMillis, Clock clock) {
+        this.generator = generator;
+        this.store = store;
+        this.node = node;
+        this.workerCount = workerCount;
+        this.maxPending = maxPending;
+        this.resultTtlMillis = resultTtlMillis;
+        this.clock = clock;
+    }
+
+    /**
+     * @param preferHeader value of the request's Prefer header (RFC 7240), may be null
+     */
+    public static boolean prefersAsync(String preferHeader) {
+        if (preferHeader == null) {
+            return false;
+        }
+        for (String preference : preferHeader.split(",")) {
+            if (PREFER_ASYNC.equalsIgnoreCase(preference.trim())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // ================== LIFECYCLE ==================
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        int requeued = 0;
+        long now = clock.millis();
+        for (GenerationJob job : store.readAll()) {
+            if (!node.equals(job.getNode()) || jobs.containsKey(job.getId())) {
+                continue;   // another node's job, or submitted before startup finished
+            }
+            if (job.isDone()) {
+                if (expired(job, now)) {
+                    store.delete(job.getId());
+                } else {
+                    jobs.put(job.getId(), job);
+                }
+                continue;
+            }
+            job.setState(GenerationJob.State.PENDING);
+            store.write(job);
+            enqueue(job);
+            requeued++;
+        }
+        System.out.println("✅ Generation jobs: " + jobs.size() + " known, " + requeued + " queued again after restart");
+
+        AtomicInteger workerIds = new AtomicInteger();
+        workers = Executors.newFixedThreadPool(workerCount, r -> {
+            Thread thread = new Thread(r, "generation-job-" + workerIds.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        });
+        for (int i = 0; i < workerCount; i++) {
+            workers.execute(this::work);
+        }
+
+        sweeper = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "generation-job-sweeper");
+            thread.setDaemon(true);
+            return thread;
+        });
+        sweeper.scheduleWithFixedDelay(this::removeExpired, 1, 1, TimeUnit.MINUTES);
+    }
+
+    /**
+     * Unfinished jobs stay in their files and are picked up again by the next start.
+     */
+    @PreDestroy
+    public void stop() {
+        if (workers != null) {
+            workers.shutdownNow();
+            sweeper.shutdownNow();
+        }
+    }
+
+    // ================== JOBS ==================
+
+    /**
+     * Queues a generation.
+     *
+     * @return the pending job, or null if too many jobs are already waiting
+     */
+    public GenerationJob submit(String sanitizedPrompt, String userId, Lane lane) {
+        if (unfinished.get() >= maxPending) {
+            return null;
+        }
+        GenerationJob job = new GenerationJob();
+        job.setId(UUID.randomUUID().toString());
+        job.setNode(node);
+        job.setPrompt(sanitizedPrompt);
+        job.setUserId(userId);
+        job.setLane(lane);
+        job.setState(GenerationJob.State.PENDING);
+        job.setCreatedAt(clock.millis());
+        store.write(job);
+        if (Tracer.current().isRecording()) {
+            traceParents.put(job.getId(), Tracer.current());
+        }
+        enqueue(job);
+        return job;
+    }
+
+    /**
+     * @return the job run by this node, or read from the (possibly shared) job directory; null if unknown
+     */
+    public GenerationJob find(String id) {
+        GenerationJob job = jobs.get(id);
+        if (job == null) {
+            job = store.read(id);
+        }
+        return job == null || (job.isDone() && expired(job, clock.millis())) ? null : job;
+    }
+
+    /**
+     * @return a future completed with the finished job; already completed if the job is done
+     */
+    public CompletableFuture<GenerationJob> whenDone(GenerationJob job) {
+        CompletableFuture<GenerationJob> completion = completions.get(job.getId());
+        if (completion != null) {
+            return completion;
+        }
+        GenerationJob current = jobs.getOrDefault(job.getId(), job);
+        return current.isDone() ? CompletableFuture.completedFuture(current) : new CompletableFuture<>();
+    }
+
+    public boolean isLocal(GenerationJob job) {
+        return node.equals(job.getNode());
+    }
+
+    public long getResultTtlMinutes() {
+        return TimeUnit.MILLISECONDS.toMinutes(resultTtlMillis);
+    }
+
+    private void enqueue(GenerationJob job) {
+        completions.put(job.getId(), new CompletableFuture<>());
+        jobs.put(job.getId(), job);
+        unfinished.incrementAndGet();
+        pending.add(job.getId());
+    }
+
+    // ================== WORKERS ==================
+
+    private void work() {
+        while (!Thread.currentThread().isInterrupted()) {
+            String id;
+            try {
+                id = pending.take();
+            } catch (InterruptedException e) {
+                return;
+            }
+            GenerationJob job = jobs.get(id);
+            if (job != null && job.getState() == GenerationJob.State.PENDING) {
+                run(job);
+            }
+        }
+    }
+
+    void run(GenerationJob queued) {
+        GenerationJob running = queued.copy();
+        running.setState(GenerationJob.State.RUNNING);
+        running.setAttempts(queued.getAttempts() + 1);
+        try {
+            store.write(running);
+        } catch (UncheckedIOException e) {
+            traceParents.remove(running.getId());
+            fail(running, e);
+            return;
+        }
+        jobs.put(running.getId(), running);
+
+        GenerationOutcome outcome;
+        try (Span span = Tracer.startChildOf(traceParents.remove(running.getId()), "generation job", Span.Kind.INTERNAL)) {
+            span.setAttribute("goaltracker.job_id", running.getId());
+            span.setAttribute("goaltracker.job_wait_ms", clock.millis() - running.getCreatedAt());
+            outcome = generator.generate(running.getPrompt(), running.getUserId(), running.getLane());
+        } catch (RuntimeException e) {
+            System.err.println("⚠️ Generation job " + running.getId() + " failed: " + e.getMessage());
+            outcome = new GenerationOutcome(HttpStatus.INTERNAL_SERVER_ERROR.value(),
+                    Map.of("error", "Internal server error", "message", String.valueOf(e.getMessage())), null, null);
+        }
+
+        GenerationJob done = running.copy();
+        done.setState(GenerationJob.State.DONE);
+        done.setFinishedAt(clock.millis());
+        done.setStatus(outcome.getStatus());
+        done.setBody(mapper.valueToTree(outcome.getBody()));
+        done.setPlanSource(outcome.getPlanSource());
+        done.setRetryAfterSeconds(outcome.getRetryAfterSeconds());
+        try {
+            store.write(done);
+        } catch (UncheckedIOException e) {
+            fail(running, e);
+            return;
+        }
+        finish(done);
+    }
+
+    /**
+     * Ends a job whose file could not be written, so its pollers get an answer and the worker
+     * moves on. The job file keeps its last state and is picked up again after a restart.
+     */
+    private void fail(GenerationJob job, UncheckedIOException e) {
+        System.err.println("⚠️ Generation job " + job.getId() + " could not be stored: " + e.getMessage());
+        GenerationJob failed = job.copy();
+        failed.setState(GenerationJob.State.FAILED);
+        failed.setFinishedAt(clock.millis());
+        failed.setStatus(HttpStatus.INTERNAL_SERVER_ERROR.value());
+        failed.setBody(mapper.valueToTree(Map.of("error", "Internal server error",
+                "message", "Generation job could not be stored")));
+        finish(failed);
+    }
+
+    private void finish(GenerationJob done) {
+        jobs.put(done.getId(), done);
+        unfinished.decrementAndGet();
+
+        CompletableFuture<GenerationJob> completion = completions.remove(done.getId());
+        if (completion != null) {
+            completion.complete(done);
+        }
+    }
+
+    // ================== RESULT TTL ==================
+
+    void removeExpired() {
+        long now = clock.millis();
+        jobs.values().removeIf(job -> {
+            if (!expired(job, now)) {
+                return false;
+            }
+            store.delete(job.getId());
+            return true;
+        });
+    }
+
+    private boolean expired(GenerationJob job, long now) {
+        return job.isDone() && job.getFinishedAt() + resultTtlMillis <= now;
+    }
+}
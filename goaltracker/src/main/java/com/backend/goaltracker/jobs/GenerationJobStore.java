@@ -0,0 +1,98 @@
+package com.backend.goaltracker.jobs;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * Directory with one JSON file per generation job, written like FileGoalStore writes goals
+ * (temp file + atomic rename), so a crash never leaves a half-written job behind.
+ * The directory can be shared by the nodes of a cluster; every job records the node running it.
+ */
+public class GenerationJobStore {
+
+    private static final Pattern JOB_ID = Pattern.compile("[A-Za-z0-9-]{1,64}");
+
+    private final Path dir;
+    private final ObjectMapper mapper = new ObjectMapper()
+            .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+
+    public GenerationJobStore(Path dir) {
+        this.dir = dir;
+        try {
+            Files.createDirectories(dir);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public void write(GenerationJob job) {
+        Path tmp = dir.resolve(job.getId() + ".json." + ProcessHandle.current().pid() + ".tmp");
+        try {
+            Files.write(tmp, mapper.writeValueAsBytes(job));
+            Files.move(tmp, jobFile(job.getId()), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * @return the job, or null if there is no such job (or the id is not a valid job id)
+     */
+    public GenerationJob read(String id) {
+        if (!JOB_ID.matcher(id).matches()) {
+            return null;
+        }
+        return read(jobFile(id));
+    }
+
+    public void delete(String id) {
+        try {
+            Files.deleteIfExists(jobFile(id));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * @return all jobs, oldest first
+     */
+    public List<GenerationJob> readAll() {
+        List<GenerationJob> all = new ArrayList<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(dir, "*.json")) {
+            for (Path file : files) {
+                GenerationJob job = read(file);
+                if (job != null) all.add(job);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        all.sort(Comparator.comparingLong(GenerationJob::getCreatedAt));
+        return all;
+    }
+
+    private Path jobFile(String id) {
+        return dir.resolve(id + ".json");
+    }
+
+    private GenerationJob read(Path file) {
+        try {
+            return mapper.readValue(Files.readAllBytes(file), GenerationJob.class);
+        } catch (NoSuchFileException e) {
+            return null;  // expired and deleted in the meantime
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package com.backend.goaltracker.library;
+
+import entities.GoalResponseDTO;
+
+import java.util.List;
+
+/**
+ * One category of the plan library: the prompt its plan is generated from, example prompts for
+ * the classifier, and the last plan generated (null until the first refresh).
+ */
+public class PlanCategory {
+
+    private String name;
+    private String prompt;
+    private List<String> examples;
+    private GoalResponseDTO plan;
+    private int deadlineDays;      // deadline of the plan, in days after the day it is served
+    private String refreshedOn;    // ISO date of the last successful refresh
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public String getPrompt() {
+        return prompt;
+    }
+
+    public void setPrompt(String prompt) {
+        this.prompt = prompt;
+    }
+
+    public List<String> getExamples() {
+        return examples;
+    }
+
+    public void setExamples(List<String> examples) {
+        this.examples = examples;
+    }
+
+    public GoalResponseDTO getPlan() {
+        return plan;
+    }
+
+    public void setPlan(GoalResponseDTO plan) {
+        this.plan = plan;
+    }
+
+    public int getDeadlineDays() {
+        return deadlineDays;
+    }
+
+    public void setDeadlineDays(int deadlineDays) {
+        this.deadlineDays = deadlineDays;
+    }
+
+    public String getRefreshedOn() {
+        return refreshedOn;
+    }
+
+    public void setRefreshedOn(String refreshedOn) {
+        this.refreshedOn = refreshedOn;
+    }
+}
@@ -0,0 +1,283 @@
+package com.backend.goaltracker.library;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import entities.GoalResponseDTO;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.DefaultResourceLoader;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Pre-generated plans for the goals users ask for most (running, saving money, learning a
+ * language, ...). A local classifier assigns the sanitized prompt to a category; when it is
+ * confident and the category has a plan, the plan is served without calling Gemini. Unclear
+ * prompts fall through to the model.
+ *
+ * Plans are generated offline by PlanLibraryRefresher, validated like any generated plan, and
+ * kept in a JSON file so a restart does not regenerate them. In a cluster the nodes share that
+ * file: one node generates the plans and the others reload the file when it changes.
+ * Enable with goaltracker.library.enabled=true.
+ */
+@Service
+public class PlanLibrary {
+
+    /**
+     * Generates the plan of one category; GoalGenerationService.generatePlan in production
+     */
+    public interface PlanGenerator {
+        GoalResponseDTO generate(String prompt) throws Exception;
+    }
+
+    /**
+     * A library plan served for a prompt
+     */
+    public static class LibraryMatch {
+        public final GoalResponseDTO plan;   // a copy, safe to modify
+        public final String category;
+        public final double score;
+
+        LibraryMatch(GoalResponseDTO plan, String category, double score) {
+            this.plan = plan;
+            this.category = category;
+            this.score = score;
+        }
+    }
+
+    private static final int DEFAULT_DEADLINE_DAYS = 30;
+
+    private final boolean enabled;
+    private final double minScore;
+    private final double minMargin;
+    private final Path file;
+    private final List<String> names = new ArrayList<>();
+    private final Map<String, PlanCategory> categories = new ConcurrentHashMap<>();   // replaced, never modified
+    private final PromptClassifier classifier;
+    private FileTime loadedModified;   // of the library file as last loaded or saved, guarded by this
+    private final ObjectMapper mapper = new ObjectMapper()
+            .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+
+    private final LongAdder lookups = new LongAdder();
+    private final LongAdder confident = new LongAdder();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder classifyNanos = new LongAdder();
+
+    @Autowired
+    public PlanLibrary(@Value("${goaltracker.library.enabled:false}") boolean enabled,
+                       @Value("${goaltracker.library.categories:classpath:plan-library/categories.json}") String categories,
+                       @Value("${goaltracker.library.file:data/plan-library.json}") String file,
+                       @Value("${goaltracker.library.min-score:0.6}") double minScore,
+                       @Value("${goaltracker.library.min-margin:0.25}") double minMargin) throws IOException {
+        this(enabled, readCategories(new DefaultResourceLoader().getResource(categories).getInputStream()),
+                Paths.get(file), minScore, minMargin);
+    }
+
+    PlanLibrary(boolean enabled, List<PlanCategory> seeds, Path file, double minScore, double minMargin)
+            throws IOException {
+        this.enabled = enabled;
+        this.file = file;
+        this.minScore = minScore;
+        this.minMargin = minMargin;
+
+        Map<String, List<String>> examples = new LinkedHashMap<>();
+        for (PlanCategory seed : seeds) {
+            List<String> prompts = new ArrayList<>(seed.getExamples());
+            prompts.add(seed.getPrompt());
+            examples.put(seed.getName(), prompts);
+            names.add(seed.getName());
+            categories.put(seed.getName(), seed);
+        }
+        this.classifier = new PromptClassifier(examples);
+
+        // ✅ Plans generated before the restart; categories no longer configured are dropped
+        if (Files.exists(file)) {
+            System.out.println("✅ Plan library loaded " + load() + " plans from " + file);
+        }
+    }
+
+    /**
+     * Loads the library file again if another node has saved it since it was last loaded.
+     *
+     * @return true if plans were reloaded
+     */
+    public synchronized boolean reloadIfChanged() {
+        try {
+            if (!Files.exists(file) || Files.getLastModifiedTime(file).equals(loadedModified)) {
+                return false;
+            }
+            System.out.println("✅ Plan library reloaded " + load() + " plans from " + file);
+            return true;
+        } catch (IOException e) {
+            System.err.println("⚠️ Could not reload plan library from " + file + ": " + e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Takes the stored plans of the configured categories; categories no longer configured are dropped.
+     */
+    private synchronized int load() throws IOException {
+        FileTime modified = Files.getLastModifiedTime(file);
+        int loaded = 0;
+        for (PlanCategory stored : readCategories(Files.newInputStream(file))) {
+            PlanCategory seed = categories.get(stored.getName());
+            if (seed != null && stored.getPlan() != null) {
+                categories.put(seed.getName(), withPlan(seed, stored.getPlan(), stored.getDeadlineDays(),
+                        stored.getRefreshedOn()));
+                loaded++;
+            }
+        }
+        loadedModified = modified;
+        return loaded;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * @param sanitizedPrompt prompt as returned by PromptValidator.sanitizePrompt
+     * @return the category's plan, with its deadline counted from today, if the prompt clearly
+     * belongs to a category that has one
+     */
+    public Optional<LibraryMatch> match(String sanitizedPrompt) {
+        if (!enabled) {
+            return Optional.empty();
+        }
+        lookups.increment();
+        long start = System.nanoTime();
+        PromptClassifier.Classification classification = classifier.classify(sanitizedPrompt);
+        classifyNanos.add(System.nanoTime() - start);
+        if (!classification.isConfident(minScore, minMargin)) {
+            return Optional.empty();
+        }
+        confident.increment();
+
+        PlanCategory category = categories.get(classification.category);
+        if (category.getPlan() == null) {
+            return Optional.empty();
+        }
+        hits.increment();
+        GoalResponseDTO plan = mapper.convertValue(category.getPlan(), GoalResponseDTO.class);
+        plan.deadline = LocalDate.now().plusDays(category.getDeadlineDays()).toString();
+        return Optional.of(new LibraryMatch(plan, category.getName(), classification.score));
+    }
+
+    /**
+     * Generates category plans and saves the library. A category whose generation fails keeps
+     * its previous plan.
+     *
+     * @param onlyMissing only generate plans for categories that have none
+     * @return the number of plans generated
+     */
+    public synchronized int refresh(PlanGenerator generator, boolean onlyMissing) {
+        int refreshed = 0;
+        for (String name : names) {
+            PlanCategory category = categories.get(name);
+            if (onlyMissing && category.getPlan() != null) {
+                continue;
+            }
+            try {
+                GoalResponseDTO plan = generator.generate(category.getPrompt());
+                categories.put(name, withPlan(category, plan, deadlineDays(plan.deadline),
+                        LocalDate.now().toString()));
+                refreshed++;
+            } catch (Exception e) {
+                System.err.println("⚠️ Plan library: could not generate \"" + name + "\": " + e.getMessage());
+            }
+        }
+        if (refreshed > 0) {
+            save();
+        }
+        System.out.println("✅ Plan library refreshed " + refreshed + " of " + names.size() + " categories");
+        return refreshed;
+    }
+
+    PromptClassifier classifier() {
+        return classifier;
+    }
+
+    public Map<String, Object> stats() {
+        long lookupCount = lookups.sum();
+        long hitCount = hits.sum();
+        long withPlans = categories.values().stream().filter(category -> category.getPlan() != null).count();
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", enabled);
+        stats.put("categories", names.size());
+        stats.put("categoriesWithPlans", withPlans);
+        stats.put("lookups", lookupCount);
+        stats.put("confident", confident.sum());
+        stats.put("hits", hitCount);
+        stats.put("hitRate", lookupCount == 0 ? 0.0 : (double) hitCount / lookupCount);
+        stats.put("averageClassifyMicros", lookupCount == 0 ? 0.0 : classifyNanos.sum() / 1000.0 / lookupCount);
+        return stats;
+    }
+
+    // ================== PERSISTENCE ==================
+
+    /**
+     * Writes a temporary file and moves it over the library, so a crash never leaves half a file.
+     */
+    private void save() {
+        try {
+            List<PlanCategory> all = new ArrayList<>();
+            for (String name : names) {
+                all.add(categories.get(name));
+            }
+            Path parent = file.toAbsolutePath().getParent();
+            Files.createDirectories(parent);
+            Path tmp = Files.createTempFile(parent, "plan-library", ".tmp");
+            mapper.writerWithDefaultPrettyPrinter().writeValue(tmp.toFile(), all);
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            loadedModified = Files.getLastModifiedTime(file);
+        } catch (IOException e) {
+            System.err.println("⚠️ Could not save plan library to " + file + ": " + e.getMessage());
+        }
+    }
+
+    static List<PlanCategory> readCategories(InputStream in) throws IOException {
+        try (in) {
+            return new ObjectMapper().disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES)
+                    .readValue(in, new TypeReference<List<PlanCategory>>() {});
+        }
+    }
+
+    private static PlanCategory withPlan(PlanCategory seed, GoalResponseDTO plan, int deadlineDays,
+                                         String refreshedOn) {
+        PlanCategory category = new PlanCategory();
+        category.setName(seed.getName());
+        category.setPrompt(seed.getPrompt());
+        category.setExamples(seed.getExamples());
+        category.setPlan(plan);
+        category.setDeadlineDays(deadlineDays > 0 ? deadlineDays : DEFAULT_DEADLINE_DAYS);
+        category.setRefreshedOn(refreshedOn);
+        return category;
+    }
+
+    private static int deadlineDays(String deadline) {
+        try {
+            return (int) ChronoUnit.DAYS.between(LocalDate.now(), LocalDate.parse(deadline));
+        } catch (DateTimeParseException | NullPointerException e) {
+            return DEFAULT_DEADLINE_DAYS;
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package com.backend.goaltracker.library;
+
+import com.backend.goaltracker.cluster.ClusterRouter;
+import com.backend.goaltracker.service.GoalGenerationService;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Offline job that fills the plan library: categories without a plan are generated right after
+ * startup, and all plans are regenerated once a night, when generation traffic is lowest
+ * (goaltracker.library.refresh-cron, default 03:30). Plans are generated one at a time in the
+ * batch lane, so the job never competes with users.
+ *
+ * In a cluster the nodes share the library file. Only the node owning REFRESH_KEY generates
+ * plans, so each plan is generated once rather than once per node; every node checks the file
+ * once a minute (goaltracker.library.reload-check-ms) and reloads it when it has changed.
+ */
+@Component
+@EnableScheduling
+public class PlanLibraryRefresher {
+
+    static final String REFRESH_KEY = "plan-library-refresh";
+
+    private final PlanLibrary library;
+    private final GoalGenerationService generationService;
+    private final ClusterRouter clusterRouter;
+
+    public PlanLibraryRefresher(PlanLibrary library, GoalGenerationService generationService, ClusterRouter clusterRouter) {
+        this.library = library;
+        this.generationService = generationService;
+        this.clusterRouter = clusterRouter;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void fillMissingPlans() {
+        if (!library.isEnabled() || !clusterRouter.isLocal(REFRESH_KEY)) {
+            return;
+        }
+        Thread thread = new Thread(() -> library.refresh(generationService::generatePlan, true), "plan-library-fill");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    @Scheduled(cron = "${goaltracker.library.refresh-cron:0 30 3 * * *}", zone = "${goaltracker.library.refresh-zone:}")
+    public void refreshAll() {
+        if (!library.isEnabled()) {
+            return;
+        }
+        if (!clusterRouter.isLocal(REFRESH_KEY)) {
+            System.out.println("✅ Plan library refresh skipped: it runs on the node owning '" + REFRESH_KEY + "'");
+            return;
+        }
+        library.refresh(generationService::generatePlan, false);
+    }
+
+    @Scheduled(fixedDelayString = "${goaltracker.library.reload-check-ms:60000}")
+    public void reloadIfChanged() {
+        if (library.isEnabled()) {
+            library.reloadIfChanged();
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package com.backend.goaltracker.library;
+
+import com.backend.goaltracker.similarity.PromptSimilarityIndex;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Assigns a prompt to one of a fixed set of categories, in microseconds and without the model.
+ *
+ * A category scores the TF-IDF cosine similarity between the prompt and its closest example
+ * prompt, over the content words PromptSimilarityIndex compares. Words that appear in many
+ * categories ("learn", "daily") weigh little. Words no example contains still count towards the
+ * prompt's length, so a prompt that is mostly about something else scores low, and a prompt
+ * that mixes two categories scores about the same for both. Immutable and thread-safe; build a
+ * new one when the categories change.
+ */
+public class PromptClassifier {
+
+    /**
+     * Best category for a prompt, with the score of the runner-up to judge how clear the choice was
+     */
+    public static class Classification {
+        public final String category;       // null if no word of the prompt is known
+        public final double score;
+        public final double runnerUpScore;
+
+        Classification(String category, double score, double runnerUpScore) {
+            this.category = category;
+            this.score = score;
+            this.runnerUpScore = runnerUpScore;
+        }
+
+        public boolean isConfident(double minScore, double minMargin) {
+            return category != null && score >= minScore && score - runnerUpScore >= minMargin;
+        }
+    }
+
+    private final String[] categories;
+    private final int[] exampleCategory;
+    private final double[] exampleNorm;
+    private final Map<String, int[]> postings = new HashMap<>();   // word -> examples containing it
+    private final Map<String, Double> idf = new HashMap<>();
+    private final double unknownWordIdf;
+
+    /**
+     * @param examples category name -> example prompts
+     */
+    public PromptClassifier(Map<String, List<String>> examples) {
+        categories = examples.keySet().toArray(new String[0]);
+
+        List<Set<String>> features = new ArrayList<>();
+        List<Integer> owners = new ArrayList<>();
+        Map<String, boolean[]> wordCategories = new HashMap<>();
+        for (int c = 0; c < categories.length; c++) {
+            for (String prompt : examples.get(categories[c])) {
+                Set<String> words = PromptSimilarityIndex.features(prompt);
+                if (words.isEmpty()) continue;
+                for (String word : words) {
+                    wordCategories.computeIfAbsent(word, w -> new boolean[categories.length])[c] = true;
+                }
+                features.add(words);
+                owners.add(c);
+            }
+        }
+
+        // Inverse category frequency: a word of one category weighs most
+        unknownWordIdf = Math.log(1 + categories.length);
+        for (Map.Entry<String, boolean[]> entry : wordCategories.entrySet()) {
+            int categoriesWithWord = 0;
+            for (boolean present : entry.getValue()) {
+                if (present) categoriesWithWord++;
+            }
+            idf.put(entry.getKey(), Math.log(1 + (double) categories.length / categoriesWithWord));
+        }
+
+        exampleCategory = new int[features.size()];
+        exampleNorm = new double[features.size()];
+        Map<String, List<Integer>> examplesWithWord = new HashMap<>();
+        for (int e = 0; e < features.size(); e++) {
+            exampleCategory[e] = owners.get(e);
+            double norm = 0;
+            for (String word : features.get(e)) {
+                double wordIdf = idf.get(word);
+                norm += wordIdf * wordIdf;
+                examplesWithWord.computeIfAbsent(word, w -> new ArrayList<>()).add(e);
+            }
+            exampleNorm[e] = Math.sqrt(norm);
+        }
+        for (Map.Entry<String, List<Integer>> entry : examplesWithWord.entrySet()) {
+            postings.put(entry.getKey(), entry.getValue().stream().mapToInt(Integer::intValue).toArray());
+        }
+    }
+
+    public Classification classify(String prompt) {
+        double[] dot = new double[exampleCategory.length];
+        double queryNorm = 0;
+        boolean known = false;
+        for (String word : PromptSimilarityIndex.features(prompt)) {
+            int[] examples = postings.get(word);
+            double wordIdf = examples == null ? unknownWordIdf : idf.get(word);
+            queryNorm += wordIdf * wordIdf;
+            if (examples == null) continue;
+            known = true;
+            for (int e : examples) {
+                dot[e] += wordIdf * wordIdf;
+            }
+        }
+        if (!known) {
+            return new Classification(null, 0, 0);
+        }
+
+        // Each category scores its closest example
+        double[] scores = new double[categories.length];
+        double norm = Math.sqrt(queryNorm);
+        for (int e = 0; e < dot.length; e++) {
+            double similarity = dot[e] / (norm * exampleNorm[e]);
+            if (similarity > scores[exampleCategory[e]]) {
+                scores[exampleCategory[e]] = similarity;
+            }
+        }
+
+        int best = 0;
+        double runnerUp = 0;
+        for (int c = 1; c < scores.length; c++) {
+            if (scores[c] > scores[best]) {
+                runnerUp = scores[best];
+                best = c;
+            } else if (scores[c] > runnerUp) {
+                runnerUp = scores[c];
+            }
+        }
+        return new Classification(categories[best], scores[best], runnerUp);
+    }
+}
@@ -0,0 +1,84 @@
+package com.backend.goaltracker.ratelimit;
+
+import com.backend.goaltracker.cluster.ClusterRouter;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-user and per-IP token-bucket limits for the requests that call Gemini:
+ * POST /api/goals/generate and POST /api/goals/{id}/subgoals/regenerate.
+ * Span uploads (POST /api/traces/spans) get the per-IP limit only, in buckets of their own.
+ * Rejected requests get 429 with a Retry-After header (seconds).
+ */
+public class GenerateRateLimitFilter extends OncePerRequestFilter {
+
+    private final TokenBucketRateLimiter userLimiter;
+    private final TokenBucketRateLimiter ipLimiter;
+    private final ClusterRouter clusterRouter;
+
+    public GenerateRateLimitFilter(TokenBucketRateLimiter userLimiter, TokenBucketRateLimiter ipLimiter,
+                                   ClusterRouter clusterRouter) {
+        this.userLimiter = userLimiter;
+        this.ipLimiter = ipLimiter;
+        this.clusterRouter = clusterRouter;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        if (!"POST".equals(request.getMethod())) {
+            return true;
+        }
+        if (uploadsSpans(request.getRequestURI())) {
+            return false;
+        }
+        if (!callsGemini(request.getRequestURI())) {
+            return true;
+        }
+        // Forwarded cluster requests were already limited on the node that received them; only a
+        // request whose forward signature ForwardedRequestFilter verified counts as forwarded
+        return clusterRouter.isEnabled() && ClusterRouter.isForwarded(request);
+    }
+
+    static boolean callsGemini(String path) {
+        return path.endsWith("/api/goals/generate") || path.endsWith("/subgoals/regenerate");
+    }
+
+    static boolean uploadsSpans(String path) {
+        return path.endsWith("/api/traces/spans");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        boolean spans = uploadsSpans(request.getRequestURI());
+        String ipKey = spans ? "spans:" + request.getRemoteAddr() : request.getRemoteAddr();
+        long waitNanos = ipLimiter.tryAcquire(ipKey);
+
+        String userId = ClusterRouter.userId(request);
+        if (waitNanos == 0 && userId != null && !spans) {
+            waitNanos = userLimiter.tryAcquire(userId);
+            if (waitNanos > 0) {
+                ipLimiter.refund(ipKey);
+            }
+        }
+
+        if (waitNanos > 0) {
+            long retryAfterSeconds = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + 999_999_999L));
+            response.setStatus(429);
+            response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(retryAfterSeconds));
+            response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            response.getWriter().write("{\"error\":\"Too many requests\",\"retryAfterSeconds\":" + retryAfterSeconds + "}");
+            return;
+        }
+
+        chain.doFilter(request, response);
+    }
+}
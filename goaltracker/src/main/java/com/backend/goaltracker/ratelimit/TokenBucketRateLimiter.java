@@ -0,0 +1,98 @@
+package com.backend.goaltracker.ratelimit;
+
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Lock-free token buckets keyed by client (user id, IP, ...).
+ *
+ * Each bucket is a single AtomicLong holding its "theoretical arrival time" (GCRA), which is
+ * equivalent to a token bucket of size burst refilled at refillPerSecond: a request is allowed
+ * if it would not push that time more than the burst window into the future. Acquiring is one
+ * map lookup plus one CAS and allocates nothing for known keys.
+ */
+public class TokenBucketRateLimiter {
+
+    private final long emissionIntervalNanos;   // time to refill one token
+    private final long burstWindowNanos;        // how far ahead of "now" the bucket may run
+    private final long idleEvictNanos;
+    private final LongSupplier nanoClock;
+    private final ConcurrentHashMap<String, AtomicLong> buckets = new ConcurrentHashMap<>();
+
+    /**
+     * @param burst           bucket capacity (requests allowed back-to-back)
+     * @param refillPerSecond tokens added per second
+     * @param idleEvict       how long a full bucket is kept before evictIdle() may drop it
+     * @param nanoClock       monotonic time source, System::nanoTime in production
+     */
+    public TokenBucketRateLimiter(int burst, double refillPerSecond, long idleEvict, TimeUnit idleEvictUnit,
+                                  LongSupplier nanoClock) {
+        if (burst < 1 || refillPerSecond <= 0) {
+            throw new IllegalArgumentException("burst must be >= 1 and refillPerSecond > 0");
+        }
+        this.emissionIntervalNanos = (long) (TimeUnit.SECONDS.toNanos(1) / refillPerSecond);
+        this.burstWindowNanos = emissionIntervalNanos * (burst - 1);
+        this.idleEvictNanos = idleEvictUnit.toNanos(idleEvict);
+        this.nanoClock = nanoClock;
+    }
+
+    /**
+     * Takes one token for the key.
+     *
+     * @return 0 if the request is allowed, otherwise the nanoseconds until a token is available
+     */
+    public long tryAcquire(String key) {
+        long now = nanoClock.getAsLong();
+        AtomicLong bucket = buckets.get(key);
+        if (bucket == null) {
+            // A fresh bucket is full: its arrival time starts at "now"
+            bucket = buckets.computeIfAbsent(key, k -> new AtomicLong(now));
+        }
+
+        while (true) {
+            long tat = bucket.get();
+            long start = Math.max(tat, now);
+            long waitNanos = start - now - burstWindowNanos;
+            if (waitNanos > 0) {
+                return waitNanos;
+            }
+            if (bucket.compareAndSet(tat, start + emissionIntervalNanos)) {
+                return 0;
+            }
+        }
+    }
+
+    /**
+     * Returns a token taken by tryAcquire, e.g. when a second limiter rejected the same request.
+     */
+    public void refund(String key) {
+        AtomicLong bucket = buckets.get(key);
+        if (bucket != null) {
+            bucket.addAndGet(-emissionIntervalNanos);
+        }
+    }
+
+    /**
+     * Drops buckets that have been full for longer than the idle timeout.
+     * Dropping a full bucket is invisible to clients, since a new bucket also starts full.
+     */
+    public int evictIdle() {
+        long cutoff = nanoClock.getAsLong() - idleEvictNanos;
+        int evicted = 0;
+        Iterator<AtomicLong> it = buckets.values().iterator();
+        while (it.hasNext()) {
+            if (it.next().get() - cutoff < 0) {
+                it.remove();
+                evicted++;
+            }
+        }
+        return evicted;
+    }
+
+    public int size() {
+        return buckets.size();
+    }
+}
@@ -0,0 +1,291 @@
+package com.backend.goaltracker.reminder;
+
+import com.backend.goaltracker.cluster.ClusterRouter;
+import com.backend.goaltracker.store.GoalChangedEvent;
+import com.backend.goaltracker.store.GoalStore;
+import entities.Goal;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PreDestroy;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Fires "due soon" and "overdue" reminders for goal deadlines.
+ *
+ * Every goal with a deadline has up to two timers in a hierarchical timing wheel. The wheel is
+ * filled from the goal store once at startup and then kept current from GoalChangedEvents, so
+ * the store is never polled. A goal's deadline is the end of its deadline day in the configured zone.
+ * In cluster mode a node only schedules the goals it owns (see ClusterRouter), so nodes sharing a
+ * store do not each send the same reminder. A goal is not always created on the node that owns it
+ * (an anonymous goal is created by the owner of its prompt), and the store only tells the node that
+ * made the change, so on every tick a clustered node also reads the goals with ids above the
+ * highest one it has seen.
+ *
+ * Properties (goaltracker.reminders.*): enabled (default true), tick-seconds (60),
+ * due-soon-hours (24), zone (system default), sink (log | memory).
+ */
+@Component
+@ConditionalOnProperty(name = "goaltracker.reminders.enabled", havingValue = "true", matchIfMissing = true)
+public class DeadlineReminderService {
+
+    // 64 slots per level, 4 levels: 2^24 ticks, about 32 years at one tick per minute
+    private static final int BITS_PER_LEVEL = 6;
+    private static final int LEVELS = 4;
+
+    /**
+     * Payload of one timer
+     */
+    private static final class Pending {
+        final ReminderEvent.Type type;
+        final int goalId;
+        final String ownerId;
+        final String title;
+        final LocalDate deadline;
+
+        Pending(ReminderEvent.Type type, Goal goal, LocalDate deadline) {
+            this.type = type;
+            this.goalId = goal.getId();
+            this.ownerId = goal.getOwnerId();
+            this.title = goal.getTitle();
+            this.deadline = deadline;
+        }
+    }
+
+    /**
+     * Timers currently held for one goal
+     */
+    private static final class Tracked {
+        final LocalDate deadline;
+        HierarchicalTimingWheel.Timer<Pending> dueSoon;
+        HierarchicalTimingWheel.Timer<Pending> overdue;
+
+        Tracked(LocalDate deadline) {
+            this.deadline = deadline;
+        }
+    }
+
+    private final GoalStore goalStore;
+    private final ReminderSink sink;
+    private final ClusterRouter clusterRouter;
+    private final Clock clock;
+    private final Duration tick;
+    private final Duration dueSoon;
+    private final ZoneId zone;
+    private final HierarchicalTimingWheel<Pending> wheel;
+    private final Map<Integer, Tracked> tracked = new HashMap<>();
+    private int seenThroughId;  // highest goal id read from the store or a CREATED event
+    private ScheduledExecutorService ticker;
+
+    @Autowired
+    public DeadlineReminderService(GoalStore goalStore,
+                                   ReminderSink sink,
+                                   ClusterRouter clusterRouter,
+                                   @Value("${goaltracker.reminders.tick-seconds:60}") long tickSeconds,
+                                   @Value("${goaltracker.reminders.due-soon-hours:24}") long dueSoonHours,
+                                   @Value("${goaltracker.reminders.zone:}") String zone) {
+        this(goalStore, sink, clusterRouter, Clock.systemUTC(), Duration.ofSeconds(tickSeconds), Duration.ofHours(dueSoonHours),
+                zone.isEmpty() ? ZoneId.systemDefault() : ZoneId.of(zone));
+    }
+
+    DeadlineReminderService(GoalStore goalStore, ReminderSink sink, ClusterRouter clusterRouter, Clock clock,
+                            Duration tick, Duration dueSoon, ZoneId zone) {
+        this.goalStore = goalStore;
+        this.sink = sink;
+        this.clusterRouter = clusterRouter;
+        this.clock = clock;
+        this.tick = tick;
+        this.dueSoon = dueSoon;
+        this.zone = zone;
+        this.wheel = new HierarchicalTimingWheel<>(tick.toMillis(), BITS_PER_LEVEL, LEVELS, clock.millis());
+    }
+
+    // ================== LIFECYCLE ==================
+
+    /**
+     * Loads the deadlines from the store on a background thread, then starts ticking.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        ticker = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "deadline-reminders");
+            thread.setDaemon(true);
+            return thread;
+        });
+        ticker.execute(this::rebuild);
+        ticker.scheduleAtFixedRate(this::tick, tick.toMillis(), tick.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (ticker != null) {
+            ticker.shutdownNow();
+        }
+    }
+
+    /**
+     * Tracks every goal in the store. Reminders that came due while the service was down are not
+     * replayed; only future ones are scheduled.
+     */
+    void rebuild() {
+        long started = System.nanoTime();
+        int goals = 0;
+        for (Goal goal : goalStore.scan()) {
+            synchronized (this) {
+                track(goal, false);
+                seenThroughId = Math.max(seenThroughId, goal.getId());
+            }
+            goals++;
+        }
+        System.out.println("✅ Deadline reminders: " + pendingReminders() + " timers for " + goals + " goals in "
+                + TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started) + " ms");
+    }
+
+    // ================== GOAL CHANGES ==================
+
+    @EventListener
+    public void onGoalChanged(GoalChangedEvent event) {
+        synchronized (this) {
+            switch (event.getType()) {
+                case CREATED:
+                    // A brand-new goal already inside the due-soon window gets its reminder right away
+                    track(event.getGoal(), true);
+                    seenThroughId = Math.max(seenThroughId, event.getGoalId());
+                    break;
+                case UPDATED:
+                    track(event.getGoal(), false);
+                    break;
+                case DELETED:
+                    untrack(event.getGoalId());
+                    break;
+            }
+        }
+    }
+
+    /**
+     * Tracks the goals other nodes created since the last call. Ids only grow, so this reads just
+     * the new goals; later changes to them are routed to their owner, which is this node.
+     */
+    void catchUp() {
+        int afterId;
+        synchronized (this) {
+            afterId = seenThroughId;
+        }
+        List<Goal> page;
+        while (!(page = goalStore.findPage(afterId, GoalStore.SCAN_PAGE_SIZE)).isEmpty()) {
+            synchronized (this) {
+                for (Goal goal : page) {
+                    if (goal.getId() > seenThroughId) {
+                        track(goal, true);
+                        seenThroughId = goal.getId();
+                    }
+                }
+                afterId = seenThroughId;
+            }
+        }
+    }
+
+    private void track(Goal goal, boolean fireMissedDueSoon) {
+        LocalDate deadline = goal.getDeadline();
+        if (deadline == null || goal.isComplete() || !clusterRouter.isLocal(ClusterRouter.routingKey(goal))) {
+            untrack(goal.getId());
+            return;
+        }
+
+        Tracked existing = tracked.get(goal.getId());
+        if (existing != null && existing.deadline.equals(deadline)) {
+            return;  // same deadline, keep the timers (and do not re-fire a reminder already sent)
+        }
+        untrack(goal.getId());
+
+        long now = clock.millis();
+        long overdueAt = deadline.plusDays(1).atStartOfDay(zone).toInstant().toEpochMilli();
+        long dueSoonAt = overdueAt - dueSoon.toMillis();
+
+        Tracked timers = new Tracked(deadline);
+        if (dueSoonAt > now || (fireMissedDueSoon && overdueAt > now)) {
+            timers.dueSoon = wheel.schedule(dueSoonAt,
+                    new Pending(ReminderEvent.Type.DUE_SOON, goal, deadline));
+        }
+        if (overdueAt > now) {
+            timers.overdue = wheel.schedule(overdueAt,
+                    new Pending(ReminderEvent.Type.OVERDUE, goal, deadline));
+        }
+        if (timers.dueSoon != null || timers.overdue != null) {
+            tracked.put(goal.getId(), timers);
+        }
+    }
+
+    private void untrack(int goalId) {
+        Tracked timers = tracked.remove(goalId);
+        if (timers != null) {
+            wheel.cancel(timers.dueSoon);
+            wheel.cancel(timers.overdue);
+        }
+    }
+
+    // ================== FIRING ==================
+
+    /**
+     * Advances the wheel to the current time and delivers whatever expired.
+     * The sink is called outside the lock.
+     */
+    void tick() {
+        if (clusterRouter.isEnabled()) {
+            try {
+                catchUp();
+            } catch (RuntimeException e) {
+                System.err.println("⚠️ Deadline reminders could not read new goals: " + e.getMessage());
+            }
+        }
+
+        List<Pending> expired = new ArrayList<>();
+        synchronized (this) {
+            wheel.advanceTo(clock.millis(), pending -> {
+                expired.add(pending);
+                Tracked timers = tracked.get(pending.goalId);
+                if (timers != null && !isPending(timers.dueSoon) && !isPending(timers.overdue)) {
+                    tracked.remove(pending.goalId);
+                }
+            });
+        }
+
+        Instant firedAt = clock.instant();
+        for (Pending pending : expired) {
+            // The goal may have been completed or deleted by another node sharing the store
+            Optional<Goal> goal = goalStore.findById(pending.goalId);
+            if (goal.isEmpty() || goal.get().isComplete()) {
+                continue;
+            }
+            try {
+                sink.deliver(new ReminderEvent(pending.type, pending.goalId, pending.ownerId, pending.title, pending.deadline, firedAt));
+            } catch (RuntimeException e) {
+                System.err.println("⚠️ Reminder sink failed for goal " + pending.goalId + ": " + e.getMessage());
+            }
+        }
+    }
+
+    private static boolean isPending(HierarchicalTimingWheel.Timer<Pending> timer) {
+        return timer != null && timer.isPending();
+    }
+
+    public synchronized int pendingReminders() {
+        return wheel.size();
+    }
+}
@@ -0,0 +1,210 @@
+package com.backend.goaltracker.reminder;
+
+import java.util.function.Consumer;
+
+/**
+ * Hierarchical timing wheel (Varghese &amp; Lauck) for a large number of far-off timers.
+ *
+ * Level 0 has one slot per tick; every slot of level i covers a whole rotation of level i-1.
+ * A timer is placed in the lowest level whose range covers its delay and moves down a level
+ * ("cascades") when the wheel below wraps around to its slot, so schedule and cancel are O(1)
+ * and advancing costs O(1) per tick plus the work for timers that actually move or fire.
+ * Delays beyond the top level's range wait in the top level and are re-placed on each rotation.
+ *
+ * Not thread-safe; callers synchronize.
+ *
+ * @param <T> payload handed back when a timer expires
+ */
+public final class HierarchicalTimingWheel<T> {
+
+    /**
+     * Handle to a scheduled timer. Slots are intrusive doubly-linked lists, so a handle can
+     * unlink itself in O(1).
+     */
+    public static final class Timer<T> {
+        private final long deadlineTick;
+        private final T payload;
+        private Timer<T> prev;
+        private Timer<T> next;
+        private Slot<T> slot;
+
+        private Timer(long deadlineTick, T payload) {
+            this.deadlineTick = deadlineTick;
+            this.payload = payload;
+        }
+
+        public T getPayload() {
+            return payload;
+        }
+
+        /**
+         * @return true while the timer has neither fired nor been cancelled
+         */
+        public boolean isPending() {
+            return slot != null;
+        }
+    }
+
+    private static final class Slot<T> {
+        Timer<T> head;
+
+        void add(Timer<T> timer) {
+            timer.slot = this;
+            timer.prev = null;
+            timer.next = head;
+            if (head != null) head.prev = timer;
+            head = timer;
+        }
+
+        void unlink(Timer<T> timer) {
+            if (timer.prev != null) timer.prev.next = timer.next;
+            else head = timer.next;
+            if (timer.next != null) timer.next.prev = timer.prev;
+            timer.prev = timer.next = null;
+            timer.slot = null;
+        }
+
+        /**
+         * Detaches every timer and returns them as a singly-linked chain (via next).
+         */
+        Timer<T> drain() {
+            Timer<T> chain = head;
+            head = null;
+            for (Timer<T> t = chain; t != null; t = t.next) {
+                t.slot = null;
+                t.prev = null;
+            }
+            return chain;
+        }
+    }
+
+    private final long tickMillis;
+    private final long startMillis;
+    private final int bitsPerLevel;
+    private final int mask;
+    private final Slot<T>[][] levels;
+    private long currentTick;
+    private int size;
+
+    /**
+     * @param tickMillis   resolution; timers fire at most one tick late
+     * @param bitsPerLevel log2 of the slots per level (6 = 64 slots)
+     * @param levelCount   number of levels; the covered range is 2^(bitsPerLevel * levelCount) ticks
+     * @param startMillis  wall-clock time of tick 0
+     */
+    public HierarchicalTimingWheel(long tickMillis, int bitsPerLevel, int levelCount, long startMillis) {
+        if (tickMillis <= 0 || bitsPerLevel <= 0 || levelCount <= 0 || bitsPerLevel * levelCount > 62) {
+            throw new IllegalArgumentException("Invalid timing wheel dimensions");
+        }
+        this.tickMillis = tickMillis;
+        this.startMillis = startMillis;
+        this.bitsPerLevel = bitsPerLevel;
+        this.mask = (1 << bitsPerLevel) - 1;
+        @SuppressWarnings("unchecked")
+        Slot<T>[][] slots = (Slot<T>[][]) new Slot<?>[levelCount][1 << bitsPerLevel];
+        this.levels = slots;
+        for (Slot<T>[] level : levels) {
+            for (int i = 0; i < level.length; i++) {
+                level[i] = new Slot<>();
+            }
+        }
+    }
+
+    /**
+     * Schedules a payload. Deadlines that are already due fire on the next tick.
+     */
+    public Timer<T> schedule(long deadlineMillis, T payload) {
+        long deadlineTick = Math.max(currentTick + 1, ceilDiv(deadlineMillis - startMillis, tickMillis));
+        Timer<T> timer = new Timer<>(deadlineTick, payload);
+        place(timer);
+        size++;
+        return timer;
+    }
+
+    /**
+     * @return true if the timer was pending and is now cancelled
+     */
+    public boolean cancel(Timer<T> timer) {
+        if (timer == null || timer.slot == null) {
+            return false;
+        }
+        timer.slot.unlink(timer);
+        size--;
+        return true;
+    }
+
+    /**
+     * Moves the wheel forward to the given time and hands every expired payload to the consumer,
+     * in deadline order (timers in the same tick in no particular order).
+     *
+     * @return the number of expired timers
+     */
+    public int advanceTo(long nowMillis, Consumer<T> expired) {
+        long targetTick = Math.floorDiv(nowMillis - startMillis, tickMillis);
+        int fired = 0;
+        while (currentTick < targetTick) {
+            currentTick++;
+            cascade();
+
+            Timer<T> chain = levels[0][(int) (currentTick & mask)].drain();
+            while (chain != null) {
+                Timer<T> next = chain.next;
+                chain.next = null;
+                size--;
+                fired++;
+                expired.accept(chain.payload);
+                chain = next;
+            }
+        }
+        return fired;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public long currentTimeMillis() {
+        return startMillis + currentTick * tickMillis;
+    }
+
+    /**
+     * Re-places the timers of every higher-level slot that the current tick has just reached,
+     * highest level first so timers can fall through several levels in one pass.
+     */
+    private void cascade() {
+        for (int level = levels.length - 1; level >= 1; level--) {
+            int shift = bitsPerLevel * level;
+            if ((currentTick & ((1L << shift) - 1)) != 0) {
+                continue;
+            }
+            Timer<T> chain = levels[level][(int) ((currentTick >>> shift) & mask)].drain();
+            while (chain != null) {
+                Timer<T> next = chain.next;
+                chain.next = null;
+                place(chain);
+                chain = next;
+            }
+        }
+    }
+
+    private void place(Timer<T> timer) {
+        long delay = timer.deadlineTick - currentTick;
+        int top = levels.length - 1;
+        for (int level = 0; level <= top; level++) {
+            int shift = bitsPerLevel * (level + 1);
+            if (delay < (1L << shift)) {
+                int index = (int) ((timer.deadlineTick >>> (bitsPerLevel * level)) & mask);
+                levels[level][index].add(timer);
+                return;
+            }
+        }
+
+        // Beyond the covered range: park in the top-level slot visited last, then re-place from there
+        long parkedTick = currentTick + (1L << (bitsPerLevel * levels.length)) - 1;
+        levels[top][(int) ((parkedTick >>> (bitsPerLevel * top)) & mask)].add(timer);
+    }
+
+    private static long ceilDiv(long x, long y) {
+        return -Math.floorDiv(-x, y);
+    }
+}
@@ -0,0 +1,40 @@
+package com.backend.goaltracker.reminder;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * Keeps the most recent reminders in memory, for tests and local runs.
+ */
+@Component
+@ConditionalOnProperty(name = "goaltracker.reminders.sink", havingValue = "memory")
+public class InMemoryReminderSink implements ReminderSink {
+
+    private static final int CAPACITY = 10_000;
+
+    private final Deque<ReminderEvent> events = new ArrayDeque<>();
+
+    @Override
+    public synchronized void deliver(ReminderEvent event) {
+        if (events.size() == CAPACITY) {
+            events.removeFirst();
+        }
+        events.addLast(event);
+    }
+
+    /**
+     * @return the delivered reminders, oldest first
+     */
+    public synchronized List<ReminderEvent> events() {
+        return new ArrayList<>(events);
+    }
+
+    public synchronized void clear() {
+        events.clear();
+    }
+}
@@ -0,0 +1,17 @@
+package com.backend.goaltracker.reminder;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Default sink: writes reminders to the service log.
+ */
+@Component
+@ConditionalOnProperty(name = "goaltracker.reminders.sink", havingValue = "log", matchIfMissing = true)
+public class LoggingReminderSink implements ReminderSink {
+
+    @Override
+    public void deliver(ReminderEvent event) {
+        System.out.println("⏰ Reminder: " + event);
+    }
+}
@@ -0,0 +1,64 @@
+package com.backend.goaltracker.reminder;
+
+import java.time.Instant;
+import java.time.LocalDate;
+
+/**
+ * A deadline reminder for one goal.
+ */
+public class ReminderEvent {
+
+    public enum Type {
+        DUE_SOON,
+        OVERDUE
+    }
+
+    private final Type type;
+    private final int goalId;
+    private final String ownerId;
+    private final String title;
+    private final LocalDate deadline;
+    private final Instant firedAt;
+
+    /**
+     * @param ownerId the user to remind, or null for an anonymous goal
+     */
+    public ReminderEvent(Type type, int goalId, String ownerId, String title, LocalDate deadline, Instant firedAt) {
+        this.type = type;
+        this.goalId = goalId;
+        this.ownerId = ownerId;
+        this.title = title;
+        this.deadline = deadline;
+        this.firedAt = firedAt;
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public int getGoalId() {
+        return goalId;
+    }
+
+    public String getOwnerId() {
+        return ownerId;
+    }
+
+    public String getTitle() {
+        return title;
+    }
+
+    public LocalDate getDeadline() {
+        return deadline;
+    }
+
+    public Instant getFiredAt() {
+        return firedAt;
+    }
+
+    @Override
+    public String toString() {
+        return type + " goal " + goalId + " \"" + title + "\" (deadline " + deadline + ", owner "
+                + (ownerId == null ? "anonymous" : ownerId) + ")";
+    }
+}
@@ -0,0 +1,10 @@
+package com.backend.goaltracker.reminder;
+
+/**
+ * Receives reminders as they fire. Picked with goaltracker.reminders.sink (log | memory).
+ * Called from the reminder thread, so implementations should not block for long.
+ */
+public interface ReminderSink {
+
+    void deliver(ReminderEvent event);
+}
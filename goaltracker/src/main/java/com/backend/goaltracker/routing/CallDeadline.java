@@ -0,0 +1,41 @@
+package com.backend.goaltracker.routing;
+
+import java.util.concurrent.Callable;
+
+/**
+ * The time by which the answer of the Gemini call running on this thread is still of use.
+ * Set by GenerationScheduler around each job; ModelRouter sizes its attempts to fit in it.
+ */
+public final class CallDeadline {
+
+    private static final ThreadLocal<Long> DEADLINE_NANOS = new ThreadLocal<>();
+
+    private CallDeadline() {
+    }
+
+    /**
+     * Runs the task with a deadline the given time from now
+     */
+    public static <T> T within(long remainingNanos, Callable<T> task) throws Exception {
+        Long outer = DEADLINE_NANOS.get();
+        DEADLINE_NANOS.set(System.nanoTime() + remainingNanos);
+        try {
+            return task.call();
+        } finally {
+            if (outer != null) {
+                DEADLINE_NANOS.set(outer);
+            } else {
+                DEADLINE_NANOS.remove();
+            }
+        }
+    }
+
+    /**
+     * @return nanoseconds left until the deadline (negative once it has passed),
+     * or Long.MAX_VALUE if the call has no deadline
+     */
+    static long remainingNanos() {
+        Long deadline = DEADLINE_NANOS.get();
+        return deadline == null ? Long.MAX_VALUE : deadline - System.nanoTime();
+    }
+}
@@ -0,0 +1,75 @@
+package com.backend.goaltracker.routing;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts of call latencies in fixed buckets, from tens of milliseconds (small models) to a
+ * minute (long generations). Recording is lock-free; percentiles are estimated as the upper
+ * bound of the bucket they fall in.
+ */
+public class LatencyHistogram {
+
+    private static final long[] BOUNDS_MS = {50, 100, 250, 500, 1_000, 2_000, 5_000, 10_000, 20_000, 60_000};
+
+    private final LongAdder[] counts = new LongAdder[BOUNDS_MS.length + 1];   // last: above every bound
+
+    public LatencyHistogram() {
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] = new LongAdder();
+        }
+    }
+
+    public void record(long nanos) {
+        long millis = TimeUnit.NANOSECONDS.toMillis(nanos);
+        int bucket = 0;
+        while (bucket < BOUNDS_MS.length && millis > BOUNDS_MS[bucket]) {
+            bucket++;
+        }
+        counts[bucket].increment();
+    }
+
+    public long count() {
+        long total = 0;
+        for (LongAdder count : counts) {
+            total += count.sum();
+        }
+        return total;
+    }
+
+    /**
+     * @return upper bound in ms of the bucket holding the percentile, -1 above the last bound, 0 if empty
+     */
+    public long percentileMillis(double percentile) {
+        long[] snapshot = new long[counts.length];
+        long total = 0;
+        for (int i = 0; i < counts.length; i++) {
+            snapshot[i] = counts[i].sum();
+            total += snapshot[i];
+        }
+        if (total == 0) {
+            return 0;
+        }
+        long rank = (long) Math.ceil(percentile * total);
+        long seen = 0;
+        for (int i = 0; i < BOUNDS_MS.length; i++) {
+            seen += snapshot[i];
+            if (seen >= rank) return BOUNDS_MS[i];
+        }
+        return -1;
+    }
+
+    /**
+     * @return count per bucket, keyed by upper bound in ms ("+Inf" for the last)
+     */
+    public Map<String, Long> buckets() {
+        Map<String, Long> buckets = new LinkedHashMap<>();
+        for (int i = 0; i < BOUNDS_MS.length; i++) {
+            buckets.put(String.valueOf(BOUNDS_MS[i]), counts[i].sum());
+        }
+        buckets.put("+Inf", counts[BOUNDS_MS.length].sum());
+        return buckets;
+    }
+}
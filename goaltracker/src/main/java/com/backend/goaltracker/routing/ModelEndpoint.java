@@ -0,0 +1,109 @@
+package com.backend.goaltracker.routing;
+
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.web.client.RestTemplate;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * One configured model: where it is, which prompts it is good enough for, and how it has been
+ * performing lately.
+ */
+public class ModelEndpoint {
+
+    private final String name;
+    private final String url;
+    private final String apiKey;
+    private final int maxPromptChars;     // longest prompt this model answers well; 0 = any
+    private final Duration timeout;
+    private final RestTemplate restTemplate;
+
+    // Recent performance, exponentially weighted
+    private double latencyEwmaNanos;
+    private double errorRate;
+    private boolean sampled;
+    private long lastFailureNanos;
+
+    final LatencyHistogram latencies = new LatencyHistogram();
+    final LongAdder calls = new LongAdder();
+    final LongAdder errors = new LongAdder();
+    final LongAdder timeouts = new LongAdder();
+    final LongAdder fallbacks = new LongAdder();   // calls passed on to another model after this one failed
+
+    public ModelEndpoint(String name, String url, String apiKey, int maxPromptChars, Duration timeout) {
+        this.name = name;
+        this.url = url;
+        this.apiKey = apiKey;
+        this.maxPromptChars = maxPromptChars;
+        this.timeout = timeout;
+
+        this.restTemplate = newRestTemplate(timeout);
+    }
+
+    private static RestTemplate newRestTemplate(Duration timeout) {
+        SimpleClientHttpRequestFactory requestFactory = new SimpleClientHttpRequestFactory();
+        requestFactory.setConnectTimeout((int) Math.min(timeout.toMillis(), 5_000));
+        requestFactory.setReadTimeout((int) timeout.toMillis());
+        return new RestTemplate(requestFactory);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getUrl() {
+        return url;
+    }
+
+    public int getMaxPromptChars() {
+        return maxPromptChars;
+    }
+
+    public Duration getTimeout() {
+        return timeout;
+    }
+
+    String requestUrl() {
+        return apiKey == null || apiKey.isEmpty() ? url : url + "?key=" + apiKey;
+    }
+
+    /**
+     * @param timeout the model's own timeout, or less when the caller's deadline is closer
+     */
+    RestTemplate restTemplate(Duration timeout) {
+        // Connections are not pooled, so a template for a shorter timeout costs no more than a call
+        return timeout.compareTo(this.timeout) >= 0 ? restTemplate : newRestTemplate(timeout);
+    }
+
+    boolean accepts(int promptChars) {
+        return maxPromptChars <= 0 || promptChars <= maxPromptChars;
+    }
+
+    synchronized double latencyEwmaNanos() {
+        return latencyEwmaNanos;
+    }
+
+    synchronized double errorRate() {
+        return errorRate;
+    }
+
+    synchronized long lastFailureNanos() {
+        return lastFailureNanos;
+    }
+
+    /**
+     * @param latencyNanos time the call took; counted only when it says something about the model
+     *                     (a success or a timeout), not for a refused connection
+     */
+    synchronized void recordOutcome(boolean failed, Long latencyNanos, double alpha, long nowNanos) {
+        errorRate += alpha * ((failed ? 1 : 0) - errorRate);
+        if (failed) {
+            lastFailureNanos = nowNanos;
+        }
+        if (latencyNanos != null) {
+            latencyEwmaNanos = sampled ? latencyEwmaNanos + alpha * (latencyNanos - latencyEwmaNanos) : latencyNanos;
+            sampled = true;
+        }
+    }
+}
@@ -0,0 +1,231 @@
+package com.backend.goaltracker.routing;
+
+import com.backend.goaltracker.tracing.Span;
+import com.backend.goaltracker.tracing.Tracer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.env.Environment;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestClientException;
+
+import java.net.SocketTimeoutException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Sends each Gemini request to the fastest configured model that is good enough for it, and
+ * falls back to the next one when a model times out or fails.
+ *
+ * A model is good enough for prompts up to its max-prompt-chars (a small, fast model for short
+ * prompts, a larger one for everything). Among those, models that have been failing are tried
+ * last, and the rest in order of their recent latency (EWMA); a model with no calls yet is tried
+ * first so it gets measured. A failing model gets another chance after the cooldown.
+ *
+ * Within a GenerationScheduler job each attempt waits at most for what is left of the job's
+ * deadline (see CallDeadline), and no further model is tried once the deadline has passed.
+ *
+ * Configure with goaltracker.models.names=fast,quality and goaltracker.models.&lt;name&gt;.url,
+ * .key, .max-prompt-chars, .timeout-ms. Without names there is one model, gemini.api.url.
+ */
+@Component
+public class ModelRouter {
+
+    /**
+     * A model's answer and which model gave it
+     */
+    public static class Reply {
+        public final String model;
+        public final ResponseEntity<String> response;
+
+        Reply(String model, ResponseEntity<String> response) {
+            this.model = model;
+            this.response = response;
+        }
+    }
+
+    private final List<ModelEndpoint> endpoints;
+    private final double alpha;
+    private final double maxErrorRate;
+    private final long cooldownNanos;
+
+    @Autowired
+    public ModelRouter(Environment environment,
+                       @Value("${goaltracker.models.names:}") String names,
+                       @Value("${gemini.api.url}") String geminiUrl,
+                       @Value("${gemini.api.key}") String geminiKey,
+                       @Value("${goaltracker.models.ewma-alpha:0.2}") double alpha,
+                       @Value("${goaltracker.models.max-error-rate:0.5}") double maxErrorRate,
+                       @Value("${goaltracker.models.cooldown-ms:30000}") long cooldownMs) {
+        this(configuredEndpoints(environment, names, geminiUrl, geminiKey), alpha, maxErrorRate,
+                Duration.ofMillis(cooldownMs));
+        for (ModelEndpoint endpoint : endpoints) {
+            System.out.println("✅ Model " + endpoint.getName() + ": " + endpoint.getUrl()
+                    + (endpoint.getMaxPromptChars() > 0 ? " (prompts up to " + endpoint.getMaxPromptChars() + " chars)" : ""));
+        }
+    }
+
+    ModelRouter(List<ModelEndpoint> endpoints, double alpha, double maxErrorRate, Duration cooldown) {
+        if (endpoints.isEmpty()) {
+            throw new IllegalArgumentException("At least one model is required");
+        }
+        this.endpoints = List.copyOf(endpoints);
+        this.alpha = alpha;
+        this.maxErrorRate = maxErrorRate;
+        this.cooldownNanos = cooldown.toNanos();
+    }
+
+    /**
+     * Posts the request to the best model for the prompt, falling back on timeouts, 5xx and 429.
+     * Other 4xx answers are about the request, not the model, and are thrown without fallback.
+     *
+     * @param promptChars length of the prompt in the request
+     * @throws RestClientException the last model's error if every model failed or the call's
+     *                             deadline passed
+     */
+    public Reply post(int promptChars, HttpEntity<?> request) {
+        List<ModelEndpoint> candidates = candidates(promptChars);
+        RestClientException lastError = null;
+        for (int i = 0; i < candidates.size(); i++) {
+            ModelEndpoint endpoint = candidates.get(i);
+            long remainingNanos = CallDeadline.remainingNanos();
+            if (remainingNanos <= 0) {
+                System.err.println("⚠️ Deadline passed, not trying model " + endpoint.getName());
+                throw lastError != null ? lastError
+                        : new ResourceAccessException("Deadline passed before any model was tried");
+            }
+            // Rounded up: a read timeout of 0 would mean no timeout at all
+            Duration timeout = remainingNanos < endpoint.getTimeout().toNanos()
+                    ? Duration.ofMillis(Math.max(1, TimeUnit.NANOSECONDS.toMillis(remainingNanos + 999_999)))
+                    : endpoint.getTimeout();
+            endpoint.calls.increment();
+            long start = System.nanoTime();
+            try (Span span = Tracer.start(Tracer.MODEL_SPAN_PREFIX + endpoint.getName(), Span.Kind.CLIENT)) {
+                span.setAttribute("goaltracker.model", endpoint.getName());
+                span.setAttribute("goaltracker.prompt_chars", promptChars);
+                span.setAttribute("goaltracker.attempt", i + 1);
+                try {
+                    ResponseEntity<String> response = endpoint.restTemplate(timeout)
+                            .postForEntity(endpoint.requestUrl(), request, String.class);
+                    long latency = System.nanoTime() - start;
+                    endpoint.latencies.record(latency);
+                    endpoint.recordOutcome(false, latency, alpha, System.nanoTime());
+                    span.setAttribute("http.status_code", response.getStatusCode().value());
+                    return new Reply(endpoint.getName(), response);
+                } catch (HttpClientErrorException e) {
+                    span.setAttribute("http.status_code", e.getStatusCode().value());
+                    span.setError(e.getStatusText());
+                    if (e.getStatusCode() != HttpStatus.TOO_MANY_REQUESTS) {
+                        throw e;
+                    }
+                    lastError = failed(endpoint, e, null);
+                } catch (RestClientException e) {
+                    boolean timedOut = e instanceof ResourceAccessException && e.getCause() instanceof SocketTimeoutException;
+                    span.setError(timedOut ? "timeout" : e.getMessage());
+                    if (timedOut && timeout.compareTo(endpoint.getTimeout()) < 0) {
+                        // Cut short by the caller's deadline, which says nothing about the model
+                        endpoint.timeouts.increment();
+                        throw e;
+                    }
+                    lastError = failed(endpoint, e, timedOut ? System.nanoTime() - start : null);
+                }
+            }
+            if (i + 1 < candidates.size()) {
+                endpoint.fallbacks.increment();
+                System.err.println("⚠️ Model " + endpoint.getName() + " failed (" + lastError.getMessage()
+                        + "), falling back to " + candidates.get(i + 1).getName());
+            }
+        }
+        throw lastError;
+    }
+
+    /**
+     * @return the models to try for a prompt, best first
+     */
+    List<ModelEndpoint> candidates(int promptChars) {
+        List<ModelEndpoint> eligible = endpoints.stream()
+                .filter(endpoint -> endpoint.accepts(promptChars))
+                .collect(Collectors.toCollection(ArrayList::new));
+        if (eligible.isEmpty()) {
+            // Longer than any model is meant for: the most capable first
+            eligible = new ArrayList<>(endpoints);
+            eligible.sort(Comparator.comparingInt(ModelEndpoint::getMaxPromptChars).reversed());
+            return eligible;
+        }
+        long now = System.nanoTime();
+        eligible.sort(Comparator.comparing((ModelEndpoint endpoint) -> !isHealthy(endpoint, now))
+                .thenComparingDouble(ModelEndpoint::latencyEwmaNanos));
+        return eligible;
+    }
+
+    private boolean isHealthy(ModelEndpoint endpoint, long now) {
+        return endpoint.errorRate() <= maxErrorRate || now - endpoint.lastFailureNanos() >= cooldownNanos;
+    }
+
+    private RestClientException failed(ModelEndpoint endpoint, RestClientException error, Long latencyNanos) {
+        endpoint.errors.increment();
+        if (latencyNanos != null) {
+            endpoint.timeouts.increment();
+            endpoint.latencies.record(latencyNanos);
+        }
+        endpoint.recordOutcome(true, latencyNanos, alpha, System.nanoTime());
+        return error;
+    }
+
+    // ================== METRICS ==================
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        long now = System.nanoTime();
+        for (ModelEndpoint endpoint : endpoints) {
+            Map<String, Object> model = new LinkedHashMap<>();
+            model.put("url", endpoint.getUrl());
+            model.put("maxPromptChars", endpoint.getMaxPromptChars());
+            model.put("timeoutMs", endpoint.getTimeout().toMillis());
+            model.put("healthy", isHealthy(endpoint, now));
+            model.put("calls", endpoint.calls.sum());
+            model.put("errors", endpoint.errors.sum());
+            model.put("timeouts", endpoint.timeouts.sum());
+            model.put("fallbacks", endpoint.fallbacks.sum());
+            model.put("errorRate", endpoint.errorRate());
+            model.put("latencyEwmaMs", TimeUnit.NANOSECONDS.toMillis((long) endpoint.latencyEwmaNanos()));
+            model.put("latencyP50Ms", endpoint.latencies.percentileMillis(0.50));
+            model.put("latencyP95Ms", endpoint.latencies.percentileMillis(0.95));
+            model.put("latencyHistogramMs", endpoint.latencies.buckets());
+            stats.put(endpoint.getName(), model);
+        }
+        return stats;
+    }
+
+    private static List<ModelEndpoint> configuredEndpoints(Environment environment, String names, String geminiUrl,
+                                                           String geminiKey) {
+        List<String> nameList = Arrays.stream(names.split(","))
+                .map(String::trim)
+                .filter(name -> !name.isEmpty())
+                .collect(Collectors.toList());
+        if (nameList.isEmpty()) {
+            nameList = List.of("gemini");
+        }
+        List<ModelEndpoint> endpoints = new ArrayList<>();
+        for (String name : nameList) {
+            String prefix = "goaltracker.models." + name + ".";
+            endpoints.add(new ModelEndpoint(name,
+                    environment.getProperty(prefix + "url", geminiUrl),
+                    environment.getProperty(prefix + "key", geminiKey),
+                    environment.getProperty(prefix + "max-prompt-chars", Integer.class, 0),
+                    Duration.ofMillis(environment.getProperty(prefix + "timeout-ms", Long.class, 60_000L))));
+        }
+        return endpoints;
+    }
+}
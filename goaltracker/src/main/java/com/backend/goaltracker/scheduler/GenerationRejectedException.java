@@ -0,0 +1,33 @@
+package com.backend.goaltracker.scheduler;
+
+/**
+ * A generation request the scheduler will not (or could no longer) answer in time.
+ */
+public class GenerationRejectedException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    public enum Reason {
+        QUEUE_FULL,   // no room, and nothing of lower priority to make room
+        EVICTED,      // queued, then pushed out by a higher-priority request
+        DEADLINE,     // still queued when there was no longer time to call Gemini
+        TIMEOUT       // the caller stopped waiting
+    }
+
+    private final Reason reason;
+    private final long retryAfterSeconds;
+
+    public GenerationRejectedException(Reason reason, long retryAfterSeconds) {
+        super("Generation request rejected: " + reason.name().toLowerCase().replace('_', ' '));
+        this.reason = reason;
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public Reason getReason() {
+        return reason;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
@@ -0,0 +1,331 @@
+package com.backend.goaltracker.scheduler;
+
+import com.backend.goaltracker.routing.CallDeadline;
+import com.backend.goaltracker.tracing.Tracer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import jakarta.annotation.PreDestroy;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+
+/**
+ * Runs Gemini generations on a fixed pool of workers, in priority lanes with weighted fair
+ * queuing across users (see WeightedFairQueue).
+ *
+ * Calls to Gemini take seconds and cannot be preempted, so weights alone do not keep interactive
+ * latency flat: batch requests may occupy at most batch-max-in-flight workers, leaving the rest
+ * for interactive and retry requests. Requests that could not be answered before their lane's
+ * timeout (judged by a moving average of recent Gemini latencies) are dropped while queued
+ * rather than sent to Gemini for nobody.
+ *
+ * Properties (goaltracker.scheduler.*): concurrency (4), queue-capacity (200),
+ * batch-max-in-flight (2), interactive-timeout-seconds (30), retry-timeout-seconds (60),
+ * batch-timeout-seconds (600).
+ */
+@Service
+public class GenerationScheduler {
+
+    private static final double LATENCY_SMOOTHING = 0.2;
+    private static final int WAIT_SAMPLES = 1024;
+
+    private static final class Job<T> {
+        final Lane lane;
+        final Callable<T> task;
+        final long submittedNanos;
+        final CompletableFuture<T> future = new CompletableFuture<>();
+
+        Job(Lane lane, Callable<T> task, long submittedNanos) {
+            this.lane = lane;
+            this.task = task;
+            this.submittedNanos = submittedNanos;
+        }
+    }
+
+    /**
+     * Counters and recent queue waits of one lane
+     */
+    private static final class LaneMetrics {
+        final LongAdder submitted = new LongAdder();
+        final LongAdder completed = new LongAdder();
+        final LongAdder failed = new LongAdder();
+        final LongAdder rejected = new LongAdder();
+        final LongAdder evicted = new LongAdder();
+        final LongAdder droppedForDeadline = new LongAdder();
+        final LongAdder timedOut = new LongAdder();
+        private final long[] waits = new long[WAIT_SAMPLES];
+        private int recorded;
+
+        synchronized void recordWait(long nanos) {
+            waits[recorded++ % WAIT_SAMPLES] = nanos;
+        }
+
+        synchronized long[] sortedWaits() {
+            long[] sorted = Arrays.copyOf(waits, Math.min(recorded, WAIT_SAMPLES));
+            Arrays.sort(sorted);
+            return sorted;
+        }
+    }
+
+    private final int concurrency;
+    private final int batchMaxInFlight;
+    private final long[] timeoutNanos = new long[Lane.values().length];
+    private final LongSupplier nanoClock;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition changed = lock.newCondition();
+    private final WeightedFairQueue<Job<?>> queue;
+    private final int[] inFlight = new int[Lane.values().length];
+    private final LaneMetrics[] metrics = new LaneMetrics[Lane.values().length];
+    private volatile boolean running = true;
+    private volatile long expectedServiceNanos;   // 0 until the first call completes
+
+    @Autowired
+    public GenerationScheduler(@Value("${goaltracker.scheduler.concurrency:4}") int concurrency,
+                               @Value("${goaltracker.scheduler.queue-capacity:200}") int queueCapacity,
+                               @Value("${goaltracker.scheduler.batch-max-in-flight:2}") int batchMaxInFlight,
+                               @Value("${goaltracker.scheduler.interactive-timeout-seconds:30}") long interactiveTimeoutSeconds,
+                               @Value("${goaltracker.scheduler.retry-timeout-seconds:60}") long retryTimeoutSeconds,
+                               @Value("${goaltracker.scheduler.batch-timeout-seconds:600}") long batchTimeoutSeconds) {
+        this(concurrency, queueCapacity, batchMaxInFlight,
+                new long[]{interactiveTimeoutSeconds, retryTimeoutSeconds, batchTimeoutSeconds}, System::nanoTime);
+    }
+
+    /**
+     * @param timeoutSeconds per lane, in Lane order
+     */
+    GenerationScheduler(int concurrency, int queueCapacity, int batchMaxInFlight, long[] timeoutSeconds,
+                        LongSupplier nanoClock) {
+        if (concurrency < 1) {
+            throw new IllegalArgumentException("concurrency must be >= 1");
+        }
+        this.concurrency = concurrency;
+        this.batchMaxInFlight = Math.max(1, Math.min(batchMaxInFlight, concurrency));
+        for (Lane lane : Lane.values()) {
+            timeoutNanos[lane.ordinal()] = TimeUnit.SECONDS.toNanos(timeoutSeconds[lane.ordinal()]);
+            metrics[lane.ordinal()] = new LaneMetrics();
+        }
+        this.nanoClock = nanoClock;
+        this.queue = new WeightedFairQueue<>(queueCapacity, this::dropped);
+
+        for (int i = 0; i < concurrency; i++) {
+            Thread worker = new Thread(this::work, "generation-worker-" + i);
+            worker.setDaemon(true);
+            worker.start();
+        }
+    }
+
+    // ================== SUBMITTING ==================
+
+    /**
+     * Queues a generation. The future fails with GenerationRejectedException if the request is
+     * rejected, evicted or dropped for its deadline.
+     *
+     * @param userId caller, or null; users share their lane's capacity equally
+     */
+    public <T> CompletableFuture<T> submit(Lane lane, String userId, Callable<T> task) {
+        long now = nanoClock.getAsLong();
+        // The worker continues the caller's trace; its time in the queue becomes a span of its own
+        Job<T> job = new Job<>(lane, Tracer.wrap(task, Tracer.QUEUE_WAIT_SPAN), now);
+        LaneMetrics laneMetrics = metrics[lane.ordinal()];
+        laneMetrics.submitted.increment();
+
+        lock.lock();
+        try {
+            if (!running || !queue.offer(lane, userId != null ? userId : "", now + timeoutNanos[lane.ordinal()], now, job)) {
+                laneMetrics.rejected.increment();
+                job.future.completeExceptionally(
+                        new GenerationRejectedException(GenerationRejectedException.Reason.QUEUE_FULL, retryAfterSeconds()));
+                return job.future;
+            }
+            changed.signal();
+        } finally {
+            lock.unlock();
+        }
+        return job.future;
+    }
+
+    /**
+     * Queues a generation and waits for it, at most the lane's timeout.
+     * Exceptions thrown by the task are rethrown as they are.
+     */
+    public <T> T call(Lane lane, String userId, Callable<T> task) {
+        CompletableFuture<T> future = submit(lane, userId, task);
+        try {
+            return future.get(timeoutNanos[lane.ordinal()], TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(false);
+            metrics[lane.ordinal()].timedOut.increment();
+            throw new GenerationRejectedException(GenerationRejectedException.Reason.TIMEOUT, retryAfterSeconds());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            future.cancel(false);
+            throw new GenerationRejectedException(GenerationRejectedException.Reason.TIMEOUT, retryAfterSeconds());
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new RuntimeException(e.getCause());
+        }
+    }
+
+    /**
+     * Called by the queue (under the lock) for requests it gives up on
+     */
+    private void dropped(Job<?> job, Lane lane, WeightedFairQueue.DropReason reason) {
+        LaneMetrics laneMetrics = metrics[lane.ordinal()];
+        GenerationRejectedException.Reason rejection;
+        if (reason == WeightedFairQueue.DropReason.EVICTED) {
+            laneMetrics.evicted.increment();
+            rejection = GenerationRejectedException.Reason.EVICTED;
+        } else {
+            laneMetrics.droppedForDeadline.increment();
+            rejection = GenerationRejectedException.Reason.DEADLINE;
+        }
+        job.future.completeExceptionally(new GenerationRejectedException(rejection, retryAfterSeconds()));
+    }
+
+    /**
+     * Rough time until the current backlog has been worked off
+     */
+    private long retryAfterSeconds() {
+        long backlogNanos = (queue.size() + 1) * expectedServiceNanos / concurrency;
+        return Math.max(1, TimeUnit.NANOSECONDS.toSeconds(backlogNanos));
+    }
+
+    // ================== WORKERS ==================
+
+    private void work() {
+        while (true) {
+            Job<?> job;
+            lock.lock();
+            try {
+                while ((job = next()) == null) {
+                    if (!running) {
+                        return;
+                    }
+                    changed.await();
+                }
+                inFlight[job.lane.ordinal()]++;
+            } catch (InterruptedException e) {
+                return;
+            } finally {
+                lock.unlock();
+            }
+
+            try {
+                run(job);
+            } finally {
+                lock.lock();
+                try {
+                    inFlight[job.lane.ordinal()]--;
+                    changed.signalAll();
+                } finally {
+                    lock.unlock();
+                }
+            }
+        }
+    }
+
+    private Job<?> next() {
+        while (true) {
+            Job<?> job = queue.poll(nanoClock.getAsLong(), expectedServiceNanos, this::dispatchable);
+            if (job == null || !job.future.isDone()) {
+                return job;   // skips requests whose caller already gave up
+            }
+        }
+    }
+
+    private boolean dispatchable(Lane lane) {
+        return lane != Lane.BATCH || inFlight[Lane.BATCH.ordinal()] < batchMaxInFlight;
+    }
+
+    private <T> void run(Job<T> job) {
+        LaneMetrics laneMetrics = metrics[job.lane.ordinal()];
+        long started = nanoClock.getAsLong();
+        laneMetrics.recordWait(started - job.submittedNanos);
+        try {
+            // Model calls get only what is left of the lane's timeout, not a fresh one per attempt
+            long remainingNanos = job.submittedNanos + timeoutNanos[job.lane.ordinal()] - started;
+            T result = CallDeadline.within(remainingNanos, job.task);
+            laneMetrics.completed.increment();   // counted before the caller wakes up and may read the stats
+            job.future.complete(result);
+        } catch (Exception e) {
+            laneMetrics.failed.increment();
+            job.future.completeExceptionally(e);
+        }
+
+        // A call that outlived its lane's timeout says little about the next one; capping the
+        // sample keeps one stuck call from dominating the estimate
+        long serviceNanos = Math.min(nanoClock.getAsLong() - started, timeoutNanos[job.lane.ordinal()]);
+        long expected = expectedServiceNanos;
+        expectedServiceNanos = expected == 0 ? serviceNanos
+                : (long) (expected + LATENCY_SMOOTHING * (serviceNanos - expected));
+    }
+
+    @PreDestroy
+    public void stop() {
+        lock.lock();
+        try {
+            running = false;
+            changed.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // ================== METRICS ==================
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        Map<String, Object> lanes = new LinkedHashMap<>();
+        lock.lock();
+        try {
+            stats.put("concurrency", concurrency);
+            stats.put("batchMaxInFlight", batchMaxInFlight);
+            stats.put("queued", queue.size());
+            stats.put("expectedGeminiLatencyMs", TimeUnit.NANOSECONDS.toMillis(expectedServiceNanos));
+            for (Lane lane : Lane.values()) {
+                LaneMetrics laneMetrics = metrics[lane.ordinal()];
+                long[] waits = laneMetrics.sortedWaits();
+                Map<String, Object> laneStats = new LinkedHashMap<>();
+                laneStats.put("weight", lane.weight());
+                laneStats.put("queued", queue.size(lane));
+                laneStats.put("inFlight", inFlight[lane.ordinal()]);
+                laneStats.put("submitted", laneMetrics.submitted.sum());
+                laneStats.put("completed", laneMetrics.completed.sum());
+                laneStats.put("failed", laneMetrics.failed.sum());
+                laneStats.put("rejected", laneMetrics.rejected.sum());
+                laneStats.put("evicted", laneMetrics.evicted.sum());
+                laneStats.put("droppedForDeadline", laneMetrics.droppedForDeadline.sum());
+                laneStats.put("timedOut", laneMetrics.timedOut.sum());
+                laneStats.put("waitP50Ms", percentileMillis(waits, 0.50));
+                laneStats.put("waitP95Ms", percentileMillis(waits, 0.95));
+                lanes.put(lane.name().toLowerCase(), laneStats);
+            }
+        } finally {
+            lock.unlock();
+        }
+        stats.put("lanes", lanes);
+        return stats;
+    }
+
+    private static long percentileMillis(long[] sorted, double percentile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(percentile * sorted.length) - 1;
+        return TimeUnit.NANOSECONDS.toMillis(sorted[Math.max(0, index)]);
+    }
+}
@@ -0,0 +1,42 @@
+package com.backend.goaltracker.scheduler;
+
+import java.util.Locale;
+
+/**
+ * Priority lane of a generation request, chosen by the client with the X-Goaltracker-Priority header.
+ * Lanes are declared from highest to lowest priority.
+ */
+public enum Lane {
+    INTERACTIVE(16),   // a user is waiting on the create-goal screen
+    RETRY(4),          // "Try again" on a plan the user already saw
+    BATCH(1);          // bulk or background generation
+
+    public static final String HEADER = "X-Goaltracker-Priority";
+
+    private final int weight;
+
+    Lane(int weight) {
+        this.weight = weight;
+    }
+
+    /**
+     * Share of the Gemini workers a busy flow in this lane gets relative to flows in other lanes
+     */
+    public int weight() {
+        return weight;
+    }
+
+    /**
+     * @return the lane named by the header value (INTERACTIVE when absent), or null if unknown
+     */
+    public static Lane fromHeader(String value) {
+        if (value == null || value.isBlank()) {
+            return INTERACTIVE;
+        }
+        try {
+            return valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+}
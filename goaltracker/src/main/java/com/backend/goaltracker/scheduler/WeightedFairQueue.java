@@ -0,0 +1,175 @@
+package com.backend.goaltracker.scheduler;
+
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.function.Predicate;
+
+/**
+ * Bounded queue of generation requests with start-time fair queuing across flows.
+ *
+ * A flow is one user in one lane. Every request gets a virtual start tag
+ * max(virtual time, finish tag of the flow's previous request) and advances the flow's finish tag
+ * by 1 / lane weight; requests are dispatched in start-tag order. A flow that keeps its queue full
+ * therefore gets a share proportional to its lane weight, users in the same lane share equally,
+ * and a newly active flow starts at the current virtual time instead of behind the backlog.
+ *
+ * When full, an offer evicts the newest request of the lowest lane below its own; a request
+ * that can no longer finish before its deadline is dropped instead of dispatched, unless it is
+ * the last one queued in its lane.
+ * Not thread-safe; GenerationScheduler guards it with its lock.
+ *
+ * @param <T> queued item
+ */
+public class WeightedFairQueue<T> {
+
+    public enum DropReason { EVICTED, DEADLINE }
+
+    /**
+     * Told about every request that leaves the queue without being dispatched
+     */
+    public interface DropListener<T> {
+        void dropped(T item, Lane lane, DropReason reason);
+    }
+
+    private static final class Entry<T> {
+        final long seq;
+        final Lane lane;
+        final double startTag;
+        final long deadlineNanos;
+        final T item;
+
+        Entry(long seq, Lane lane, double startTag, long deadlineNanos, T item) {
+            this.seq = seq;
+            this.lane = lane;
+            this.startTag = startTag;
+            this.deadlineNanos = deadlineNanos;
+            this.item = item;
+        }
+    }
+
+    private static final Comparator<Entry<?>> DISPATCH_ORDER =
+            Comparator.<Entry<?>>comparingDouble(e -> e.startTag).thenComparingLong(e -> e.seq);
+
+    private final int capacity;
+    private final DropListener<T> onDrop;
+    private final TreeSet<Entry<T>> entries = new TreeSet<>(DISPATCH_ORDER);
+    private final Map<String, Double> finishTags = new HashMap<>();   // by flow
+    private final int[] queuedPerLane = new int[Lane.values().length];
+    private double virtualTime;
+    private long nextSeq;
+
+    public WeightedFairQueue(int capacity, DropListener<T> onDrop) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("capacity must be >= 1");
+        }
+        this.capacity = capacity;
+        this.onDrop = onDrop;
+    }
+
+    /**
+     * @param flow          user the request is charged to within its lane
+     * @param deadlineNanos when the answer is no longer useful
+     * @return false if the queue is full of requests at the same or a higher priority
+     */
+    public boolean offer(Lane lane, String flow, long deadlineNanos, long nowNanos, T item) {
+        if (entries.size() >= capacity) {
+            dropExpired(nowNanos);
+        }
+        if (entries.size() >= capacity && !evictBelow(lane)) {
+            return false;
+        }
+
+        String key = lane.ordinal() + "/" + flow;
+        double start = Math.max(virtualTime, finishTags.getOrDefault(key, 0.0));
+        finishTags.put(key, start + 1.0 / lane.weight());
+        entries.add(new Entry<>(nextSeq++, lane, start, deadlineNanos, item));
+        queuedPerLane[lane.ordinal()]++;
+        return true;
+    }
+
+    /**
+     * Takes the request with the smallest start tag among the dispatchable lanes, dropping on
+     * the way every request that would miss its deadline given the expected service time.
+     *
+     * The expected service time only changes when requests are dispatched, so the last request
+     * of a lane is dispatched while its deadline has not passed: otherwise one slow call would
+     * make every later request of the lane look hopeless, for good.
+     *
+     * @return null if no dispatchable request is queued
+     */
+    public T poll(long nowNanos, long expectedServiceNanos, Predicate<Lane> dispatchable) {
+        Iterator<Entry<T>> iterator = entries.iterator();
+        while (iterator.hasNext()) {
+            Entry<T> entry = iterator.next();
+            long remaining = entry.deadlineNanos - nowNanos;
+            if (remaining <= 0 || (remaining < expectedServiceNanos && queuedPerLane[entry.lane.ordinal()] > 1)) {
+                iterator.remove();
+                queuedPerLane[entry.lane.ordinal()]--;
+                onDrop.dropped(entry.item, entry.lane, DropReason.DEADLINE);
+                continue;
+            }
+            if (!dispatchable.test(entry.lane)) {
+                continue;
+            }
+            iterator.remove();
+            queuedPerLane[entry.lane.ordinal()]--;
+            virtualTime = Math.max(virtualTime, entry.startTag);
+            forgetIdleFlows();
+            return entry.item;
+        }
+        return null;
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    public int size(Lane lane) {
+        return queuedPerLane[lane.ordinal()];
+    }
+
+    private void dropExpired(long nowNanos) {
+        Iterator<Entry<T>> iterator = entries.iterator();
+        while (iterator.hasNext()) {
+            Entry<T> entry = iterator.next();
+            if (entry.deadlineNanos <= nowNanos) {
+                iterator.remove();
+                queuedPerLane[entry.lane.ordinal()]--;
+                onDrop.dropped(entry.item, entry.lane, DropReason.DEADLINE);
+            }
+        }
+    }
+
+    /**
+     * Makes room by evicting the newest request of the lowest lane below the given one.
+     */
+    private boolean evictBelow(Lane lane) {
+        Entry<T> victim = null;
+        for (Entry<T> entry : entries) {
+            if (entry.lane.ordinal() <= lane.ordinal()) continue;
+            if (victim == null || entry.lane.ordinal() > victim.lane.ordinal()
+                    || (entry.lane == victim.lane && entry.seq > victim.seq)) {
+                victim = entry;
+            }
+        }
+        if (victim == null) {
+            return false;
+        }
+        entries.remove(victim);
+        queuedPerLane[victim.lane.ordinal()]--;
+        onDrop.dropped(victim.item, victim.lane, DropReason.EVICTED);
+        return true;
+    }
+
+    /**
+     * A finish tag at or behind the virtual time no longer affects the next start tag.
+     */
+    private void forgetIdleFlows() {
+        if (finishTags.size() > 4 * capacity) {
+            finishTags.values().removeIf(finish -> finish <= virtualTime);
+        }
+    }
+}
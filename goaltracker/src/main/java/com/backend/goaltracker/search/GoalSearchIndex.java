@@ -0,0 +1,428 @@
+package com.backend.goaltracker.search;
+
+import com.backend.goaltracker.store.GoalCodec;
+import entities.Goal;
+import entities.Subgoal;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory inverted index over goal and subgoal titles and descriptions.
+ *
+ * Terms are kept in a sorted dictionary, so every query token also matches longer terms that
+ * start with it ("mara" finds "marathon"). A goal must match every query token. Results are
+ * ranked by the sum of field-weighted term frequency times inverse document frequency, with exact
+ * matches ranked above prefix matches. A search only sees the goals of one owner: every owner
+ * (null for the anonymous goals) has postings of their own, so a query never walks other users'
+ * goals, and inverse document frequency is counted over the owner's goals.
+ * Thread-safe: searches share a read lock, updates take the write lock.
+ */
+public class GoalSearchIndex {
+
+    private static final float TITLE_WEIGHT = 3f;
+    private static final float SUBGOAL_TITLE_WEIGHT = 2f;
+    private static final float DESCRIPTION_WEIGHT = 1f;
+    private static final float PREFIX_MATCH_FACTOR = 0.6f;
+    private static final int MAX_TOKEN_LENGTH = 40;
+    private static final int MAX_PREFIX_EXPANSIONS = 64;
+
+    private static final int SNAPSHOT_MAGIC = 0x47534958;  // "GSIX"
+    private static final int SNAPSHOT_VERSION = 2;   // 2: owners, length-prefixed UTF-8 strings
+
+    private static final Set<String> STOP_WORDS = Set.of(
+            "a", "an", "and", "are", "as", "at", "be", "by", "for", "from", "i", "in", "is", "it",
+            "my", "of", "on", "or", "the", "to", "with");
+
+    /**
+     * One search result
+     */
+    public static class SearchHit {
+        public final int goalId;
+        public final String title;
+        public final float score;
+
+        SearchHit(int goalId, String title, float score) {
+            this.goalId = goalId;
+            this.title = title;
+            this.score = score;
+        }
+    }
+
+    /**
+     * What the index holds for one goal
+     */
+    private static final class Doc {
+        final String owner;
+        final String title;
+        final long fingerprint;
+        final Map<String, Float> terms;
+
+        Doc(String owner, String title, long fingerprint, Map<String, Float> terms) {
+            this.owner = owner;
+            this.title = title;
+            this.fingerprint = fingerprint;
+            this.terms = terms;
+        }
+    }
+
+    /**
+     * The postings of one owner's goals
+     */
+    private static final class Shard {
+        final TreeMap<String, Map<Integer, Float>> postings = new TreeMap<>();
+        int docCount;
+    }
+
+    private final Map<String, Shard> shards = new HashMap<>();
+    private final Map<Integer, Doc> docs = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private long version;               // bumped on every change, guarded by the write lock
+    private long snapshotVersion = -1;  // version of the last snapshot written or loaded
+
+    // ================== UPDATES ==================
+
+    /**
+     * Adds or re-indexes a goal.
+     */
+    public void put(Goal goal) {
+        long fingerprint = fingerprint(goal);
+        lock.writeLock().lock();
+        try {
+            Doc existing = docs.get(goal.getId());
+            if (existing != null && existing.fingerprint == fingerprint) {
+                return;  // indexed text and owner did not change (e.g. a subgoal was completed)
+            }
+            putDoc(goal.getId(), new Doc(goal.getOwnerId(), goal.getTitle(), fingerprint, analyze(goal)));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(int goalId) {
+        lock.writeLock().lock();
+        try {
+            removeDoc(goalId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Makes the index match the given goals: unchanged goals (same fingerprint) are kept as they are,
+     * changed ones re-indexed, and goals that are no longer present dropped.
+     *
+     * @return the number of goals that had to be (re-)analyzed
+     */
+    public int reconcile(Iterable<Goal> goals) {
+        int analyzed = 0;
+        Set<Integer> present = new HashSet<>();
+        lock.writeLock().lock();
+        try {
+            for (Goal goal : goals) {
+                present.add(goal.getId());
+                long fingerprint = fingerprint(goal);
+                Doc existing = docs.get(goal.getId());
+                if (existing == null || existing.fingerprint != fingerprint) {
+                    putDoc(goal.getId(), new Doc(goal.getOwnerId(), goal.getTitle(), fingerprint, analyze(goal)));
+                    analyzed++;
+                }
+            }
+            for (Integer goalId : new ArrayList<>(docs.keySet())) {
+                if (!present.contains(goalId)) removeDoc(goalId);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+        return analyzed;
+    }
+
+    private void putDoc(int goalId, Doc doc) {
+        removeDoc(goalId);
+        docs.put(goalId, doc);
+        Shard shard = shards.computeIfAbsent(doc.owner, owner -> new Shard());
+        shard.docCount++;
+        for (Map.Entry<String, Float> term : doc.terms.entrySet()) {
+            shard.postings.computeIfAbsent(term.getKey(), t -> new HashMap<>()).put(goalId, term.getValue());
+        }
+        version++;
+    }
+
+    private void removeDoc(int goalId) {
+        Doc doc = docs.remove(goalId);
+        if (doc == null) return;
+        Shard shard = shards.get(doc.owner);
+        for (String term : doc.terms.keySet()) {
+            Map<Integer, Float> posting = shard.postings.get(term);
+            posting.remove(goalId);
+            if (posting.isEmpty()) shard.postings.remove(term);
+        }
+        if (--shard.docCount == 0) shards.remove(doc.owner);
+        version++;
+    }
+
+    // ================== SEARCH ==================
+
+    /**
+     * @param query  free text; every token must match a term or a term prefix
+     * @param userId only goals of this owner are searched; null for the anonymous goals
+     * @param limit  maximum number of hits
+     * @return hits, best first
+     */
+    public List<SearchHit> search(String query, String userId, int limit) {
+        List<String> tokens = tokenize(query);
+        if (tokens.isEmpty() || limit <= 0) {
+            return Collections.emptyList();
+        }
+
+        lock.readLock().lock();
+        try {
+            Shard shard = shards.get(userId);
+            if (shard == null) {
+                return Collections.emptyList();
+            }
+            Map<Integer, Float> scores = null;
+            for (String token : new HashSet<>(tokens)) {
+                Map<Integer, Float> tokenScores = scoreToken(token, shard);
+                if (scores == null) {
+                    scores = tokenScores;
+                } else {
+                    // Keep only goals that match every token
+                    Map<Integer, Float> small = scores.size() <= tokenScores.size() ? scores : tokenScores;
+                    Map<Integer, Float> large = small == scores ? tokenScores : scores;
+                    Map<Integer, Float> merged = new HashMap<>();
+                    for (Map.Entry<Integer, Float> e : small.entrySet()) {
+                        Float other = large.get(e.getKey());
+                        if (other != null) merged.put(e.getKey(), e.getValue() + other);
+                    }
+                    scores = merged;
+                }
+                if (scores.isEmpty()) return Collections.emptyList();
+            }
+
+            // Bounded min-heap keeps the top hits without sorting every match
+            Comparator<Map.Entry<Integer, Float>> order = Map.Entry.<Integer, Float>comparingByValue()
+                    .thenComparing(Map.Entry.<Integer, Float>comparingByKey().reversed());
+            PriorityQueue<Map.Entry<Integer, Float>> top = new PriorityQueue<>(order);
+            for (Map.Entry<Integer, Float> e : scores.entrySet()) {
+                top.offer(e);
+                if (top.size() > limit) top.poll();
+            }
+
+            List<SearchHit> hits = new ArrayList<>(top.size());
+            while (!top.isEmpty()) {
+                Map.Entry<Integer, Float> e = top.poll();
+                hits.add(new SearchHit(e.getKey(), docs.get(e.getKey()).title, e.getValue()));
+            }
+            Collections.reverse(hits);
+            return hits;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Best score per goal of the owner for one query token over the exact term and its prefix expansions.
+     */
+    private static Map<Integer, Float> scoreToken(String token, Shard shard) {
+        Map<Integer, Float> scores = new HashMap<>();
+        SortedMap<String, Map<Integer, Float>> expansions = shard.postings.subMap(token, token + Character.MAX_VALUE);
+        int expanded = 0;
+        for (Map.Entry<String, Map<Integer, Float>> term : expansions.entrySet()) {
+            if (expanded++ == MAX_PREFIX_EXPANSIONS) break;
+            Map<Integer, Float> posting = term.getValue();
+            float idf = (float) Math.log(1 + (double) shard.docCount / posting.size());
+            float factor = term.getKey().equals(token) ? 1f : PREFIX_MATCH_FACTOR;
+            for (Map.Entry<Integer, Float> e : posting.entrySet()) {
+                scores.merge(e.getKey(), e.getValue() * idf * factor, Math::max);
+            }
+        }
+        return scores;
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return docs.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // ================== ANALYSIS ==================
+
+    private static Map<String, Float> analyze(Goal goal) {
+        Map<String, Float> terms = new HashMap<>();
+        addField(terms, goal.getTitle(), TITLE_WEIGHT);
+        addField(terms, goal.getDescription(), DESCRIPTION_WEIGHT);
+        for (Subgoal subgoal : goal.getSubgoals()) {
+            addField(terms, subgoal.getTitle(), SUBGOAL_TITLE_WEIGHT);
+            addField(terms, subgoal.getDescription(), DESCRIPTION_WEIGHT);
+        }
+        return terms;
+    }
+
+    private static void addField(Map<String, Float> terms, String text, float weight) {
+        for (String token : tokenize(text)) {
+            terms.merge(token, weight, Float::sum);
+        }
+    }
+
+    /**
+     * Lower-cases and splits on anything that is not a letter or digit; drops stop words.
+     */
+    static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        if (text == null) return tokens;
+
+        String lower = text.toLowerCase(Locale.ROOT);
+        int start = -1;
+        for (int i = 0; i <= lower.length(); i++) {
+            boolean wordChar = i < lower.length() && Character.isLetterOrDigit(lower.charAt(i));
+            if (wordChar && start < 0) {
+                start = i;
+            } else if (!wordChar && start >= 0) {
+                String token = lower.substring(start, Math.min(i, start + MAX_TOKEN_LENGTH));
+                if (!STOP_WORDS.contains(token)) tokens.add(token);
+                start = -1;
+            }
+        }
+        return tokens;
+    }
+
+    /**
+     * Hash of the indexed text and owner, used to skip re-analysis when nothing searchable changed.
+     */
+    private static long fingerprint(Goal goal) {
+        long hash = 1125899906842597L;
+        hash = mix(hash, goal.getOwnerId());
+        hash = mix(hash, goal.getTitle());
+        hash = mix(hash, goal.getDescription());
+        for (Subgoal subgoal : goal.getSubgoals()) {
+            hash = mix(hash, subgoal.getTitle());
+            hash = mix(hash, subgoal.getDescription());
+        }
+        return hash;
+    }
+
+    private static long mix(long hash, String text) {
+        if (text == null) return hash * 31;
+        for (int i = 0; i < text.length(); i++) {
+            hash = 31 * hash + text.charAt(i);
+        }
+        return 31 * hash + text.length();
+    }
+
+    // ================== SNAPSHOT ==================
+
+    /**
+     * Writes the analyzed documents to a file (temp file + atomic rename).
+     * Does nothing if the index has not changed since the last snapshot.
+     * Docs are never changed once indexed, so only the map of them is copied under the lock;
+     * the file is written after releasing it, so updates do not wait for the disk.
+     *
+     * @return true if a snapshot was written
+     */
+    public synchronized boolean writeSnapshot(Path file) throws IOException {
+        long written;
+        Map<Integer, Doc> copy;
+        lock.readLock().lock();
+        try {
+            if (version == snapshotVersion && Files.exists(file)) return false;
+            written = version;
+            copy = new HashMap<>(docs);
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp)))) {
+            out.writeInt(SNAPSHOT_MAGIC);
+            out.writeInt(SNAPSHOT_VERSION);
+            out.writeInt(copy.size());
+            for (Map.Entry<Integer, Doc> entry : copy.entrySet()) {
+                Doc doc = entry.getValue();
+                out.writeInt(entry.getKey());
+                out.writeLong(doc.fingerprint);
+                GoalCodec.writeString(out, doc.owner);
+                GoalCodec.writeString(out, doc.title);
+                out.writeInt(doc.terms.size());
+                for (Map.Entry<String, Float> term : doc.terms.entrySet()) {
+                    GoalCodec.writeString(out, term.getKey());
+                    out.writeFloat(term.getValue());
+                }
+            }
+        }
+        Files.move(tmp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+
+        lock.writeLock().lock();
+        try {
+            snapshotVersion = Math.max(snapshotVersion, written);
+        } finally {
+            lock.writeLock().unlock();
+        }
+        return true;
+    }
+
+    /**
+     * Replaces the index contents with a snapshot. Call reconcile() afterwards to catch up with
+     * changes made after the snapshot was taken.
+     *
+     * @return the number of goals loaded
+     */
+    public int loadSnapshot(Path file) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (in.readInt() != SNAPSHOT_MAGIC || in.readInt() != SNAPSHOT_VERSION) {
+                throw new IOException("Not a search index snapshot: " + file);
+            }
+            int docCount = in.readInt();
+            Map<Integer, Doc> loaded = new HashMap<>(docCount * 2);
+            for (int i = 0; i < docCount; i++) {
+                int goalId = in.readInt();
+                long fingerprint = in.readLong();
+                String owner = GoalCodec.readString(in);
+                String title = GoalCodec.readString(in);
+                int termCount = in.readInt();
+                Map<String, Float> terms = new HashMap<>(termCount * 2);
+                for (int t = 0; t < termCount; t++) {
+                    terms.put(GoalCodec.readString(in), in.readFloat());
+                }
+                loaded.put(goalId, new Doc(owner, title, fingerprint, terms));
+            }
+
+            lock.writeLock().lock();
+            try {
+                docs.clear();
+                shards.clear();
+                for (Map.Entry<Integer, Doc> entry : loaded.entrySet()) {
+                    putDoc(entry.getKey(), entry.getValue());
+                }
+                snapshotVersion = version;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            return docCount;
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package com.backend.goaltracker.search;
+
+import com.backend.goaltracker.store.GoalChangedEvent;
+import com.backend.goaltracker.store.GoalStore;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps the GoalSearchIndex in sync with the goal store and snapshots it to disk.
+ *
+ * At startup the last snapshot is loaded and reconciled with the store, so only goals that
+ * changed since the snapshot are re-analyzed. After that the index follows GoalChangedEvents.
+ *
+ * Properties (goaltracker.search.*): snapshot (file path, default data/search-index.bin,
+ * empty to disable) and snapshot-interval-minutes (5).
+ */
+@Service
+public class GoalSearchService {
+
+    private final GoalStore goalStore;
+    private final GoalSearchIndex index = new GoalSearchIndex();
+    private final Path snapshotFile;
+    private final long snapshotIntervalMinutes;
+    private ScheduledExecutorService snapshotter;
+
+    public GoalSearchService(GoalStore goalStore,
+                             @Value("${goaltracker.search.snapshot:data/search-index.bin}") String snapshotFile,
+                             @Value("${goaltracker.search.snapshot-interval-minutes:5}") long snapshotIntervalMinutes) {
+        this.goalStore = goalStore;
+        this.snapshotFile = snapshotFile.isEmpty() ? null : Paths.get(snapshotFile);
+        this.snapshotIntervalMinutes = snapshotIntervalMinutes;
+    }
+
+    /**
+     * @param userId the caller; only their goals are searched (the anonymous ones for null)
+     */
+    public List<GoalSearchIndex.SearchHit> search(String query, String userId, int limit) {
+        return index.search(query, userId, limit);
+    }
+
+    // ================== INDEX MAINTENANCE ==================
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        long started = System.nanoTime();
+        int loaded = 0;
+        if (snapshotFile != null && Files.exists(snapshotFile)) {
+            try {
+                loaded = index.loadSnapshot(snapshotFile);
+            } catch (IOException e) {
+                System.err.println("⚠️ Ignoring unreadable search snapshot: " + e.getMessage());
+            }
+        }
+        int analyzed = index.reconcile(goalStore.scan());
+        System.out.println("✅ Search index: " + index.size() + " goals (" + loaded + " from snapshot, "
+                + analyzed + " analyzed) in " + TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started) + " ms");
+
+        if (snapshotFile != null) {
+            snapshotter = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread thread = new Thread(r, "search-snapshot");
+                thread.setDaemon(true);
+                return thread;
+            });
+            snapshotter.scheduleWithFixedDelay(this::snapshot,
+                    snapshotIntervalMinutes, snapshotIntervalMinutes, TimeUnit.MINUTES);
+        }
+    }
+
+    @EventListener
+    public void onGoalChanged(GoalChangedEvent event) {
+        if (event.getType() == GoalChangedEvent.Type.DELETED) {
+            index.remove(event.getGoalId());
+        } else {
+            index.put(event.getGoal());
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (snapshotter != null) {
+            snapshotter.shutdownNow();
+            snapshot();
+        }
+    }
+
+    private void snapshot() {
+        try {
+            Files.createDirectories(snapshotFile.toAbsolutePath().getParent());
+            index.writeSnapshot(snapshotFile);
+        } catch (IOException e) {
+            System.err.println("⚠️ Could not write search snapshot: " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package com.backend.goaltracker.security;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Rejects requests without a valid Firebase ID token ("Authorization: Bearer <token>").
+ * The verified uid is exposed to controllers as the request attribute UID_ATTRIBUTE.
+ */
+public class FirebaseTokenFilter extends OncePerRequestFilter {
+
+    public static final String UID_ATTRIBUTE = "firebaseUid";
+    private static final String BEARER_PREFIX = "Bearer ";
+
+    private final FirebaseTokenVerifier verifier;
+    private final ObjectMapper mapper;
+
+    public FirebaseTokenFilter(FirebaseTokenVerifier verifier, ObjectMapper mapper) {
+        this.verifier = verifier;
+        this.mapper = mapper;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        // CORS preflight requests never carry credentials
+        if ("OPTIONS".equals(request.getMethod())) {
+            chain.doFilter(request, response);
+            return;
+        }
+
+        String header = request.getHeader(HttpHeaders.AUTHORIZATION);
+        if (header == null || !header.startsWith(BEARER_PREFIX)) {
+            reject(response, "Missing bearer token");
+            return;
+        }
+
+        VerifiedToken token;
+        try {
+            token = verifier.verify(header.substring(BEARER_PREFIX.length()).trim());
+        } catch (FirebaseTokenVerifier.InvalidTokenException e) {
+            reject(response, e.getMessage());
+            return;
+        }
+
+        request.setAttribute(UID_ATTRIBUTE, token.getUid());
+        chain.doFilter(request, response);
+    }
+
+    private void reject(HttpServletResponse response, String message) throws IOException {
+        Map<String, String> body = new LinkedHashMap<>();
+        body.put("error", "Unauthorized");
+        body.put("message", message);
+        response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        mapper.writeValue(response.getOutputStream(), body);
+    }
+}
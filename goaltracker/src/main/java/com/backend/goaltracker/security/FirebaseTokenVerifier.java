@@ -0,0 +1,203 @@
+package com.backend.goaltracker.security;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.PublicKey;
+import java.security.Signature;
+import java.time.Clock;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Verifies Firebase ID tokens (RS256 JWTs) and caches the decoded claims by token hash
+ * until the token expires, so repeated calls with the same token skip the signature check.
+ *
+ * The project id is looked up on the first verification, not at construction, so that a lazily
+ * initialized FirebaseApp it comes from is initialized by the first request.
+ */
+public class FirebaseTokenVerifier {
+
+    private static final TypeReference<Map<String, Object>> CLAIMS_TYPE = new TypeReference<>() {};
+
+    private final SigningKeyCache keyCache;
+    private final Supplier<String> projectIdSource;
+    private volatile String projectId;
+    private volatile String issuer;
+    private final int maxCachedTokens;
+    private final Clock clock;
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final ConcurrentHashMap<String, VerifiedToken> verified = new ConcurrentHashMap<>();
+
+    public FirebaseTokenVerifier(SigningKeyCache keyCache, String projectId, int maxCachedTokens, Clock clock) {
+        this(keyCache, () -> projectId, maxCachedTokens, clock);
+    }
+
+    /**
+     * @param projectId asked once, on the first verification
+     */
+    public FirebaseTokenVerifier(SigningKeyCache keyCache, Supplier<String> projectId, int maxCachedTokens,
+                                 Clock clock) {
+        this.keyCache = keyCache;
+        this.projectIdSource = projectId;
+        this.maxCachedTokens = maxCachedTokens;
+        this.clock = clock;
+    }
+
+    /**
+     * @param idToken the raw token from the Authorization header
+     * @return the verified claims
+     * @throws InvalidTokenException if the token is malformed, expired, or not signed for this project
+     */
+    public VerifiedToken verify(String idToken) {
+        resolveProjectId();
+        long now = clock.millis();
+        String cacheKey = sha256(idToken);
+
+        VerifiedToken cached = verified.get(cacheKey);
+        if (cached != null) {
+            if (cached.getExpiresAtMillis() > now) {
+                return cached;
+            }
+            verified.remove(cacheKey, cached);
+        }
+
+        VerifiedToken token = verifyUncached(idToken, now);
+        if (verified.size() >= maxCachedTokens) {
+            evictExpired(now);
+        }
+        if (verified.size() < maxCachedTokens) {
+            verified.put(cacheKey, token);
+        }
+        return token;
+    }
+
+    /**
+     * Drops expired entries; called when the cache is full and periodically by the owner.
+     */
+    public void evictExpired(long nowMillis) {
+        Iterator<VerifiedToken> it = verified.values().iterator();
+        while (it.hasNext()) {
+            if (it.next().getExpiresAtMillis() <= nowMillis) {
+                it.remove();
+            }
+        }
+    }
+
+    private void resolveProjectId() {
+        if (issuer == null) {
+            synchronized (this) {
+                if (issuer == null) {
+                    projectId = projectIdSource.get();
+                    issuer = "https://securetoken.google.com/" + projectId;
+                }
+            }
+        }
+    }
+
+    int cachedTokenCount() {
+        return verified.size();
+    }
+
+    private VerifiedToken verifyUncached(String idToken, long now) {
+        String[] parts = idToken.split("\\.");
+        if (parts.length != 3) {
+            throw new InvalidTokenException("Token is not a JWT");
+        }
+
+        Map<String, Object> header = decodeJson(parts[0]);
+        Map<String, Object> claims = decodeJson(parts[1]);
+
+        if (!"RS256".equals(header.get("alg"))) {
+            throw new InvalidTokenException("Unexpected signing algorithm");
+        }
+        PublicKey key = keyCache.getKey(String.valueOf(header.get("kid")));
+        if (key == null) {
+            throw new InvalidTokenException("Unknown signing key");
+        }
+        if (!signatureMatches(key, parts)) {
+            throw new InvalidTokenException("Invalid token signature");
+        }
+
+        if (!projectId.equals(claims.get("aud"))) {
+            throw new InvalidTokenException("Token audience does not match this project");
+        }
+        if (!issuer.equals(claims.get("iss"))) {
+            throw new InvalidTokenException("Unexpected token issuer");
+        }
+        Object subject = claims.get("sub");
+        if (!(subject instanceof String) || ((String) subject).isEmpty() || ((String) subject).length() > 128) {
+            throw new InvalidTokenException("Token has no valid subject");
+        }
+
+        long expiresAtMillis = secondsClaim(claims, "exp") * 1000;
+        long issuedAtMillis = secondsClaim(claims, "iat") * 1000;
+        if (expiresAtMillis <= now) {
+            throw new InvalidTokenException("Token has expired");
+        }
+        if (issuedAtMillis > now + 60_000) {  // allow one minute of clock skew
+            throw new InvalidTokenException("Token was issued in the future");
+        }
+
+        // Not Map.copyOf: a claim may be JSON null (e.g. "email": null)
+        return new VerifiedToken((String) subject, Collections.unmodifiableMap(new LinkedHashMap<>(claims)),
+                expiresAtMillis);
+    }
+
+    private static boolean signatureMatches(PublicKey key, String[] parts) {
+        try {
+            Signature signature = Signature.getInstance("SHA256withRSA");
+            signature.initVerify(key);
+            signature.update((parts[0] + "." + parts[1]).getBytes(StandardCharsets.US_ASCII));
+            return signature.verify(Base64.getUrlDecoder().decode(parts[2]));
+        } catch (GeneralSecurityException | IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    private Map<String, Object> decodeJson(String base64Url) {
+        try {
+            return mapper.readValue(Base64.getUrlDecoder().decode(base64Url), CLAIMS_TYPE);
+        } catch (IOException | IllegalArgumentException e) {
+            throw new InvalidTokenException("Malformed token");
+        }
+    }
+
+    private static long secondsClaim(Map<String, Object> claims, String name) {
+        Object value = claims.get(name);
+        if (!(value instanceof Number)) {
+            throw new InvalidTokenException("Token is missing " + name);
+        }
+        return ((Number) value).longValue();
+    }
+
+    private static String sha256(String token) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.US_ASCII));
+            return Base64.getEncoder().encodeToString(digest);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Thrown for any token that must be rejected with 401. The message never quotes the token,
+     * since it is sent back to the client.
+     */
+    public static class InvalidTokenException extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        public InvalidTokenException(String message) {
+            super(message);
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package com.backend.goaltracker.security;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.math.BigInteger;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.security.GeneralSecurityException;
+import java.security.KeyFactory;
+import java.security.PublicKey;
+import java.security.spec.RSAPublicKeySpec;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Firebase token signing keys, fetched from a JWKS endpoint and refreshed in the background.
+ * Verification never waits on the network except for an unknown key id (key rotation),
+ * and even then at most once per minRefreshInterval.
+ */
+public class SigningKeyCache implements AutoCloseable {
+
+    private static final Pattern MAX_AGE = Pattern.compile("max-age=(\\d+)");
+
+    private final URI jwksUri;
+    private final Duration defaultRefreshInterval;
+    private final Duration minRefreshInterval;
+    private final HttpClient httpClient = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "firebase-key-refresh");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private volatile Map<String, PublicKey> keys = Map.of();
+    private volatile long lastRefreshNanos;
+
+    public SigningKeyCache(String jwksUrl, Duration defaultRefreshInterval, Duration minRefreshInterval) {
+        this.jwksUri = URI.create(jwksUrl);
+        this.defaultRefreshInterval = defaultRefreshInterval;
+        this.minRefreshInterval = minRefreshInterval;
+    }
+
+    /**
+     * Fetches the keys once and schedules background refreshes.
+     * A failed first fetch is retried by the scheduler instead of blocking startup.
+     */
+    public void start() {
+        scheduler.execute(this::refreshAndReschedule);
+    }
+
+    /**
+     * @return the key for the given key id, or null if it is not (yet) known
+     */
+    public PublicKey getKey(String keyId) {
+        PublicKey key = keys.get(keyId);
+        if (key == null && System.nanoTime() - lastRefreshNanos > minRefreshInterval.toNanos()) {
+            // Unknown kid usually means Google rotated keys before our scheduled refresh
+            synchronized (this) {
+                key = keys.get(keyId);
+                if (key == null && System.nanoTime() - lastRefreshNanos > minRefreshInterval.toNanos()) {
+                    try {
+                        refresh();
+                    } catch (IOException | InterruptedException | GeneralSecurityException e) {
+                        System.err.println("Failed to refresh Firebase signing keys: " + e.getMessage());
+                    }
+                    key = keys.get(keyId);
+                }
+            }
+        }
+        return key;
+    }
+
+    private void refreshAndReschedule() {
+        Duration next;
+        try {
+            next = refresh();
+        } catch (Exception e) {
+            System.err.println("Failed to refresh Firebase signing keys: " + e.getMessage());
+            next = minRefreshInterval;
+        }
+        scheduler.schedule(this::refreshAndReschedule, next.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Downloads the JWKS document and swaps in the new key set.
+     * @return how long the keys may be cached according to the response's Cache-Control
+     */
+    synchronized Duration refresh() throws IOException, InterruptedException, GeneralSecurityException {
+        HttpRequest request = HttpRequest.newBuilder(jwksUri)
+                .timeout(Duration.ofSeconds(10))
+                .GET()
+                .build();
+        HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() != 200) {
+            throw new IOException("Key server returned status " + response.statusCode());
+        }
+
+        Map<String, PublicKey> fresh = new HashMap<>();
+        KeyFactory keyFactory = KeyFactory.getInstance("RSA");
+        for (JsonNode jwk : mapper.readTree(response.body()).path("keys")) {
+            if (!"RSA".equals(jwk.path("kty").asText())) continue;
+            BigInteger modulus = new BigInteger(1, Base64.getUrlDecoder().decode(jwk.path("n").asText()));
+            BigInteger exponent = new BigInteger(1, Base64.getUrlDecoder().decode(jwk.path("e").asText()));
+            fresh.put(jwk.path("kid").asText(), keyFactory.generatePublic(new RSAPublicKeySpec(modulus, exponent)));
+        }
+        keys = Map.copyOf(fresh);
+        lastRefreshNanos = System.nanoTime();
+
+        // Refresh a little before the keys expire so verification never sees a gap
+        Matcher maxAge = MAX_AGE.matcher(response.headers().firstValue("Cache-Control").orElse(""));
+        Duration ttl = maxAge.find() ? Duration.ofSeconds(Long.parseLong(maxAge.group(1))) : defaultRefreshInterval;
+        Duration next = ttl.multipliedBy(9).dividedBy(10);
+        return next.compareTo(minRefreshInterval) < 0 ? minRefreshInterval : next;
+    }
+
+    @Override
+    public void close() {
+        scheduler.shutdownNow();
+    }
+}
@@ -0,0 +1,30 @@
+package com.backend.goaltracker.security;
+
+import java.util.Map;
+
+/**
+ * Claims of a verified Firebase ID token.
+ */
+public final class VerifiedToken {
+    private final String uid;
+    private final Map<String, Object> claims;
+    private final long expiresAtMillis;
+
+    public VerifiedToken(String uid, Map<String, Object> claims, long expiresAtMillis) {
+        this.uid = uid;
+        this.claims = claims;
+        this.expiresAtMillis = expiresAtMillis;
+    }
+
+    public String getUid() {
+        return uid;
+    }
+
+    public Map<String, Object> getClaims() {
+        return claims;
+    }
+
+    public long getExpiresAtMillis() {
+        return expiresAtMillis;
+    }
+}
@@ -1,9 +1,11 @@
 package com.backend.goaltracker.service;
 
-import org.springframework.beans.factory.annotation.Value;
+import com.backend.goaltracker.routing.ModelRouter;
+import com.backend.goaltracker.usage.TokenUsageMeter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.*;
 import org.springframework.stereotype.Service;
-import org.springframework.web.client.RestTemplate;
 
 import java.time.LocalDate;
 import java.util.List;
@@ -12,23 +14,59 @@ import java.util.Map;
 @Service
 public class GeminiService {
 
-    @Value("${gemini.api.key}")
-    private String apiKey;
+    @Autowired
+    private ModelRouter modelRouter;
 
-    @Value("${gemini.api.url}")
-    private String apiUrl;
+    @Autowired
+    private TokenUsageMeter tokenUsage;
 
-    private final RestTemplate restTemplate = new RestTemplate();
+    private final ObjectMapper mapper = new ObjectMapper();
 
     public String generateGoal(String userPrompt) {
+        return generateGoal(userPrompt, null, null);
+    }
+
+    /**
+     * @param seedPlanJson plan generated earlier for a similar prompt, given to the model to adapt; may be null
+     * @param userId       caller the token usage is charged to; null for anonymous requests
+     */
+    public String generateGoal(String userPrompt, String seedPlanJson, String userId) {
+        return generateGoal(userPrompt, seedPlanJson, userId, "generate");
+    }
+
+    /**
+     * @param endpoint name the token usage is recorded under
+     */
+    public String generateGoal(String userPrompt, String seedPlanJson, String userId, String endpoint) {
         if (userPrompt == null || userPrompt.isEmpty()) {
             throw new IllegalArgumentException("Prompt cannot be empty");
         }
 
-        try {
-            // ✅ Enhanced prompt with stricter formatting requirements
-            String enhancedPrompt = buildEnhancedPrompt(userPrompt);
+        // ✅ Enhanced prompt with stricter formatting requirements
+        String enhancedPrompt = buildEnhancedPrompt(userPrompt, seedPlanJson);
+        return callGemini(enhancedPrompt, userId, endpoint, 2000);
+    }
+
+    /**
+     * Asks for one replacement subgoal. The prompt carries only the goal title and the titles of
+     * the other subgoals, and the answer is a single small JSON object.
+     *
+     * @param feedback what the user wants changed; may be null
+     */
+    public String regenerateSubgoal(String goalTitle, List<String> siblingTitles, String subgoalTitle,
+                                    String feedback, String userId) {
+        return callGemini(buildSubgoalPrompt(goalTitle, siblingTitles, subgoalTitle, feedback), userId,
+                "regenerate-subgoal", 300);
+    }
 
+    /**
+     * Sends one prompt to Gemini and records the token usage of the response.
+     *
+     * @param endpoint        name the usage is recorded under
+     * @param maxOutputTokens upper bound on the response, sized to what the endpoint expects back
+     */
+    private String callGemini(String enhancedPrompt, String userId, String endpoint, int maxOutputTokens) {
+        try {
             Map<String, Object> requestBody = Map.of(
                     "contents", List.of(
                             Map.of(
@@ -39,7 +77,7 @@ public class GeminiService {
                     ),
                     "generationConfig", Map.of(
                             "temperature", 0.1,  // Lower temperature for more consistent output
-                            "maxOutputTokens", 2000,
+                            "maxOutputTokens", maxOutputTokens,
                             "topP", 0.8,
                             "topK", 40
                     )
@@ -49,15 +87,16 @@ public class GeminiService {
             headers.setContentType(MediaType.APPLICATION_JSON);
 
             HttpEntity<Map<String, Object>> entity = new HttpEntity<>(requestBody, headers);
-            String urlWithKey = apiUrl + "?key=" + apiKey;
 
             System.out.println("=== Gemini API Request ===");
-            System.out.println("URL: " + apiUrl);
-            System.out.println("Prompt length: " + userPrompt.length());
+            System.out.println("Prompt length: " + enhancedPrompt.length());
 
-            ResponseEntity<String> response = restTemplate.postForEntity(urlWithKey, entity, String.class);
+            // ✅ Fastest model suited to the prompt, with fallback to the others
+            ModelRouter.Reply reply = modelRouter.post(enhancedPrompt.length(), entity);
+            ResponseEntity<String> response = reply.response;
 
             System.out.println("=== Gemini API Response ===");
+            System.out.println("Model: " + reply.model);
             System.out.println("Status: " + response.getStatusCode());
 
             if (response.getStatusCode() != HttpStatus.OK) {
@@ -68,6 +107,9 @@ public class GeminiService {
                 throw new RuntimeException("Gemini API returned empty response");
             }
 
+            // ✅ Charge the tokens reported in usageMetadata to the caller
+            tokenUsage.record(userId, endpoint, mapper.readTree(response.getBody()).path("usageMetadata"));
+
             return response.getBody();
 
         } catch (Exception e) {
@@ -82,11 +124,15 @@ public class GeminiService {
     /**
      * Build an enhanced prompt with strict formatting requirements
      */
-    private String buildEnhancedPrompt(String userPrompt) {
+    private String buildEnhancedPrompt(String userPrompt, String seedPlanJson) {
         LocalDate suggestedDeadline = LocalDate.now().plusMonths(2);
+        String seed = seedPlanJson == null ? ""
+                : "A plan for a very similar goal already exists. Use it as a starting point and adapt it "
+                + "to the user's goal:\n" + seedPlanJson + "\n\n";
 
         return "You are a goal planning assistant. Generate a structured goal with subgoals.\n\n"
                 + "User's goal: " + userPrompt + "\n\n"
+                + seed
                 + "CRITICAL REQUIREMENTS:\n"
                 + "1. Return ONLY valid JSON - no markdown code blocks, no explanations, no extra text\n"
                 + "2. Do NOT wrap in ```json or ``` tags\n"
@@ -117,4 +163,16 @@ public class GeminiService {
                 + "}\n\n"
                 + "IMPORTANT: Return ONLY the JSON object. No other text.";
     }
-}
\ No newline at end of file
+
+    /**
+     * Minimal prompt for one subgoal: no plan, no deadline, just enough context to fit in
+     */
+    private String buildSubgoalPrompt(String goalTitle, List<String> siblingTitles, String subgoalTitle,
+                                      String feedback) {
+        return "Goal: " + goalTitle + "\n"
+                + "Other steps: " + String.join("; ", siblingTitles) + "\n"
+                + "Replace this step with a better one: " + subgoalTitle + "\n"
+                + (feedback == null ? "" : "User feedback: " + feedback + "\n")
+                + "Return ONLY this JSON, no markdown: {\"title\": \"...\", \"description\": \"...\"}";
+    }
+}
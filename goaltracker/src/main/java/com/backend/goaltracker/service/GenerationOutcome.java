@@ -0,0 +1,67 @@
+package com.backend.goaltracker.service;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.util.Map;
+
+/**
+ * Result of one goal generation: the HTTP status and body /generate answers with, whether it
+ * was answered synchronously or by an async job.
+ */
+public class GenerationOutcome {
+
+    public static final String PLAN_SOURCE_HEADER = "X-Goaltracker-Plan-Source";
+
+    private final int status;
+    private final Object body;
+    private final String planSource;        // "generated" or "similar-prompt" on success
+    private final Long retryAfterSeconds;
+
+    public GenerationOutcome(int status, Object body, String planSource, Long retryAfterSeconds) {
+        this.status = status;
+        this.body = body;
+        this.planSource = planSource;
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    static GenerationOutcome success(Object goal, String planSource) {
+        return new GenerationOutcome(HttpStatus.OK.value(), goal, planSource, null);
+    }
+
+    static GenerationOutcome error(HttpStatus status, Map<String, ?> body) {
+        return new GenerationOutcome(status.value(), body, null, null);
+    }
+
+    static GenerationOutcome retryLater(HttpStatus status, long retryAfterSeconds, String error) {
+        return new GenerationOutcome(status.value(), Map.of("error", error), null, retryAfterSeconds);
+    }
+
+    public int getStatus() {
+        return status;
+    }
+
+    public Object getBody() {
+        return body;
+    }
+
+    public String getPlanSource() {
+        return planSource;
+    }
+
+    public Long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+
+    public ResponseEntity<Object> toResponseEntity() {
+        ResponseEntity.BodyBuilder response = ResponseEntity.status(status);
+        if (planSource != null) {
+            response.header(PLAN_SOURCE_HEADER, planSource);
+        }
+        if (retryAfterSeconds != null) {
+            response.header(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds));
+        }
+        return response.body(body);
+    }
+}
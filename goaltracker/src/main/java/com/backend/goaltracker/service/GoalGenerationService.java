@@ -0,0 +1,293 @@
+package com.backend.goaltracker.service;
+
+import com.backend.goaltracker.library.PlanLibrary;
+import com.backend.goaltracker.scheduler.GenerationRejectedException;
+import com.backend.goaltracker.scheduler.GenerationScheduler;
+import com.backend.goaltracker.scheduler.Lane;
+import com.backend.goaltracker.similarity.SimilarPromptCache;
+import com.backend.goaltracker.store.GoalStore;
+import com.backend.goaltracker.tracing.Span;
+import com.backend.goaltracker.tracing.Tracer;
+import com.backend.goaltracker.usage.TokenUsageMeter;
+import com.backend.goaltracker.util.GoalResponseValidator;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import entities.Goal;
+import entities.GoalResponseDTO;
+import entities.Subgoal;
+import entities.SubgoalDTO;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.web.client.HttpClientErrorException;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Turns a sanitized prompt into a stored goal: plan library, similar-prompt reuse, token quota, the Gemini call
+ * (through the GenerationScheduler), response parsing and validation.
+ * Used by POST /api/goals/generate directly and by async generation jobs.
+ * Each stage is a span of the request's trace (generate.*), so a slow generation shows which
+ * stage took the time.
+ */
+@Service
+public class GoalGenerationService {
+
+    @Autowired
+    private GeminiService geminiService;
+
+    @Autowired
+    private GoalResponseValidator responseValidator;
+
+    @Autowired
+    private GoalStore goalStore;
+
+    @Autowired
+    private SimilarPromptCache similarPrompts;
+
+    @Autowired
+    private TokenUsageMeter tokenUsage;
+
+    @Autowired
+    private GenerationScheduler generationScheduler;
+
+    @Autowired
+    private PlanLibrary planLibrary;
+
+    /**
+     * @param sanitizedPrompt prompt as returned by PromptValidator.sanitizePrompt
+     * @param userId          owner of the new goal, or null
+     */
+    public GenerationOutcome generate(String sanitizedPrompt, String userId, Lane lane) {
+        try {
+            // "Try again" resends the same prompt to replace the plan the user saw, so it is never
+            // answered with a library or reused plan (that would be the same plan again)
+            boolean mayReuse = lane != Lane.RETRY;
+
+            // ✅ Common goals are served from the pre-generated plan library
+            Optional<PlanLibrary.LibraryMatch> libraryMatch = Optional.empty();
+            if (mayReuse) {
+                try (Span span = Tracer.start("generate.plan-library")) {
+                    libraryMatch = planLibrary.match(sanitizedPrompt);
+                    span.setAttribute("goaltracker.matched", libraryMatch.isPresent());
+                }
+            }
+
+            // ✅ Paraphrases of an earlier prompt reuse its plan instead of calling Gemini again
+            Optional<SimilarPromptCache.PlanMatch> similar = Optional.empty();
+            if (mayReuse && libraryMatch.isEmpty()) {
+                try (Span span = Tracer.start("generate.similar-prompts")) {
+                    similar = similarPrompts.lookup(sanitizedPrompt);
+                    span.setAttribute("goaltracker.matched", similar.isPresent());
+                }
+            }
+            boolean reused = similar.isPresent() && similar.get().reuse;
+
+            GoalResponseDTO dto;
+            if (libraryMatch.isPresent()) {
+                dto = libraryMatch.get().plan;
+                System.out.println("Serving library plan \"" + libraryMatch.get().category
+                        + "\" (score " + libraryMatch.get().score + ")");
+            } else if (reused) {
+                dto = similar.get().plan;
+                System.out.println("Reusing plan of similar prompt \"" + similar.get().matchedPrompt
+                        + "\" (similarity " + similar.get().similarity + ")");
+            } else {
+                // ✅ Daily token quota (library and reused plans above cost no tokens, so they are not limited)
+                Duration quotaResetsIn = tokenUsage.quotaExceeded(userId);
+                if (quotaResetsIn != null) {
+                    return GenerationOutcome.retryLater(HttpStatus.TOO_MANY_REQUESTS, quotaResetsIn.getSeconds(),
+                            "Daily token quota exceeded");
+                }
+
+                // ✅ STEP 2: Call Gemini API with sanitized prompt (seeded with the similar plan, if any)
+                // (queued in the request's priority lane, so batch work cannot starve interactive users)
+                String seed = similar.map(match -> similarPrompts.toJson(match.plan)).orElse(null);
+                String jsonResponse;
+                try (Span span = Tracer.start("generate.model-call")) {
+                    span.setAttribute("goaltracker.lane", lane.name());
+                    span.setAttribute("goaltracker.seeded", seed != null);
+                    jsonResponse = generationScheduler.call(lane, userId,
+                            () -> geminiService.generateGoal(sanitizedPrompt, seed, userId));
+                }
+
+                try (Span span = Tracer.start("generate.parse")) {
+                    dto = parsePlan(jsonResponse);
+                    span.setAttribute("goaltracker.response_chars", jsonResponse.length());
+                } catch (IllegalStateException e) {
+                    return GenerationOutcome.error(HttpStatus.INTERNAL_SERVER_ERROR, Map.of("error", e.getMessage()));
+                }
+            }
+
+            // ✅ STEP 3: Validate and fix the response DTO
+            try (Span span = Tracer.start("generate.validate")) {
+                try {
+                    dto = responseValidator.validateAndFix(dto);
+                    System.out.println("Response validated and fixed");
+                } catch (IllegalArgumentException e) {
+                    System.err.println("Response validation failed: " + e.getMessage());
+                    span.setError(e.getMessage());
+                    return GenerationOutcome.error(HttpStatus.INTERNAL_SERVER_ERROR,
+                            Map.of("error", "Invalid response from AI: " + e.getMessage()));
+                }
+            }
+
+            // ✅ STEP 4: Convert DTO into Goal entity and store it under a fresh id
+            Goal goal = convertToGoalEntity(dto);
+            goal.setOwnerId(userId);
+            try (Span span = Tracer.start("generate.store")) {
+                goal = goalStore.insert(goal);
+                if (!reused && libraryMatch.isEmpty()) {
+                    similarPrompts.record(sanitizedPrompt, dto);
+                }
+                span.setAttribute("goaltracker.goal_id", goal.getId());
+            }
+
+            System.out.println("=== Goal Generation Successful ===");
+            String planSource = libraryMatch.isPresent() ? "library" : reused ? "similar-prompt" : "generated";
+            return GenerationOutcome.success(goal, planSource);
+
+        } catch (GenerationRejectedException e) {
+            System.err.println("⚠️ " + lane + " generation not served: " + e.getReason());
+            HttpStatus status = e.getReason() == GenerationRejectedException.Reason.TIMEOUT
+                    ? HttpStatus.GATEWAY_TIMEOUT : HttpStatus.SERVICE_UNAVAILABLE;
+            return GenerationOutcome.retryLater(status, e.getRetryAfterSeconds(), e.getMessage());
+        } catch (HttpClientErrorException e) {
+            System.err.println("=== Gemini API HTTP Error ===");
+            System.err.println("Status: " + e.getStatusCode());
+            System.err.println("Response: " + e.getResponseBodyAsString());
+
+            return new GenerationOutcome(e.getStatusCode().value(),
+                    Map.of(
+                            "error", "Gemini API Error",
+                            "status", e.getStatusCode().toString(),
+                            "details", e.getResponseBodyAsString()
+                    ), null, null);
+        } catch (Exception e) {
+            System.err.println("=== Unexpected Error ===");
+            e.printStackTrace();
+
+            return GenerationOutcome.error(HttpStatus.INTERNAL_SERVER_ERROR,
+                    Map.of(
+                            "error", "Internal server error",
+                            "message", String.valueOf(e.getMessage()),
+                            "type", e.getClass().getSimpleName()
+                    ));
+        }
+    }
+
+    /**
+     * Generates and validates a plan without storing it, in the batch lane and charged to no
+     * user. Used to fill the plan library.
+     */
+    public GoalResponseDTO generatePlan(String prompt) throws Exception {
+        String jsonResponse = generationScheduler.call(Lane.BATCH, null,
+                () -> geminiService.generateGoal(prompt, null, null, "plan-library"));
+        return responseValidator.validateAndFix(parsePlan(jsonResponse));
+    }
+
+    /**
+     * Extracts the plan JSON from a Gemini response
+     *
+     * @throws IllegalStateException if the response has no text
+     */
+    private GoalResponseDTO parsePlan(String jsonResponse) throws Exception {
+        // Parse Gemini API response JSON
+        ObjectMapper mapper = new ObjectMapper();
+        JsonNode root = mapper.readTree(jsonResponse);
+
+        System.out.println("=== Parsing Gemini Response ===");
+        System.out.println("Full response tree: " + root.toPrettyString());
+
+        // ✅ Extract text from Gemini API response
+        JsonNode candidatesNode = root.path("candidates");
+        if (candidatesNode.isMissingNode() || candidatesNode.isEmpty()) {
+            throw new IllegalStateException("No candidates in Gemini response");
+        }
+
+        JsonNode contentNode = candidatesNode.get(0).path("content");
+        if (contentNode.isMissingNode()) {
+            throw new IllegalStateException("No content in Gemini response");
+        }
+
+        JsonNode partsNode = contentNode.path("parts");
+        if (partsNode.isMissingNode() || partsNode.isEmpty()) {
+            throw new IllegalStateException("No parts in Gemini response");
+        }
+
+        String textOutput = partsNode.get(0).path("text").asText();
+
+        if (textOutput == null || textOutput.isEmpty()) {
+            throw new IllegalStateException("Empty text in Gemini response");
+        }
+
+        System.out.println("Extracted text: " + textOutput);
+
+        // ✅ Clean the response (remove markdown code blocks if present)
+        String cleanedJson = stripCodeFence(textOutput);
+
+        System.out.println("Cleaned JSON: " + cleanedJson);
+
+        // ✅ Parse the structured JSON into DTO
+        GoalResponseDTO dto = mapper.readValue(cleanedJson, GoalResponseDTO.class);
+        System.out.println("Parsed DTO - Title: " + dto.title + ", Subgoals: " + dto.subgoals.size());
+        return dto;
+    }
+
+    /**
+     * Removes a markdown code block around the model's JSON, if there is one
+     */
+    static String stripCodeFence(String text) {
+        String cleaned = text.trim();
+        if (cleaned.startsWith("```json")) {
+            cleaned = cleaned.substring(7);
+        }
+        if (cleaned.startsWith("```")) {
+            cleaned = cleaned.substring(3);
+        }
+        if (cleaned.endsWith("```")) {
+            cleaned = cleaned.substring(0, cleaned.length() - 3);
+        }
+        return cleaned.trim();
+    }
+
+    /**
+     * Convert validated DTO to Goal entity
+     * This method now receives a validated DTO with guaranteed fields
+     */
+    private Goal convertToGoalEntity(GoalResponseDTO dto) {
+        // Parse deadline (already validated and in ISO format from validator)
+        LocalDate deadline;
+        try {
+            deadline = LocalDate.parse(dto.deadline);
+        } catch (Exception e) {
+            // Fallback (should rarely happen due to validator)
+            try {
+                DateTimeFormatter formatter = DateTimeFormatter.ofPattern("dd/MM/yyyy");
+                deadline = LocalDate.parse(dto.deadline, formatter);
+            } catch (Exception e2) {
+                deadline = LocalDate.now().plusMonths(1);
+            }
+        }
+
+        Goal goal = new Goal();
+        goal.setId(Integer.parseInt(dto.id));
+        goal.setTitle(dto.title);
+        goal.setDescription(dto.description);
+        goal.setDeadline(deadline);
+
+        for (SubgoalDTO sgDto : dto.subgoals) {
+            Subgoal subgoal = new Subgoal();
+            subgoal.setGoalId(goal.getId());
+            subgoal.setTitle(sgDto.title);
+            subgoal.setDescription(sgDto.description);
+            goal.addSubgoal(subgoal);
+        }
+
+        return goal;
+    }
+}
@@ -0,0 +1,170 @@
+package com.backend.goaltracker.service;
+
+import com.backend.goaltracker.scheduler.GenerationRejectedException;
+import com.backend.goaltracker.scheduler.GenerationScheduler;
+import com.backend.goaltracker.scheduler.Lane;
+import com.backend.goaltracker.store.GoalStore;
+import com.backend.goaltracker.usage.TokenUsageMeter;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import entities.Goal;
+import entities.Subgoal;
+import entities.SubgoalDTO;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.web.client.HttpClientErrorException;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Replaces one subgoal of a stored goal instead of regenerating the whole goal. Gemini only sees
+ * the goal title and the titles of the other subgoals, and answers with a single subgoal, so a
+ * refinement costs a fraction of the tokens and time of a full generation.
+ *
+ * Only incomplete subgoals can be replaced. The replacement keeps the subgoal's position.
+ */
+@Service
+public class SubgoalRegenerationService {
+
+    /**
+     * Asks the model for a replacement; GeminiService in production
+     */
+    interface SubgoalGenerator {
+        String regenerate(String goalTitle, List<String> siblingTitles, String subgoalTitle, String feedback,
+                          String userId);
+    }
+
+    private final SubgoalGenerator generator;
+    private final GoalStore goalStore;
+    private final TokenUsageMeter tokenUsage;
+    private final GenerationScheduler generationScheduler;
+    private final ObjectMapper mapper = new ObjectMapper()
+            .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+
+    @Autowired
+    public SubgoalRegenerationService(GeminiService geminiService, GoalStore goalStore, TokenUsageMeter tokenUsage,
+                                      GenerationScheduler generationScheduler) {
+        this(geminiService::regenerateSubgoal, goalStore, tokenUsage, generationScheduler);
+    }
+
+    SubgoalRegenerationService(SubgoalGenerator generator, GoalStore goalStore, TokenUsageMeter tokenUsage,
+                               GenerationScheduler generationScheduler) {
+        this.generator = generator;
+        this.goalStore = goalStore;
+        this.tokenUsage = tokenUsage;
+        this.generationScheduler = generationScheduler;
+    }
+
+    /**
+     * @param subgoalTitle the first incomplete subgoal with this title is replaced
+     * @param feedback     sanitized note on what to change; may be null
+     * @return the replacement Subgoal, or the error to answer with
+     */
+    public GenerationOutcome regenerate(int goalId, String subgoalTitle, String feedback, String userId, Lane lane) {
+        Optional<Goal> found = goalStore.findById(goalId).filter(goal -> goal.isVisibleTo(userId));
+        if (found.isEmpty()) {
+            return GenerationOutcome.error(HttpStatus.NOT_FOUND, Map.of("error", "Goal not found: " + goalId));
+        }
+        Goal goal = found.get();
+        if (openSubgoal(goal, subgoalTitle) == null) {
+            return subgoalNotOpen(goal, subgoalTitle);
+        }
+
+        Duration quotaResetsIn = tokenUsage.quotaExceeded(userId);
+        if (quotaResetsIn != null) {
+            return GenerationOutcome.retryLater(HttpStatus.TOO_MANY_REQUESTS, quotaResetsIn.getSeconds(),
+                    "Daily token quota exceeded");
+        }
+
+        List<String> siblingTitles = new ArrayList<>();
+        boolean skipped = false;
+        for (Subgoal subgoal : goal.getSubgoals()) {
+            if (!skipped && !subgoal.getIsCompleted() && subgoal.getTitle().equals(subgoalTitle)) {
+                skipped = true;
+            } else {
+                siblingTitles.add(subgoal.getTitle());
+            }
+        }
+
+        SubgoalDTO replacement;
+        try {
+            String response = generationScheduler.call(lane, userId,
+                    () -> generator.regenerate(goal.getTitle(), siblingTitles, subgoalTitle, feedback, userId));
+            replacement = parse(response);
+        } catch (GenerationRejectedException e) {
+            System.err.println("⚠️ " + lane + " subgoal regeneration not served: " + e.getReason());
+            HttpStatus status = e.getReason() == GenerationRejectedException.Reason.TIMEOUT
+                    ? HttpStatus.GATEWAY_TIMEOUT : HttpStatus.SERVICE_UNAVAILABLE;
+            return GenerationOutcome.retryLater(status, e.getRetryAfterSeconds(), e.getMessage());
+        } catch (HttpClientErrorException e) {
+            return new GenerationOutcome(e.getStatusCode().value(),
+                    Map.of("error", "Gemini API Error", "status", e.getStatusCode().toString(),
+                            "details", e.getResponseBodyAsString()), null, null);
+        } catch (IllegalArgumentException e) {
+            System.err.println("Subgoal response validation failed: " + e.getMessage());
+            return GenerationOutcome.error(HttpStatus.INTERNAL_SERVER_ERROR,
+                    Map.of("error", "Invalid response from AI: " + e.getMessage()));
+        } catch (Exception e) {
+            System.err.println("⚠️ Subgoal regeneration failed: " + e.getMessage());
+            return GenerationOutcome.error(HttpStatus.INTERNAL_SERVER_ERROR,
+                    Map.of("error", "Internal server error", "message", String.valueOf(e.getMessage())));
+        }
+
+        // Apply to the goal as it is now: it may have changed during the Gemini call, and a
+        // completion arriving while the change is stored must not be overwritten
+        Subgoal[] replaced = new Subgoal[1];
+        goalStore.modify(goalId, current -> {
+            replaced[0] = openSubgoal(current, subgoalTitle);
+            if (replaced[0] == null) {
+                return false;
+            }
+            replaced[0].setTitle(replacement.title);
+            replaced[0].setDescription(replacement.description);
+            return true;
+        });
+        if (replaced[0] == null) {
+            return GenerationOutcome.error(HttpStatus.CONFLICT,
+                    Map.of("error", "The subgoal changed while it was being regenerated"));
+        }
+        return GenerationOutcome.success(replaced[0], "generated");
+    }
+
+    private static Subgoal openSubgoal(Goal goal, String title) {
+        for (Subgoal subgoal : goal.getSubgoals()) {
+            if (!subgoal.getIsCompleted() && subgoal.getTitle().equals(title)) {
+                return subgoal;
+            }
+        }
+        return null;
+    }
+
+    private static GenerationOutcome subgoalNotOpen(Goal goal, String title) {
+        boolean completed = goal.getSubgoals().stream().anyMatch(subgoal -> subgoal.getTitle().equals(title));
+        return completed
+                ? GenerationOutcome.error(HttpStatus.CONFLICT, Map.of("error", "Completed subgoals cannot be regenerated"))
+                : GenerationOutcome.error(HttpStatus.NOT_FOUND, Map.of("error", "Subgoal not found: " + title));
+    }
+
+    /**
+     * Extracts the subgoal JSON from a Gemini response and checks its fields
+     */
+    SubgoalDTO parse(String geminiResponse) throws Exception {
+        String text = mapper.readTree(geminiResponse).path("candidates").path(0)
+                .path("content").path("parts").path(0).path("text").asText("");
+        SubgoalDTO subgoal = mapper.readValue(GoalGenerationService.stripCodeFence(text), SubgoalDTO.class);
+        if (subgoal.title == null || subgoal.title.trim().isEmpty()) {
+            throw new IllegalArgumentException("Subgoal title cannot be empty");
+        }
+        subgoal.title = subgoal.title.trim();
+        if (subgoal.description == null || subgoal.description.trim().isEmpty()) {
+            subgoal.description = "No description provided";
+        }
+        subgoal.description = subgoal.description.trim();
+        return subgoal;
+    }
+}
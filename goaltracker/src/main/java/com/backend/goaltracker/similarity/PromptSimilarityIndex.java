@@ -0,0 +1,237 @@
+package com.backend.goaltracker.similarity;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Finds previously seen prompts that are near-duplicates of a new one.
+ *
+ * A prompt is reduced to a set of normalized content words ("I want to learn guitar" and
+ * "learn to play guitar" both keep "learn" and "guitar"). Candidates are found with MinHash
+ * signatures and locality-sensitive hashing (20 bands of 3 rows), then checked against the exact
+ * Jaccard similarity of the word sets, so the LSH only decides what gets compared, never what matches.
+ * Oldest entries are evicted beyond maxEntries. Thread-safe.
+ *
+ * @param <T> value stored with each prompt (e.g. the generated plan)
+ */
+public class PromptSimilarityIndex<T> {
+
+    private static final int BANDS = 20;
+    private static final int ROWS = 3;
+    private static final int HASHES = BANDS * ROWS;
+
+    // Words that say nothing about the goal itself
+    private static final Set<String> STOP_WORDS = Set.of(
+            "a", "about", "after", "all", "also", "am", "an", "and", "any", "are", "as", "at", "be", "become",
+            "been", "better", "by", "can", "could", "do", "doing", "for", "from", "get", "getting", "go", "going",
+            "goal", "goals", "have", "help", "how", "i", "i'd", "i'm", "in", "into", "is", "it", "just", "like",
+            "me", "more", "my", "myself", "need", "of", "on", "or", "please", "really", "so", "some", "start",
+            "that", "the", "this", "to", "try", "up", "want", "wanna", "way", "will", "with", "would", "you");
+
+    /**
+     * A stored prompt that matched
+     */
+    public static class Match<T> {
+        public final String prompt;
+        public final T value;
+        public final double similarity;
+
+        Match(String prompt, T value, double similarity) {
+            this.prompt = prompt;
+            this.value = value;
+            this.similarity = similarity;
+        }
+    }
+
+    private static final class Entry<T> {
+        final String prompt;
+        final Set<String> features;
+        final long[] bandKeys;
+        final T value;
+
+        Entry(String prompt, Set<String> features, long[] bandKeys, T value) {
+            this.prompt = prompt;
+            this.features = features;
+            this.bandKeys = bandKeys;
+            this.value = value;
+        }
+    }
+
+    private final double threshold;
+    private final int maxEntries;
+    private final Map<String, Entry<T>> entries = new LinkedHashMap<>();  // by feature key, oldest first
+    private final Map<Long, List<Entry<T>>> buckets = new HashMap<>();
+
+    /**
+     * @param threshold  minimum Jaccard similarity of the word sets for a match (0..1]
+     * @param maxEntries oldest prompts are forgotten beyond this many
+     */
+    public PromptSimilarityIndex(double threshold, int maxEntries) {
+        if (threshold <= 0 || threshold > 1) {
+            throw new IllegalArgumentException("threshold must be in (0, 1]");
+        }
+        this.threshold = threshold;
+        this.maxEntries = maxEntries;
+    }
+
+    /**
+     * @return the most similar stored prompt at or above the threshold
+     */
+    public synchronized Optional<Match<T>> findSimilar(String prompt) {
+        Set<String> features = features(prompt);
+        if (features.isEmpty()) {
+            return Optional.empty();
+        }
+
+        Entry<T> exact = entries.get(key(features));
+        if (exact != null) {
+            return Optional.of(new Match<>(exact.prompt, exact.value, 1.0));
+        }
+
+        Entry<T> best = null;
+        double bestSimilarity = 0;
+        Set<Entry<T>> seen = new HashSet<>();
+        for (long bandKey : bandKeys(features)) {
+            List<Entry<T>> bucket = buckets.get(bandKey);
+            if (bucket == null) continue;
+            for (Entry<T> candidate : bucket) {
+                if (!seen.add(candidate)) continue;
+                double similarity = jaccard(features, candidate.features);
+                if (similarity > bestSimilarity) {
+                    best = candidate;
+                    bestSimilarity = similarity;
+                }
+            }
+        }
+        return best != null && bestSimilarity >= threshold
+                ? Optional.of(new Match<>(best.prompt, best.value, bestSimilarity))
+                : Optional.empty();
+    }
+
+    /**
+     * Stores a prompt, replacing an earlier prompt with exactly the same words.
+     */
+    public synchronized void put(String prompt, T value) {
+        Set<String> features = features(prompt);
+        if (features.isEmpty()) {
+            return;
+        }
+        String key = key(features);
+        Entry<T> previous = entries.remove(key);
+        if (previous != null) {
+            unbucket(previous);
+        }
+
+        Entry<T> entry = new Entry<>(prompt, features, bandKeys(features), value);
+        entries.put(key, entry);
+        for (long bandKey : entry.bandKeys) {
+            buckets.computeIfAbsent(bandKey, k -> new ArrayList<>(1)).add(entry);
+        }
+
+        if (entries.size() > maxEntries) {
+            Iterator<Entry<T>> oldest = entries.values().iterator();
+            unbucket(oldest.next());
+            oldest.remove();
+        }
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    private void unbucket(Entry<T> entry) {
+        for (long bandKey : entry.bandKeys) {
+            List<Entry<T>> bucket = buckets.get(bandKey);
+            bucket.remove(entry);
+            if (bucket.isEmpty()) buckets.remove(bandKey);
+        }
+    }
+
+    // ================== FEATURES ==================
+
+    /**
+     * Lower-cased content words with a light plural / -ing stemming.
+     */
+    public static Set<String> features(String prompt) {
+        Set<String> features = new HashSet<>();
+        for (String word : prompt.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}']+")) {
+            if (word.isEmpty() || STOP_WORDS.contains(word)) continue;
+            features.add(stem(word));
+        }
+        return features;
+    }
+
+    private static String stem(String word) {
+        if (word.length() > 5 && word.endsWith("ing")) return word.substring(0, word.length() - 3);
+        if (word.length() > 4 && word.endsWith("ies")) return word.substring(0, word.length() - 3) + "y";
+        if (word.length() > 3 && word.endsWith("s") && !word.endsWith("ss")) return word.substring(0, word.length() - 1);
+        return word;
+    }
+
+    private static String key(Set<String> features) {
+        List<String> sorted = new ArrayList<>(features);
+        sorted.sort(null);
+        return String.join(" ", sorted);
+    }
+
+    static double jaccard(Set<String> a, Set<String> b) {
+        Set<String> small = a.size() <= b.size() ? a : b;
+        Set<String> large = small == a ? b : a;
+        int intersection = 0;
+        for (String feature : small) {
+            if (large.contains(feature)) intersection++;
+        }
+        return (double) intersection / (a.size() + b.size() - intersection);
+    }
+
+    // ================== MINHASH / LSH ==================
+
+    private static long[] bandKeys(Set<String> features) {
+        long[] signature = new long[HASHES];
+        Arrays.fill(signature, Long.MAX_VALUE);
+        for (String feature : features) {
+            long base = fnv1a(feature);
+            for (int i = 0; i < HASHES; i++) {
+                long h = fmix(base ^ (0x9E3779B97F4A7C15L * (i + 1)));
+                if (h < signature[i]) signature[i] = h;
+            }
+        }
+
+        long[] keys = new long[BANDS];
+        for (int band = 0; band < BANDS; band++) {
+            long key = band;
+            for (int row = 0; row < ROWS; row++) {
+                key = fmix(key * 31 + signature[band * ROWS + row]);
+            }
+            keys[band] = key;
+        }
+        return keys;
+    }
+
+    private static long fnv1a(String s) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < s.length(); i++) {
+            hash ^= s.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        return hash;
+    }
+
+    private static long fmix(long k) {
+        k ^= k >>> 33;
+        k *= 0xff51afd7ed558ccdL;
+        k ^= k >>> 33;
+        k *= 0xc4ceb9fe1a85ec53L;
+        k ^= k >>> 33;
+        return k;
+    }
+}
@@ -0,0 +1,166 @@
+package com.backend.goaltracker.similarity;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import entities.GoalResponseDTO;
+import entities.SubgoalDTO;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Remembers the plan generated for each sanitized prompt, so paraphrases of an earlier prompt
+ * can skip the Gemini call (mode "reuse") or give Gemini the earlier plan to adapt (mode "seed").
+ *
+ * Properties (goaltracker.similar-prompts.*): mode (reuse | seed | off, default reuse),
+ * threshold (Jaccard similarity of the prompts' content words, default 0.6), max-entries (5000).
+ */
+@Service
+public class SimilarPromptCache {
+
+    /**
+     * Plan found for a new prompt
+     */
+    public static class PlanMatch {
+        public final boolean reuse;          // true: use the plan as is, false: pass it to Gemini as a seed
+        public final GoalResponseDTO plan;   // a copy, safe to modify
+        public final String matchedPrompt;
+        public final double similarity;
+
+        PlanMatch(boolean reuse, GoalResponseDTO plan, String matchedPrompt, double similarity) {
+            this.reuse = reuse;
+            this.plan = plan;
+            this.matchedPrompt = matchedPrompt;
+            this.similarity = similarity;
+        }
+    }
+
+    /**
+     * A generated plan and the day it was generated, so deadlines can be shifted on reuse
+     */
+    private static final class StoredPlan {
+        final GoalResponseDTO plan;
+        final LocalDate generatedOn;
+
+        StoredPlan(GoalResponseDTO plan, LocalDate generatedOn) {
+            this.plan = plan;
+            this.generatedOn = generatedOn;
+        }
+    }
+
+    private final String mode;
+    private final double threshold;
+    private final PromptSimilarityIndex<StoredPlan> index;
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    private final LongAdder lookups = new LongAdder();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder exactHits = new LongAdder();
+    private final LongAdder stored = new LongAdder();
+
+    public SimilarPromptCache(@Value("${goaltracker.similar-prompts.mode:reuse}") String mode,
+                              @Value("${goaltracker.similar-prompts.threshold:0.6}") double threshold,
+                              @Value("${goaltracker.similar-prompts.max-entries:5000}") int maxEntries) {
+        this.mode = mode;
+        this.threshold = threshold;
+        this.index = new PromptSimilarityIndex<>(threshold, maxEntries);
+    }
+
+    /**
+     * @param sanitizedPrompt prompt as returned by PromptValidator.sanitizePrompt
+     */
+    public Optional<PlanMatch> lookup(String sanitizedPrompt) {
+        if ("off".equals(mode)) {
+            return Optional.empty();
+        }
+        lookups.increment();
+        Optional<PromptSimilarityIndex.Match<StoredPlan>> match = index.findSimilar(sanitizedPrompt);
+        if (match.isEmpty()) {
+            return Optional.empty();
+        }
+
+        hits.increment();
+        if (match.get().similarity == 1.0) exactHits.increment();
+        StoredPlan stored = match.get().value;
+        GoalResponseDTO plan = copy(stored.plan);
+        plan.deadline = shiftDeadline(plan.deadline, stored.generatedOn);
+        return Optional.of(new PlanMatch("reuse".equals(mode), plan, match.get().prompt, match.get().similarity));
+    }
+
+    /**
+     * Stores a freshly generated (validated) plan for later prompts.
+     */
+    public void record(String sanitizedPrompt, GoalResponseDTO plan) {
+        if ("off".equals(mode)) {
+            return;
+        }
+        index.put(sanitizedPrompt, new StoredPlan(copy(plan), LocalDate.now()));
+        stored.increment();
+    }
+
+    /**
+     * @return the plan as JSON, for GeminiService's seed prompt
+     */
+    public String toJson(GoalResponseDTO plan) {
+        try {
+            return mapper.writeValueAsString(plan);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    public Map<String, Object> stats() {
+        long lookupCount = lookups.sum();
+        long hitCount = hits.sum();
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("mode", mode);
+        stats.put("threshold", threshold);
+        stats.put("entries", index.size());
+        stats.put("lookups", lookupCount);
+        stats.put("hits", hitCount);
+        stats.put("exactHits", exactHits.sum());
+        stats.put("misses", lookupCount - hitCount);
+        stats.put("hitRate", lookupCount == 0 ? 0.0 : (double) hitCount / lookupCount);
+        stats.put("plansStored", stored.sum());
+        return stats;
+    }
+
+    /**
+     * Keeps the same time span between generation and deadline as the original plan had.
+     */
+    private static String shiftDeadline(String deadline, LocalDate generatedOn) {
+        try {
+            long days = ChronoUnit.DAYS.between(generatedOn, LocalDate.parse(deadline));
+            return LocalDate.now().plusDays(Math.max(days, 1)).toString();
+        } catch (DateTimeParseException | NullPointerException e) {
+            return deadline;  // GoalResponseValidator falls back to its default
+        }
+    }
+
+    private static GoalResponseDTO copy(GoalResponseDTO source) {
+        GoalResponseDTO copy = new GoalResponseDTO();
+        copy.id = source.id;
+        copy.title = source.title;
+        copy.description = source.description;
+        copy.deadline = source.deadline;
+        copy.subgoals = new ArrayList<>();
+        if (source.subgoals != null) {
+            for (SubgoalDTO subgoal : source.subgoals) {
+                SubgoalDTO subgoalCopy = new SubgoalDTO();
+                subgoalCopy.id = subgoal.id;
+                subgoalCopy.title = subgoal.title;
+                subgoalCopy.description = subgoal.description;
+                copy.subgoals.add(subgoalCopy);
+            }
+        }
+        return copy;
+    }
+}
@@ -0,0 +1,189 @@
+package com.backend.goaltracker.stats;
+
+import com.backend.goaltracker.store.GoalChangedEvent;
+import com.backend.goaltracker.store.GoalStore;
+import entities.Goal;
+import entities.Subgoal;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.time.Clock;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.temporal.TemporalAdjusters;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Per-user goal statistics, maintained incrementally from GoalChangedEvents.
+ *
+ * For every goal the service remembers what it last contributed (owner, subgoal counts,
+ * completion, deadline). A change subtracts the old contribution from the owner's rollup and
+ * adds the new one, so a mutation costs O(subgoals of that goal) and reading the stats is O(1).
+ * The overdue count is advanced lazily when the date changes, and "completed this week" resets
+ * on Mondays. Rollups are rebuilt from the store at startup; completions from earlier in the
+ * week are not known after a restart.
+ */
+@Service
+public class GoalStatsService {
+
+    static final String ANONYMOUS = "anonymous";
+
+    /**
+     * What one goal currently adds to its owner's rollup
+     */
+    private static final class Contribution {
+        final String userId;
+        final int subgoals;
+        final int completedSubgoals;
+        final boolean complete;
+        final LocalDate deadline;  // null when the goal has none
+
+        Contribution(Goal goal) {
+            int completed = 0;
+            for (Subgoal subgoal : goal.getSubgoals()) {
+                if (subgoal.getIsCompleted()) completed++;
+            }
+            this.userId = goal.getOwnerId() != null ? goal.getOwnerId() : ANONYMOUS;
+            this.subgoals = goal.getSubgoals().size();
+            this.completedSubgoals = completed;
+            this.complete = goal.isComplete() || (subgoals > 0 && completed == subgoals);
+            this.deadline = goal.getDeadline();
+        }
+    }
+
+    /**
+     * Running totals for one user
+     */
+    private static final class Rollup {
+        int goals;
+        int completedGoals;
+        int subgoals;
+        int completedSubgoals;
+
+        // Incomplete goals per deadline day; overdueGoals counts those before overdueAsOf
+        final TreeMap<LocalDate, Integer> openDeadlines = new TreeMap<>();
+        int overdueGoals;
+        LocalDate overdueAsOf;
+
+        LocalDate weekStart;
+        int completedThisWeek;
+
+        Rollup(LocalDate today) {
+            overdueAsOf = today;
+            weekStart = startOfWeek(today);
+        }
+
+        void apply(Contribution c, int sign) {
+            goals += sign;
+            subgoals += sign * c.subgoals;
+            completedSubgoals += sign * c.completedSubgoals;
+            if (c.complete) {
+                completedGoals += sign;
+            } else if (c.deadline != null) {
+                openDeadlines.merge(c.deadline, sign, Integer::sum);
+                if (openDeadlines.get(c.deadline) == 0) openDeadlines.remove(c.deadline);
+                if (c.deadline.isBefore(overdueAsOf)) overdueGoals += sign;
+            }
+        }
+
+        /**
+         * Moves the overdue count and the weekly counter forward to today.
+         * Only the deadline days that passed since the last call are visited.
+         */
+        void rollTo(LocalDate today) {
+            if (today.isAfter(overdueAsOf)) {
+                for (int count : openDeadlines.subMap(overdueAsOf, true, today, false).values()) {
+                    overdueGoals += count;
+                }
+                overdueAsOf = today;
+            }
+            LocalDate currentWeek = startOfWeek(today);
+            if (!currentWeek.equals(weekStart)) {
+                weekStart = currentWeek;
+                completedThisWeek = 0;
+            }
+        }
+    }
+
+    private final GoalStore goalStore;
+    private final Clock clock;
+    private final Map<Integer, Contribution> contributions = new HashMap<>();
+    private final Map<String, Rollup> rollups = new HashMap<>();
+
+    @Autowired
+    public GoalStatsService(GoalStore goalStore) {
+        this(goalStore, Clock.systemDefaultZone());
+    }
+
+    GoalStatsService(GoalStore goalStore, Clock clock) {
+        this.goalStore = goalStore;
+        this.clock = clock;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        for (Goal goal : goalStore.scan()) {
+            apply(goal.getId(), goal, false);
+        }
+        System.out.println("✅ Goal stats: " + rollups.size() + " users, " + contributions.size() + " goals");
+    }
+
+    @EventListener
+    public void onGoalChanged(GoalChangedEvent event) {
+        apply(event.getGoalId(), event.getGoal(), true);
+    }
+
+    /**
+     * @param userId the user, or null for goals created without a user id
+     */
+    public synchronized UserGoalStats getStats(String userId) {
+        String key = userId != null ? userId : ANONYMOUS;
+        LocalDate today = LocalDate.now(clock);
+        Rollup rollup = rollups.get(key);
+        if (rollup == null) {
+            return new UserGoalStats(key, 0, 0, 0, 0, 0, 0, today);
+        }
+        rollup.rollTo(today);
+        return new UserGoalStats(key, rollup.goals, rollup.completedGoals, rollup.overdueGoals,
+                rollup.subgoals, rollup.completedSubgoals, rollup.completedThisWeek, today);
+    }
+
+    /**
+     * Replaces a goal's old contribution with its current one (goal == null means deleted).
+     */
+    private synchronized void apply(int goalId, Goal goal, boolean countCompletions) {
+        LocalDate today = LocalDate.now(clock);
+        Contribution before = contributions.remove(goalId);
+        Contribution after = goal != null ? new Contribution(goal) : null;
+
+        if (before != null) {
+            Rollup rollup = rollup(before.userId, today);
+            rollup.apply(before, -1);
+            if (rollup.goals == 0 && rollup.completedThisWeek == 0) rollups.remove(before.userId);
+        }
+        if (after != null) {
+            contributions.put(goalId, after);
+            Rollup rollup = rollup(after.userId, today);
+            rollup.apply(after, 1);
+
+            int newlyCompleted = after.completedSubgoals - (before != null ? before.completedSubgoals : 0);
+            if (countCompletions && newlyCompleted > 0) {
+                rollup.completedThisWeek += newlyCompleted;
+            }
+        }
+    }
+
+    private Rollup rollup(String userId, LocalDate today) {
+        Rollup rollup = rollups.computeIfAbsent(userId, id -> new Rollup(today));
+        rollup.rollTo(today);
+        return rollup;
+    }
+
+    private static LocalDate startOfWeek(LocalDate date) {
+        return date.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+    }
+}
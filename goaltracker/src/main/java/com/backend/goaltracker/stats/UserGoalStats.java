@@ -0,0 +1,34 @@
+package com.backend.goaltracker.stats;
+
+import java.time.LocalDate;
+
+/**
+ * Snapshot of one user's goal statistics, as returned by GET /api/goals/stats.
+ */
+public class UserGoalStats {
+
+    public final String userId;
+    public final int totalGoals;
+    public final int completedGoals;
+    public final double completionRate;         // completed goals / total goals
+    public final int overdueGoals;              // incomplete goals whose deadline day has passed
+    public final int totalSubgoals;
+    public final int completedSubgoals;
+    public final double progress;               // completed subgoals / total subgoals
+    public final int subgoalsCompletedThisWeek; // since Monday
+    public final LocalDate asOf;
+
+    UserGoalStats(String userId, int totalGoals, int completedGoals, int overdueGoals,
+                  int totalSubgoals, int completedSubgoals, int subgoalsCompletedThisWeek, LocalDate asOf) {
+        this.userId = userId;
+        this.totalGoals = totalGoals;
+        this.completedGoals = completedGoals;
+        this.completionRate = totalGoals == 0 ? 0 : (double) completedGoals / totalGoals;
+        this.overdueGoals = overdueGoals;
+        this.totalSubgoals = totalSubgoals;
+        this.completedSubgoals = completedSubgoals;
+        this.progress = totalSubgoals == 0 ? 0 : (double) completedSubgoals / totalSubgoals;
+        this.subgoalsCompletedThisWeek = subgoalsCompletedThisWeek;
+        this.asOf = asOf;
+    }
+}
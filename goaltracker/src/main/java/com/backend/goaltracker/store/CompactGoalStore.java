@@ -0,0 +1,282 @@
+package com.backend.goaltracker.store;
+
+import entities.Goal;
+import entities.Subgoal;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Predicate;
+
+/**
+ * Node-local goal store that holds goals in a compact form instead of as entities. Like the
+ * memory store, goals are lost on restart.
+ *
+ * A stored goal is one small object: its texts are ids into a shared StringTable (the same
+ * subgoal text in many plans is stored once), dates are epoch days, subgoals are pairs of text
+ * ids, and subgoal completion is a bitset. There are no Subgoal objects, goal ids or
+ * back-references per subgoal, and goals are looked up by id in a primitive IntObjectMap.
+ * Goal objects are built on reads and are copies: changes become visible through update().
+ */
+@Component
+@ConditionalOnProperty(name = "goaltracker.store.type", havingValue = "compact")
+public class CompactGoalStore implements GoalStore {
+
+
+    /**
+     * A stored goal
+     */
+    private static final class Record {
+        int id;
+        int owner;
+        int title;
+        int description;
+        int createdAt;
+        int deadline;
+        int[] subgoalText;   // title and description id of each subgoal
+        long[] completed;    // bit i: subgoal i is complete
+        boolean complete;
+
+        boolean isCompleted(int subgoal) {
+            return (completed[subgoal >>> 6] & (1L << subgoal)) != 0;
+        }
+    }
+
+    private final IntObjectMap<Record> goals = new IntObjectMap<>(1024);
+    private final StringTable strings = new StringTable();
+    private final ApplicationEventPublisher events;
+    private int nextId = 1;
+
+    public CompactGoalStore(ApplicationEventPublisher events) {
+        this.events = events;
+    }
+
+    // ================== WRITES ==================
+
+    @Override
+    public Goal insert(Goal goal) {
+        synchronized (this) {
+            GoalIds.assign(goal, nextId++);
+            goals.put(goal.getId(), encode(goal));
+        }
+        events.publishEvent(new GoalChangedEvent(GoalChangedEvent.Type.CREATED, goal.getId(), goal));
+        return goal;
+    }
+
+    @Override
+    public void update(Goal goal) {
+        synchronized (this) {
+            Record replaced = goals.put(goal.getId(), encode(goal));   // interns before releasing: shared text stays
+            if (replaced != null) {
+                release(replaced);
+            }
+        }
+        events.publishEvent(new GoalChangedEvent(GoalChangedEvent.Type.UPDATED, goal.getId(), goal));
+    }
+
+    /**
+     * Sets the subgoal's completion bit; nothing is re-encoded.
+     */
+    @Override
+    public Optional<Goal> completeSubgoal(int goalId, String subgoalTitle) {
+        Goal goal;
+        synchronized (this) {
+            Record record = goals.get(goalId);
+            if (record == null) {
+                return Optional.empty();
+            }
+            int title = strings.find(subgoalTitle);
+            int subgoalCount = record.subgoalText.length / 2;
+            int match = -1;
+            for (int i = 0; i < subgoalCount && title != StringTable.NULL; i++) {
+                if (record.subgoalText[2 * i] == title && !record.isCompleted(i)) {
+                    match = i;
+                    break;
+                }
+            }
+            if (match < 0) {
+                return Optional.of(materialize(record));
+            }
+            record.completed[match >>> 6] |= 1L << match;
+            record.complete = true;
+            for (int i = 0; i < subgoalCount; i++) {
+                record.complete &= record.isCompleted(i);
+            }
+            goal = materialize(record);
+        }
+        events.publishEvent(new GoalChangedEvent(GoalChangedEvent.Type.UPDATED, goalId, goal));
+        return Optional.of(goal);
+    }
+
+    @Override
+    public Optional<Goal> modify(int goalId, Predicate<Goal> change) {
+        Goal goal;
+        synchronized (this) {
+            Record record = goals.get(goalId);
+            if (record == null) {
+                return Optional.empty();
+            }
+            goal = materialize(record);
+            if (!change.test(goal)) {
+                return Optional.of(goal);
+            }
+            goals.put(goalId, encode(goal));
+            release(record);
+        }
+        events.publishEvent(new GoalChangedEvent(GoalChangedEvent.Type.UPDATED, goalId, goal));
+        return Optional.of(goal);
+    }
+
+    @Override
+    public boolean delete(int id) {
+        synchronized (this) {
+            Record removed = goals.remove(id);
+            if (removed == null) {
+                return false;
+            }
+            release(removed);
+        }
+        events.publishEvent(new GoalChangedEvent(GoalChangedEvent.Type.DELETED, id, null));
+        return true;
+    }
+
+    // ================== READS ==================
+
+    @Override
+    public synchronized Optional<Goal> findById(int id) {
+        Record record = goals.get(id);
+        return record == null ? Optional.empty() : Optional.of(materialize(record));
+    }
+
+    /**
+     * Scans the goals comparing text ids, not strings.
+     */
+    @Override
+    public synchronized Optional<Goal> findByTitle(String ownerId, String title) {
+        int titleId = strings.find(title);
+        int owner = strings.find(ownerId);
+        if (titleId == StringTable.NULL || (ownerId != null && owner == StringTable.NULL)) {
+            return Optional.empty();
+        }
+        Record first = null;
+        for (Record record : goals.values()) {
+            if (record.title == titleId && record.owner == owner && (first == null || record.id < first.id)) {
+                first = record;
+            }
+        }
+        return Optional.ofNullable(first).map(this::materialize);
+    }
+
+    /**
+     * Scans the goals comparing owner ids and materializes only the owner's.
+     */
+    @Override
+    public synchronized List<Goal> findByOwner(String ownerId) {
+        int owner = strings.find(ownerId);
+        List<Goal> owned = new ArrayList<>();
+        if (ownerId != null && owner == StringTable.NULL) {
+            return owned;
+        }
+        List<Record> records = goals.values();
+        records.sort(Comparator.comparingInt(record -> record.id));
+        for (Record record : records) {
+            if (record.owner == owner) owned.add(materialize(record));
+        }
+        return owned;
+    }
+
+    @Override
+    public synchronized List<Goal> findAll() {
+        List<Record> records = goals.values();
+        records.sort(Comparator.comparingInt(record -> record.id));
+        List<Goal> all = new ArrayList<>(records.size());
+        for (Record record : records) {
+            all.add(materialize(record));
+        }
+        return all;
+    }
+
+    @Override
+    public synchronized List<Goal> findPage(int afterId, int limit) {
+        List<Goal> page = new ArrayList<>(Math.min(limit, 1024));
+        for (int id = afterId + 1; id < nextId && page.size() < limit; id++) {
+            Record record = goals.get(id);
+            if (record != null) page.add(materialize(record));
+        }
+        return page;
+    }
+
+    /**
+     * @return number of goals and of distinct texts
+     */
+    public synchronized Map<String, Integer> stats() {
+        return Map.of("goals", goals.size(), "distinctTexts", strings.size());
+    }
+
+    // ================== ENCODING ==================
+
+    private Record encode(Goal goal) {
+        List<Subgoal> subgoals = goal.getSubgoals();
+        Record record = new Record();
+        record.id = goal.getId();
+        record.owner = strings.intern(goal.getOwnerId());
+        record.title = strings.intern(goal.getTitle());
+        record.description = strings.intern(goal.getDescription());
+        record.createdAt = GoalCodec.epochDay(goal.getCreatedAt());
+        record.deadline = GoalCodec.epochDay(goal.getDeadline());
+        record.subgoalText = new int[2 * subgoals.size()];
+        record.completed = new long[(subgoals.size() + 63) >>> 6];
+        for (int i = 0; i < subgoals.size(); i++) {
+            Subgoal subgoal = subgoals.get(i);
+            record.subgoalText[2 * i] = strings.intern(subgoal.getTitle());
+            record.subgoalText[2 * i + 1] = strings.intern(subgoal.getDescription());
+            if (subgoal.getIsCompleted()) {
+                record.completed[i >>> 6] |= 1L << i;
+            }
+        }
+        record.complete = goal.isComplete();
+        return record;
+    }
+
+    private void release(Record record) {
+        strings.release(record.owner);
+        strings.release(record.title);
+        strings.release(record.description);
+        for (int text : record.subgoalText) {
+            strings.release(text);
+        }
+    }
+
+    private Goal materialize(Record record) {
+        Goal goal = new Goal();
+        goal.setId(record.id);
+        goal.setOwnerId(strings.get(record.owner));
+        goal.setTitle(strings.get(record.title));
+        goal.setDescription(strings.get(record.description));
+        goal.setCreatedAt(GoalCodec.date(record.createdAt));
+        goal.setDeadline(GoalCodec.date(record.deadline));
+
+        int subgoalCount = record.subgoalText.length / 2;
+        for (int i = 0; i < subgoalCount; i++) {
+            goal.addSubgoal(new Subgoal(record.id, strings.get(record.subgoalText[2 * i]),
+                    strings.get(record.subgoalText[2 * i + 1])));
+        }
+        for (int i = 0; i < subgoalCount; i++) {
+            if (record.isCompleted(i)) {
+                goal.getSubgoals().get(i).setIsCompleted(true);
+            }
+        }
+        goal.recountSubgoals();
+        if (record.complete && !goal.isComplete()) {
+            goal.checkGoalCompletion();
+        }
+        GoalIds.assign(goal, record.id);
+        return goal;
+    }
+}
@@ -0,0 +1,252 @@
+package com.backend.goaltracker.store;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import entities.Goal;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * Goal store backed by a directory with one JSON file per goal.
+ * Several goaltracker instances can point at the same directory (cluster mode):
+ * ids are allocated under an OS file lock, changes to a goal hold that goal's lock file
+ * (id.lock) and every write is an atomic rename, so no external coordinator is needed.
+ * GoalChangedEvents are only published for changes made through this instance.
+ */
+@Component
+@ConditionalOnProperty(name = "goaltracker.store.type", havingValue = "file")
+public class FileGoalStore implements GoalStore {
+
+    private static final String ID_FILE = "next-id";
+    private static final int LOCK_STRIPES = 64;
+
+    // A JVM may hold only one OS lock per file, whichever instance asks: its threads queue here first
+    private static final Object[] LOCK_STRIPE_MONITORS = new Object[LOCK_STRIPES];
+    private static final Object ID_LOCK = new Object();
+
+    static {
+        for (int i = 0; i < LOCK_STRIPES; i++) {
+            LOCK_STRIPE_MONITORS[i] = new Object();
+        }
+    }
+
+    private final Path dir;
+    private final ObjectMapper mapper = new ObjectMapper()
+            .findAndRegisterModules()
+            .addMixIn(Goal.class, CountersRebuiltOnRead.class)
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+
+    private final ApplicationEventPublisher events;
+
+    public FileGoalStore(@Value("${goaltracker.store.dir:data/goals}") String dir,
+                         ApplicationEventPublisher events) throws IOException {
+        this.dir = Paths.get(dir);
+        this.events = events;
+        Files.createDirectories(this.dir);
+        System.out.println("✅ File goal store at " + this.dir.toAbsolutePath());
+    }
+
+    @Override
+    public Goal insert(Goal goal) {
+        GoalIds.assign(goal, allocateId());
+        write(goal);
+        events.publishEvent(new GoalChangedEvent(GoalChangedEvent.Type.CREATED, goal.getId(), goal));
+        return goal;
+    }
+
+    @Override
+    public void update(Goal goal) {
+        withGoalLock(goal.getId(), () -> {
+            write(goal);
+            return null;
+        });
+        events.publishEvent(new GoalChangedEvent(GoalChangedEvent.Type.UPDATED, goal.getId(), goal));
+    }
+
+    /**
+     * Reads, changes and writes the goal under its lock, so a completion made by another node
+     * in the meantime is not overwritten.
+     */
+    @Override
+    public Optional<Goal> modify(int goalId, Predicate<Goal> change) {
+        boolean[] changed = new boolean[1];
+        Optional<Goal> found = withGoalLock(goalId, () -> {
+            Goal goal = read(goalFile(goalId));
+            if (goal != null && change.test(goal)) {
+                write(goal);
+                changed[0] = true;
+            }
+            return Optional.ofNullable(goal);
+        });
+        if (changed[0]) {
+            events.publishEvent(new GoalChangedEvent(GoalChangedEvent.Type.UPDATED, goalId, found.get()));
+        }
+        return found;
+    }
+
+    @Override
+    public Optional<Goal> findById(int id) {
+        return Optional.ofNullable(read(goalFile(id)));
+    }
+
+    @Override
+    public List<Goal> findAll() {
+        List<Goal> all = new ArrayList<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(dir, "*.json")) {
+            for (Path file : files) {
+                Goal goal = read(file);
+                if (goal != null) all.add(goal);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        all.sort(Comparator.comparingInt(Goal::getId));
+        return all;
+    }
+
+    /**
+     * Reads the files of the ids after the cursor instead of listing the directory.
+     */
+    @Override
+    public List<Goal> findPage(int afterId, int limit) {
+        int nextId = peekNextId();
+        List<Goal> page = new ArrayList<>(Math.min(limit, 1024));
+        for (int id = afterId + 1; id < nextId && page.size() < limit; id++) {
+            Goal goal = read(goalFile(id));
+            if (goal != null) page.add(goal);
+        }
+        return page;
+    }
+
+    @Override
+    public boolean delete(int id) {
+        boolean deleted = withGoalLock(id, () -> {
+            try {
+                return Files.deleteIfExists(goalFile(id));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        if (deleted) {
+            events.publishEvent(new GoalChangedEvent(GoalChangedEvent.Type.DELETED, id, null));
+        }
+        return deleted;
+    }
+
+    private Path goalFile(int id) {
+        return dir.resolve(id + ".json");
+    }
+
+    private Goal read(Path file) {
+        try {
+            Goal goal = mapper.readValue(Files.readAllBytes(file), Goal.class);
+            GoalIds.assign(goal, goal.getId());  // restore subgoal back-references
+            goal.recountSubgoals();
+            return goal;
+        } catch (NoSuchFileException e) {
+            return null;  // deleted by another node in the meantime
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Goal has no setters for its completion counters (Jackson would set numCompletedSubgoals
+     * through the field but never isComplete), so they are written but not read back and are
+     * recounted from the subgoals' own flags instead.
+     */
+    @JsonIgnoreProperties(value = {"numCompletedSubgoals", "complete"}, allowGetters = true)
+    private abstract static class CountersRebuiltOnRead {
+    }
+
+    private void write(Goal goal) {
+        Path target = goalFile(goal.getId());
+        Path tmp = dir.resolve(goal.getId() + ".json." + ProcessHandle.current().pid() + ".tmp");
+        try {
+            Files.write(tmp, mapper.writeValueAsBytes(goal));
+            Files.move(tmp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * @return the id the next insert will get, without allocating it
+     */
+    private int peekNextId() {
+        try (FileChannel channel = FileChannel.open(dir.resolve(ID_FILE), StandardOpenOption.READ)) {
+            ByteBuffer buffer = ByteBuffer.allocate(Integer.BYTES);
+            return channel.read(buffer, 0) == Integer.BYTES ? buffer.flip().getInt() : 1;
+        } catch (NoSuchFileException e) {
+            return 1;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Reads and bumps the shared id counter while holding an exclusive file lock.
+     */
+    private int allocateId() {
+        synchronized (ID_LOCK) {
+            try (FileChannel channel = FileChannel.open(dir.resolve(ID_FILE),
+                    StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                FileLock lock = channel.lock();
+                try {
+                    ByteBuffer buffer = ByteBuffer.allocate(Integer.BYTES);
+                    int id = channel.read(buffer, 0) == Integer.BYTES ? buffer.flip().getInt() : 1;
+                    buffer.clear().putInt(id + 1).flip();
+                    channel.write(buffer, 0);
+                    return id;
+                } finally {
+                    lock.release();
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    /**
+     * Runs the action holding the goal's lock file, shared with the other nodes using this directory.
+     */
+    private <T> T withGoalLock(int id, Supplier<T> action) {
+        synchronized (LOCK_STRIPE_MONITORS[Math.floorMod(id, LOCK_STRIPES)]) {
+            try (FileChannel channel = FileChannel.open(dir.resolve(id + ".lock"),
+                    StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+                FileLock lock = channel.lock();
+                try {
+                    return action.get();
+                } finally {
+                    lock.release();
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+}
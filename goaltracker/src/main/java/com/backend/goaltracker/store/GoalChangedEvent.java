@@ -0,0 +1,41 @@
+package com.backend.goaltracker.store;
+
+import entities.Goal;
+
+/**
+ * Published by the goal store after every insert, update and delete on this node.
+ * Listeners (reminders, stats, ...) use it to keep derived state current without re-reading the store.
+ */
+public class GoalChangedEvent {
+
+    public enum Type {
+        CREATED,
+        UPDATED,
+        DELETED
+    }
+
+    private final Type type;
+    private final int goalId;
+    private final Goal goal;
+
+    public GoalChangedEvent(Type type, int goalId, Goal goal) {
+        this.type = type;
+        this.goalId = goalId;
+        this.goal = goal;
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public int getGoalId() {
+        return goalId;
+    }
+
+    /**
+     * @return the goal after the change, or null for DELETED
+     */
+    public Goal getGoal() {
+        return goal;
+    }
+}
@@ -0,0 +1,24 @@
+package com.backend.goaltracker.store;
+
+import entities.Goal;
+import entities.Subgoal;
+
+/**
+ * Helper shared by the store implementations.
+ */
+final class GoalIds {
+
+    private GoalIds() {
+    }
+
+    /**
+     * Sets the goal id and keeps every subgoal's goalId in sync with it.
+     */
+    static void assign(Goal goal, int id) {
+        goal.setId(id);
+        for (Subgoal subgoal : goal.getSubgoals()) {
+            subgoal.setGoalId(id);
+            subgoal.setOriginalGoal(goal);
+        }
+    }
+}
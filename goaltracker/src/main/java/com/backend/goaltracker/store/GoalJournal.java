@@ -0,0 +1,363 @@
+package com.backend.goaltracker.store;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only journal of goal mutations plus the latest snapshot, in one directory:
+ *
+ *   snapshot-&lt;seq&gt;.bin      state after record seq (written by the store, validated here)
+ *   journal-&lt;seq&gt;.log       records from seq on, each [length][crc32][seq][type][payload]
+ *
+ * Appends are group-committed: append() only buffers the record, and awaitDurable() writes
+ * everything buffered so far with a single write and fsync. Writers that arrive while another
+ * writer is syncing find their record in the next batch, so under load many records share one
+ * fsync. A snapshot starts a new journal segment; older segments and snapshots are deleted once
+ * the new snapshot is on disk, so recovery reads one snapshot and a bounded journal tail.
+ *
+ * Recovery memory-maps the snapshot and the segments. A torn or corrupt record (a crash in the
+ * middle of a write) ends the journal; the segment is truncated there.
+ */
+public class GoalJournal implements AutoCloseable {
+
+    private static final int HEADER_BYTES = Integer.BYTES + Integer.BYTES + Long.BYTES + 1;
+    private static final int SNAPSHOT_TRAILER_BYTES = Long.BYTES + Integer.BYTES;   // seq, crc32
+
+    /**
+     * Receives the records of the journal tail in order
+     */
+    public interface RecordHandler {
+        void apply(long seq, byte type, ByteBuffer payload);
+    }
+
+    /**
+     * Reads a snapshot's payload (without the seq / checksum trailer)
+     */
+    public interface SnapshotReader {
+        void read(ByteBuffer payload);
+    }
+
+    private final Path dir;
+    private final boolean fsync;
+
+    private final Object bufferLock = new Object();   // guards lastSeq and pending
+    private final ReentrantLock flushLock = new ReentrantLock();   // one writer to the file at a time
+    private long lastSeq;
+    private ByteBuffer pending = ByteBuffer.allocate(64 * 1024);
+    private volatile long durableSeq;
+    private FileChannel segment;
+    private long snapshotSeq;
+
+    private long commits;
+    private long recordsCommitted;
+
+    public GoalJournal(Path dir, boolean fsync) {
+        this.dir = dir;
+        this.fsync = fsync;
+        try {
+            Files.createDirectories(dir);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // ================== RECOVERY ==================
+
+    /**
+     * Loads the newest valid snapshot, replays the journal after it and opens the journal for appends.
+     *
+     * @return the number of journal records replayed
+     */
+    public int recover(SnapshotReader snapshotReader, RecordHandler handler) {
+        try {
+            snapshotSeq = loadSnapshot(snapshotReader);
+            lastSeq = snapshotSeq;
+
+            int replayed = 0;
+            Path last = null;
+            for (Path file : segments()) {
+                replayed += replay(file, handler);
+                last = file;
+            }
+            durableSeq = lastSeq;
+
+            segment = openSegment(last != null ? last : segmentFile(lastSeq + 1));
+            return replayed;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private long loadSnapshot(SnapshotReader snapshotReader) throws IOException {
+        List<Path> snapshots = list("snapshot-", ".bin");
+        for (int i = snapshots.size() - 1; i >= 0; i--) {
+            Path file = snapshots.get(i);
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                if (channel.size() < SNAPSHOT_TRAILER_BYTES) continue;
+                MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+                int payloadBytes = (int) channel.size() - SNAPSHOT_TRAILER_BYTES;
+                long seq = mapped.getLong(payloadBytes);
+                int crc = mapped.getInt(payloadBytes + Long.BYTES);
+                if (crc != crc(mapped.slice(0, payloadBytes + Long.BYTES))) {
+                    System.err.println("⚠️ Ignoring corrupt goal snapshot " + file.getFileName());
+                    continue;
+                }
+                snapshotReader.read(mapped.slice(0, payloadBytes));
+                return seq;
+            }
+        }
+        return 0;
+    }
+
+    private int replay(Path file, RecordHandler handler) throws IOException {
+        int replayed = 0;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            int position = 0;
+            while (mapped.remaining() >= HEADER_BYTES) {
+                int length = mapped.getInt(position);
+                int crc = mapped.getInt(position + Integer.BYTES);
+                int bodyStart = position + 2 * Integer.BYTES;
+                int bodyBytes = Long.BYTES + 1 + length;
+                if (length < 0 || bodyStart + bodyBytes > mapped.limit()
+                        || crc != crc(mapped.slice(bodyStart, bodyBytes))) {
+                    System.err.println("⚠️ Goal journal " + file.getFileName() + " ends in a torn record at byte "
+                            + position + "; truncating");
+                    break;
+                }
+                long seq = mapped.getLong(bodyStart);
+                byte type = mapped.get(bodyStart + Long.BYTES);
+                if (seq > lastSeq) {
+                    handler.apply(seq, type, mapped.slice(bodyStart + Long.BYTES + 1, length));
+                    lastSeq = seq;
+                    replayed++;
+                }
+                position = bodyStart + bodyBytes;
+                mapped.position(position);
+            }
+            if (position < channel.size()) {
+                channel.truncate(position);
+            }
+        }
+        return replayed;
+    }
+
+    // ================== APPENDING ==================
+
+    /**
+     * Buffers a record. The caller applies the mutation while it still holds the lock that
+     * ordered it, then calls awaitDurable(seq) outside that lock.
+     *
+     * @return the record's sequence number
+     */
+    public long append(byte type, byte[] payload) {
+        synchronized (bufferLock) {
+            long seq = ++lastSeq;
+            int recordBytes = HEADER_BYTES + payload.length;
+            if (pending.remaining() < recordBytes) {
+                ByteBuffer larger = ByteBuffer.allocate(Math.max(pending.capacity() * 2, pending.position() + recordBytes));
+                pending.flip();
+                larger.put(pending);
+                pending = larger;
+            }
+
+            ByteBuffer body = ByteBuffer.allocate(Long.BYTES + 1 + payload.length);
+            body.putLong(seq).put(type).put(payload).flip();
+            pending.putInt(payload.length).putInt(crc(body.duplicate())).put(body);
+            return seq;
+        }
+    }
+
+    /**
+     * Returns once the record with the given sequence number is on disk.
+     */
+    public void awaitDurable(long seq) {
+        if (durableSeq >= seq) {
+            return;
+        }
+        flushLock.lock();
+        try {
+            if (durableSeq < seq) {
+                flushPending();
+            }
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    /**
+     * Writes and syncs everything buffered so far. Caller holds flushLock.
+     */
+    private void flushPending() {
+        ByteBuffer batch;
+        long batchLastSeq;
+        long batchRecords;
+        synchronized (bufferLock) {
+            batchLastSeq = lastSeq;
+            batchRecords = lastSeq - durableSeq;
+            pending.flip();
+            batch = pending;
+            pending = ByteBuffer.allocate(Math.max(64 * 1024, batch.capacity()));
+        }
+        try {
+            while (batch.hasRemaining()) {
+                segment.write(batch);
+            }
+            if (fsync) {
+                segment.force(false);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        commits++;
+        recordsCommitted += batchRecords;
+        durableSeq = batchLastSeq;
+    }
+
+    // ================== SNAPSHOTS ==================
+
+    /**
+     * Flushes the buffered records and starts a new segment. The caller holds the lock that orders
+     * its mutations, encodes its state under the same lock, and passes it to writeSnapshot().
+     *
+     * @return the sequence number the snapshot will be taken at
+     */
+    public long rotate() {
+        flushLock.lock();
+        try {
+            synchronized (bufferLock) {
+                flushPending();
+                segment.close();
+                segment = openSegment(segmentFile(lastSeq + 1));
+                return lastSeq;
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    /**
+     * Writes the state after record seq and deletes the snapshots and segments it replaces.
+     */
+    public void writeSnapshot(long seq, byte[] state) {
+        try {
+            ByteBuffer file = ByteBuffer.allocate(state.length + SNAPSHOT_TRAILER_BYTES);
+            file.put(state).putLong(seq);
+            file.putInt(crc(file.duplicate().flip()));
+            file.flip();
+
+            Path target = snapshotFile(seq);
+            Path tmp = dir.resolve(target.getFileName() + ".tmp");
+            try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.CREATE,
+                    StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+                while (file.hasRemaining()) {
+                    channel.write(file);
+                }
+                channel.force(true);
+            }
+            Files.move(tmp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+
+            // Everything up to seq is in the snapshot now
+            for (Path old : list("snapshot-", ".bin")) {
+                if (sequenceOf(old, "snapshot-", ".bin") < seq) Files.deleteIfExists(old);
+            }
+            List<Path> segments = segments();
+            for (Path old : segments.subList(0, segments.size() - 1)) {
+                if (sequenceOf(old, "journal-", ".log") <= seq) Files.deleteIfExists(old);
+            }
+            synchronized (bufferLock) {
+                snapshotSeq = Math.max(snapshotSeq, seq);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public long recordsSinceSnapshot() {
+        synchronized (bufferLock) {
+            return lastSeq - snapshotSeq;
+        }
+    }
+
+    /**
+     * @return fsyncs and records written so far; records / commits is the group commit factor
+     */
+    public long[] commitStats() {
+        flushLock.lock();
+        try {
+            return new long[]{commits, recordsCommitted};
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    @Override
+    public void close() {
+        flushLock.lock();
+        try {
+            if (segment != null) {
+                flushPending();
+                segment.close();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    // ================== FILES ==================
+
+    private static FileChannel openSegment(Path file) throws IOException {
+        return FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+    }
+
+    private Path segmentFile(long firstSeq) {
+        return dir.resolve(String.format("journal-%020d.log", firstSeq));
+    }
+
+    private Path snapshotFile(long seq) {
+        return dir.resolve(String.format("snapshot-%020d.bin", seq));
+    }
+
+    private List<Path> segments() throws IOException {
+        return list("journal-", ".log");
+    }
+
+    /**
+     * Files with the given prefix and suffix, in sequence order (names are zero-padded)
+     */
+    private List<Path> list(String prefix, String suffix) throws IOException {
+        List<Path> files = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(dir, prefix + "*" + suffix)) {
+            stream.forEach(files::add);
+        }
+        files.sort(null);
+        return files;
+    }
+
+    private static long sequenceOf(Path file, String prefix, String suffix) {
+        String name = file.getFileName().toString();
+        return Long.parseLong(name.substring(prefix.length(), name.length() - suffix.length()));
+    }
+
+    private static int crc(ByteBuffer bytes) {
+        CRC32 crc = new CRC32();
+        crc.update(bytes);
+        return (int) crc.getValue();
+    }
+}
@@ -0,0 +1,169 @@
+package com.backend.goaltracker.store;
+
+import entities.Goal;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+/**
+ * Storage abstraction for goals.
+ * Implementations are picked with goaltracker.store.type (memory | compact | file | journal | mapped).
+ */
+public interface GoalStore {
+
+    /**
+     * Goals read per findPage call by scan()
+     */
+    int SCAN_PAGE_SIZE = 500;
+
+    /**
+     * Stores a new goal under a freshly allocated id (overwrites whatever id the goal had).
+     *
+     * @param goal the goal to insert
+     * @return the stored goal with its new id
+     */
+    Goal insert(Goal goal);
+
+    /**
+     * Inserts goals in order, each under a freshly allocated id. Stores that persist writes
+     * override this to make the whole batch durable at once.
+     *
+     * @return the stored goals with their new ids
+     */
+    default List<Goal> insertAll(List<Goal> goals) {
+        for (Goal goal : goals) {
+            insert(goal);
+        }
+        return goals;
+    }
+
+    /**
+     * Replaces an existing goal.
+     *
+     * @param goal the goal to update, identified by its id
+     */
+    void update(Goal goal);
+
+    /**
+     * Marks the first incomplete subgoal with the given title as complete and stores the goal if it changed.
+     *
+     * @return the goal (unchanged if no incomplete subgoal matched), or empty if there is no such goal
+     */
+    default Optional<Goal> completeSubgoal(int goalId, String subgoalTitle) {
+        return modify(goalId, goal -> goal.completeSubgoal(subgoalTitle));
+    }
+
+    /**
+     * Applies a change to the goal as it is stored and stores the result, with no write to the
+     * goal in between: a completion made while the caller was busy elsewhere is not overwritten,
+     * as it would be by findById followed by update. Stores override this to hold their lock
+     * from the read to the write; the change runs under that lock and must be quick.
+     *
+     * @param change changes the goal in place; returns false to leave the stored goal as it is
+     * @return the goal as the change left it, or empty if there is no such goal
+     */
+    default Optional<Goal> modify(int goalId, Predicate<Goal> change) {
+        Optional<Goal> found = findById(goalId);
+        found.ifPresent(goal -> {
+            if (change.test(goal)) {
+                update(goal);
+            }
+        });
+        return found;
+    }
+
+    Optional<Goal> findById(int id);
+
+    /**
+     * The owner's first goal with this title. The default scans the store; stores override it to
+     * look only at the owner's goals.
+     *
+     * @param ownerId null for the anonymous goals
+     */
+    default Optional<Goal> findByTitle(String ownerId, String title) {
+        for (Goal goal : scan()) {
+            if (Objects.equals(goal.getOwnerId(), ownerId) && title.equals(goal.getTitle())) {
+                return Optional.of(goal);
+            }
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * The owner's goals in id order. The default scans the store; stores override it to look
+     * only at the owner's goals.
+     *
+     * @param ownerId null for the anonymous goals
+     */
+    default List<Goal> findByOwner(String ownerId) {
+        List<Goal> owned = new ArrayList<>();
+        for (Goal goal : scan()) {
+            if (Objects.equals(goal.getOwnerId(), ownerId)) {
+                owned.add(goal);
+            }
+        }
+        return owned;
+    }
+
+    List<Goal> findAll();
+
+    /**
+     * A page of a walk through the store in id order: call again with the last id returned until
+     * a page comes back empty. Goals added or deleted during the walk may or may not be seen.
+     * The default loads every goal; stores override it to read only the page.
+     *
+     * @param afterId 0 for the first page
+     * @return at most limit goals with ids above afterId, in id order
+     */
+    default List<Goal> findPage(int afterId, int limit) {
+        return findAll().stream()
+                .filter(goal -> goal.getId() > afterId)
+                .limit(limit)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Every goal in id order, read through findPage a page at a time, so walking a large store
+     * holds only one page of goals at once (findAll loads them all). The same caveats as for
+     * findPage apply to goals added or deleted during the walk.
+     */
+    default Iterable<Goal> scan() {
+        return () -> new Iterator<>() {
+            private List<Goal> page = List.of();
+            private int index;
+            private int lastId;
+            private boolean exhausted;
+
+            @Override
+            public boolean hasNext() {
+                if (index == page.size() && !exhausted) {
+                    page = findPage(lastId, SCAN_PAGE_SIZE);
+                    index = 0;
+                    exhausted = page.size() < SCAN_PAGE_SIZE;
+                }
+                return index < page.size();
+            }
+
+            @Override
+            public Goal next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                Goal goal = page.get(index++);
+                lastId = goal.getId();
+                return goal;
+            }
+        };
+    }
+
+    /**
+     * @return true if a goal was deleted
+     */
+    boolean delete(int id);
+}
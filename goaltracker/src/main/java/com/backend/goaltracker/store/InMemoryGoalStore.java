@@ -0,0 +1,109 @@
+package com.backend.goaltracker.store;
+
+import entities.Goal;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Predicate;
+
+/**
+ * Node-local goal store (default). Goals are lost on restart.
+ * Lookups by id, and a user's goals by title, go through an index instead of scanning every goal.
+ * Listeners are notified outside the lock.
+ */
+@Component
+@ConditionalOnProperty(name = "goaltracker.store.type", havingValue = "memory", matchIfMissing = true)
+public class InMemoryGoalStore implements GoalStore {
+
+    private final OwnedGoalIndex goals = new OwnedGoalIndex();
+    private final ApplicationEventPublisher events;
+    private int nextId = 1;
+
+    public InMemoryGoalStore(ApplicationEventPublisher events) {
+        this.events = events;
+    }
+
+    @Override
+    public Goal insert(Goal goal) {
+        synchronized (this) {
+            GoalIds.assign(goal, nextId++);
+            goals.add(goal);
+        }
+        events.publishEvent(new GoalChangedEvent(GoalChangedEvent.Type.CREATED, goal.getId(), goal));
+        return goal;
+    }
+
+    @Override
+    public void update(Goal goal) {
+        synchronized (this) {
+            goals.add(goal);
+        }
+        events.publishEvent(new GoalChangedEvent(GoalChangedEvent.Type.UPDATED, goal.getId(), goal));
+    }
+
+    @Override
+    public Optional<Goal> modify(int goalId, Predicate<Goal> change) {
+        Goal goal;
+        synchronized (this) {
+            goal = goals.get(goalId);
+            if (goal == null || !change.test(goal)) {
+                return Optional.ofNullable(goal);
+            }
+            goals.add(goal);
+        }
+        events.publishEvent(new GoalChangedEvent(GoalChangedEvent.Type.UPDATED, goalId, goal));
+        return Optional.of(goal);
+    }
+
+    @Override
+    public synchronized Optional<Goal> findById(int id) {
+        return Optional.ofNullable(goals.get(id));
+    }
+
+    @Override
+    public synchronized Optional<Goal> findByTitle(String ownerId, String title) {
+        return Optional.ofNullable(goals.getByTitle(ownerId, title));
+    }
+
+    @Override
+    public synchronized List<Goal> findByOwner(String ownerId) {
+        return goals.ownedBy(ownerId);
+    }
+
+    @Override
+    public synchronized List<Goal> findAll() {
+        List<Goal> all = goals.values();
+        all.sort(Comparator.comparingInt(Goal::getId));
+        return all;
+    }
+
+    /**
+     * Probes ids after the cursor: ids are allocated in order, so no sorting is needed.
+     */
+    @Override
+    public synchronized List<Goal> findPage(int afterId, int limit) {
+        List<Goal> page = new ArrayList<>(Math.min(limit, 1024));
+        for (int id = afterId + 1; id < nextId && page.size() < limit; id++) {
+            Goal goal = goals.get(id);
+            if (goal != null) page.add(goal);
+        }
+        return page;
+    }
+
+    @Override
+    public boolean delete(int id) {
+        boolean deleted;
+        synchronized (this) {
+            deleted = goals.remove(id) != null;
+        }
+        if (deleted) {
+            events.publishEvent(new GoalChangedEvent(GoalChangedEvent.Type.DELETED, id, null));
+        }
+        return deleted;
+    }
+}
@@ -0,0 +1,402 @@
+package com.backend.goaltracker.store;
+
+import entities.Goal;
+import entities.Subgoal;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PreDestroy;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Predicate;
+
+/**
+ * Goal store that keeps goals in memory (like InMemoryGoalStore) and persists every mutation as
+ * a compact record in a GoalJournal: a completed subgoal is a goal id and a title, not the whole
+ * goal rewritten. Writes return once their record is on disk; concurrent writes share an fsync.
+ *
+ * Every snapshot-every records a snapshot of all goals is written in the background, so a restart
+ * maps one snapshot and replays at most that many records however long the history is.
+ * Single node only: the journal directory must not be shared.
+ *
+ * Properties (goaltracker.journal.*): dir (data/journal), fsync (true), snapshot-every (10000).
+ */
+@Component
+@ConditionalOnProperty(name = "goaltracker.store.type", havingValue = "journal")
+public class JournalGoalStore implements GoalStore {
+
+    static final byte CREATE = 1;
+    static final byte UPDATE = 2;
+    static final byte COMPLETE_SUBGOAL = 3;
+    static final byte DELETE = 4;
+
+    private static final int SNAPSHOT_VERSION = 1;
+    // Journal dates stay 8 bytes (GoalCodec's are 4) so existing journals remain readable
+    private static final long NO_DATE = Long.MIN_VALUE;
+
+    private final OwnedGoalIndex goals = new OwnedGoalIndex();
+    private final GoalJournal journal;
+    private final ApplicationEventPublisher events;
+    private final long snapshotEvery;
+    private final AtomicBoolean snapshotRunning = new AtomicBoolean();
+    private final ExecutorService snapshotter = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "goal-journal-snapshot");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private int nextId = 1;
+
+    public JournalGoalStore(@Value("${goaltracker.journal.dir:data/journal}") String dir,
+                            @Value("${goaltracker.journal.fsync:true}") boolean fsync,
+                            @Value("${goaltracker.journal.snapshot-every:10000}") long snapshotEvery,
+                            ApplicationEventPublisher events) {
+        this(new GoalJournal(Paths.get(dir), fsync), snapshotEvery, events);
+        System.out.println("✅ Journal goal store at " + Paths.get(dir).toAbsolutePath());
+    }
+
+    JournalGoalStore(GoalJournal journal, long snapshotEvery, ApplicationEventPublisher events) {
+        this.journal = journal;
+        this.snapshotEvery = snapshotEvery;
+        this.events = events;
+
+        long started = System.nanoTime();
+        int replayed;
+        synchronized (this) {
+            replayed = journal.recover(this::readSnapshot, this::replay);
+        }
+        System.out.println("✅ Recovered " + goals.size() + " goals (" + replayed + " journal records replayed) in "
+                + TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started) + " ms");
+    }
+
+    // ================== WRITES ==================
+
+    @Override
+    public Goal insert(Goal goal) {
+        long seq;
+        synchronized (this) {
+            GoalIds.assign(goal, nextId++);
+            seq = journal.append(CREATE, encode(goal));
+            goals.add(goal);
+        }
+        committed(seq);
+        events.publishEvent(new GoalChangedEvent(GoalChangedEvent.Type.CREATED, goal.getId(), goal));
+        return goal;
+    }
+
+    /**
+     * Appends the whole batch and waits for one commit.
+     */
+    @Override
+    public List<Goal> insertAll(List<Goal> batch) {
+        if (batch.isEmpty()) {
+            return batch;
+        }
+        long seq = 0;
+        synchronized (this) {
+            for (Goal goal : batch) {
+                GoalIds.assign(goal, nextId++);
+                seq = journal.append(CREATE, encode(goal));
+                goals.add(goal);
+            }
+        }
+        committed(seq);
+        for (Goal goal : batch) {
+            events.publishEvent(new GoalChangedEvent(GoalChangedEvent.Type.CREATED, goal.getId(), goal));
+        }
+        return batch;
+    }
+
+    @Override
+    public void update(Goal goal) {
+        long seq;
+        synchronized (this) {
+            seq = journal.append(UPDATE, encode(goal));
+            goals.add(goal);
+        }
+        committed(seq);
+        events.publishEvent(new GoalChangedEvent(GoalChangedEvent.Type.UPDATED, goal.getId(), goal));
+    }
+
+    /**
+     * Journals only the goal id and the subgoal title.
+     */
+    @Override
+    public Optional<Goal> completeSubgoal(int goalId, String subgoalTitle) {
+        Goal goal;
+        long seq;
+        synchronized (this) {
+            goal = goals.get(goalId);
+            if (goal == null) {
+                return Optional.empty();
+            }
+            if (!goal.completeSubgoal(subgoalTitle)) {
+                return Optional.of(goal);
+            }
+            seq = journal.append(COMPLETE_SUBGOAL, encodeCompletion(goalId, subgoalTitle));
+        }
+        committed(seq);
+        events.publishEvent(new GoalChangedEvent(GoalChangedEvent.Type.UPDATED, goalId, goal));
+        return Optional.of(goal);
+    }
+
+    @Override
+    public Optional<Goal> modify(int goalId, Predicate<Goal> change) {
+        Goal goal;
+        long seq;
+        synchronized (this) {
+            goal = goals.get(goalId);
+            if (goal == null || !change.test(goal)) {
+                return Optional.ofNullable(goal);
+            }
+            seq = journal.append(UPDATE, encode(goal));
+            goals.add(goal);
+        }
+        committed(seq);
+        events.publishEvent(new GoalChangedEvent(GoalChangedEvent.Type.UPDATED, goalId, goal));
+        return Optional.of(goal);
+    }
+
+    @Override
+    public boolean delete(int id) {
+        long seq;
+        synchronized (this) {
+            if (goals.remove(id) == null) {
+                return false;
+            }
+            seq = journal.append(DELETE, ByteBuffer.allocate(Integer.BYTES).putInt(id).array());
+        }
+        committed(seq);
+        events.publishEvent(new GoalChangedEvent(GoalChangedEvent.Type.DELETED, id, null));
+        return true;
+    }
+
+    /**
+     * Waits for the record to be durable and starts a snapshot when the journal tail is long enough.
+     */
+    private void committed(long seq) {
+        journal.awaitDurable(seq);
+        if (journal.recordsSinceSnapshot() >= snapshotEvery && snapshotRunning.compareAndSet(false, true)) {
+            snapshotter.execute(() -> {
+                try {
+                    snapshot();
+                } catch (RuntimeException e) {
+                    System.err.println("⚠️ Goal snapshot failed: " + e.getMessage());
+                } finally {
+                    snapshotRunning.set(false);
+                }
+            });
+        }
+    }
+
+    /**
+     * Copies the goals under the lock and encodes them outside it, so writers only wait for the copy.
+     */
+    void snapshot() {
+        long seq;
+        int snapshotNextId;
+        List<Goal> copies;
+        synchronized (this) {
+            seq = journal.rotate();
+            snapshotNextId = nextId;
+            List<Goal> all = goals.values();
+            copies = new ArrayList<>(all.size());
+            for (Goal goal : all) {
+                copies.add(copyOf(goal));
+            }
+        }
+        journal.writeSnapshot(seq, encodeSnapshot(snapshotNextId, copies));
+    }
+
+    @PreDestroy
+    public void close() {
+        snapshotter.shutdown();
+        try {
+            snapshotter.awaitTermination(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (journal.recordsSinceSnapshot() > 0) {
+            snapshot();   // the next start then has nothing to replay
+        }
+        journal.close();
+    }
+
+    // ================== READS ==================
+
+    @Override
+    public synchronized Optional<Goal> findById(int id) {
+        return Optional.ofNullable(goals.get(id));
+    }
+
+    @Override
+    public synchronized Optional<Goal> findByTitle(String ownerId, String title) {
+        return Optional.ofNullable(goals.getByTitle(ownerId, title));
+    }
+
+    @Override
+    public synchronized List<Goal> findByOwner(String ownerId) {
+        return goals.ownedBy(ownerId);
+    }
+
+    @Override
+    public synchronized List<Goal> findAll() {
+        List<Goal> all = goals.values();
+        all.sort(Comparator.comparingInt(Goal::getId));
+        return all;
+    }
+
+    @Override
+    public synchronized List<Goal> findPage(int afterId, int limit) {
+        List<Goal> page = new ArrayList<>(Math.min(limit, 1024));
+        for (int id = afterId + 1; id < nextId && page.size() < limit; id++) {
+            Goal goal = goals.get(id);
+            if (goal != null) page.add(goal);
+        }
+        return page;
+    }
+
+    // ================== RECOVERY ==================
+
+    private void readSnapshot(ByteBuffer in) {
+        int version = in.getInt();
+        if (version != SNAPSHOT_VERSION) {
+            throw new IllegalStateException("Unsupported goal snapshot version " + version);
+        }
+        nextId = in.getInt();
+        int count = in.getInt();
+        for (int i = 0; i < count; i++) {
+            goals.add(decode(in));
+        }
+    }
+
+    private void replay(long seq, byte type, ByteBuffer payload) {
+        switch (type) {
+            case CREATE, UPDATE -> {
+                Goal goal = decode(payload);
+                goals.add(goal);
+                nextId = Math.max(nextId, goal.getId() + 1);
+            }
+            case COMPLETE_SUBGOAL -> {
+                Goal goal = goals.get(payload.getInt());
+                if (goal != null) {
+                    goal.completeSubgoal(GoalCodec.readString(payload));
+                }
+            }
+            case DELETE -> goals.remove(payload.getInt());
+            default -> throw new IllegalStateException("Unknown journal record type " + type + " at seq " + seq);
+        }
+    }
+
+    // ================== ENCODING ==================
+
+    private static byte[] encodeSnapshot(int nextId, List<Goal> all) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(256 * all.size() + 16);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeInt(SNAPSHOT_VERSION);
+            out.writeInt(nextId);
+            out.writeInt(all.size());
+            for (Goal goal : all) {
+                writeGoal(out, goal);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Detached from the stored goal, which completions and modify change in place.
+     */
+    private static Goal copyOf(Goal goal) {
+        Goal copy = new Goal(goal.getTitle(), goal.getDescription(), goal.getDeadline());
+        copy.setId(goal.getId());
+        copy.setOwnerId(goal.getOwnerId());
+        copy.setCreatedAt(goal.getCreatedAt());
+        for (Subgoal subgoal : goal.getSubgoals()) {
+            Subgoal subgoalCopy = new Subgoal(goal.getId(), subgoal.getTitle(), subgoal.getDescription());
+            subgoalCopy.setIsCompleted(subgoal.getIsCompleted());
+            copy.addSubgoal(subgoalCopy);
+        }
+        return copy;
+    }
+
+    /**
+     * Encodes a goal as it is journaled; also the binary format of bulk exports.
+     */
+    public static byte[] encode(Goal goal) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            writeGoal(out, goal);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static byte[] encodeCompletion(int goalId, String subgoalTitle) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeInt(goalId);
+            GoalCodec.writeString(out, subgoalTitle);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static void writeGoal(DataOutputStream out, Goal goal) throws IOException {
+        out.writeInt(goal.getId());
+        GoalCodec.writeString(out, goal.getOwnerId());
+        GoalCodec.writeString(out, goal.getTitle());
+        GoalCodec.writeString(out, goal.getDescription());
+        out.writeLong(goal.getCreatedAt() != null ? goal.getCreatedAt().toEpochDay() : NO_DATE);
+        out.writeLong(goal.getDeadline() != null ? goal.getDeadline().toEpochDay() : NO_DATE);
+        out.writeInt(goal.getSubgoals().size());
+        for (Subgoal subgoal : goal.getSubgoals()) {
+            GoalCodec.writeString(out, subgoal.getTitle());
+            GoalCodec.writeString(out, subgoal.getDescription());
+            out.writeBoolean(subgoal.getIsCompleted());
+        }
+    }
+
+    /**
+     * Rebuilds a goal with each subgoal's stored completion.
+     */
+    public static Goal decode(ByteBuffer in) {
+        Goal goal = new Goal();
+        goal.setId(in.getInt());
+        goal.setOwnerId(GoalCodec.readString(in));
+        goal.setTitle(GoalCodec.readString(in));
+        goal.setDescription(GoalCodec.readString(in));
+        long createdAt = in.getLong();
+        goal.setCreatedAt(createdAt != NO_DATE ? LocalDate.ofEpochDay(createdAt) : null);
+        long deadline = in.getLong();
+        goal.setDeadline(deadline != NO_DATE ? LocalDate.ofEpochDay(deadline) : null);
+
+        int subgoalCount = in.getInt();
+        for (int i = 0; i < subgoalCount; i++) {
+            Subgoal subgoal = new Subgoal(goal.getId(), GoalCodec.readString(in), GoalCodec.readString(in));
+            subgoal.setIsCompleted(in.get() != 0);
+            goal.addSubgoal(subgoal);
+        }
+        goal.recountSubgoals();
+        GoalIds.assign(goal, goal.getId());
+        return goal;
+    }
+}
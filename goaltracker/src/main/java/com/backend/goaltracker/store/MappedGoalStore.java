@@ -0,0 +1,405 @@
+package com.backend.goaltracker.store;
+
+import entities.Goal;
+import entities.Subgoal;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PreDestroy;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Predicate;
+
+/**
+ * Goal store for very large user bases: goals live off-heap in two memory-mapped files instead of
+ * as Goal/Subgoal/String/LocalDate objects, so the store holds nothing per goal on the heap.
+ * Callers that walk every goal should use scan(), which reads a page at a time; findAll()
+ * materializes the whole store.
+ *
+ *   goals.dat    one fixed 64-byte record per goal id (id, owner, dates, counters, completion
+ *                bitset, hash of the title, references into the arena); record 0 is the header
+ *   text.arena   length-prefixed UTF-8 text and subgoal lists, append-only
+ *
+ * Goal objects are built only when a goal is read, and are copies: changes become visible
+ * through update(). Unchanged text is not written again, so completing a subgoal only rewrites
+ * the goal's record. Text replaced by an update stays in the arena as garbage (no compaction).
+ *
+ * Writes go to the page cache and reach the file even if the process dies; they are forced to
+ * disk on shutdown. Use the journal store when every write must survive a power loss.
+ * Lookups by title scan the records, comparing title hashes first. Single node only.
+ *
+ * Properties (goaltracker.mapped.*): dir (data/mapped).
+ */
+@Component
+@ConditionalOnProperty(name = "goaltracker.store.type", havingValue = "mapped")
+public class MappedGoalStore implements GoalStore {
+
+    /**
+     * One completion bit per subgoal
+     */
+    public static final int MAX_SUBGOALS = Long.SIZE;
+
+    private static final int MAGIC = 0x474d4150;   // "GMAP"
+    private static final int VERSION = 1;
+    private static final int RECORD_CHUNK_SHIFT = 20;   // 1 MB, 16384 records
+    private static final int ARENA_CHUNK_SHIFT = 24;    // 16 MB
+    private static final long NULL_REF = -1;
+
+    // Header (record 0)
+    private static final int HEADER_MAGIC = 0;
+    private static final int HEADER_VERSION = 4;
+    private static final int HEADER_SLOTS = 8;
+    private static final int HEADER_ARENA_END = 16;
+
+    // Goal record
+    private static final int RECORD_BYTES = 64;
+    private static final int STATE = 0;
+    private static final int FLAGS = 1;
+    private static final int ID = 4;
+    private static final int OWNER = 8;
+    private static final int TITLE = 16;
+    private static final int DESCRIPTION = 24;
+    private static final int SUBGOALS = 32;
+    private static final int CREATED_AT = 40;
+    private static final int DEADLINE = 44;
+    private static final int TOTAL = 48;
+    private static final int COMPLETED = 50;
+    private static final int TITLE_HASH = 52;
+    private static final int COMPLETION_BITS = 56;
+
+    private static final byte EMPTY = 0;
+    private static final byte LIVE = 1;
+    private static final byte DELETED = 2;
+    private static final byte FLAG_COMPLETE = 1;
+
+    private final MappedRegion records;
+    private final MappedRegion arena;
+    private final ApplicationEventPublisher events;
+    private int slots;        // highest id ever stored
+    private long arenaEnd;
+    private int liveGoals;
+
+    public MappedGoalStore(@Value("${goaltracker.mapped.dir:data/mapped}") String dir,
+                           ApplicationEventPublisher events) {
+        this(Paths.get(dir), events);
+        System.out.println("✅ Mapped goal store at " + Paths.get(dir).toAbsolutePath() + ": " + liveGoals + " goals, "
+                + records.capacity() / (1024 * 1024) + " MB records, " + arena.capacity() / (1024 * 1024) + " MB text");
+    }
+
+    MappedGoalStore(Path dir, ApplicationEventPublisher events) {
+        this.events = events;
+        try {
+            Files.createDirectories(dir);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        records = new MappedRegion(dir.resolve("goals.dat"), RECORD_CHUNK_SHIFT);
+        arena = new MappedRegion(dir.resolve("text.arena"), ARENA_CHUNK_SHIFT);
+
+        if (records.getInt(HEADER_MAGIC) == 0) {
+            records.putInt(HEADER_MAGIC, MAGIC);
+            records.putInt(HEADER_VERSION, VERSION);
+        } else if (records.getInt(HEADER_MAGIC) != MAGIC || records.getInt(HEADER_VERSION) != VERSION) {
+            throw new IllegalStateException("Not a version " + VERSION + " goal file: " + dir.resolve("goals.dat"));
+        }
+        slots = records.getInt(HEADER_SLOTS);
+        arenaEnd = records.getLong(HEADER_ARENA_END);
+        records.ensure(position(slots) + RECORD_BYTES);
+        arena.ensure(arenaEnd);
+        for (int id = 1; id <= slots; id++) {
+            if (isLive(id)) liveGoals++;
+        }
+    }
+
+    // ================== WRITES ==================
+
+    @Override
+    public Goal insert(Goal goal) {
+        synchronized (this) {
+            checkSubgoalCount(goal);
+            GoalIds.assign(goal, slots + 1);
+            write(goal);
+            liveGoals++;
+        }
+        events.publishEvent(new GoalChangedEvent(GoalChangedEvent.Type.CREATED, goal.getId(), goal));
+        return goal;
+    }
+
+    @Override
+    public void update(Goal goal) {
+        if (goal.getId() < 1) {
+            throw new IllegalArgumentException("Goal has no id: " + goal.getId());
+        }
+        synchronized (this) {
+            checkSubgoalCount(goal);
+            boolean wasLive = isLive(goal.getId());
+            write(goal);
+            if (!wasLive) liveGoals++;
+        }
+        events.publishEvent(new GoalChangedEvent(GoalChangedEvent.Type.UPDATED, goal.getId(), goal));
+    }
+
+    @Override
+    public Optional<Goal> modify(int goalId, Predicate<Goal> change) {
+        Goal goal;
+        synchronized (this) {
+            if (!isLive(goalId)) {
+                return Optional.empty();
+            }
+            goal = materialize(goalId);
+            if (!change.test(goal)) {
+                return Optional.of(goal);
+            }
+            checkSubgoalCount(goal);
+            write(goal);
+        }
+        events.publishEvent(new GoalChangedEvent(GoalChangedEvent.Type.UPDATED, goalId, goal));
+        return Optional.of(goal);
+    }
+
+    @Override
+    public boolean delete(int id) {
+        synchronized (this) {
+            if (!isLive(id)) {
+                return false;
+            }
+            records.putByte(position(id) + STATE, DELETED);
+            liveGoals--;
+        }
+        events.publishEvent(new GoalChangedEvent(GoalChangedEvent.Type.DELETED, id, null));
+        return true;
+    }
+
+    private static void checkSubgoalCount(Goal goal) {
+        if (goal.getSubgoals().size() > MAX_SUBGOALS) {
+            throw new IllegalArgumentException("A goal can have at most " + MAX_SUBGOALS + " subgoals");
+        }
+    }
+
+    /**
+     * Text first, then the record, then the header, so a record never points at text that isn't there.
+     */
+    private void write(Goal goal) {
+        long record = position(goal.getId());
+        records.ensure(record + RECORD_BYTES);
+        boolean existing = goal.getId() <= slots && records.getByte(record + STATE) != EMPTY;
+
+        long owner = text(existing ? records.getLong(record + OWNER) : NULL_REF, utf8(goal.getOwnerId()));
+        long title = text(existing ? records.getLong(record + TITLE) : NULL_REF, utf8(goal.getTitle()));
+        long description = text(existing ? records.getLong(record + DESCRIPTION) : NULL_REF, utf8(goal.getDescription()));
+        long subgoals = text(existing ? records.getLong(record + SUBGOALS) : NULL_REF, encodeSubgoals(goal.getSubgoals()));
+        records.putLong(HEADER_ARENA_END, arenaEnd);
+
+        long completionBits = 0;
+        List<Subgoal> subgoalList = goal.getSubgoals();
+        for (int i = 0; i < subgoalList.size(); i++) {
+            if (subgoalList.get(i).getIsCompleted()) completionBits |= 1L << i;
+        }
+        records.putByte(record + FLAGS, goal.isComplete() ? FLAG_COMPLETE : 0);
+        records.putInt(record + ID, goal.getId());
+        records.putLong(record + OWNER, owner);
+        records.putLong(record + TITLE, title);
+        records.putLong(record + DESCRIPTION, description);
+        records.putLong(record + SUBGOALS, subgoals);
+        records.putInt(record + CREATED_AT, GoalCodec.epochDay(goal.getCreatedAt()));
+        records.putInt(record + DEADLINE, GoalCodec.epochDay(goal.getDeadline()));
+        records.putShort(record + TOTAL, (short) subgoalList.size());
+        records.putShort(record + COMPLETED, (short) Long.bitCount(completionBits));
+        records.putInt(record + TITLE_HASH, goal.getTitle() == null ? 0 : goal.getTitle().hashCode());
+        records.putLong(record + COMPLETION_BITS, completionBits);
+        records.putByte(record + STATE, LIVE);
+
+        if (goal.getId() > slots) {
+            slots = goal.getId();
+            records.putInt(HEADER_SLOTS, slots);
+        }
+    }
+
+    // ================== READS ==================
+
+    @Override
+    public synchronized Optional<Goal> findById(int id) {
+        return isLive(id) ? Optional.of(materialize(id)) : Optional.empty();
+    }
+
+    @Override
+    public synchronized Optional<Goal> findByTitle(String ownerId, String title) {
+        int hash = title.hashCode();
+        byte[] utf8 = utf8(title);
+        byte[] owner = utf8(ownerId);
+        for (int id = 1; id <= slots; id++) {
+            long record = position(id);
+            if (records.getByte(record + STATE) == LIVE && records.getInt(record + TITLE_HASH) == hash
+                    && sameText(records.getLong(record + TITLE), utf8) && isOwnedBy(record, owner)) {
+                return Optional.of(materialize(id));
+            }
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Compares the owner text in place and materializes only the owner's goals.
+     */
+    @Override
+    public synchronized List<Goal> findByOwner(String ownerId) {
+        byte[] owner = utf8(ownerId);
+        List<Goal> owned = new ArrayList<>();
+        for (int id = 1; id <= slots; id++) {
+            long record = position(id);
+            if (records.getByte(record + STATE) == LIVE && isOwnedBy(record, owner)) {
+                owned.add(materialize(id));
+            }
+        }
+        return owned;
+    }
+
+    @Override
+    public synchronized List<Goal> findAll() {
+        List<Goal> all = new ArrayList<>(liveGoals);
+        for (int id = 1; id <= slots; id++) {
+            if (isLive(id)) all.add(materialize(id));
+        }
+        return all;
+    }
+
+    @Override
+    public synchronized List<Goal> findPage(int afterId, int limit) {
+        List<Goal> page = new ArrayList<>(Math.min(limit, 1024));
+        for (int id = Math.max(afterId, 0) + 1; id <= slots && page.size() < limit; id++) {
+            if (isLive(id)) page.add(materialize(id));
+        }
+        return page;
+    }
+
+    /**
+     * @return live goals, record slots in use and mapped bytes, for sizing
+     */
+    public synchronized long[] footprint() {
+        return new long[]{liveGoals, slots, records.capacity(), arenaEnd};
+    }
+
+    private boolean isLive(int id) {
+        return id >= 1 && id <= slots && records.getByte(position(id) + STATE) == LIVE;
+    }
+
+    private Goal materialize(int id) {
+        long record = position(id);
+        Goal goal = new Goal();
+        goal.setId(id);
+        goal.setOwnerId(string(records.getLong(record + OWNER)));
+        goal.setTitle(string(records.getLong(record + TITLE)));
+        goal.setDescription(string(records.getLong(record + DESCRIPTION)));
+        goal.setCreatedAt(GoalCodec.date(records.getInt(record + CREATED_AT)));
+        goal.setDeadline(GoalCodec.date(records.getInt(record + DEADLINE)));
+
+        ByteBuffer subgoals = ByteBuffer.wrap(readText(records.getLong(record + SUBGOALS)));
+        int count = subgoals.getInt();
+        for (int i = 0; i < count; i++) {
+            goal.addSubgoal(new Subgoal(id, GoalCodec.readString(subgoals), GoalCodec.readString(subgoals)));
+        }
+        long completionBits = records.getLong(record + COMPLETION_BITS);
+        for (int i = 0; i < count; i++) {
+            if ((completionBits & (1L << i)) != 0) {
+                goal.getSubgoals().get(i).setIsCompleted(true);
+            }
+        }
+        goal.recountSubgoals();
+        if ((records.getByte(record + FLAGS) & FLAG_COMPLETE) != 0 && !goal.isComplete()) {
+            goal.checkGoalCompletion();
+        }
+        GoalIds.assign(goal, id);
+        return goal;
+    }
+
+    @PreDestroy
+    public synchronized void close() {
+        records.close();
+        arena.close();
+    }
+
+    // ================== ARENA ==================
+
+    /**
+     * @param current the reference the record holds now; kept if the text did not change
+     * @return the reference of the text in the arena, NULL_REF for null
+     */
+    private long text(long current, byte[] bytes) {
+        if (bytes == null) {
+            return NULL_REF;
+        }
+        if (current != NULL_REF && sameText(current, bytes)) {
+            return current;
+        }
+        int entryBytes = Integer.BYTES + bytes.length;
+        if (entryBytes > arena.chunkBytes()) {
+            throw new IllegalArgumentException("Goal text too long: " + bytes.length + " bytes");
+        }
+        long chunkEnd = (arenaEnd | (arena.chunkBytes() - 1)) + 1;
+        if (arenaEnd + entryBytes > chunkEnd) {
+            arenaEnd = chunkEnd;   // entries never straddle chunks
+        }
+        arena.ensure(arenaEnd + entryBytes);
+        long ref = arenaEnd;
+        arena.putInt(ref, bytes.length);
+        arena.put(ref + Integer.BYTES, bytes);
+        arenaEnd += entryBytes;
+        return ref;
+    }
+
+    private boolean sameText(long ref, byte[] bytes) {
+        return ref != NULL_REF && arena.getInt(ref) == bytes.length && Arrays.equals(readText(ref), bytes);
+    }
+
+    private boolean isOwnedBy(long record, byte[] owner) {
+        long ref = records.getLong(record + OWNER);
+        return owner == null ? ref == NULL_REF : sameText(ref, owner);
+    }
+
+    private byte[] readText(long ref) {
+        byte[] bytes = new byte[arena.getInt(ref)];
+        arena.get(ref + Integer.BYTES, bytes);
+        return bytes;
+    }
+
+    private String string(long ref) {
+        return ref == NULL_REF ? null : new String(readText(ref), StandardCharsets.UTF_8);
+    }
+
+    // ================== ENCODING ==================
+
+    private static long position(int id) {
+        return (long) id * RECORD_BYTES;   // record 0 is the header
+    }
+
+    private static byte[] utf8(String value) {
+        return value == null ? null : value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static byte[] encodeSubgoals(List<Subgoal> subgoals) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64 * subgoals.size() + 4);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeInt(subgoals.size());
+            for (Subgoal subgoal : subgoals) {
+                GoalCodec.writeString(out, subgoal.getTitle());
+                GoalCodec.writeString(out, subgoal.getDescription());
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+}
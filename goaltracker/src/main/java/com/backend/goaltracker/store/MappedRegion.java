@@ -0,0 +1,133 @@
+package com.backend.goaltracker.store;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A file mapped into memory in fixed-size chunks, so it can grow past 2 GB and be addressed
+ * with long offsets. The data lives in the page cache, not on the Java heap. A value never
+ * straddles two chunks: callers lay out their data so it doesn't. Not thread-safe.
+ */
+final class MappedRegion implements AutoCloseable {
+
+    private final FileChannel channel;
+    private final int chunkShift;
+    private final int chunkBytes;
+    private final List<MappedByteBuffer> chunks = new ArrayList<>();
+
+    /**
+     * @param chunkShift log2 of the chunk size
+     */
+    MappedRegion(Path file, int chunkShift) {
+        this.chunkShift = chunkShift;
+        this.chunkBytes = 1 << chunkShift;
+        try {
+            channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            ensure(Math.max(channel.size(), 1));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    int chunkBytes() {
+        return chunkBytes;
+    }
+
+    /**
+     * @return mapped bytes (a multiple of the chunk size)
+     */
+    long capacity() {
+        return (long) chunks.size() << chunkShift;
+    }
+
+    /**
+     * Maps (and if needed grows the file to) at least the given number of bytes.
+     */
+    void ensure(long bytes) {
+        try {
+            while (capacity() < bytes) {
+                chunks.add(channel.map(FileChannel.MapMode.READ_WRITE, capacity(), chunkBytes));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // ================== ACCESS ==================
+
+    byte getByte(long position) {
+        return chunk(position).get(offset(position));
+    }
+
+    void putByte(long position, byte value) {
+        chunk(position).put(offset(position), value);
+    }
+
+    short getShort(long position) {
+        return chunk(position).getShort(offset(position));
+    }
+
+    void putShort(long position, short value) {
+        chunk(position).putShort(offset(position), value);
+    }
+
+    int getInt(long position) {
+        return chunk(position).getInt(offset(position));
+    }
+
+    void putInt(long position, int value) {
+        chunk(position).putInt(offset(position), value);
+    }
+
+    long getLong(long position) {
+        return chunk(position).getLong(offset(position));
+    }
+
+    void putLong(long position, long value) {
+        chunk(position).putLong(offset(position), value);
+    }
+
+    void get(long position, byte[] into) {
+        chunk(position).get(offset(position), into);
+    }
+
+    void put(long position, byte[] bytes) {
+        chunk(position).put(offset(position), bytes);
+    }
+
+    private MappedByteBuffer chunk(long position) {
+        return chunks.get((int) (position >>> chunkShift));
+    }
+
+    private int offset(long position) {
+        return (int) (position & (chunkBytes - 1));
+    }
+
+    // ================== LIFECYCLE ==================
+
+    /**
+     * Writes dirty pages to disk. Without it they still reach the file when the process dies,
+     * just not when the machine does.
+     */
+    void force() {
+        for (MappedByteBuffer chunk : chunks) {
+            chunk.force();
+        }
+    }
+
+    @Override
+    public void close() {
+        force();
+        try {
+            channel.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
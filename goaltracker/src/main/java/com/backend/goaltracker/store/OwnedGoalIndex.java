@@ -0,0 +1,96 @@
+package com.backend.goaltracker.store;
+
+import entities.Goal;
+import entities.GoalIndex;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Goals by id, plus one GoalIndex per owner (null for the anonymous goals), so a user's goal
+ * list and title lookups only touch that user's goals.
+ * Not thread-safe; the stores use it under their lock.
+ */
+final class OwnedGoalIndex {
+
+    /**
+     * The owner is remembered as indexed, so the goal is found in its owner's index even if it was mutated since
+     */
+    private record Entry(Goal goal, String owner) {
+    }
+
+    private final Map<Integer, Entry> byId = new HashMap<>();
+    private final Map<String, GoalIndex> byOwner = new HashMap<>();
+
+    /**
+     * Adds a goal, replacing any goal that already has the same id.
+     *
+     * @return the goal that was replaced, or null
+     */
+    Goal add(Goal goal) {
+        Goal replaced = remove(goal.getId());
+        byId.put(goal.getId(), new Entry(goal, goal.getOwnerId()));
+        byOwner.computeIfAbsent(goal.getOwnerId(), owner -> new GoalIndex()).add(goal);
+        return replaced;
+    }
+
+    /**
+     * @return the removed goal, or null if there was none
+     */
+    Goal remove(int goalId) {
+        Entry entry = byId.remove(goalId);
+        if (entry == null) {
+            return null;
+        }
+        GoalIndex owned = byOwner.get(entry.owner());
+        owned.remove(goalId);
+        if (owned.isEmpty()) {
+            byOwner.remove(entry.owner());
+        }
+        return entry.goal();
+    }
+
+    Goal get(int goalId) {
+        Entry entry = byId.get(goalId);
+        return entry == null ? null : entry.goal();
+    }
+
+    /**
+     * @return the owner's first goal with this title, or null
+     */
+    Goal getByTitle(String ownerId, String title) {
+        GoalIndex owned = byOwner.get(ownerId);
+        return owned == null ? null : owned.getByTitle(title);
+    }
+
+    /**
+     * @return the owner's goals in id order
+     */
+    List<Goal> ownedBy(String ownerId) {
+        GoalIndex owned = byOwner.get(ownerId);
+        if (owned == null) {
+            return new ArrayList<>();
+        }
+        List<Goal> goals = owned.values();
+        goals.sort(Comparator.comparingInt(Goal::getId));
+        return goals;
+    }
+
+    /**
+     * @return all goals, in no particular order
+     */
+    List<Goal> values() {
+        List<Goal> goals = new ArrayList<>(byId.size());
+        for (Entry entry : byId.values()) {
+            goals.add(entry.goal());
+        }
+        return goals;
+    }
+
+    int size() {
+        return byId.size();
+    }
+}
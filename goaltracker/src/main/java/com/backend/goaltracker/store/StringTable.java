@@ -0,0 +1,79 @@
+package com.backend.goaltracker.store;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Shared, reference-counted string table: every distinct text is held once and referred to by
+ * an int id. Generated plans repeat the same subgoal text across users, so most goals add ids,
+ * not strings. A string is dropped when its last reference is released, and its id is reused.
+ * Not thread-safe.
+ */
+final class StringTable {
+
+    static final int NULL = -1;
+
+    private final Map<String, Integer> ids = new HashMap<>();
+    private String[] values = new String[256];
+    private int[] references = new int[256];
+    private int[] freeIds = new int[16];
+    private int freeCount;
+    private int nextId;
+
+    /**
+     * Adds a reference to the text.
+     *
+     * @return its id, NULL for null
+     */
+    int intern(String value) {
+        if (value == null) {
+            return NULL;
+        }
+        Integer existing = ids.get(value);
+        if (existing != null) {
+            references[existing]++;
+            return existing;
+        }
+        int id = freeCount > 0 ? freeIds[--freeCount] : nextId++;
+        if (id == values.length) {
+            values = Arrays.copyOf(values, id * 2);
+            references = Arrays.copyOf(references, id * 2);
+        }
+        values[id] = value;
+        references[id] = 1;
+        ids.put(value, id);
+        return id;
+    }
+
+    /**
+     * @return the id of the text without adding a reference, NULL if it is not in the table
+     */
+    int find(String value) {
+        Integer id = value == null ? null : ids.get(value);
+        return id == null ? NULL : id;
+    }
+
+    String get(int id) {
+        return id == NULL ? null : values[id];
+    }
+
+    void release(int id) {
+        if (id == NULL || --references[id] > 0) {
+            return;
+        }
+        ids.remove(values[id]);
+        values[id] = null;
+        if (freeCount == freeIds.length) {
+            freeIds = Arrays.copyOf(freeIds, freeCount * 2);
+        }
+        freeIds[freeCount++] = id;
+    }
+
+    /**
+     * @return the number of distinct texts
+     */
+    int size() {
+        return ids.size();
+    }
+}
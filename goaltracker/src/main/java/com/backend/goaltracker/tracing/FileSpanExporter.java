@@ -0,0 +1,106 @@
+package com.backend.goaltracker.tracing;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Appends finished spans to a file, one JSON object per line (the format of Span.toMap), for a
+ * log shipper or collector to pick up. Spans are queued and written by a background thread, so
+ * a slow disk never delays a request; when the queue is full, spans are dropped and counted.
+ * When the file reaches maxBytes it is renamed to &lt;file&gt;.1 and a new one is started.
+ */
+public class FileSpanExporter implements SpanExporter {
+
+    private static final int QUEUE_CAPACITY = 10_000;
+
+    private final Path file;
+    private final long maxBytes;
+    private final BlockingQueue<Span> queue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final LongAdder dropped = new LongAdder();
+    private final Object flushed = new Object();
+    private long pending;   // spans queued but not yet written, guarded by flushed
+
+    public FileSpanExporter(Path file, long maxBytes) {
+        this.file = file;
+        this.maxBytes = maxBytes;
+        Thread writer = new Thread(this::writeLoop, "span-file-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    @Override
+    public void export(Span span) {
+        synchronized (flushed) {
+            if (!queue.offer(span)) {
+                dropped.increment();
+                return;
+            }
+            pending++;
+        }
+    }
+
+    public long getDropped() {
+        return dropped.sum();
+    }
+
+    /**
+     * Waits until every span exported so far is written
+     */
+    public void flush() throws InterruptedException {
+        synchronized (flushed) {
+            while (pending > 0) {
+                flushed.wait();
+            }
+        }
+    }
+
+    private void writeLoop() {
+        List<Span> batch = new ArrayList<>();
+        while (true) {
+            try {
+                batch.add(queue.take());
+                queue.drainTo(batch);
+                write(batch);
+            } catch (InterruptedException e) {
+                return;
+            } catch (IOException e) {
+                System.err.println("⚠️ Could not write trace spans to " + file + ": " + e.getMessage());
+            }
+            synchronized (flushed) {
+                pending -= batch.size();
+                flushed.notifyAll();
+            }
+            batch.clear();
+        }
+    }
+
+    private void write(List<Span> batch) throws IOException {
+        Path parent = file.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        if (Files.exists(file) && Files.size(file) >= maxBytes) {
+            Files.move(file, file.resolveSibling(file.getFileName() + ".1"), StandardCopyOption.REPLACE_EXISTING);
+        }
+        try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(file,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND))) {
+            for (Span span : batch) {
+                out.write(mapper.writeValueAsBytes(span.toMap()));
+                out.write('\n');
+            }
+        }
+    }
+}
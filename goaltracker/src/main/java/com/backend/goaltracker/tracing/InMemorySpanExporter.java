@@ -0,0 +1,131 @@
+package com.backend.goaltracker.tracing;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The most recent spans (goaltracker.tracing.max-spans), for looking up one slow request.
+ * Older spans are overwritten; use the file exporter to keep them.
+ */
+@Component
+public class InMemorySpanExporter implements SpanExporter {
+
+    private final Span[] ring;
+    private long written;   // guarded by this
+
+    @Autowired
+    public InMemorySpanExporter(@Value("${goaltracker.tracing.max-spans:10000}") int maxSpans) {
+        this.ring = new Span[Math.max(1, maxSpans)];
+    }
+
+    @Override
+    public synchronized void export(Span span) {
+        ring[(int) (written++ % ring.length)] = span;
+    }
+
+    /**
+     * @return the kept spans of one trace, in start order
+     */
+    public List<Span> trace(String traceId) {
+        List<Span> spans = new ArrayList<>();
+        for (Span span : snapshot()) {
+            if (span.getTraceId().equals(traceId)) spans.add(span);
+        }
+        spans.sort(Comparator.comparingLong(Span::getStartEpochNanos));
+        return spans;
+    }
+
+    /**
+     * @return the latest server requests, newest first
+     */
+    public List<Map<String, Object>> recentRequests(int limit) {
+        List<Map<String, Object>> requests = new ArrayList<>();
+        List<Span> spans = snapshot();
+        for (int i = spans.size() - 1; i >= 0 && requests.size() < limit; i--) {
+            Span span = spans.get(i);
+            if (span.getKind() != Span.Kind.SERVER) continue;
+            Map<String, Object> request = new LinkedHashMap<>();
+            request.put("traceId", span.getTraceId());
+            request.put("name", span.getName());
+            request.put("durationMs", span.getDurationMillis());
+            request.put("status", span.getAttributes().get("http.status_code"));
+            request.put("startTimeUnixNano", span.getStartEpochNanos());
+            requests.add(request);
+        }
+        return requests;
+    }
+
+    /**
+     * Where the time of one trace went. Each span's self time (its duration minus its children's)
+     * is counted under one category:
+     *  - client:  spans recorded by the app (JSON decoding, rendering, ...)
+     *  - network: an app HTTP span minus the server span it caused (connection, transfer, proxies)
+     *  - queue:   waiting for a generation worker
+     *  - model:   calls to a Gemini model
+     *  - server:  everything else on the backend
+     *
+     * @return null if no span of the trace is kept
+     */
+    public Map<String, Object> breakdown(String traceId, String serverService) {
+        List<Span> spans = trace(traceId);
+        if (spans.isEmpty()) {
+            return null;
+        }
+        Map<String, Double> childTime = new HashMap<>();
+        Map<String, Boolean> callsServer = new HashMap<>();
+        for (Span span : spans) {
+            if (span.getParentSpanId() != null) {
+                childTime.merge(span.getParentSpanId(), span.getDurationMillis(), Double::sum);
+                if (span.getKind() == Span.Kind.SERVER) callsServer.put(span.getParentSpanId(), true);
+            }
+        }
+
+        Map<String, Double> totals = new LinkedHashMap<>();
+        for (String category : new String[]{"client", "network", "queue", "server", "model"}) {
+            totals.put(category, 0.0);
+        }
+        List<Map<String, Object>> rows = new ArrayList<>();
+        for (Span span : spans) {
+            double self = Math.max(0, span.getDurationMillis() - childTime.getOrDefault(span.getSpanId(), 0.0));
+            String category = category(span, serverService, callsServer.containsKey(span.getSpanId()));
+            totals.merge(category, self, Double::sum);
+            Map<String, Object> row = span.toMap();
+            row.put("selfMs", self);
+            row.put("category", category);
+            rows.add(row);
+        }
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("traceId", traceId);
+        result.put("breakdownMs", totals);
+        result.put("spans", rows);
+        return result;
+    }
+
+    private static String category(Span span, String serverService, boolean callsServer) {
+        if (!span.getService().equals(serverService)) {
+            return span.getKind() == Span.Kind.CLIENT && callsServer ? "network" : "client";
+        }
+        if (span.getName().startsWith(Tracer.QUEUE_WAIT_SPAN)) {
+            return "queue";
+        }
+        return span.getName().startsWith(Tracer.MODEL_SPAN_PREFIX) ? "model" : "server";
+    }
+
+    private synchronized List<Span> snapshot() {
+        int size = (int) Math.min(written, ring.length);
+        List<Span> spans = new ArrayList<>(size);
+        for (long i = written - size; i < written; i++) {
+            spans.add(ring[(int) (i % ring.length)]);
+        }
+        return spans;
+    }
+}
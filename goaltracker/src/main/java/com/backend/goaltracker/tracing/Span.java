@@ -0,0 +1,209 @@
+package com.backend.goaltracker.tracing;
+
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One timed operation of a trace. Spans of the same request share a trace id and point at their
+ * parent span; the client's spans (sent by the app) and the server's spans join up through the
+ * W3C traceparent header.
+ *
+ * A span started with Tracer.start becomes the thread's current span until it is closed, so
+ * spans opened further down the call stack become its children.
+ */
+public final class Span implements AutoCloseable {
+
+    public enum Kind { SERVER, CLIENT, INTERNAL }
+
+    /**
+     * Returned when the request is not traced; records nothing
+     */
+    static final Span NOOP = new Span();
+
+    private final Tracer tracer;
+    private final String service;
+    private final String name;
+    private final Kind kind;
+    private final String traceId;
+    private final String spanId;
+    private final String parentSpanId;
+    private final long startEpochNanos;
+    private final long startNanos;
+    private final Map<String, Object> attributes = new LinkedHashMap<>();
+    private Span previous;            // the thread's current span before this one, restored on close
+    private volatile long endEpochNanos;
+    private volatile String error;
+
+    Span(Tracer tracer, String service, String name, Kind kind, String traceId, String spanId, String parentSpanId,
+         long startNanos) {
+        this.tracer = tracer;
+        this.service = service;
+        this.name = name;
+        this.kind = kind;
+        this.traceId = traceId;
+        this.spanId = spanId;
+        this.parentSpanId = parentSpanId;
+        this.startNanos = startNanos;
+        Instant now = Instant.now();
+        long epochNow = TimeUnit.SECONDS.toNanos(now.getEpochSecond()) + now.getNano();
+        this.startEpochNanos = epochNow - (System.nanoTime() - startNanos);
+    }
+
+    /**
+     * A span that already ended elsewhere, e.g. on the phone
+     */
+    Span(Tracer tracer, String service, String name, Kind kind, String traceId, String spanId, String parentSpanId,
+         long startEpochNanos, long endEpochNanos, Map<String, Object> attributes, String error) {
+        this.tracer = tracer;
+        this.service = service;
+        this.name = name;
+        this.kind = kind;
+        this.traceId = traceId;
+        this.spanId = spanId;
+        this.parentSpanId = parentSpanId;
+        this.startNanos = 0;
+        this.startEpochNanos = startEpochNanos;
+        this.endEpochNanos = endEpochNanos;
+        this.attributes.putAll(attributes);
+        this.error = error;
+    }
+
+    private Span() {
+        this(null, "", "", Kind.INTERNAL, "", "", null, 0, 0, Map.of(), null);
+    }
+
+    public boolean isRecording() {
+        return this != NOOP;
+    }
+
+    public Span setAttribute(String key, Object value) {
+        if (this != NOOP && value != null) {
+            synchronized (attributes) {
+                attributes.put(key, value);
+            }
+        }
+        return this;
+    }
+
+    /**
+     * Marks the span as failed
+     */
+    public Span setError(String message) {
+        if (this != NOOP) {
+            error = message != null ? message : "error";
+        }
+        return this;
+    }
+
+    /**
+     * W3C traceparent value naming this span as the parent, for outgoing requests
+     */
+    public String traceparent() {
+        return "00-" + traceId + "-" + spanId + "-01";
+    }
+
+    /**
+     * Ends the span and, if it is the thread's current span, makes its parent current again
+     */
+    @Override
+    public void close() {
+        if (this == NOOP) {
+            return;
+        }
+        Tracer.restore(this, previous);
+        end();
+    }
+
+    /**
+     * Ends the span without touching the thread's current span, for spans finished on another thread
+     */
+    public void end() {
+        if (this == NOOP || endEpochNanos != 0) {
+            return;
+        }
+        endEpochNanos = startEpochNanos + (System.nanoTime() - startNanos);
+        tracer.export(this);
+    }
+
+    void setPrevious(Span previous) {
+        this.previous = previous;
+    }
+
+    Span previous() {
+        return previous;
+    }
+
+    Tracer tracer() {
+        return tracer;
+    }
+
+    public String getService() {
+        return service;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public Kind getKind() {
+        return kind;
+    }
+
+    public String getTraceId() {
+        return traceId;
+    }
+
+    public String getSpanId() {
+        return spanId;
+    }
+
+    public String getParentSpanId() {
+        return parentSpanId;
+    }
+
+    public long getStartEpochNanos() {
+        return startEpochNanos;
+    }
+
+    public long getEndEpochNanos() {
+        return endEpochNanos;
+    }
+
+    public double getDurationMillis() {
+        return endEpochNanos == 0 ? 0 : (endEpochNanos - startEpochNanos) / 1_000_000.0;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public Map<String, Object> getAttributes() {
+        synchronized (attributes) {
+            return new LinkedHashMap<>(attributes);
+        }
+    }
+
+    /**
+     * The span as exported: field names follow the OpenTelemetry span model
+     */
+    public Map<String, Object> toMap() {
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("traceId", traceId);
+        map.put("spanId", spanId);
+        map.put("parentSpanId", parentSpanId);
+        map.put("service", service);
+        map.put("name", name);
+        map.put("kind", kind.name());
+        map.put("startTimeUnixNano", startEpochNanos);
+        map.put("endTimeUnixNano", endEpochNanos);
+        map.put("durationMs", getDurationMillis());
+        map.put("status", error == null ? "OK" : "ERROR");
+        if (error != null) {
+            map.put("error", error);
+        }
+        map.put("attributes", getAttributes());
+        return map;
+    }
+}
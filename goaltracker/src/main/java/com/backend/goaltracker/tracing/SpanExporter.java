@@ -0,0 +1,10 @@
+package com.backend.goaltracker.tracing;
+
+/**
+ * Receives every finished span. Called on the thread that ended the span, so implementations
+ * must not block; a collector client would queue spans and send them in the background.
+ */
+public interface SpanExporter {
+
+    void export(Span span);
+}
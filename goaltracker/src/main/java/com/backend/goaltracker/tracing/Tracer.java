@@ -0,0 +1,294 @@
+package com.backend.goaltracker.tracing;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Starts spans and hands finished ones to the exporters (in memory, plus an NDJSON file when
+ * goaltracker.tracing.file is set).
+ *
+ * Trace context travels in the W3C traceparent header: a request that carries one continues the
+ * caller's trace (and follows its sampled flag), any other request starts a new trace, sampled
+ * at goaltracker.tracing.sample-rate. Within the server the current span is thread-local;
+ * wrap() carries it onto worker threads.
+ */
+@Component
+public class Tracer {
+
+    public static final String TRACEPARENT_HEADER = "traceparent";
+    public static final String TRACERESPONSE_HEADER = "traceresponse";
+
+    // Span names the trace breakdown counts as queue time and model time
+    public static final String QUEUE_WAIT_SPAN = "scheduler.queue-wait";
+    public static final String MODEL_SPAN_PREFIX = "model ";
+
+    private static final Pattern TRACEPARENT = Pattern.compile("([0-9a-f]{2})-([0-9a-f]{32})-([0-9a-f]{16})-([0-9a-f]{2})");
+    private static final Pattern TRACE_ID = Pattern.compile("[0-9a-f]{32}");
+    private static final Pattern SPAN_ID = Pattern.compile("[0-9a-f]{16}");
+    private static final int MAX_NAME_LENGTH = 200;
+    private static final int MAX_ATTRIBUTES = 32;
+    private static final int MAX_ATTRIBUTE_LENGTH = 500;
+    private static final long MAX_IMPORTED_DURATION_NANOS = TimeUnit.HOURS.toNanos(1);
+
+    private static final ThreadLocal<Span> CURRENT = new ThreadLocal<>();
+
+    private final String service;
+    private final double sampleRate;
+    private final List<SpanExporter> exporters;
+
+    @Autowired
+    public Tracer(InMemorySpanExporter memoryExporter,
+                  @Value("${goaltracker.tracing.service-name:goaltracker-backend}") String service,
+                  @Value("${goaltracker.tracing.sample-rate:1.0}") double sampleRate,
+                  @Value("${goaltracker.tracing.file:}") String file,
+                  @Value("${goaltracker.tracing.file-max-mb:10}") long fileMaxMb) {
+        this(service, sampleRate, file.isBlank()
+                ? List.of(memoryExporter)
+                : List.of(memoryExporter, new FileSpanExporter(Paths.get(file), fileMaxMb * 1024 * 1024)));
+        if (!file.isBlank()) {
+            System.out.println("✅ Writing trace spans to " + file);
+        }
+    }
+
+    Tracer(String service, double sampleRate, List<SpanExporter> exporters) {
+        this.service = service;
+        this.sampleRate = sampleRate;
+        this.exporters = List.copyOf(exporters);
+    }
+
+    public String getService() {
+        return service;
+    }
+
+    // ================== STARTING SPANS ==================
+
+    /**
+     * Starts the span of an incoming request and makes it current.
+     *
+     * @param traceparent the request's traceparent header, may be null or malformed
+     * @return Span.NOOP when the request is not sampled
+     */
+    public Span startServer(String name, String traceparent) {
+        String traceId = null;
+        String parentSpanId = null;
+        Matcher matcher = traceparent != null ? TRACEPARENT.matcher(traceparent.trim()) : null;
+        if (matcher != null && matcher.matches() && !"ff".equals(matcher.group(1))
+                && !isZero(matcher.group(2)) && !isZero(matcher.group(3))) {
+            if ((Integer.parseInt(matcher.group(4), 16) & 1) == 0) {
+                return Span.NOOP;   // the caller decided not to trace this request
+            }
+            traceId = matcher.group(2);
+            parentSpanId = matcher.group(3);
+        } else if (sampleRate < 1 && ThreadLocalRandom.current().nextDouble() >= sampleRate) {
+            return Span.NOOP;
+        }
+        Span span = new Span(this, service, name, Span.Kind.SERVER, traceId != null ? traceId : randomId(16),
+                randomId(8), parentSpanId, System.nanoTime());
+        makeCurrent(span);
+        return span;
+    }
+
+    /**
+     * Starts a child of the thread's current span and makes it current.
+     * Returns Span.NOOP (and records nothing) outside a traced request.
+     */
+    public static Span start(String name) {
+        return start(name, Span.Kind.INTERNAL);
+    }
+
+    public static Span start(String name, Span.Kind kind) {
+        return startChildOf(CURRENT.get(), name, kind);
+    }
+
+    /**
+     * Starts a child of the given span on this thread, e.g. for work queued by another thread
+     */
+    public static Span startChildOf(Span parent, String name, Span.Kind kind) {
+        if (parent == null || !parent.isRecording()) {
+            return Span.NOOP;
+        }
+        Span span = parent.tracer().child(parent, name, kind, System.nanoTime());
+        makeCurrent(span);
+        return span;
+    }
+
+    /**
+     * @return the thread's current span, or Span.NOOP
+     */
+    public static Span current() {
+        Span span = CURRENT.get();
+        return span != null ? span : Span.NOOP;
+    }
+
+    /**
+     * Runs the task with the caller's current span as parent, on whatever thread runs it.
+     * The time between wrapping and running is recorded as a span named waitSpanName
+     * (queue time in front of a worker pool).
+     */
+    public static <T> Callable<T> wrap(Callable<T> task, String waitSpanName) {
+        Span parent = CURRENT.get();
+        if (parent == null || !parent.isRecording()) {
+            return task;
+        }
+        long queuedAt = System.nanoTime();
+        return () -> {
+            Span previous = CURRENT.get();
+            CURRENT.set(parent);
+            try {
+                parent.tracer().child(parent, waitSpanName, Span.Kind.INTERNAL, queuedAt).end();
+                return task.call();
+            } finally {
+                restore(parent, previous);
+            }
+        };
+    }
+
+    /**
+     * Takes the span off this thread without ending it, for a request that finishes asynchronously
+     */
+    public static void detach(Span span) {
+        restore(span, span.previous());
+    }
+
+    static void restore(Span span, Span previous) {
+        if (CURRENT.get() == span) {
+            if (previous != null) {
+                CURRENT.set(previous);
+            } else {
+                CURRENT.remove();
+            }
+        }
+    }
+
+    private static void makeCurrent(Span span) {
+        span.setPrevious(CURRENT.get());
+        CURRENT.set(span);
+    }
+
+    private Span child(Span parent, String name, Span.Kind kind, long startNanos) {
+        return new Span(this, service, name, kind, parent.getTraceId(), randomId(8), parent.getSpanId(), startNanos);
+    }
+
+    // ================== EXPORTING ==================
+
+    void export(Span span) {
+        for (SpanExporter exporter : exporters) {
+            try {
+                exporter.export(span);
+            } catch (RuntimeException e) {
+                System.err.println("⚠️ Span exporter failed: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Exports spans recorded by a client (the app), so its time shows up in the same trace.
+     *
+     * @param spans   spans in the format Span.toMap produces
+     * @param service service every span is recorded under; a span's own "service" field is ignored,
+     *                so an upload cannot pass its spans off as the server's
+     * @return the number of spans accepted
+     * @throws IllegalArgumentException if a span is malformed; none of the spans are exported then
+     */
+    public int importSpans(List<Map<String, Object>> spans, String service) {
+        List<Span> parsed = new ArrayList<>(spans.size());
+        for (int i = 0; i < spans.size(); i++) {
+            try {
+                parsed.add(parseSpan(spans.get(i), service));
+            } catch (RuntimeException e) {
+                throw new IllegalArgumentException("Span " + (i + 1) + ": " + e.getMessage());
+            }
+        }
+        parsed.forEach(this::export);
+        return parsed.size();
+    }
+
+    private Span parseSpan(Map<String, Object> map, String service) {
+        String traceId = requireMatch(map.get("traceId"), TRACE_ID, "traceId");
+        String spanId = requireMatch(map.get("spanId"), SPAN_ID, "spanId");
+        Object parent = map.get("parentSpanId");
+        String parentSpanId = parent == null ? null : requireMatch(parent, SPAN_ID, "parentSpanId");
+        String name = text(map.get("name"), "name");
+        Span.Kind kind = map.get("kind") == null ? Span.Kind.INTERNAL : Span.Kind.valueOf(text(map.get("kind"), "kind"));
+        long start = number(map.get("startTimeUnixNano"), "startTimeUnixNano");
+        long end = number(map.get("endTimeUnixNano"), "endTimeUnixNano");
+        if (start <= 0 || end < start || end - start > MAX_IMPORTED_DURATION_NANOS) {
+            throw new IllegalArgumentException("invalid start or end time");
+        }
+
+        Map<String, Object> attributes = new LinkedHashMap<>();
+        if (map.get("attributes") instanceof Map<?, ?> given) {
+            for (Map.Entry<?, ?> entry : given.entrySet()) {
+                if (attributes.size() == MAX_ATTRIBUTES) break;
+                Object value = entry.getValue();
+                if (value instanceof String s) {
+                    attributes.put(String.valueOf(entry.getKey()), s.length() > MAX_ATTRIBUTE_LENGTH
+                            ? s.substring(0, MAX_ATTRIBUTE_LENGTH) : s);
+                } else if (value instanceof Number || value instanceof Boolean) {
+                    attributes.put(String.valueOf(entry.getKey()), value);
+                }
+            }
+        }
+        String error = "ERROR".equals(map.get("status"))
+                ? (map.get("error") instanceof String s ? s : "error") : null;
+        return new Span(this, service, name, kind, traceId, spanId, parentSpanId, start, end, attributes, error);
+    }
+
+    private static String requireMatch(Object value, Pattern pattern, String field) {
+        if (!(value instanceof String s) || !pattern.matcher(s).matches() || isZero(s)) {
+            throw new IllegalArgumentException("invalid " + field);
+        }
+        return s;
+    }
+
+    private static String text(Object value, String field) {
+        if (!(value instanceof String s) || s.isBlank() || s.length() > MAX_NAME_LENGTH) {
+            throw new IllegalArgumentException("invalid " + field);
+        }
+        return s;
+    }
+
+    private static long number(Object value, String field) {
+        if (value instanceof Number n) {
+            return n.longValue();
+        }
+        if (value instanceof String s) {
+            try {
+                return Long.parseLong(s);   // OTLP JSON writes 64-bit integers as strings
+            } catch (NumberFormatException ignored) {
+            }
+        }
+        throw new IllegalArgumentException("invalid " + field);
+    }
+
+    private static boolean isZero(String hex) {
+        for (int i = 0; i < hex.length(); i++) {
+            if (hex.charAt(i) != '0') return false;
+        }
+        return true;
+    }
+
+    private static String randomId(int bytes) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        StringBuilder id;
+        do {
+            id = new StringBuilder(bytes * 2);
+            for (int i = 0; i < bytes; i++) {
+                id.append(Character.forDigit(random.nextInt(16), 16)).append(Character.forDigit(random.nextInt(16), 16));
+            }
+        } while (isZero(id.toString()));
+        return id.toString();
+    }
+}
@@ -0,0 +1,105 @@
+package com.backend.goaltracker.tracing;
+
+import com.backend.goaltracker.idempotency.IdempotencyFilter;
+import com.backend.goaltracker.scheduler.Lane;
+import com.backend.goaltracker.service.GenerationOutcome;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.regex.Pattern;
+
+/**
+ * Opens the server span of each API request, continuing the caller's trace when it sends a
+ * traceparent header, and returns the trace in a traceresponse header. The span is named after
+ * the route (ids replaced by {id}) and ends when the response is complete, also for async
+ * requests such as job long polls.
+ */
+public class TracingFilter extends OncePerRequestFilter {
+
+    private static final Pattern ID_SEGMENT = Pattern.compile("/(\\d+|[0-9a-fA-F-]{32,36})(?=/|$)");
+
+    private final Tracer tracer;
+
+    public TracingFilter(Tracer tracer) {
+        this.tracer = tracer;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        // Looking at traces should not add to them
+        return request.getRequestURI().startsWith(request.getContextPath() + "/api/traces");
+    }
+
+    static String route(String method, String path) {
+        return method + " " + ID_SEGMENT.matcher(path).replaceAll("/{id}");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        Span span = tracer.startServer(route(request.getMethod(), request.getRequestURI()),
+                request.getHeader(Tracer.TRACEPARENT_HEADER));
+        if (!span.isRecording()) {
+            chain.doFilter(request, response);
+            return;
+        }
+        span.setAttribute("http.method", request.getMethod());
+        span.setAttribute("http.target", request.getRequestURI());
+        span.setAttribute("goaltracker.lane", request.getHeader(Lane.HEADER));
+        response.setHeader(Tracer.TRACERESPONSE_HEADER, span.traceparent());
+
+        boolean async = false;
+        try {
+            chain.doFilter(request, response);
+            async = request.isAsyncStarted();
+        } catch (IOException | ServletException | RuntimeException e) {
+            span.setError(e.getClass().getSimpleName() + ": " + e.getMessage());
+            throw e;
+        } finally {
+            if (async) {
+                Tracer.detach(span);
+                request.getAsyncContext().addListener(new AsyncListener() {
+                    @Override
+                    public void onComplete(AsyncEvent event) {
+                        finish(span, response);
+                    }
+
+                    @Override
+                    public void onTimeout(AsyncEvent event) {
+                        span.setError("async timeout");
+                    }
+
+                    @Override
+                    public void onError(AsyncEvent event) {
+                        span.setError(String.valueOf(event.getThrowable()));
+                    }
+
+                    @Override
+                    public void onStartAsync(AsyncEvent event) {
+                    }
+                });
+            } else {
+                Tracer.detach(span);
+                finish(span, response);
+            }
+        }
+    }
+
+    private static void finish(Span span, HttpServletResponse response) {
+        span.setAttribute("http.status_code", response.getStatus());
+        span.setAttribute("goaltracker.plan_source", response.getHeader(GenerationOutcome.PLAN_SOURCE_HEADER));
+        if (response.getHeader(IdempotencyFilter.REPLAYED_HEADER) != null) {
+            span.setAttribute("goaltracker.idempotent_replay", true);
+        }
+        if (response.getStatus() >= 500) {
+            span.setError("HTTP " + response.getStatus());
+        }
+        span.end();
+    }
+}
@@ -0,0 +1,293 @@
+package com.backend.goaltracker.transfer;
+
+import com.backend.goaltracker.store.GoalStore;
+import com.backend.goaltracker.store.JournalGoalStore;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import entities.Goal;
+import entities.Subgoal;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Streams one user's goals out of the store and back in, for backups and migrations between stores.
+ *
+ * Export walks the store a page at a time (GoalStore.findPage) and writes each page before
+ * reading the next. Import parses one record at a time and inserts them in batches; the request
+ * body is only read further once a batch is stored, so a client cannot get ahead of the store.
+ * Heap use depends on the page and batch size, not on the number of goals.
+ *
+ * Formats: NDJSON (one goal per line, as GET /api/goals/{id} returns it) and binary (the journal
+ * store's goal encoding, each record prefixed with its length). Imported goals get new ids and
+ * belong to the importing user, whatever owner the records name.
+ */
+@Service
+public class GoalTransferService {
+
+    public enum Format {
+        NDJSON, BINARY;
+
+        public static Format parse(String value) {
+            return Format.valueOf(value.trim().toUpperCase(Locale.ROOT));
+        }
+    }
+
+    /**
+     * Outcome of an import
+     */
+    public static class ImportResult {
+        public long imported;
+        public long skipped;
+        public final List<String> errors = new ArrayList<>();   // the first MAX_ERRORS
+
+        void skip(String error) {
+            skipped++;
+            if (errors.size() < MAX_ERRORS) errors.add(error);
+        }
+
+        public Map<String, Object> toMap() {
+            Map<String, Object> map = new LinkedHashMap<>();
+            map.put("imported", imported);
+            map.put("skipped", skipped);
+            map.put("errors", errors);
+            return map;
+        }
+    }
+
+    static final int BINARY_MAGIC = 0x47544231;   // "GTB1"
+    private static final int MAX_ERRORS = 20;
+
+    private final GoalStore goalStore;
+    private final int pageSize;
+    private final int batchSize;
+    private final int maxRecordBytes;
+    private final ObjectMapper mapper = new ObjectMapper()
+            .findAndRegisterModules()
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+
+    @Autowired
+    public GoalTransferService(GoalStore goalStore,
+                               @Value("${goaltracker.transfer.page-size:500}") int pageSize,
+                               @Value("${goaltracker.transfer.batch-size:500}") int batchSize,
+                               @Value("${goaltracker.transfer.max-record-bytes:1048576}") int maxRecordBytes) {
+        this.goalStore = goalStore;
+        this.pageSize = pageSize;
+        this.batchSize = batchSize;
+        this.maxRecordBytes = maxRecordBytes;
+    }
+
+    // ================== EXPORT ==================
+
+    /**
+     * @param ownerId only this user's goals are written (the anonymous goals for null)
+     * @return the number of goals written
+     */
+    public long export(OutputStream target, Format format, String ownerId) throws IOException {
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(target, 64 * 1024));
+        if (format == Format.BINARY) {
+            out.writeInt(BINARY_MAGIC);
+        }
+        long written = 0;
+        int cursor = 0;
+        List<Goal> page;
+        while (!(page = goalStore.findPage(cursor, pageSize)).isEmpty()) {
+            for (Goal goal : page) {
+                if (!Objects.equals(goal.getOwnerId(), ownerId)) {
+                    continue;
+                }
+                if (format == Format.BINARY) {
+                    byte[] record = JournalGoalStore.encode(goal);
+                    out.writeInt(record.length);
+                    out.write(record);
+                } else {
+                    out.write(mapper.writeValueAsBytes(goal));
+                    out.write('\n');
+                }
+                written++;
+            }
+            cursor = page.get(page.size() - 1).getId();
+        }
+        out.flush();
+        return written;
+    }
+
+    // ================== IMPORT ==================
+
+    /**
+     * @param ownerId owner of every imported goal: the importing user, or null
+     */
+    public ImportResult importGoals(InputStream source, Format format, String ownerId) throws IOException {
+        InputStream in = new BufferedInputStream(source, 64 * 1024);
+        ImportResult result = new ImportResult();
+        List<Goal> batch = new ArrayList<>(batchSize);
+        if (format == Format.BINARY) {
+            readBinary(new DataInputStream(in), ownerId, batch, result);
+        } else {
+            readNdjson(in, ownerId, batch, result);
+        }
+        flush(batch, result);
+        System.out.println("✅ Imported " + result.imported + " goals (" + result.skipped + " skipped)");
+        return result;
+    }
+
+    private void readNdjson(InputStream in, String ownerId, List<Goal> batch, ImportResult result) throws IOException {
+        byte[] chunk = new byte[64 * 1024];
+        ByteArrayOutputStream line = new ByteArrayOutputStream(1024);
+        long lineNumber = 0;
+        boolean tooLong = false;
+        int read;
+        while ((read = in.read(chunk)) != -1) {
+            int start = 0;
+            for (int i = 0; i <= read; i++) {
+                boolean endOfLine = i < read && chunk[i] == '\n';
+                if (!endOfLine && i < read) continue;
+                // Keep at most maxRecordBytes of a line; the rest is read and dropped
+                int length = Math.min(i - start, maxRecordBytes - line.size());
+                line.write(chunk, start, Math.max(length, 0));
+                tooLong |= length < i - start;
+                start = i + 1;
+                if (endOfLine) {
+                    parseLine(line, tooLong, ++lineNumber, ownerId, batch, result);
+                    line.reset();
+                    tooLong = false;
+                }
+            }
+        }
+        if (line.size() > 0 || tooLong) {
+            parseLine(line, tooLong, ++lineNumber, ownerId, batch, result);   // last line without a newline
+        }
+    }
+
+    private void parseLine(ByteArrayOutputStream line, boolean tooLong, long lineNumber, String ownerId,
+                           List<Goal> batch, ImportResult result) {
+        if (tooLong) {
+            result.skip("Line " + lineNumber + ": longer than " + maxRecordBytes + " bytes");
+            return;
+        }
+        byte[] json = line.toByteArray();
+        if (isBlank(json)) {
+            return;
+        }
+        try {
+            add(normalize(mapper.readValue(json, Goal.class), ownerId), batch, result);
+        } catch (JsonProcessingException e) {
+            result.skip("Line " + lineNumber + ": " + e.getOriginalMessage());
+        } catch (IOException | IllegalArgumentException e) {
+            result.skip("Line " + lineNumber + ": " + e.getMessage());
+        }
+    }
+
+    private void readBinary(DataInputStream in, String ownerId, List<Goal> batch, ImportResult result) throws IOException {
+        int magic;
+        try {
+            magic = in.readInt();
+        } catch (EOFException e) {
+            return;
+        }
+        if (magic != BINARY_MAGIC) {
+            throw new IllegalArgumentException("Not a binary goal export");
+        }
+        long recordNumber = 0;
+        while (true) {
+            int length;
+            try {
+                length = in.readInt();
+            } catch (EOFException e) {
+                return;
+            }
+            recordNumber++;
+            if (length <= 0 || length > maxRecordBytes) {
+                // Without a valid length the rest of the stream cannot be framed
+                result.skip("Record " + recordNumber + ": invalid length " + length + ", the rest was not read");
+                return;
+            }
+            byte[] record = new byte[length];
+            try {
+                in.readFully(record);
+            } catch (EOFException e) {
+                result.skip("Record " + recordNumber + ": truncated");
+                return;
+            }
+            try {
+                add(normalize(JournalGoalStore.decode(ByteBuffer.wrap(record)), ownerId), batch, result);
+            } catch (RuntimeException e) {
+                result.skip("Record " + recordNumber + ": " + e.getMessage());
+            }
+        }
+    }
+
+    private void add(Goal goal, List<Goal> batch, ImportResult result) {
+        batch.add(goal);
+        if (batch.size() >= batchSize) {
+            flush(batch, result);
+        }
+    }
+
+    private void flush(List<Goal> batch, ImportResult result) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        goalStore.insertAll(batch);
+        result.imported += batch.size();
+        batch.clear();
+    }
+
+    /**
+     * Rebuilds an imported goal through Goal, so its subgoal counters and completion match its
+     * subgoals whatever the record said, and gives it to the importing user.
+     */
+    static Goal normalize(Goal parsed, String ownerId) {
+        if (parsed.getTitle() == null || parsed.getTitle().isBlank()) {
+            throw new IllegalArgumentException("Goal title cannot be empty");
+        }
+        Goal goal = new Goal();
+        goal.setTitle(parsed.getTitle());
+        goal.setDescription(parsed.getDescription());
+        if (parsed.getCreatedAt() != null) {
+            goal.setCreatedAt(parsed.getCreatedAt());
+        }
+        goal.setDeadline(parsed.getDeadline());
+        goal.setOwnerId(ownerId);
+        if (parsed.getSubgoals() != null) {
+            for (Subgoal subgoal : parsed.getSubgoals()) {
+                if (subgoal.getTitle() == null || subgoal.getTitle().isBlank()) {
+                    throw new IllegalArgumentException("Subgoal title cannot be empty");
+                }
+                Subgoal copy = new Subgoal(subgoal.getTitle(), subgoal.getDescription());
+                copy.setIsCompleted(subgoal.getIsCompleted());
+                goal.addSubgoal(copy);
+            }
+        }
+        // Completion is kept per subgoal, so duplicate titles keep their own flags
+        goal.recountSubgoals();
+        return goal;
+    }
+
+    private static boolean isBlank(byte[] line) {
+        for (byte b : line) {
+            if (b != ' ' && b != '\t' && b != '\r') return false;
+        }
+        return true;
+    }
+}
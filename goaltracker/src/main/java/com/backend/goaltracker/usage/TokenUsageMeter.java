@@ -0,0 +1,231 @@
+package com.backend.goaltracker.usage;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Gemini token usage per user and per endpoint, taken from the usageMetadata of every response,
+ * and the daily per-user token quota.
+ *
+ * Counters are LongAdders (striped per thread), so recording from many request threads does not
+ * contend on a single cache line. Quotas are soft: calls already in flight when a user crosses the
+ * limit still complete and are counted.
+ * A user idle for a whole day is dropped on the next day change, with their per-endpoint counters,
+ * so the per-user map only holds the users of the last two days.
+ *
+ * Properties (goaltracker.usage.*): daily-token-quota (per user, default 200000, 0 = unlimited),
+ * anonymous-daily-token-quota (shared by requests without a user id, default 1000000, 0 = unlimited),
+ * zone (system default).
+ */
+@Component
+public class TokenUsageMeter {
+
+    public static final String ANONYMOUS = "anonymous";
+
+    /**
+     * Call and token counters for one user or endpoint
+     */
+    static final class Counters {
+        final LongAdder calls = new LongAdder();
+        final LongAdder promptTokens = new LongAdder();
+        final LongAdder outputTokens = new LongAdder();
+        final LongAdder totalTokens = new LongAdder();
+
+        void add(long prompt, long output, long total) {
+            calls.increment();
+            promptTokens.add(prompt);
+            outputTokens.add(output);
+            totalTokens.add(total);
+        }
+
+        Map<String, Long> snapshot() {
+            Map<String, Long> snapshot = new LinkedHashMap<>();
+            snapshot.put("calls", calls.sum());
+            snapshot.put("promptTokens", promptTokens.sum());
+            snapshot.put("outputTokens", outputTokens.sum());
+            snapshot.put("totalTokens", totalTokens.sum());
+            return snapshot;
+        }
+    }
+
+    /**
+     * Tokens used on one day; replaced as a whole when the day changes
+     */
+    private static final class Daily {
+        final LocalDate day;
+        final LongAdder tokens = new LongAdder();
+
+        Daily(LocalDate day) {
+            this.day = day;
+        }
+    }
+
+    private static final class UserUsage {
+        final ConcurrentMap<String, Counters> byEndpoint = new ConcurrentHashMap<>();
+        final AtomicReference<Daily> today;
+
+        UserUsage(LocalDate day) {
+            today = new AtomicReference<>(new Daily(day));
+        }
+    }
+
+    private final Counters total = new Counters();
+    private final ConcurrentMap<String, Counters> byEndpoint = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, UserUsage> byUser = new ConcurrentHashMap<>();
+    private final LongAdder rejected = new LongAdder();
+    private final AtomicReference<LocalDate> evictedOn;
+    private final long dailyQuota;
+    private final long anonymousDailyQuota;
+    private final Clock clock;
+
+    @Autowired
+    public TokenUsageMeter(@Value("${goaltracker.usage.daily-token-quota:200000}") long dailyQuota,
+                           @Value("${goaltracker.usage.anonymous-daily-token-quota:1000000}") long anonymousDailyQuota,
+                           @Value("${goaltracker.usage.zone:}") String zone) {
+        this(dailyQuota, anonymousDailyQuota, zone.isEmpty() ? Clock.systemDefaultZone() : Clock.system(ZoneId.of(zone)));
+    }
+
+    TokenUsageMeter(long dailyQuota, long anonymousDailyQuota, Clock clock) {
+        this.dailyQuota = dailyQuota;
+        this.anonymousDailyQuota = anonymousDailyQuota;
+        this.clock = clock;
+        this.evictedOn = new AtomicReference<>(LocalDate.now(clock));
+    }
+
+    // ================== RECORDING ==================
+
+    /**
+     * Records the usageMetadata of a Gemini response. Responses without it count as a call with 0 tokens.
+     *
+     * @param userId   caller, or null
+     * @param endpoint logical endpoint, e.g. "generate"
+     */
+    public void record(String userId, String endpoint, JsonNode usageMetadata) {
+        long prompt = usageMetadata.path("promptTokenCount").asLong(0);
+        long output = usageMetadata.path("candidatesTokenCount").asLong(0);
+        long totalTokens = usageMetadata.path("totalTokenCount").asLong(prompt + output);
+        record(userId, endpoint, prompt, output, totalTokens);
+    }
+
+    public void record(String userId, String endpoint, long promptTokens, long outputTokens, long totalTokens) {
+        total.add(promptTokens, outputTokens, totalTokens);
+        byEndpoint.computeIfAbsent(endpoint, e -> new Counters()).add(promptTokens, outputTokens, totalTokens);
+
+        UserUsage user = user(userId);
+        user.byEndpoint.computeIfAbsent(endpoint, e -> new Counters()).add(promptTokens, outputTokens, totalTokens);
+        today(user).tokens.add(totalTokens);
+    }
+
+    // ================== QUOTAS ==================
+
+    /**
+     * @return how long until the user's quota resets if the daily quota is used up, otherwise null
+     */
+    public Duration quotaExceeded(String userId) {
+        long quota = quotaFor(userId);
+        if (quota <= 0) {
+            return null;
+        }
+        UserUsage user = byUser.get(key(userId));
+        if (user == null || today(user).tokens.sum() < quota) {
+            return null;
+        }
+        rejected.increment();
+        ZonedDateTime now = ZonedDateTime.now(clock);
+        return Duration.between(now, now.toLocalDate().plusDays(1).atStartOfDay(clock.getZone()));
+    }
+
+    private long quotaFor(String userId) {
+        return userId == null ? anonymousDailyQuota : dailyQuota;
+    }
+
+    // ================== METRICS ==================
+
+    public Map<String, Object> summary() {
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("total", total.snapshot());
+        Map<String, Object> endpoints = new TreeMap<>();
+        byEndpoint.forEach((endpoint, counters) -> endpoints.put(endpoint, counters.snapshot()));
+        summary.put("byEndpoint", endpoints);
+        summary.put("users", byUser.size());
+        summary.put("quotaRejections", rejected.sum());
+        summary.put("dailyTokenQuota", dailyQuota);
+        return summary;
+    }
+
+    public Map<String, Object> userSummary(String userId) {
+        Map<String, Object> summary = new LinkedHashMap<>();
+        UserUsage user = byUser.get(key(userId));
+        long usedToday = user == null ? 0 : today(user).tokens.sum();
+        long quota = quotaFor(userId);
+
+        summary.put("userId", key(userId));
+        summary.put("tokensToday", usedToday);
+        summary.put("dailyTokenQuota", quota);
+        summary.put("remainingToday", quota <= 0 ? null : Math.max(0, quota - usedToday));
+        Map<String, Object> endpoints = new TreeMap<>();
+        if (user != null) {
+            user.byEndpoint.forEach((endpoint, counters) -> endpoints.put(endpoint, counters.snapshot()));
+        }
+        summary.put("byEndpoint", endpoints);
+        return summary;
+    }
+
+    // ================== HELPERS ==================
+
+    private UserUsage user(String userId) {
+        LocalDate day = LocalDate.now(clock);
+        LocalDate evicted = evictedOn.get();
+        if (!evicted.equals(day) && evictedOn.compareAndSet(evicted, day)) {
+            evictIdleUsers(day);
+        }
+        return byUser.computeIfAbsent(key(userId), id -> new UserUsage(day));
+    }
+
+    /**
+     * Drops the users without a call yesterday or today. A call racing with the eviction of its
+     * user may go uncounted for that user (never in the totals), which the soft quota tolerates.
+     */
+    private void evictIdleUsers(LocalDate day) {
+        LocalDate yesterday = day.minusDays(1);
+        int before = byUser.size();
+        byUser.values().removeIf(user -> user.today.get().day.isBefore(yesterday));
+        if (byUser.size() < before) {
+            System.out.println("✅ Token usage: dropped " + (before - byUser.size()) + " idle users");
+        }
+    }
+
+    /**
+     * The user's counter for today, starting a new one on the first call after midnight.
+     */
+    private Daily today(UserUsage user) {
+        LocalDate day = LocalDate.now(clock);
+        Daily current = user.today.get();
+        while (!current.day.equals(day)) {
+            if (user.today.compareAndSet(current, new Daily(day))) {
+                return user.today.get();
+            }
+            current = user.today.get();
+        }
+        return current;
+    }
+
+    private static String key(String userId) {
+        return userId != null ? userId : ANONYMOUS;
+    }
+}
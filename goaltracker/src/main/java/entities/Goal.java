@@ -3,6 +3,7 @@ package entities;
 import entities.Subgoal;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Objects;
 import java.time.LocalDate;
 
 /**
@@ -22,6 +23,7 @@ public class Goal {
     private boolean isComplete;
     private int numTotalSubgoals;
     private int numCompletedSubgoals;
+    private String ownerId;  // user who created the goal, null for anonymous requests
 
     /**
      * Default constructor initializes an empty goal with an empty subgoal list.
@@ -98,6 +100,24 @@ public class Goal {
         this.deadline = deadline;
     }
 
+    public String getOwnerId() {
+        return ownerId;
+    }
+
+    public void setOwnerId(String ownerId) {
+        this.ownerId = ownerId;
+    }
+
+    /**
+     * A goal is only shown to its owner; anonymous goals only to requests without a user id.
+     * Listings, stats and search apply the same rule.
+     * @param userId the caller's user id, or null
+     * @return boolean
+     */
+    public boolean isVisibleTo(String userId) {
+        return Objects.equals(ownerId, userId);
+    }
+
     public boolean isComplete() {
         return isComplete;
     }
@@ -137,6 +157,38 @@ public class Goal {
         numTotalSubgoals--;
     }
 
+    /**
+     * Marks the first incomplete subgoal with the given title as complete.
+     * @param title the title of the subgoal to complete
+     * @return true if a subgoal was updated, false if none matched or it was already complete
+     */
+    public boolean completeSubgoal(String title) {
+        for (Subgoal subgoal : subgoalsList) {
+            if (!subgoal.getIsCompleted() && subgoal.getTitle().equals(title)) {
+                subgoal.setIsCompleted(true);
+                numCompletedSubgoals++;
+                checkGoalCompletion();
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Recomputes the subgoal counters and isComplete from the subgoals' own flags, for goals
+     * whose subgoals were restored with their completion already set.
+     */
+    public void recountSubgoals() {
+        numTotalSubgoals = subgoalsList.size();
+        numCompletedSubgoals = 0;
+        for (Subgoal subgoal : subgoalsList) {
+            if (subgoal.getIsCompleted()) {
+                numCompletedSubgoals++;
+            }
+        }
+        isComplete = numCompletedSubgoals > 0 && numCompletedSubgoals == numTotalSubgoals;
+    }
+
     /**
      * Checks if the goal is complete. Goal is complete iff all the subgoals are complete.
      * If all subgoals are complete, return true & update isComplete = true.
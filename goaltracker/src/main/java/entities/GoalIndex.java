@@ -0,0 +1,162 @@
+package entities;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * A collection of goals indexed by id, by title and by deadline.
+ * All three indexes are updated together on add and remove, so they never disagree.
+ *
+ * Goals are identified by their id. Titles and deadlines are remembered as they were when the
+ * goal was indexed; call reindex() after changing either on a goal that is already in here.
+ * Not thread-safe.
+ */
+public class GoalIndex {
+
+    /**
+     * Deadline-ordering key; goals without a deadline sort last, ties are broken by id.
+     */
+    private record DeadlineKey(LocalDate deadline, int goalId) {
+        static final Comparator<DeadlineKey> ORDER = Comparator
+                .comparing(DeadlineKey::deadline, Comparator.nullsLast(Comparator.naturalOrder()))
+                .thenComparingInt(DeadlineKey::goalId);
+    }
+
+    /**
+     * What a goal was indexed under, so it can be found again even if the goal was mutated since.
+     */
+    private record Entry(Goal goal, String title, DeadlineKey deadlineKey) {
+    }
+
+    private final Map<Integer, Entry> byId = new LinkedHashMap<>();            // insertion order
+    private final Map<String, Map<Integer, Goal>> byTitle = new HashMap<>();  // titles need not be unique
+    private final TreeMap<DeadlineKey, Goal> byDeadline = new TreeMap<>(DeadlineKey.ORDER);
+
+    /**
+     * Adds a goal, replacing any goal that already has the same id.
+     *
+     * @param goal the goal to add
+     * @return the goal that was replaced, or null
+     */
+    public Goal add(Goal goal) {
+        Goal replaced = remove(goal.getId());
+
+        Entry entry = new Entry(goal, goal.getTitle(), new DeadlineKey(goal.getDeadline(), goal.getId()));
+        byId.put(goal.getId(), entry);
+        byTitle.computeIfAbsent(entry.title(), t -> new LinkedHashMap<>()).put(goal.getId(), goal);
+        byDeadline.put(entry.deadlineKey(), goal);
+        return replaced;
+    }
+
+    /**
+     * Removes the goal with the given id.
+     *
+     * @return the removed goal, or null if there was none
+     */
+    public Goal remove(int goalId) {
+        Entry entry = byId.remove(goalId);
+        if (entry == null) {
+            return null;
+        }
+
+        Map<Integer, Goal> sameTitle = byTitle.get(entry.title());
+        sameTitle.remove(goalId);
+        if (sameTitle.isEmpty()) {
+            byTitle.remove(entry.title());
+        }
+        byDeadline.remove(entry.deadlineKey());
+        return entry.goal();
+    }
+
+    /**
+     * Re-reads the title and deadline of a goal that is already indexed.
+     *
+     * @return false if no goal with this id is indexed
+     */
+    public boolean reindex(Goal goal) {
+        if (!byId.containsKey(goal.getId())) {
+            return false;
+        }
+        add(goal);
+        return true;
+    }
+
+    public Goal get(int goalId) {
+        Entry entry = byId.get(goalId);
+        return entry == null ? null : entry.goal();
+    }
+
+    public boolean contains(int goalId) {
+        return byId.containsKey(goalId);
+    }
+
+    /**
+     * @return the first goal indexed with this title, or null
+     */
+    public Goal getByTitle(String title) {
+        Map<Integer, Goal> sameTitle = byTitle.get(title);
+        return sameTitle == null ? null : sameTitle.values().iterator().next();
+    }
+
+    /**
+     * @return every goal with this title, in the order they were added
+     */
+    public List<Goal> findAllByTitle(String title) {
+        Map<Integer, Goal> sameTitle = byTitle.get(title);
+        return sameTitle == null ? Collections.emptyList() : new ArrayList<>(sameTitle.values());
+    }
+
+    /**
+     * @return all goals, earliest deadline first; goals without a deadline come last
+     */
+    public List<Goal> byDeadline() {
+        return new ArrayList<>(byDeadline.values());
+    }
+
+    /**
+     * @return goals whose deadline is on or before the given date, earliest first
+     */
+    public List<Goal> dueOnOrBefore(LocalDate date) {
+        return new ArrayList<>(byDeadline.headMap(new DeadlineKey(date, Integer.MAX_VALUE), true).values());
+    }
+
+    /**
+     * @return the goal with the earliest deadline, or null if no goal has one
+     */
+    public Goal nextDue() {
+        Map.Entry<DeadlineKey, Goal> first = byDeadline.firstEntry();
+        return first == null || first.getKey().deadline() == null ? null : first.getValue();
+    }
+
+    /**
+     * @return all goals in the order they were added
+     */
+    public List<Goal> values() {
+        List<Goal> goals = new ArrayList<>(byId.size());
+        for (Entry entry : byId.values()) {
+            goals.add(entry.goal());
+        }
+        return goals;
+    }
+
+    public int size() {
+        return byId.size();
+    }
+
+    public boolean isEmpty() {
+        return byId.isEmpty();
+    }
+
+    public void clear() {
+        byId.clear();
+        byTitle.clear();
+        byDeadline.clear();
+    }
+}
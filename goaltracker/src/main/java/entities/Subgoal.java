@@ -92,6 +92,10 @@ public class Subgoal {
         return isCompleted;
     }
 
+    public void setIsCompleted(boolean isCompleted) {
+        this.isCompleted = isCompleted;
+    }
+
 
     /**public LocalDate getDeadline() {
      return deadline;
@@ -1,24 +1,25 @@
 package entities;
 
-import java.util.ArrayList;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import java.time.LocalDate;
 import java.util.List;
 
 /**
  * All current methods:
- * getters + setters for all variables, add + remove goal (from goalList)
+ * getters + setters for all variables, add + remove goal, lookup by id / title, goals ordered by deadline
  * Should we override toString()?
  */
 
 public class User {
     private int userId;
     private String name;
-    private List<Goal> goalList;  // each user can have a list of goals (more than one goal)
+    private final GoalIndex goals;  // each user can have many goals, indexed by id, title and deadline
 
     /**
      * Default constructor initializes an empty goal list.
      */
     public User() {
-        this.goalList = new ArrayList<>();
+        this.goals = new GoalIndex();
     }
 
     /**
@@ -30,7 +31,7 @@ public class User {
     public User(int userId, String name) {
         this.userId = userId;
         this.name = name;
-        this.goalList = new ArrayList<>();
+        this.goals = new GoalIndex();
     }
 
     public int getId() {
@@ -49,34 +50,95 @@ public class User {
         this.name = name;
     }
 
+    /**
+     * @return a copy of the user's goals in the order they were added
+     */
     public List<Goal> getGoalList() {
-        return goalList;
+        return goals.values();
     }
 
     public void setGoalList(List<Goal> goalList) {
-        this.goalList = goalList;
+        goals.clear();
+        for (Goal goal : goalList) {
+            addGoal(goal);
+        }
     }
 
     /**
-     * Adds a new goal to the user's goal list.
+     * Adds a new goal to the user's goals. A goal with the same id replaces the old one.
      *
      * @param goal the Goal object to add
      */
     public void addGoal(Goal goal) {
         if (goal != null) {
-            goalList.add(goal);
+            goals.add(goal);
         }
     }
 
     /**
-     * Removes a goal from the user's goal list.
+     * Removes a goal from the user's goals.
      *
-     * @param goal the Goal object to remove
+     * @param goal the Goal object to remove (matched by id)
      */
     public void removeGoal(Goal goal) {
         if (goal != null) {
-            goalList.remove(goal);
+            goals.remove(goal.getId());
         }
     }
 
+    /**
+     * Removes the goal with the given id.
+     *
+     * @param goalId the id of the goal to remove
+     * @return the removed goal, or null if the user has no such goal
+     */
+    public Goal removeGoal(int goalId) {
+        return goals.remove(goalId);
+    }
+
+    /**
+     * Call after changing the title or deadline of one of this user's goals.
+     *
+     * @param goal the goal that changed
+     */
+    public void updateGoal(Goal goal) {
+        if (goal != null) {
+            goals.reindex(goal);
+        }
+    }
+
+    /**
+     * @return the goal with this id, or null
+     */
+    public Goal getGoal(int goalId) {
+        return goals.get(goalId);
+    }
+
+    /**
+     * @return the first goal with this title, or null
+     */
+    public Goal getGoalByTitle(String title) {
+        return goals.getByTitle(title);
+    }
+
+    /**
+     * @return the user's goals, earliest deadline first (goals without a deadline last)
+     */
+    @JsonIgnore  // same goals as goalList, only reordered
+    public List<Goal> getGoalsByDeadline() {
+        return goals.byDeadline();
+    }
+
+    /**
+     * @return goals due on or before the given date, earliest first
+     */
+    public List<Goal> getGoalsDueBy(LocalDate date) {
+        return goals.dueOnOrBefore(date);
+    }
+
+    @JsonIgnore
+    public int getNumGoals() {
+        return goals.size();
+    }
+
 }
@@ -0,0 +1,46 @@
+package com.backend.goaltracker;
+
+import entities.Goal;
+import entities.Subgoal;
+
+import java.time.LocalDate;
+
+/**
+ * Goals for the store, service and transfer tests: described as "About <title>", due at the end
+ * of 2026, with one subgoal per title described as "Do: <subgoal>".
+ */
+public final class GoalFixtures {
+
+    public static final String OWNER = "owner-1";
+
+    private GoalFixtures() {
+    }
+
+    public static Goal goal(String title, String... subgoals) {
+        Goal goal = new Goal(title, "About " + title, LocalDate.of(2026, 12, 31));
+        for (String subgoal : subgoals) {
+            goal.addSubgoal(new Subgoal(subgoal, "Do: " + subgoal));
+        }
+        return goal;
+    }
+
+    /**
+     * Same as goal, owned by OWNER
+     */
+    public static Goal ownedGoal(String title, String... subgoals) {
+        Goal goal = goal(title, subgoals);
+        goal.setOwnerId(OWNER);
+        return goal;
+    }
+
+    /**
+     * Marks the subgoals at the given positions complete, so duplicate titles can differ
+     */
+    public static Goal withCompleted(Goal goal, int... subgoalIndexes) {
+        for (int index : subgoalIndexes) {
+            goal.getSubgoals().get(index).setIsCompleted(true);
+        }
+        goal.recountSubgoals();
+        return goal;
+    }
+}
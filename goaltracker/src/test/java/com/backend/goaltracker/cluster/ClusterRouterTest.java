@@ -0,0 +1,175 @@
+package com.backend.goaltracker.cluster;
+
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ClusterRouterTest {
+
+    private static final String SELF = "http://127.0.0.1:1";
+    private static final String SECRET = "cluster-secret";
+
+    private final Map<String, String> received = new ConcurrentHashMap<>();
+    private HttpServer owner;
+    private String ownerUrl;
+    private ClusterRouter router;
+
+    @BeforeEach
+    void startOwner() throws IOException {
+        owner = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        owner.createContext("/api/goals", exchange -> {
+            received.put("method", exchange.getRequestMethod());
+            received.put("path", exchange.getRequestURI().toString());
+            received.put("body", new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8));
+            received.put("forwardedBy", String.valueOf(exchange.getRequestHeaders().getFirst(ClusterRouter.FORWARDED_HEADER)));
+            received.put("timestamp", String.valueOf(exchange.getRequestHeaders().getFirst(ClusterRouter.FORWARD_TIMESTAMP_HEADER)));
+            received.put("signature", String.valueOf(exchange.getRequestHeaders().getFirst(ClusterRouter.FORWARD_SIGNATURE_HEADER)));
+            received.put("userId", String.valueOf(exchange.getRequestHeaders().getFirst(ClusterRouter.USER_HEADER)));
+            byte[] body = "{\"title\":\"Run a marathon\"}".getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", "application/json");
+            exchange.getResponseHeaders().set("Idempotent-Replayed", "true");
+            exchange.getResponseHeaders().set("Retry-After", "7");
+            exchange.getResponseHeaders().set("Keep-Alive", "timeout=5");
+            exchange.sendResponseHeaders(received.get("path").contains("missing") ? 404 : 200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        owner.start();
+        ownerUrl = "http://127.0.0.1:" + owner.getAddress().getPort();
+        router = new ClusterRouter(true, SELF, SELF + "," + ownerUrl, 128, SECRET);
+    }
+
+    @AfterEach
+    void stopOwner() {
+        owner.stop(0);
+    }
+
+    @Test
+    void patchRequestsAreForwardedWithTheirBody() {
+        MockHttpServletRequest request = new MockHttpServletRequest("PATCH", "/api/goals/42/subgoals/complete");
+        request.setQueryString("title=Buy%20shoes");
+
+        ResponseEntity<String> response = router.forwardTo(ownerUrl, request, Map.of("title", "Buy shoes")).orElseThrow();
+
+        assertEquals(200, response.getStatusCode().value());
+        assertEquals("PATCH", received.get("method"));
+        assertEquals("/api/goals/42/subgoals/complete?title=Buy%20shoes", received.get("path"));
+        assertEquals("{\"title\":\"Buy shoes\"}", received.get("body"));
+        assertEquals(SELF, received.get("forwardedBy"));
+        assertEquals("{\"title\":\"Run a marathon\"}", response.getBody());
+    }
+
+    @Test
+    void endToEndResponseHeadersAreRelayed() {
+        MockHttpServletRequest request = new MockHttpServletRequest("DELETE", "/api/goals/missing");
+
+        ResponseEntity<String> response = router.forwardTo(ownerUrl, request, null).orElseThrow();
+
+        assertEquals(404, response.getStatusCode().value());
+        assertEquals(List.of("true"), response.getHeaders().get("Idempotent-Replayed"));
+        assertEquals("7", response.getHeaders().getFirst("Retry-After"));
+        assertNull(response.getHeaders().getFirst("Keep-Alive"), "hop-by-hop headers stay on their hop");
+        assertNull(response.getHeaders().getFirst("Content-Length"));
+    }
+
+    @Test
+    void theOwnerTrustsOnlyCorrectlySignedForwards() {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/goals/generate");
+        request.addHeader(ClusterRouter.USER_HEADER, "alice");
+        router.forwardTo(ownerUrl, request, Map.of("prompt", "Run a marathon")).orElseThrow();
+        ClusterRouter ownerRouter = new ClusterRouter(true, ownerUrl, SELF + "," + ownerUrl, 128, SECRET);
+        String bodyDigest = SpooledBody.digestOf(received.get("body").getBytes(StandardCharsets.UTF_8));
+
+        MockHttpServletRequest arrived = arrived("POST", "/api/goals/generate", received.get("userId"));
+        assertEquals(SELF, ownerRouter.verifyForward(arrived, bodyDigest));
+
+        MockHttpServletRequest otherPath = arrived("DELETE", "/api/goals/42", received.get("userId"));
+        assertNull(ownerRouter.verifyForward(otherPath, bodyDigest), "a signature is only good for its own request");
+
+        String otherBody = SpooledBody.digestOf("{\"prompt\":\"Learn guitar\"}".getBytes(StandardCharsets.UTF_8));
+        assertNull(ownerRouter.verifyForward(arrived, otherBody), "nor for another body");
+
+        MockHttpServletRequest otherUser = arrived("POST", "/api/goals/generate", "mallory");
+        assertNull(ownerRouter.verifyForward(otherUser, bodyDigest), "nor for another user");
+
+        ClusterRouter otherSecret = new ClusterRouter(true, ownerUrl, SELF + "," + ownerUrl, 128, "guessed");
+        assertNull(otherSecret.verifyForward(arrived, bodyDigest));
+    }
+
+    @Test
+    void largeBodiesAreStreamedToTheOwnerAndTheResponseCopiedBack() throws IOException {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/goals/import");
+        request.addHeader(ClusterRouter.USER_HEADER, "alice");
+        String body = "{\"title\":\"Goal\"}\n".repeat(10_000);  // larger than the in-memory spool
+        request.setContent(body.getBytes(StandardCharsets.UTF_8));
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        try (ClusterRouter.Streamed streamed = router.streamIfRemote(remoteKey(), request, response)) {
+            assertTrue(streamed.isForwarded());
+        }
+        assertEquals(body, received.get("body"));
+        assertEquals(200, response.getStatus());
+        assertEquals("{\"title\":\"Run a marathon\"}", response.getContentAsString());
+        assertEquals("7", response.getHeader("Retry-After"));
+        assertNull(response.getHeader("Keep-Alive"));
+    }
+
+    @Test
+    void streamedBodyIsReplayedLocallyWhenTheOwnerIsUnreachable() throws IOException {
+        owner.stop(0);
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/goals/import");
+        request.setContent("{\"title\":\"Goal\"}\n".getBytes(StandardCharsets.UTF_8));
+
+        try (ClusterRouter.Streamed streamed = router.streamIfRemote(remoteKey(), request, new MockHttpServletResponse())) {
+            assertFalse(streamed.isForwarded());
+            assertEquals("{\"title\":\"Goal\"}\n",
+                    new String(streamed.request().getInputStream().readAllBytes(), StandardCharsets.UTF_8));
+        }
+    }
+
+    @Test
+    void unreachableOwnerIsHandledLocally() {
+        owner.stop(0);
+        MockHttpServletRequest request = new MockHttpServletRequest("PATCH", "/api/goals/42/subgoals/complete");
+
+        assertTrue(router.forwardTo(ownerUrl, request, null).isEmpty());
+    }
+
+    /**
+     * A routing key owned by the other node
+     */
+    private String remoteKey() {
+        for (int i = 0; ; i++) {
+            if (!router.isLocal("user:" + i)) {
+                return "user:" + i;
+            }
+        }
+    }
+
+    /**
+     * The forward the owner received, replayed with the given request line and user
+     */
+    private MockHttpServletRequest arrived(String method, String path, String userId) {
+        MockHttpServletRequest arrived = new MockHttpServletRequest(method, path);
+        arrived.addHeader(ClusterRouter.FORWARDED_HEADER, received.get("forwardedBy"));
+        arrived.addHeader(ClusterRouter.FORWARD_TIMESTAMP_HEADER, received.get("timestamp"));
+        arrived.addHeader(ClusterRouter.FORWARD_SIGNATURE_HEADER, received.get("signature"));
+        arrived.addHeader(ClusterRouter.USER_HEADER, userId);
+        return arrived;
+    }
+}
@@ -0,0 +1,63 @@
+package com.backend.goaltracker.cluster;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConsistentHashRingTest {
+
+    private static final List<String> NODES = List.of(
+            "http://localhost:8080", "http://localhost:8081", "http://localhost:8082");
+
+    @Test
+    void sameNodeListGivesSameOwnerOnEveryInstance() {
+        ConsistentHashRing a = new ConsistentHashRing(NODES, 128);
+        ConsistentHashRing b = new ConsistentHashRing(List.of(NODES.get(2), NODES.get(0), NODES.get(1)), 128);
+
+        for (int i = 0; i < 1000; i++) {
+            assertEquals(a.ownerOf("user:" + i), b.ownerOf("user:" + i));
+        }
+    }
+
+    @Test
+    void keysAreSpreadAcrossNodes() {
+        ConsistentHashRing ring = new ConsistentHashRing(NODES, 128);
+        Map<String, Integer> counts = new HashMap<>();
+        int keys = 30_000;
+        for (int i = 0; i < keys; i++) {
+            counts.merge(ring.ownerOf("prompt:goal " + i), 1, Integer::sum);
+        }
+
+        for (String node : NODES) {
+            int count = counts.getOrDefault(node, 0);
+            assertTrue(count > keys / 3 * 0.7 && count < keys / 3 * 1.3,
+                    node + " owns " + count + " keys");
+        }
+    }
+
+    @Test
+    void addingANodeOnlyMovesKeysToTheNewNode() {
+        ConsistentHashRing ring = new ConsistentHashRing(NODES, 128);
+        int keys = 10_000;
+        String[] before = new String[keys];
+        for (int i = 0; i < keys; i++) {
+            before[i] = ring.ownerOf("user:" + i);
+        }
+
+        String newNode = "http://localhost:8083";
+        ring.addNode(newNode);
+        int moved = 0;
+        for (int i = 0; i < keys; i++) {
+            String after = ring.ownerOf("user:" + i);
+            if (!after.equals(before[i])) {
+                assertEquals(newNode, after);
+                moved++;
+            }
+        }
+        assertTrue(moved > keys / 4 * 0.7 && moved < keys / 4 * 1.3, "moved " + moved + " keys");
+    }
+}
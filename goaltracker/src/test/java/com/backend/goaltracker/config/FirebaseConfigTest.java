@@ -0,0 +1,38 @@
+package com.backend.goaltracker.config;
+
+import com.backend.goaltracker.security.FirebaseTokenVerifier;
+import com.backend.goaltracker.security.SigningKeyCache;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FirebaseConfigTest {
+
+    @Test
+    void lazyModeInitializesFirebaseOnTheFirstTokenVerification() {
+        FirebaseConfig firebaseConfig = new FirebaseConfig();
+        ReflectionTestUtils.setField(firebaseConfig, "initMode", "lazy");
+        firebaseConfig.initialize();
+        assertFalse(firebaseConfig.isInitialized(), "nothing is read at startup");
+
+        SigningKeyCache keyCache = new SigningKeyCache("http://127.0.0.1:1/keys", Duration.ofHours(1), Duration.ZERO);
+        FirebaseTokenVerifier verifier = new AuthConfig().firebaseTokenVerifier(keyCache, firebaseConfig,
+                "goaltrack-test", 10);
+        assertFalse(firebaseConfig.isInitialized(), "creating the verifier does not initialize Firebase");
+
+        assertThrows(FirebaseTokenVerifier.InvalidTokenException.class, () -> verifier.verify("not-a-token"));
+        assertTrue(firebaseConfig.isInitialized());
+    }
+
+    @Test
+    void eagerModeInitializesFirebaseAtStartup() {
+        FirebaseConfig firebaseConfig = new FirebaseConfig();
+        ReflectionTestUtils.setField(firebaseConfig, "initMode", "eager");
+        firebaseConfig.initialize();
+
+        assertTrue(firebaseConfig.isInitialized());
+    }
+}
@@ -0,0 +1,246 @@
+package com.backend.goaltracker.idempotency;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IdempotencyFilterTest {
+
+    private final AtomicLong now = new AtomicLong();
+    private final AtomicInteger calls = new AtomicInteger();
+
+    @Test
+    void retryGetsTheStoredResponseWithoutRunningAgain() throws Exception {
+        IdempotencyFilter filter = filter(new IdempotencyStore(100, Duration.ofHours(1), now::get));
+        FilterChain chain = respond(201);
+
+        MockHttpServletResponse first = send(filter, generate("key-1", "Run a marathon"), chain);
+        MockHttpServletResponse retry = send(filter, generate("key-1", "Run a marathon"), chain);
+
+        assertEquals(1, calls.get());
+        assertEquals(201, retry.getStatus());
+        assertEquals(first.getContentAsString(), retry.getContentAsString());
+        assertEquals("library", retry.getHeader("X-Goaltracker-Plan-Source"));
+        assertEquals("true", retry.getHeader(IdempotencyFilter.REPLAYED_HEADER));
+        assertNull(first.getHeader(IdempotencyFilter.REPLAYED_HEADER));
+
+        // Other keys, users and requests without a key are not affected
+        send(filter, generate("key-2", "Run a marathon"), chain);
+        send(filter, generate("user-2", "key-1", "Run a marathon"), chain);
+        send(filter, generate(null, "Run a marathon"), chain);
+        assertEquals(4, calls.get());
+    }
+
+    @Test
+    void sameKeyWithADifferentBodyIsRejected() throws Exception {
+        IdempotencyFilter filter = filter(new IdempotencyStore(100, Duration.ofHours(1), now::get));
+        send(filter, generate("key-1", "Run a marathon"), respond(200));
+
+        MockHttpServletResponse reused = send(filter, generate("key-1", "Learn guitar"), respond(200));
+        assertEquals(422, reused.getStatus());
+        assertEquals("Idempotency-Key was already used with a different request",
+                new ObjectMapper().readTree(reused.getContentAsByteArray()).path("error").asText());
+        assertEquals(1, calls.get());
+    }
+
+    @Test
+    void duplicateWhileTheFirstIsRunningWaitsForItsResponse() throws Exception {
+        IdempotencyFilter filter = filter(new IdempotencyStore(100, Duration.ofHours(1), now::get));
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        FilterChain slow = (request, response) -> {
+            started.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+            respond(200).doFilter(request, response);
+        };
+
+        CompletableFuture<MockHttpServletResponse> first = CompletableFuture.supplyAsync(
+                () -> sendUnchecked(filter, generate("key-1", "Run a marathon"), slow));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        CompletableFuture<MockHttpServletResponse> duplicate = CompletableFuture.supplyAsync(
+                () -> sendUnchecked(filter, generate("key-1", "Run a marathon"), slow));
+        Thread.sleep(100);
+        assertFalse(duplicate.isDone());
+
+        release.countDown();
+        assertEquals(first.get(5, TimeUnit.SECONDS).getContentAsString(),
+                duplicate.get(5, TimeUnit.SECONDS).getContentAsString());
+        assertEquals("true", duplicate.get().getHeader(IdempotencyFilter.REPLAYED_HEADER));
+        assertEquals(1, calls.get());
+    }
+
+    @Test
+    void duplicateGets409OnceTheWaitIsOver() throws Exception {
+        IdempotencyFilter filter = new IdempotencyFilter(new IdempotencyStore(100, Duration.ofHours(1), now::get),
+                new ObjectMapper(), 4096, 50);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<MockHttpServletResponse> first = CompletableFuture.supplyAsync(
+                () -> sendUnchecked(filter, generate("key-1", "Run a marathon"), (request, response) -> {
+                    started.countDown();
+                    try {
+                        release.await();
+                    } catch (InterruptedException e) {
+                        throw new IllegalStateException(e);
+                    }
+                    respond(200).doFilter(request, response);
+                }));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        MockHttpServletResponse duplicate = send(filter, generate("key-1", "Run a marathon"), respond(200));
+        assertEquals(409, duplicate.getStatus());
+        assertNotNull(duplicate.getHeader("Retry-After"));
+
+        release.countDown();
+        assertEquals(200, first.get(5, TimeUnit.SECONDS).getStatus());
+        assertEquals(1, calls.get());
+    }
+
+    @Test
+    void theBodyCanBeReadWithAReadListener() throws Exception {
+        IdempotencyFilter filter = filter(new IdempotencyStore(100, Duration.ofHours(1), now::get));
+        ByteArrayOutputStream read = new ByteArrayOutputStream();
+        boolean[] allRead = new boolean[1];
+        FilterChain nonBlocking = (request, response) -> {
+            ServletInputStream in = request.getInputStream();
+            in.setReadListener(new ReadListener() {
+                @Override
+                public void onDataAvailable() throws IOException {
+                    byte[] buffer = new byte[8];
+                    while (in.isReady() && !in.isFinished()) {
+                        read.write(buffer, 0, in.read(buffer));
+                    }
+                }
+
+                @Override
+                public void onAllDataRead() {
+                    allRead[0] = true;
+                }
+
+                @Override
+                public void onError(Throwable t) {
+                    fail(t);
+                }
+            });
+            ((HttpServletResponse) response).setStatus(200);
+        };
+
+        assertEquals(200, send(filter, generate("key-1", "Run a marathon"), nonBlocking).getStatus());
+        assertEquals("{\"prompt\":\"Run a marathon\"}", read.toString(StandardCharsets.UTF_8));
+        assertTrue(allRead[0]);
+    }
+
+    @Test
+    void serverErrorsAndRateLimitsAreNotKept() throws Exception {
+        IdempotencyFilter filter = filter(new IdempotencyStore(100, Duration.ofHours(1), now::get));
+        assertEquals(503, send(filter, generate("key-1", "Run a marathon"), respond(503)).getStatus());
+        assertEquals(429, send(filter, generate("key-1", "Run a marathon"), respond(429)).getStatus());
+        MockHttpServletResponse retry = send(filter, generate("key-1", "Run a marathon"), respond(200));
+
+        assertEquals(200, retry.getStatus());
+        assertNull(retry.getHeader(IdempotencyFilter.REPLAYED_HEADER));
+        assertEquals(3, calls.get());
+    }
+
+    @Test
+    void keysExpireAfterTheTtlAndTheStoreStaysBounded() throws Exception {
+        IdempotencyStore store = new IdempotencyStore(3, Duration.ofMinutes(10), now::get);
+        IdempotencyFilter filter = filter(store);
+        send(filter, generate("key-1", "Run a marathon"), respond(200));
+
+        now.addAndGet(Duration.ofMinutes(11).toNanos());
+        send(filter, generate("key-1", "Run a marathon"), respond(200));
+        assertEquals(2, calls.get());
+
+        for (int i = 2; i <= 5; i++) {
+            send(filter, generate("key-" + i, "Run a marathon"), respond(200));
+        }
+        assertEquals(3, store.size());
+        assertEquals(2L, store.stats().get("evictions"));
+
+        now.addAndGet(Duration.ofMinutes(11).toNanos());
+        store.evictExpired();
+        assertEquals(0, store.size());
+    }
+
+    @Test
+    void onlyGenerateCompletionRegenerationAndDeleteAreCovered() {
+        assertTrue(IdempotencyFilter.isCovered("POST", "/api/goals/generate"));
+        assertTrue(IdempotencyFilter.isCovered("POST", "/api/goals/7/subgoals/regenerate"));
+        assertTrue(IdempotencyFilter.isCovered("PATCH", "/api/goals/7/subgoals/complete"));
+        assertTrue(IdempotencyFilter.isCovered("DELETE", "/api/goals/7"));
+        assertFalse(IdempotencyFilter.isCovered("GET", "/api/goals/7"));
+        assertFalse(IdempotencyFilter.isCovered("POST", "/api/goals/import"));
+        assertFalse(IdempotencyFilter.isCovered("DELETE", "/api/goals/jobs/abc"));
+    }
+
+    private static IdempotencyFilter filter(IdempotencyStore store) {
+        return new IdempotencyFilter(store, new ObjectMapper(), 4096, 5_000);
+    }
+
+    /**
+     * A controller stand-in that counts its calls and answers with a body naming the call
+     */
+    private FilterChain respond(int status) {
+        return (request, response) -> {
+            String body = new String(request.getInputStream().readAllBytes(), StandardCharsets.UTF_8);
+            HttpServletResponse http = (HttpServletResponse) response;
+            http.setStatus(status);
+            http.setHeader("X-Goaltracker-Plan-Source", "library");
+            http.setContentType("application/json");
+            http.getWriter().write("{\"call\":" + calls.incrementAndGet() + ",\"request\":" + body + "}");
+        };
+    }
+
+    private static MockHttpServletRequest generate(String key, String prompt) {
+        return generate("user-1", key, prompt);
+    }
+
+    private static MockHttpServletRequest generate(String user, String key, String prompt) {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/goals/generate");
+        request.addHeader("X-User-Id", user);
+        if (key != null) {
+            request.addHeader(IdempotencyFilter.KEY_HEADER, key);
+        }
+        request.setContentType("application/json");
+        request.setContent(("{\"prompt\":\"" + prompt + "\"}").getBytes(StandardCharsets.UTF_8));
+        return request;
+    }
+
+    private static MockHttpServletResponse send(IdempotencyFilter filter, MockHttpServletRequest request,
+                                                FilterChain chain) throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, chain);
+        return response;
+    }
+
+    private static MockHttpServletResponse sendUnchecked(IdempotencyFilter filter, MockHttpServletRequest request,
+                                                         FilterChain chain) {
+        try {
+            return send(filter, request, chain);
+        } catch (Exception e) {
+            throw new RuntimeException(e);
+        }
+    }
+}
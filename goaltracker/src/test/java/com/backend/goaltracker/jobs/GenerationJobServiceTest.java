@@ -0,0 +1,200 @@
+package com.backend.goaltracker.jobs;
+
+import com.backend.goaltracker.scheduler.Lane;
+import com.backend.goaltracker.service.GenerationOutcome;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GenerationJobServiceTest {
+
+    /**
+     * Clock the test moves by hand
+     */
+    private static final class ManualClock extends Clock {
+        Instant now = Instant.parse("2026-03-04T10:00:00Z");
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+
+    private static final long TTL_MILLIS = TimeUnit.MINUTES.toMillis(60);
+
+    @TempDir
+    Path dir;
+
+    private final ManualClock clock = new ManualClock();
+    private final List<String> generated = new ArrayList<>();
+    private final CountDownLatch release = new CountDownLatch(1);
+    private GenerationJobService service;
+
+    @AfterEach
+    void stopService() {
+        if (service != null) {
+            service.stop();
+        }
+    }
+
+    private GenerationJobService service(String node, int maxPending) {
+        service = new GenerationJobService((prompt, userId, lane) -> {
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            synchronized (generated) {
+                generated.add(prompt);
+            }
+            return new GenerationOutcome(200, Map.of("title", prompt, "deadline", LocalDate.of(2026, 5, 1)),
+                    "generated", null);
+        }, new GenerationJobStore(dir), node, 2, maxPending, TTL_MILLIS, clock);
+        return service;
+    }
+
+    @Test
+    void jobIsAcceptedBeforeTheGenerationRunsAndKeepsItsResult() throws Exception {
+        GenerationJobService jobs = service("http://node-a", 10);
+        jobs.start();
+
+        GenerationJob job = jobs.submit("run a marathon", "alice", Lane.INTERACTIVE);
+        assertEquals(GenerationJob.State.PENDING, job.getState());
+        assertFalse(jobs.whenDone(job).isDone());
+
+        release.countDown();
+        GenerationJob done = jobs.whenDone(job).get(5, TimeUnit.SECONDS);
+        assertEquals(GenerationJob.State.DONE, done.getState());
+        assertEquals(200, done.getStatus());
+        assertEquals("run a marathon", done.getBody().path("title").asText());
+        assertEquals("2026-05-01", done.getBody().path("deadline").asText());
+        assertEquals("generated", done.getPlanSource());
+
+        // A client that lost its connection finds the result again, also in the job file
+        assertTrue(jobs.whenDone(jobs.find(job.getId())).isDone());
+        GenerationJob stored = new GenerationJobStore(dir).read(job.getId());
+        assertEquals(GenerationJob.State.DONE, stored.getState());
+        assertEquals("run a marathon", stored.getBody().path("title").asText());
+    }
+
+    @Test
+    void aJobThatCannotBeStoredFailsWithoutStoppingItsWorker() throws Exception {
+        // Only the third job can be stored once queued, so both workers hit the error first
+        GenerationJobStore failing = new GenerationJobStore(dir) {
+            @Override
+            public void write(GenerationJob job) {
+                if (job.getState() != GenerationJob.State.PENDING && !"third".equals(job.getPrompt())) {
+                    throw new UncheckedIOException(new IOException("disk full"));
+                }
+                super.write(job);
+            }
+        };
+        service = new GenerationJobService((prompt, userId, lane) -> new GenerationOutcome(200, Map.of("title", prompt),
+                "generated", null), failing, "http://node-a", 2, 10, TTL_MILLIS, clock);
+        service.start();
+
+        GenerationJob first = service.submit("first", "alice", Lane.INTERACTIVE);
+        GenerationJob second = service.submit("second", "alice", Lane.INTERACTIVE);
+        GenerationJob failed = service.whenDone(first).get(5, TimeUnit.SECONDS);
+        assertEquals(GenerationJob.State.FAILED, failed.getState());
+        assertEquals(500, failed.getStatus());
+        assertEquals(GenerationJob.State.FAILED, service.whenDone(second).get(5, TimeUnit.SECONDS).getState());
+
+        GenerationJob third = service.submit("third", "alice", Lane.INTERACTIVE);
+        assertEquals(200, service.whenDone(third).get(5, TimeUnit.SECONDS).getStatus());
+    }
+
+    @Test
+    void unfinishedJobsOfThisNodeRunAgainAfterARestart() throws Exception {
+        GenerationJobStore store = new GenerationJobStore(dir);
+        store.write(job("interrupted", "http://node-a", GenerationJob.State.RUNNING, 1));
+        store.write(job("queued", "http://node-a", GenerationJob.State.PENDING, 0));
+        store.write(job("other-node", "http://node-b", GenerationJob.State.PENDING, 0));
+
+        GenerationJobService jobs = service("http://node-a", 10);
+        jobs.start();
+        release.countDown();
+
+        GenerationJob interrupted = jobs.whenDone(jobs.find("interrupted")).get(5, TimeUnit.SECONDS);
+        assertEquals(2, interrupted.getAttempts());
+        assertEquals(GenerationJob.State.DONE, jobs.whenDone(jobs.find("queued")).get(5, TimeUnit.SECONDS).getState());
+
+        assertEquals(GenerationJob.State.PENDING, store.read("other-node").getState());
+        synchronized (generated) {
+            assertFalse(generated.contains("prompt of other-node"));
+        }
+    }
+
+    @Test
+    void resultsExpireAfterTheTtl() throws Exception {
+        GenerationJobService jobs = service("http://node-a", 10);
+        jobs.start();
+        release.countDown();
+        GenerationJob job = jobs.submit("learn guitar", null, Lane.BATCH);
+        jobs.whenDone(job).get(5, TimeUnit.SECONDS);
+
+        clock.now = clock.now.plus(Duration.ofMinutes(59));
+        jobs.removeExpired();
+        assertNotNull(jobs.find(job.getId()));
+
+        clock.now = clock.now.plus(Duration.ofMinutes(1));
+        assertNull(jobs.find(job.getId()), "expired results are not served even before the sweep");
+        jobs.removeExpired();
+        assertNull(new GenerationJobStore(dir).read(job.getId()));
+    }
+
+    @Test
+    void pendingJobsAreBounded() {
+        GenerationJobService jobs = service("http://node-a", 2);   // not started: nothing finishes
+        assertNotNull(jobs.submit("one", null, Lane.BATCH));
+        assertNotNull(jobs.submit("two", null, Lane.BATCH));
+        assertNull(jobs.submit("three", null, Lane.BATCH));
+    }
+
+    @Test
+    void recognizesThePreferHeader() {
+        assertTrue(GenerationJobService.prefersAsync("respond-async"));
+        assertTrue(GenerationJobService.prefersAsync("return=minimal, Respond-Async"));
+        assertFalse(GenerationJobService.prefersAsync("return=representation"));
+        assertFalse(GenerationJobService.prefersAsync(null));
+    }
+
+    private GenerationJob job(String id, String node, GenerationJob.State state, int attempts) {
+        GenerationJob job = new GenerationJob();
+        job.setId(id);
+        job.setNode(node);
+        job.setPrompt("prompt of " + id);
+        job.setLane(Lane.INTERACTIVE);
+        job.setState(state);
+        job.setAttempts(attempts);
+        job.setCreatedAt(clock.millis());
+        return job;
+    }
+}
@@ -0,0 +1,143 @@
+package com.backend.goaltracker.library;
+
+import entities.GoalResponseDTO;
+import entities.SubgoalDTO;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PlanLibraryTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void paraphrasesOfCommonGoalsAreClassified() throws IOException {
+        PromptClassifier classifier = library(true).classifier();
+
+        assertCategory(classifier, "running", "I want to run my first 5k");
+        assertCategory(classifier, "marathon", "help me train for a marathon");
+        assertCategory(classifier, "marathon", "run a marathon");
+        assertCategory(classifier, "half-marathon", "train for a half marathon");
+        assertCategory(classifier, "language-learning", "learn spanish");
+        assertCategory(classifier, "saving-money", "save money for a house deposit");
+        assertCategory(classifier, "musical-instrument", "learn to play guitar");
+        assertCategory(classifier, "learning-to-code", "learn python programming");
+        assertCategory(classifier, "quit-smoking", "I want to stop smoking");
+    }
+
+    @Test
+    void unrelatedAndMixedPromptsFallThroughToTheModel() throws IOException {
+        PromptClassifier classifier = library(true).classifier();
+
+        assertFalse(classifier.classify("renovate the attic into a home office").isConfident(0.6, 0.25));
+        assertFalse(classifier.classify("please help me").isConfident(0.6, 0.25));   // nothing but stop words
+        assertFalse(classifier.classify("run a marathon and learn spanish").isConfident(0.6, 0.25));
+        assertFalse(classifier.classify("run 10k without stopping").isConfident(0.6, 0.25),
+                "a 10k is neither the 5k nor a marathon plan");
+    }
+
+    @Test
+    void servesPlansOnlyWhenEnabledAndGenerated() throws IOException {
+        PlanLibrary library = library(true);
+        assertTrue(library.match("run a 5k").isEmpty());   // no plan yet
+
+        library.refresh(prompt -> plan(prompt, 42), false);
+        Optional<PlanLibrary.LibraryMatch> match = library.match("run a 5k");
+        assertTrue(match.isPresent());
+        assertEquals("running", match.get().category);
+        assertEquals("Start running regularly and finish a 5k race", match.get().plan.title);
+        assertTrue(library.match("renovate the attic").isEmpty());
+
+        match.get().plan.subgoals.clear();   // served plans are copies
+        assertEquals(2, library.match("run a 5k").get().plan.subgoals.size());
+
+        PlanLibrary disabled = new PlanLibrary(false, seeds(), dir.resolve("library.json"), 0.6, 0.25);
+        assertTrue(disabled.match("run a 5k").isEmpty());
+        assertEquals(2L, library.stats().get("hits"));
+    }
+
+    @Test
+    void refreshedPlansSurviveARestartAndFailuresKeepOldPlans() throws IOException {
+        PlanLibrary library = library(true);
+        int categories = seeds().size();
+        assertEquals(categories, library.refresh(prompt -> plan(prompt, 30), false));
+
+        AtomicInteger calls = new AtomicInteger();
+        assertEquals(0, library.refresh(prompt -> {
+            calls.incrementAndGet();
+            throw new IllegalStateException("Gemini unavailable");
+        }, false));
+        assertEquals(categories, calls.get());
+        assertTrue(library.match("learn spanish").isPresent());
+
+        PlanLibrary restarted = library(true);
+        assertEquals((long) categories, restarted.stats().get("categoriesWithPlans"));
+        assertEquals(0, restarted.refresh(prompt -> fail("nothing is missing"), true));
+        assertTrue(restarted.match("learn spanish").isPresent());
+    }
+
+    @Test
+    void otherNodesReloadTheSharedLibraryWhenItChanges() throws IOException {
+        PlanLibrary owner = library(true);
+        PlanLibrary other = library(true);
+        assertFalse(other.reloadIfChanged());
+
+        owner.refresh(prompt -> plan(prompt, 30), false);
+        assertFalse(owner.reloadIfChanged(), "the node that saved the file already has its plans");
+        assertTrue(other.match("learn spanish").isEmpty());
+
+        assertTrue(other.reloadIfChanged());
+        assertEquals("Learn a new language to conversational level", other.match("learn spanish").get().plan.title);
+        assertFalse(other.reloadIfChanged());
+    }
+
+    @Test
+    void deadlineIsCountedFromTheDayThePlanIsServed() throws IOException {
+        PlanLibrary library = library(true);
+        library.refresh(prompt -> plan(prompt, 90), false);
+
+        assertEquals(LocalDate.now().plusDays(90).toString(), library.match("lose 10 pounds").get().plan.deadline);
+    }
+
+    private PlanLibrary library(boolean enabled) throws IOException {
+        return new PlanLibrary(enabled, seeds(), dir.resolve("library.json"), 0.6, 0.25);
+    }
+
+    private static List<PlanCategory> seeds() throws IOException {
+        return PlanLibrary.readCategories(PlanLibraryTest.class.getResourceAsStream("/plan-library/categories.json"));
+    }
+
+    private static void assertCategory(PromptClassifier classifier, String category, String prompt) {
+        PromptClassifier.Classification classification = classifier.classify(prompt);
+        assertEquals(category, classification.category, prompt);
+        assertTrue(classification.isConfident(0.6, 0.25),
+                prompt + ": " + classification.score + " vs " + classification.runnerUpScore);
+    }
+
+    private static GoalResponseDTO plan(String prompt, int deadlineDays) {
+        GoalResponseDTO plan = new GoalResponseDTO();
+        plan.id = "1";
+        plan.title = prompt;
+        plan.description = "Plan for " + prompt;
+        plan.deadline = LocalDate.now().plusDays(deadlineDays).toString();
+        plan.subgoals = new ArrayList<>();
+        for (int i = 1; i <= 2; i++) {
+            SubgoalDTO subgoal = new SubgoalDTO();
+            subgoal.id = String.valueOf(i);
+            subgoal.title = "Step " + i;
+            subgoal.description = "Step " + i + " of " + prompt;
+            plan.subgoals.add(subgoal);
+        }
+        return plan;
+    }
+}
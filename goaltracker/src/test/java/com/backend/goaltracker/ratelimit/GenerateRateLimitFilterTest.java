@@ -0,0 +1,82 @@
+package com.backend.goaltracker.ratelimit;
+
+import com.backend.goaltracker.cluster.ClusterRouter;
+import com.backend.goaltracker.cluster.ForwardedRequestFilter;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GenerateRateLimitFilterTest {
+
+    private static final String SELF = "http://localhost:8080";
+    private static final String OTHER = "http://localhost:8081";
+
+    private final ClusterRouter router = new ClusterRouter(true, SELF, SELF + "," + OTHER, 128, "cluster-secret");
+    private final GenerateRateLimitFilter filter = new GenerateRateLimitFilter(
+            new TokenBucketRateLimiter(1, 0.001, 10, TimeUnit.MINUTES, System::nanoTime),
+            new TokenBucketRateLimiter(100, 0.001, 10, TimeUnit.MINUTES, System::nanoTime),
+            router);
+    private final AtomicInteger served = new AtomicInteger();
+
+    private MockHttpServletResponse generate(MockHttpServletRequest request) throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        new ForwardedRequestFilter(router).doFilter(request, response,
+                (req, res) -> filter.doFilter(req, res, (innerReq, innerRes) -> served.incrementAndGet()));
+        return response;
+    }
+
+    private static MockHttpServletRequest request() {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/goals/generate");
+        request.addHeader(ClusterRouter.USER_HEADER, "alice");
+        return request;
+    }
+
+    @Test
+    void aUserOverTheLimitGets429() throws Exception {
+        assertEquals(200, generate(request()).getStatus());
+        MockHttpServletResponse limited = generate(request());
+
+        assertEquals(429, limited.getStatus());
+        assertNotNull(limited.getHeader("Retry-After"));
+        assertEquals(1, served.get());
+    }
+
+    @Test
+    void aSpoofedForwardedHeaderDoesNotSkipTheLimit() throws Exception {
+        assertEquals(200, generate(request()).getStatus());
+
+        MockHttpServletRequest spoofed = request();
+        spoofed.addHeader(ClusterRouter.FORWARDED_HEADER, OTHER);
+        spoofed.addHeader(ClusterRouter.FORWARD_TIMESTAMP_HEADER, Long.toString(System.currentTimeMillis()));
+        spoofed.addHeader(ClusterRouter.FORWARD_SIGNATURE_HEADER, "00".repeat(32));
+
+        assertEquals(429, generate(spoofed).getStatus());
+        assertNull(spoofed.getAttribute(ClusterRouter.FORWARDED_ATTRIBUTE));
+        assertEquals(1, served.get());
+    }
+
+    @Test
+    void verifiedForwardsWereLimitedOnTheFirstNode() throws Exception {
+        assertEquals(200, generate(request()).getStatus());
+
+        MockHttpServletRequest forwarded = request();
+        forwarded.setAttribute(ClusterRouter.FORWARDED_ATTRIBUTE, OTHER);
+        assertEquals(200, generate(forwarded).getStatus());
+        assertEquals(2, served.get());
+    }
+
+    @Test
+    void spanUploadsHaveTheirOwnPerIpLimit() throws Exception {
+        for (int i = 0; i < 100; i++) {
+            assertEquals(200, generate(new MockHttpServletRequest("POST", "/api/traces/spans")).getStatus());
+        }
+        assertEquals(429, generate(new MockHttpServletRequest("POST", "/api/traces/spans")).getStatus());
+
+        assertEquals(200, generate(request()).getStatus(), "uploads do not use up the generate limit");
+    }
+}
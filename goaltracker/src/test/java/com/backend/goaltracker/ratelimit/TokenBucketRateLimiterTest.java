@@ -0,0 +1,70 @@
+package com.backend.goaltracker.ratelimit;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TokenBucketRateLimiterTest {
+
+    private final AtomicLong now = new AtomicLong(1_000_000_000L);
+
+    private TokenBucketRateLimiter limiter(int burst, double refillPerSecond) {
+        return new TokenBucketRateLimiter(burst, refillPerSecond, 10, TimeUnit.MINUTES, now::get);
+    }
+
+    @Test
+    void allowsBurstThenRejectsWithRetryAfter() {
+        TokenBucketRateLimiter limiter = limiter(3, 1.0);
+
+        for (int i = 0; i < 3; i++) {
+            assertEquals(0, limiter.tryAcquire("user-1"));
+        }
+        long wait = limiter.tryAcquire("user-1");
+        assertEquals(TimeUnit.SECONDS.toNanos(1), wait);
+    }
+
+    @Test
+    void refillsAtConfiguredRate() {
+        TokenBucketRateLimiter limiter = limiter(2, 2.0);
+        assertEquals(0, limiter.tryAcquire("ip"));
+        assertEquals(0, limiter.tryAcquire("ip"));
+        assertTrue(limiter.tryAcquire("ip") > 0);
+
+        now.addAndGet(TimeUnit.MILLISECONDS.toNanos(500));
+        assertEquals(0, limiter.tryAcquire("ip"));
+        assertTrue(limiter.tryAcquire("ip") > 0);
+    }
+
+    @Test
+    void keysAreIndependent() {
+        TokenBucketRateLimiter limiter = limiter(1, 1.0);
+        assertEquals(0, limiter.tryAcquire("a"));
+        assertTrue(limiter.tryAcquire("a") > 0);
+        assertEquals(0, limiter.tryAcquire("b"));
+    }
+
+    @Test
+    void refundReturnsAToken() {
+        TokenBucketRateLimiter limiter = limiter(1, 1.0);
+        assertEquals(0, limiter.tryAcquire("a"));
+        limiter.refund("a");
+        assertEquals(0, limiter.tryAcquire("a"));
+    }
+
+    @Test
+    void evictsOnlyBucketsThatAreFullAndIdle() {
+        TokenBucketRateLimiter limiter = limiter(1, 1.0 / 3600);  // one token per hour
+        limiter.tryAcquire("idle");                              // full again after 60 minutes
+        now.addAndGet(TimeUnit.MINUTES.toNanos(65));
+        limiter.tryAcquire("busy");                              // still refilling for 60 minutes
+        now.addAndGet(TimeUnit.MINUTES.toNanos(10));
+
+        // "idle" has been full for 15 minutes, past the 10 minute timeout
+        assertEquals(1, limiter.evictIdle());
+        assertEquals(1, limiter.size());
+        assertTrue(limiter.tryAcquire("busy") > 0, "non-evicted bucket keeps its state");
+    }
+}
@@ -0,0 +1,204 @@
+package com.backend.goaltracker.reminder;
+
+import com.backend.goaltracker.cluster.ClusterRouter;
+import com.backend.goaltracker.store.GoalChangedEvent;
+import com.backend.goaltracker.store.InMemoryGoalStore;
+import entities.Goal;
+import entities.Subgoal;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DeadlineReminderServiceTest {
+
+    private static final Instant START = Instant.parse("2026-03-01T12:00:00Z");
+
+    /**
+     * Clock the test moves by hand
+     */
+    private static final class ManualClock extends Clock {
+        Instant now = START;
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+
+    private static final ClusterRouter SINGLE_NODE = new ClusterRouter(false, "http://localhost:8080", "", 128, "");
+
+    private final ManualClock clock = new ManualClock();
+    private final InMemoryReminderSink sink = new InMemoryReminderSink();
+    private InMemoryGoalStore store;
+    private DeadlineReminderService reminders;
+
+    @BeforeEach
+    void setUp() {
+        // The store delivers its change events straight to the service, like Spring would
+        store = new InMemoryGoalStore(event -> reminders.onGoalChanged((GoalChangedEvent) event));
+        reminders = new DeadlineReminderService(store, sink, SINGLE_NODE, clock, Duration.ofMinutes(1),
+                Duration.ofHours(24), ZoneOffset.UTC);
+    }
+
+    private Goal insert(String title, LocalDate deadline) {
+        Goal goal = new Goal(title, "", deadline);
+        goal.addSubgoal(new Subgoal("step", ""));
+        return store.insert(goal);
+    }
+
+    private void advance(Duration duration) {
+        // Tick once per simulated hour, as the scheduler would (just less often)
+        Instant end = clock.now.plus(duration);
+        while (clock.now.isBefore(end)) {
+            clock.now = clock.now.plus(Duration.ofHours(1));
+            reminders.tick();
+        }
+    }
+
+    private List<String> fired() {
+        return sink.events().stream()
+                .map(e -> e.getType() + ":" + e.getTitle())
+                .collect(Collectors.toList());
+    }
+
+    @Test
+    void firesDueSoonThenOverdue() {
+        insert("Write thesis", LocalDate.of(2026, 3, 5));  // overdue at 2026-03-06T00:00Z
+
+        advance(Duration.ofHours(83));
+        assertTrue(fired().isEmpty());
+
+        advance(Duration.ofHours(1));  // 2026-03-05T00:00Z, 24h before the end of the day
+        assertEquals(List.of("DUE_SOON:Write thesis"), fired());
+
+        advance(Duration.ofHours(24));
+        assertEquals(List.of("DUE_SOON:Write thesis", "OVERDUE:Write thesis"), fired());
+        assertEquals(0, reminders.pendingReminders());
+    }
+
+    @Test
+    void deletedAndCompletedGoalsAreNotReminded() {
+        Goal deleted = insert("Deleted", LocalDate.of(2026, 3, 3));
+        Goal completed = insert("Completed", LocalDate.of(2026, 3, 3));
+        insert("Kept", LocalDate.of(2026, 3, 3));
+        assertEquals(6, reminders.pendingReminders());
+
+        store.delete(deleted.getId());
+        completed.completeSubgoal("step");
+        store.update(completed);
+        assertEquals(2, reminders.pendingReminders());
+
+        advance(Duration.ofDays(5));
+        assertEquals(List.of("DUE_SOON:Kept", "OVERDUE:Kept"), fired());
+    }
+
+    @Test
+    void newGoalInsideTheWindowIsRemindedImmediately() {
+        insert("Tomorrow", LocalDate.of(2026, 3, 1));
+
+        advance(Duration.ofHours(1));
+        assertEquals(List.of("DUE_SOON:Tomorrow"), fired());
+    }
+
+    @Test
+    void rebuildSchedulesOnlyFutureRemindersFromTheStore() {
+        insert("Soon", LocalDate.of(2026, 3, 1));
+        insert("Later", LocalDate.of(2026, 3, 10));
+
+        // Simulate a restart: a fresh service that has not seen any events
+        DeadlineReminderService restarted = new DeadlineReminderService(store, sink, SINGLE_NODE, clock,
+                Duration.ofMinutes(1), Duration.ofHours(24), ZoneOffset.UTC);
+        restarted.rebuild();
+        assertEquals(3, restarted.pendingReminders());  // "Soon" is already past its due-soon time
+    }
+
+    @Test
+    void inClusterModeEachGoalIsScheduledOnlyByItsOwner() {
+        String nodes = "http://node-a:8080,http://node-b:8080";
+        for (int i = 0; i < 40; i++) {
+            Goal goal = new Goal("Goal " + i, "", LocalDate.of(2026, 3, 10));
+            goal.setOwnerId(i % 4 == 0 ? null : "user-" + i);
+            store.insert(goal);
+        }
+
+        int scheduled = 0;
+        for (String self : nodes.split(",")) {
+            DeadlineReminderService node = new DeadlineReminderService(store, sink,
+                    new ClusterRouter(true, self, nodes, 128, "secret"), clock,
+                    Duration.ofMinutes(1), Duration.ofHours(24), ZoneOffset.UTC);
+            node.rebuild();
+            assertTrue(node.pendingReminders() < 80, "a node does not schedule every goal");
+            scheduled += node.pendingReminders();
+        }
+        assertEquals(80, scheduled, "every goal is scheduled once across the cluster");
+    }
+
+    @Test
+    void inClusterModeGoalsCreatedOnAnotherNodeAreScheduledByTheirOwner() {
+        String nodes = "http://node-a:8080,http://node-b:8080";
+        DeadlineReminderService[] cluster = new DeadlineReminderService[2];
+        // Like FileGoalStore, the shared store only tells the node that made the change (node a)
+        InMemoryGoalStore shared = new InMemoryGoalStore(event -> cluster[0].onGoalChanged((GoalChangedEvent) event));
+        for (int i = 0; i < 2; i++) {
+            cluster[i] = new DeadlineReminderService(shared, sink,
+                    new ClusterRouter(true, nodes.split(",")[i], nodes, 128, "secret"), clock,
+                    Duration.ofMinutes(1), Duration.ofHours(24), ZoneOffset.UTC);
+            cluster[i].rebuild();
+        }
+
+        for (int i = 0; i < 40; i++) {
+            Goal goal = new Goal("Goal " + i, "", LocalDate.of(2026, 3, 10));
+            goal.setOwnerId(i % 4 == 0 ? null : "user-" + i);
+            shared.insert(goal);
+        }
+        assertEquals(0, cluster[1].pendingReminders());
+
+        cluster[0].tick();
+        cluster[1].tick();
+        assertTrue(cluster[1].pendingReminders() > 0, "node b picks up the goals it owns");
+        assertEquals(80, cluster[0].pendingReminders() + cluster[1].pendingReminders(),
+                "every goal is scheduled once across the cluster");
+    }
+
+    @Test
+    void remindersCarryTheOwner() {
+        Goal goal = new Goal("Owned", "", LocalDate.of(2026, 3, 1));
+        goal.addSubgoal(new Subgoal("step", ""));
+        goal.setOwnerId("user-7");
+        store.insert(goal);
+
+        advance(Duration.ofHours(1));
+        assertEquals("user-7", sink.events().get(0).getOwnerId());
+    }
+
+    @Test
+    void changingTheDeadlineReschedules() {
+        Goal goal = insert("Moved", LocalDate.of(2026, 3, 3));
+        goal.setDeadline(LocalDate.of(2026, 4, 1));
+        store.update(goal);
+
+        advance(Duration.ofDays(5));
+        assertTrue(fired().isEmpty());
+        assertEquals(2, reminders.pendingReminders());
+    }
+}
@@ -0,0 +1,70 @@
+package com.backend.goaltracker.reminder;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HierarchicalTimingWheelTest {
+
+    // 8 slots per level, 3 levels: 512 ticks before the overflow path kicks in
+    private static HierarchicalTimingWheel<Long> wheel() {
+        return new HierarchicalTimingWheel<>(10, 3, 3, 0);
+    }
+
+    @Test
+    void firesEveryTimerAtItsTickAcrossAllLevels() {
+        HierarchicalTimingWheel<Long> wheel = wheel();
+        Random random = new Random(7);
+        for (int i = 0; i < 5_000; i++) {
+            long deadline = 1 + random.nextInt(20_000);  // up to 2000 ticks, beyond the 512-tick range
+            wheel.schedule(deadline, deadline);
+        }
+
+        List<Long> fired = new ArrayList<>();
+        for (long now = 0; now <= 20_000; now += 10) {
+            long current = now;
+            wheel.advanceTo(now, deadline -> {
+                assertTrue(deadline <= current, "fired early: " + deadline + " at " + current);
+                assertTrue(deadline > current - 10, "fired late: " + deadline + " at " + current);
+                fired.add(deadline);
+            });
+        }
+
+        assertEquals(5_000, fired.size());
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void cancelledTimersNeverFire() {
+        HierarchicalTimingWheel<Long> wheel = wheel();
+        HierarchicalTimingWheel.Timer<Long> near = wheel.schedule(50, 50L);
+        HierarchicalTimingWheel.Timer<Long> far = wheel.schedule(3_000, 3_000L);
+        wheel.schedule(3_010, 3_010L);
+
+        assertTrue(wheel.cancel(near));
+        assertTrue(wheel.cancel(far));
+        assertFalse(wheel.cancel(far));
+        assertFalse(far.isPending());
+
+        List<Long> fired = new ArrayList<>();
+        wheel.advanceTo(10_000, fired::add);
+        assertEquals(List.of(3_010L), fired);
+    }
+
+    @Test
+    void overdueDeadlinesFireOnTheNextTick() {
+        HierarchicalTimingWheel<Long> wheel = wheel();
+        wheel.advanceTo(1_000, deadline -> fail());
+        wheel.schedule(200, 200L);
+
+        List<Long> fired = new ArrayList<>();
+        wheel.advanceTo(1_005, fired::add);
+        assertTrue(fired.isEmpty());
+        wheel.advanceTo(1_010, fired::add);
+        assertEquals(List.of(200L), fired);
+    }
+}
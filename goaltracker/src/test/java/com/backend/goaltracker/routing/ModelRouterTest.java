@@ -0,0 +1,126 @@
+package com.backend.goaltracker.routing;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpEntity;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.RestClientException;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ModelRouterTest {
+
+    private FakeModelServer fast;
+    private FakeModelServer quality;
+
+    @BeforeEach
+    void startModels() throws IOException {
+        fast = new FakeModelServer("fast");
+        quality = new FakeModelServer("quality");
+    }
+
+    @AfterEach
+    void stopModels() {
+        fast.close();
+        quality.close();
+    }
+
+    @Test
+    void shortPromptsGoToTheFastestModelAndLongOnesToTheCapableOne() {
+        quality.setDelayMs(150);
+        ModelRouter router = router(Duration.ofSeconds(5));
+
+        // Each model is tried once to measure it, then the faster one wins
+        assertEquals("fast", post(router, 50));
+        assertEquals("quality", post(router, 50));
+        assertEquals("fast", post(router, 50));
+        assertEquals("fast", post(router, 50));
+
+        assertEquals("quality", post(router, 500));   // too long for the small model
+        assertEquals(2, quality.requestCount());
+    }
+
+    @Test
+    void timeoutFallsBackAndSlowModelIsAvoidedAfterwards() {
+        fast.setDelayMs(1_000);
+        ModelRouter router = router(Duration.ofMillis(200));
+
+        assertEquals("quality", post(router, 50));
+        assertEquals("quality", post(router, 50));
+        assertEquals(1, fast.requestCount());
+
+        Map<String, Object> fastStats = stats(router, "fast");
+        assertEquals(1L, fastStats.get("timeouts"));
+        assertEquals(1L, fastStats.get("fallbacks"));
+        assertEquals(1L, ((Map<?, ?>) fastStats.get("latencyHistogramMs")).get("250"));
+        assertEquals(2L, stats(router, "quality").get("calls"));
+    }
+
+    @Test
+    void serverErrorsFallBackButBadRequestsDoNot() {
+        fast.setStatus(503);
+        ModelRouter router = router(Duration.ofSeconds(5));
+        assertEquals("quality", post(router, 50));
+        assertEquals(false, stats(router, "fast").get("healthy"));
+
+        fast.setStatus(200);
+        quality.setStatus(400);
+        HttpClientErrorException error = assertThrows(HttpClientErrorException.class, () -> post(router, 500));
+        assertEquals(400, error.getStatusCode().value());
+        assertEquals(1, fast.requestCount());   // not retried elsewhere
+    }
+
+    @Test
+    void failingModelIsRetriedAfterItsCooldown() {
+        fast.setStatus(500);
+        quality.setStatus(500);
+        ModelRouter router = new ModelRouter(endpoints(Duration.ofSeconds(5)), 0.5, 0.4, Duration.ZERO);
+        assertThrows(RestClientException.class, () -> post(router, 50));
+
+        fast.setStatus(200);
+        assertEquals("fast", post(router, 50));
+        assertEquals(2L, stats(router, "fast").get("calls"));
+    }
+
+    @Test
+    void attemptsStopAtTheCallersDeadline() {
+        fast.setDelayMs(1_000);
+        ModelRouter router = router(Duration.ofSeconds(5));
+
+        long start = System.nanoTime();
+        assertThrows(RestClientException.class,
+                () -> CallDeadline.within(Duration.ofMillis(300).toNanos(), () -> post(router, 50)));
+        assertTrue(System.nanoTime() - start < Duration.ofMillis(900).toNanos(), "the 5 s model timeout was not used");
+        assertEquals(0, quality.requestCount(), "no fallback once the deadline has passed");
+        assertEquals(true, stats(router, "fast").get("healthy"), "a deadline cut is not the model's fault");
+
+        assertThrows(RestClientException.class, () -> CallDeadline.within(-1, () -> post(router, 50)));
+        assertEquals(1, fast.requestCount());
+    }
+
+    private ModelRouter router(Duration timeout) {
+        return new ModelRouter(endpoints(timeout), 0.5, 0.4, Duration.ofMinutes(1));
+    }
+
+    private List<ModelEndpoint> endpoints(Duration timeout) {
+        return List.of(new ModelEndpoint("fast", fast.url(), "", 100, timeout),
+                new ModelEndpoint("quality", quality.url(), "", 0, timeout));
+    }
+
+    private static String post(ModelRouter router, int promptChars) {
+        ModelRouter.Reply reply = router.post(promptChars, new HttpEntity<>(Map.of("prompt", "x".repeat(promptChars))));
+        assertTrue(reply.response.getBody().contains(reply.model));
+        return reply.model;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> stats(ModelRouter router, String model) {
+        return (Map<String, Object>) router.stats().get(model);
+    }
+}
@@ -0,0 +1,210 @@
+package com.backend.goaltracker.scheduler;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GenerationSchedulerTest {
+
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    private final List<String> dropped = new ArrayList<>();
+    private final WeightedFairQueue<String> queue = new WeightedFairQueue<>(6,
+            (item, lane, reason) -> dropped.add(item + ":" + reason));
+    private GenerationScheduler scheduler;
+
+    @AfterEach
+    void stopScheduler() {
+        if (scheduler != null) {
+            scheduler.stop();
+        }
+    }
+
+    private String poll() {
+        return queue.poll(0, 0, lane -> true);
+    }
+
+    // ================== QUEUE ==================
+
+    @Test
+    void usersInTheSameLaneAreServedInTurn() {
+        for (int i = 0; i < 3; i++) {
+            queue.offer(Lane.BATCH, "alice", SECOND, 0, "alice" + i);
+        }
+        queue.offer(Lane.BATCH, "bob", SECOND, 0, "bob0");
+        queue.offer(Lane.BATCH, "bob", SECOND, 0, "bob1");
+
+        List<String> order = new ArrayList<>();
+        for (String next = poll(); next != null; next = poll()) {
+            order.add(next);
+        }
+        assertEquals(List.of("alice0", "bob0", "alice1", "bob1", "alice2"), order);
+    }
+
+    @Test
+    void interactiveRequestsOvertakeABatchBacklog() {
+        for (int i = 0; i < 4; i++) {
+            queue.offer(Lane.BATCH, "importer", SECOND, 0, "batch" + i);
+        }
+        assertEquals("batch0", poll());
+
+        queue.offer(Lane.INTERACTIVE, "alice", SECOND, 0, "alice");
+        queue.offer(Lane.RETRY, "bob", SECOND, 0, "bob");
+        assertEquals("alice", poll());
+        assertEquals("bob", poll());
+        assertEquals("batch1", poll());
+    }
+
+    @Test
+    void fullQueueEvictsTheNewestLowerPriorityRequest() {
+        for (int i = 0; i < 5; i++) {
+            queue.offer(Lane.BATCH, "importer", SECOND, 0, "batch" + i);
+        }
+        assertTrue(queue.offer(Lane.RETRY, "bob", SECOND, 0, "retry"));
+
+        assertTrue(queue.offer(Lane.INTERACTIVE, "alice", SECOND, 0, "alice"));
+        assertEquals(List.of("batch4:EVICTED"), dropped);
+        assertEquals(4, queue.size(Lane.BATCH));
+
+        assertFalse(queue.offer(Lane.BATCH, "importer", SECOND, 0, "batch5"), "nothing below batch to evict");
+        assertEquals(6, queue.size());
+    }
+
+    @Test
+    void requestsThatCannotFinishInTimeAreDropped() {
+        queue.offer(Lane.INTERACTIVE, "alice", 10 * SECOND, 0, "soon");
+        queue.offer(Lane.INTERACTIVE, "bob", 30 * SECOND, 0, "later");
+
+        // 8 s in, with Gemini calls taking 3 s: "soon" would answer after its deadline
+        assertEquals("later", queue.poll(8 * SECOND, 3 * SECOND, lane -> true));
+        assertEquals(List.of("soon:DEADLINE"), dropped);
+        assertEquals(0, queue.size());
+    }
+
+    @Test
+    void theLastRequestOfALaneIsDispatchedUntilItsDeadline() {
+        queue.offer(Lane.INTERACTIVE, "alice", 30 * SECOND, 0, "alice");
+
+        // The estimate says 60 s, but nothing else in the lane would ever correct it
+        assertEquals("alice", queue.poll(0, 60 * SECOND, lane -> true));
+
+        queue.offer(Lane.INTERACTIVE, "bob", 30 * SECOND, 0, "expired");
+        assertNull(queue.poll(30 * SECOND, 0, lane -> true));
+        assertEquals(List.of("expired:DEADLINE"), dropped);
+    }
+
+    @Test
+    void undispatchableLanesWaitWithoutBlockingOthers() {
+        queue.offer(Lane.BATCH, "importer", SECOND, 0, "batch");
+        queue.offer(Lane.INTERACTIVE, "alice", SECOND, 0, "alice");
+        poll();  // both start at virtual time 0; batch was first
+        queue.offer(Lane.BATCH, "importer", SECOND, 0, "batch2");
+        queue.offer(Lane.INTERACTIVE, "alice", SECOND, 0, "alice2");
+
+        assertEquals("alice", queue.poll(0, 0, lane -> lane != Lane.BATCH));
+        assertEquals("alice2", queue.poll(0, 0, lane -> lane != Lane.BATCH));
+        assertNull(queue.poll(0, 0, lane -> lane != Lane.BATCH));
+        assertEquals(1, queue.size(Lane.BATCH));
+    }
+
+    // ================== SCHEDULER ==================
+
+    @Test
+    void batchWorkLeavesWorkersForInteractiveRequests() throws Exception {
+        scheduler = new GenerationScheduler(2, 50, 1, new long[]{30, 60, 600}, System::nanoTime);
+        CountDownLatch releaseBatch = new CountDownLatch(1);
+        AtomicInteger batchStarted = new AtomicInteger();
+
+        List<CompletableFuture<String>> batch = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            batch.add(scheduler.submit(Lane.BATCH, "importer", () -> {
+                batchStarted.incrementAndGet();
+                releaseBatch.await();
+                return "batch";
+            }));
+        }
+
+        while (batchStarted.get() == 0) {
+            Thread.onSpinWait();
+        }
+
+        // One worker is stuck on batch work, the other is still free for alice
+        assertEquals("plan", scheduler.call(Lane.INTERACTIVE, "alice", () -> "plan"));
+        assertEquals(1, batchStarted.get());
+
+        releaseBatch.countDown();
+        for (CompletableFuture<String> future : batch) {
+            assertEquals("batch", future.get(5, TimeUnit.SECONDS));
+        }
+
+        @SuppressWarnings("unchecked")
+        Map<String, Object> batchStats = (Map<String, Object>) ((Map<String, Object>) scheduler.stats().get("lanes")).get("batch");
+        assertEquals(5L, batchStats.get("completed"));
+    }
+
+    @Test
+    void oneSlowCallDoesNotStarveTheInteractiveLane() {
+        AtomicLong clock = new AtomicLong();
+        scheduler = new GenerationScheduler(1, 50, 1, new long[]{30, 60, 600}, clock::get);
+
+        assertEquals("slow", scheduler.call(Lane.BATCH, "importer", () -> {
+            clock.addAndGet(60 * SECOND);   // one Gemini call that took a minute
+            return "slow";
+        }));
+        for (int i = 0; i < 3; i++) {
+            assertEquals("fast", scheduler.call(Lane.INTERACTIVE, "alice", () -> {
+                clock.addAndGet(SECOND);
+                return "fast";
+            }));
+        }
+
+        @SuppressWarnings("unchecked")
+        Map<String, Object> interactiveStats = (Map<String, Object>) ((Map<String, Object>) scheduler.stats().get("lanes")).get("interactive");
+        assertEquals(3L, interactiveStats.get("completed"));
+        assertEquals(0L, interactiveStats.get("droppedForDeadline"));
+        assertTrue((Long) scheduler.stats().get("expectedGeminiLatencyMs") < 60_000, "fast calls bring the estimate back down");
+    }
+
+    @Test
+    void rejectionsAndTaskFailuresReachTheCaller() throws Exception {
+        scheduler = new GenerationScheduler(1, 1, 1, new long[]{30, 60, 600}, System::nanoTime);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<String> running = scheduler.submit(Lane.BATCH, "importer", () -> {
+            release.await();
+            return "done";
+        });
+        while (((Number) scheduler.stats().get("queued")).intValue() > 0) {
+            Thread.onSpinWait();   // wait until the worker has taken it
+        }
+
+        CompletableFuture<String> queued = scheduler.submit(Lane.BATCH, "importer", () -> "queued");
+        GenerationRejectedException full = assertThrows(GenerationRejectedException.class,
+                () -> scheduler.call(Lane.BATCH, "importer", () -> "rejected"));
+        assertEquals(GenerationRejectedException.Reason.QUEUE_FULL, full.getReason());
+        assertTrue(full.getRetryAfterSeconds() >= 1);
+
+        // An interactive request takes the queued batch request's place
+        CompletableFuture<String> interactive = scheduler.submit(Lane.INTERACTIVE, "alice", () -> {
+            throw new IllegalStateException("Gemini is down");
+        });
+        ExecutionException evicted = assertThrows(ExecutionException.class, () -> queued.get(5, TimeUnit.SECONDS));
+        assertEquals(GenerationRejectedException.Reason.EVICTED,
+                ((GenerationRejectedException) evicted.getCause()).getReason());
+
+        release.countDown();
+        assertEquals("done", running.get(5, TimeUnit.SECONDS));
+        ExecutionException failed = assertThrows(ExecutionException.class, () -> interactive.get(5, TimeUnit.SECONDS));
+        assertInstanceOf(IllegalStateException.class, failed.getCause());
+    }
+}
@@ -0,0 +1,145 @@
+package com.backend.goaltracker.search;
+
+import entities.Goal;
+import entities.Subgoal;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GoalSearchIndexTest {
+
+    private static Goal goal(int id, String title, String description, String... subgoalTitles) {
+        Goal goal = new Goal(title, description, null);
+        goal.setId(id);
+        for (String subgoalTitle : subgoalTitles) {
+            goal.addSubgoal(new Subgoal(id, subgoalTitle, ""));
+        }
+        return goal;
+    }
+
+    private static List<Integer> ids(List<GoalSearchIndex.SearchHit> hits) {
+        return hits.stream().map(hit -> hit.goalId).collect(Collectors.toList());
+    }
+
+    private static GoalSearchIndex sampleIndex() {
+        GoalSearchIndex index = new GoalSearchIndex();
+        index.put(goal(1, "Run a marathon", "Train for the city marathon", "Buy running shoes", "Run 5k"));
+        index.put(goal(2, "Learn Spanish", "Be conversational before the trip", "Practice with a tutor"));
+        index.put(goal(3, "Get fit", "Gym three times a week", "Try a half marathon"));
+        return index;
+    }
+
+    @Test
+    void ranksTitleMatchesAboveSubgoalMatches() {
+        assertEquals(List.of(1, 3), ids(sampleIndex().search("marathon", null, 10)));
+    }
+
+    @Test
+    void matchesPrefixesAndRequiresEveryWord() {
+        GoalSearchIndex index = sampleIndex();
+        assertEquals(List.of(1, 3), ids(index.search("mara", null, 10)));
+        assertEquals(List.of(3), ids(index.search("half mar", null, 10)));
+        assertEquals(List.of(2), ids(index.search("SPANISH tutor!", null, 10)));
+        assertTrue(index.search("marathon spanish", null, 10).isEmpty());
+        assertTrue(index.search("the", null, 10).isEmpty());
+    }
+
+    @Test
+    void updatesAndRemovesKeepTheIndexCurrent() {
+        GoalSearchIndex index = sampleIndex();
+        index.put(goal(2, "Learn Italian", "", "Practice with a tutor"));
+        assertTrue(index.search("spanish", null, 10).isEmpty());
+        assertEquals(List.of(2), ids(index.search("italian", null, 10)));
+
+        index.remove(1);
+        assertEquals(List.of(3), ids(index.search("marathon", null, 10)));
+        assertEquals(2, index.size());
+    }
+
+    @Test
+    void limitKeepsTheBestHits() {
+        GoalSearchIndex index = new GoalSearchIndex();
+        for (int i = 1; i <= 1_000; i++) {
+            index.put(goal(i, i % 100 == 0 ? "Read books" : "Goal " + i, "read more"));
+        }
+        List<GoalSearchIndex.SearchHit> hits = index.search("read", null, 5);
+        assertEquals(List.of(100, 200, 300, 400, 500), ids(hits));
+        assertTrue(hits.get(0).score > index.search("read", null, 20).get(19).score);
+    }
+
+    @Test
+    void searchesOnlyTheCallersGoals() {
+        GoalSearchIndex index = sampleIndex();
+        Goal alices = goal(4, "Run a trail marathon", "Secret race plans");
+        alices.setOwnerId("alice");
+        index.put(alices);
+
+        assertEquals(List.of(4), ids(index.search("marathon", "alice", 10)));
+        assertTrue(index.search("secret", "bob", 10).isEmpty());
+        assertEquals(List.of(1, 3), ids(index.search("marathon", null, 10)), "anonymous callers see anonymous goals");
+
+        alices.setOwnerId("bob");   // e.g. imported again by another user
+        index.put(alices);
+        assertTrue(index.search("secret", "alice", 10).isEmpty());
+        assertEquals(List.of(4), ids(index.search("secret", "bob", 10)));
+    }
+
+    @Test
+    void otherUsersGoalsDoNotChangeScores() {
+        GoalSearchIndex index = sampleIndex();
+        float before = index.search("marathon", null, 10).get(0).score;
+        for (int i = 10; i < 110; i++) {
+            Goal others = goal(i, "Marathon " + i, "");
+            others.setOwnerId("user-" + i);
+            index.put(others);
+        }
+
+        assertEquals(before, index.search("marathon", null, 10).get(0).score);
+        assertEquals(List.of(10), ids(index.search("marathon", "user-10", 10)));
+    }
+
+    @Test
+    void snapshotKeepsOwnersAndTextOver64Kb(@TempDir Path dir) throws IOException {
+        Path file = dir.resolve("index.bin");
+        GoalSearchIndex original = new GoalSearchIndex();
+        Goal goal = goal(1, "Write a novel", "Chapter one: ".repeat(6_000) + "épilogue");
+        goal.setTitle("Write a novel " + "é".repeat(40_000));   // 80 KB as UTF-8
+        goal.setOwnerId("alice");
+        original.put(goal);
+        assertTrue(original.writeSnapshot(file));
+
+        GoalSearchIndex restored = new GoalSearchIndex();
+        assertEquals(1, restored.loadSnapshot(file));
+        List<GoalSearchIndex.SearchHit> hits = restored.search("épilogue", "alice", 10);
+        assertEquals(List.of(1), ids(hits));
+        assertEquals(goal.getTitle(), hits.get(0).title);
+        assertTrue(restored.search("novel", null, 10).isEmpty());
+        assertEquals(0, restored.reconcile(List.of(goal)), "nothing to re-analyze after a restore");
+    }
+
+    @Test
+    void snapshotRestoresTheIndexAndReconcileCatchesUp(@TempDir Path dir) throws IOException {
+        Path file = dir.resolve("index.bin");
+        GoalSearchIndex original = sampleIndex();
+        assertTrue(original.writeSnapshot(file));
+        assertFalse(original.writeSnapshot(file));  // unchanged since the last snapshot
+
+        GoalSearchIndex restored = new GoalSearchIndex();
+        assertEquals(3, restored.loadSnapshot(file));
+        assertEquals(ids(original.search("run", null, 10)), ids(restored.search("run", null, 10)));
+
+        // Goal 2 changed and goal 3 was deleted while the service was down
+        int analyzed = restored.reconcile(List.of(
+                goal(1, "Run a marathon", "Train for the city marathon", "Buy running shoes", "Run 5k"),
+                goal(2, "Learn Italian", "", "Practice with a tutor")));
+        assertEquals(1, analyzed);
+        assertEquals(List.of(1), ids(restored.search("marathon", null, 10)));
+        assertEquals(List.of(2), ids(restored.search("italian", null, 10)));
+    }
+}
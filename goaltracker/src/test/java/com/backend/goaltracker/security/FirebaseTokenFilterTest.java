@@ -0,0 +1,60 @@
+package com.backend.goaltracker.security;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Base64;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FirebaseTokenFilterTest {
+
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final FirebaseTokenFilter filter = new FirebaseTokenFilter(
+            new FirebaseTokenVerifier(new SigningKeyCache("http://127.0.0.1:1/keys", Duration.ofHours(1), Duration.ZERO),
+                    "goaltrack-test", 1000, Clock.systemUTC()),
+            mapper);
+
+    private MockHttpServletResponse send(String authorization) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/goals");
+        if (authorization != null) {
+            request.addHeader("Authorization", authorization);
+        }
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, (req, res) -> fail("rejected requests must not reach the controller"));
+        return response;
+    }
+
+    @Test
+    void missingTokenGets401AsJson() throws Exception {
+        MockHttpServletResponse response = send(null);
+
+        assertEquals(401, response.getStatus());
+        JsonNode body = mapper.readTree(response.getContentAsByteArray());
+        assertEquals("Unauthorized", body.get("error").asText());
+        assertEquals("Missing bearer token", body.get("message").asText());
+    }
+
+    @Test
+    void tokenContentsAreNotEchoedBack() throws Exception {
+        String header = "{\"alg\":\"\\\"}<script>alert(1)</script>\",\"kid\":\"k\"}";
+        String token = base64Url(header) + "." + base64Url("{}") + ".c2ln";
+
+        MockHttpServletResponse response = send("Bearer " + token);
+
+        assertEquals(401, response.getStatus());
+        JsonNode body = mapper.readTree(response.getContentAsByteArray());
+        assertEquals("Unexpected signing algorithm", body.get("message").asText());
+        assertFalse(response.getContentAsString().contains("script"));
+    }
+
+    private static String base64Url(String json) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(json.getBytes(StandardCharsets.UTF_8));
+    }
+}
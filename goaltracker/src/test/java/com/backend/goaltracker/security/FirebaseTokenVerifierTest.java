@@ -0,0 +1,98 @@
+package com.backend.goaltracker.security;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FirebaseTokenVerifierTest {
+
+    private static final String PROJECT = "goaltrack-test";
+    private static final long NOW_SECONDS = 1_800_000_000L;
+
+    private LocalKeyServer keyServer;
+    private SigningKeyCache keyCache;
+    private FirebaseTokenVerifier verifier;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        keyServer = new LocalKeyServer();
+        keyServer.addKey("key-1");
+        keyCache = new SigningKeyCache(keyServer.url(), Duration.ofHours(1), Duration.ZERO);
+        keyCache.refresh();
+        Clock clock = Clock.fixed(Instant.ofEpochSecond(NOW_SECONDS), ZoneOffset.UTC);
+        verifier = new FirebaseTokenVerifier(keyCache, PROJECT, 1000, clock);
+    }
+
+    @AfterEach
+    void tearDown() {
+        keyCache.close();
+        keyServer.close();
+    }
+
+    @Test
+    void validTokenIsVerifiedAndCached() throws Exception {
+        String token = keyServer.sign("key-1", claims(PROJECT, "user-42", NOW_SECONDS + 3600));
+
+        VerifiedToken first = verifier.verify(token);
+        assertEquals("user-42", first.getUid());
+        assertEquals((NOW_SECONDS + 3600) * 1000, first.getExpiresAtMillis());
+
+        // Second call is a cache hit: same instance, no new signature check
+        assertSame(first, verifier.verify(token));
+        assertEquals(1, verifier.cachedTokenCount());
+    }
+
+    @Test
+    void nullClaimsAreKept() throws Exception {
+        String claims = claims(PROJECT, "user-42", NOW_SECONDS + 3600);
+        String token = keyServer.sign("key-1", claims.substring(0, claims.length() - 1) + ",\"email\":null}");
+
+        VerifiedToken verified = verifier.verify(token);
+        assertEquals("user-42", verified.getUid());
+        assertTrue(verified.getClaims().containsKey("email"));
+        assertNull(verified.getClaims().get("email"));
+    }
+
+    @Test
+    void expiredTokenIsRejected() throws Exception {
+        String token = keyServer.sign("key-1", claims(PROJECT, "user-42", NOW_SECONDS - 1));
+        assertThrows(FirebaseTokenVerifier.InvalidTokenException.class, () -> verifier.verify(token));
+    }
+
+    @Test
+    void tokenForAnotherProjectIsRejected() throws Exception {
+        String token = keyServer.sign("key-1", claims("other-project", "user-42", NOW_SECONDS + 3600));
+        assertThrows(FirebaseTokenVerifier.InvalidTokenException.class, () -> verifier.verify(token));
+    }
+
+    @Test
+    void tamperedTokenIsRejected() throws Exception {
+        String token = keyServer.sign("key-1", claims(PROJECT, "user-42", NOW_SECONDS + 3600));
+        String other = keyServer.sign("key-1", claims(PROJECT, "attacker", NOW_SECONDS + 3600));
+        String[] parts = token.split("\\.");
+        String forged = parts[0] + "." + other.split("\\.")[1] + "." + parts[2];
+        assertThrows(FirebaseTokenVerifier.InvalidTokenException.class, () -> verifier.verify(forged));
+    }
+
+    @Test
+    void rotatedKeyIsFetchedOnDemand() throws Exception {
+        keyServer.addKey("key-2");
+        int requestsBefore = keyServer.requestCount();
+
+        String token = keyServer.sign("key-2", claims(PROJECT, "user-7", NOW_SECONDS + 3600));
+        assertEquals("user-7", verifier.verify(token).getUid());
+        assertEquals(requestsBefore + 1, keyServer.requestCount());
+    }
+
+    private static String claims(String audience, String subject, long expiresAt) {
+        return "{\"aud\":\"" + audience + "\",\"iss\":\"https://securetoken.google.com/" + audience + "\","
+                + "\"sub\":\"" + subject + "\",\"iat\":" + (NOW_SECONDS - 60) + ",\"exp\":" + expiresAt + "}";
+    }
+}
@@ -0,0 +1,99 @@
+package com.backend.goaltracker.security;
+
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.NoSuchAlgorithmException;
+import java.security.Signature;
+import java.security.interfaces.RSAPublicKey;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Stand-in for Google's securetoken JWKS endpoint. Holds RSA key pairs by key id,
+ * serves their public halves and signs test tokens with the private halves.
+ */
+class LocalKeyServer implements AutoCloseable {
+
+    private final HttpServer server;
+    private final Map<String, KeyPair> keyPairs = new LinkedHashMap<>();
+    private final AtomicInteger requests = new AtomicInteger();
+
+    LocalKeyServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/jwks", exchange -> {
+            requests.incrementAndGet();
+            byte[] body = jwks().getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", "application/json");
+            exchange.getResponseHeaders().set("Cache-Control", "public, max-age=3600");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        server.start();
+    }
+
+    String url() {
+        return "http://127.0.0.1:" + server.getAddress().getPort() + "/jwks";
+    }
+
+    int requestCount() {
+        return requests.get();
+    }
+
+    synchronized void addKey(String keyId) throws NoSuchAlgorithmException {
+        KeyPairGenerator generator = KeyPairGenerator.getInstance("RSA");
+        generator.initialize(2048);
+        keyPairs.put(keyId, generator.generateKeyPair());
+    }
+
+    synchronized String sign(String keyId, String claimsJson) throws Exception {
+        Base64.Encoder encoder = Base64.getUrlEncoder().withoutPadding();
+        String header = encoder.encodeToString(
+                ("{\"alg\":\"RS256\",\"kid\":\"" + keyId + "\",\"typ\":\"JWT\"}").getBytes(StandardCharsets.UTF_8));
+        String payload = encoder.encodeToString(claimsJson.getBytes(StandardCharsets.UTF_8));
+
+        Signature signature = Signature.getInstance("SHA256withRSA");
+        signature.initSign(keyPairs.get(keyId).getPrivate());
+        signature.update((header + "." + payload).getBytes(StandardCharsets.US_ASCII));
+        return header + "." + payload + "." + encoder.encodeToString(signature.sign());
+    }
+
+    private synchronized String jwks() {
+        Base64.Encoder encoder = Base64.getUrlEncoder().withoutPadding();
+        StringBuilder json = new StringBuilder("{\"keys\":[");
+        String separator = "";
+        for (Map.Entry<String, KeyPair> entry : keyPairs.entrySet()) {
+            RSAPublicKey key = (RSAPublicKey) entry.getValue().getPublic();
+            json.append(separator)
+                    .append("{\"kty\":\"RSA\",\"alg\":\"RS256\",\"use\":\"sig\",\"kid\":\"").append(entry.getKey())
+                    .append("\",\"n\":\"").append(encoder.encodeToString(unsigned(key.getModulus().toByteArray())))
+                    .append("\",\"e\":\"").append(encoder.encodeToString(unsigned(key.getPublicExponent().toByteArray())))
+                    .append("\"}");
+            separator = ",";
+        }
+        return json.append("]}").toString();
+    }
+
+    private static byte[] unsigned(byte[] bytes) {
+        if (bytes.length > 1 && bytes[0] == 0) {
+            byte[] trimmed = new byte[bytes.length - 1];
+            System.arraycopy(bytes, 1, trimmed, 0, trimmed.length);
+            return trimmed;
+        }
+        return bytes;
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+    }
+}
@@ -0,0 +1,134 @@
+package com.backend.goaltracker.service;
+
+import com.backend.goaltracker.scheduler.GenerationScheduler;
+import com.backend.goaltracker.scheduler.Lane;
+import com.backend.goaltracker.store.CompactGoalStore;
+import com.backend.goaltracker.store.GoalStore;
+import com.backend.goaltracker.store.InMemoryGoalStore;
+import com.backend.goaltracker.usage.TokenUsageMeter;
+import com.fasterxml.jackson.databind.node.TextNode;
+import entities.Goal;
+import entities.Subgoal;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static com.backend.goaltracker.GoalFixtures.goal;
+import static org.junit.jupiter.api.Assertions.*;
+
+class SubgoalRegenerationServiceTest {
+
+    private final GoalStore store = new InMemoryGoalStore(event -> { });
+    private final GenerationScheduler scheduler = new GenerationScheduler(2, 10, 1, 30, 60, 600);
+    private final List<String> prompts = new ArrayList<>();
+    private String modelText = "{\"title\": \"Run 5k three times a week\", \"description\": \"Build up slowly\"}";
+
+    private final SubgoalRegenerationService service = new SubgoalRegenerationService(
+            (goalTitle, siblings, subgoalTitle, feedback, userId) -> {
+                prompts.add(goalTitle + " | " + siblings + " | " + subgoalTitle + " | " + feedback);
+                return geminiResponse(modelText);
+            },
+            store, new TokenUsageMeter(0, 0, ""), scheduler);
+
+    @AfterEach
+    void stopScheduler() {
+        scheduler.stop();
+    }
+
+    @Test
+    void replacesOnlyTheSubgoalAndSendsOnlyTitlesAsContext() {
+        Goal alices = goal("Run a marathon", "Buy shoes", "Run 10k", "Sign up");
+        alices.setOwnerId("alice");
+        Goal goal = store.insert(alices);
+        store.completeSubgoal(goal.getId(), "Buy shoes");
+
+        GenerationOutcome outcome = service.regenerate(goal.getId(), "Run 10k", "too hard for now", "alice",
+                Lane.INTERACTIVE);
+
+        assertEquals(200, outcome.getStatus());
+        Subgoal replacement = (Subgoal) outcome.getBody();
+        assertEquals("Run 5k three times a week", replacement.getTitle());
+        assertEquals("Build up slowly", replacement.getDescription());
+        assertEquals(List.of("Run a marathon | [Buy shoes, Sign up] | Run 10k | too hard for now"), prompts);
+
+        Goal stored = store.findById(goal.getId()).orElseThrow();
+        assertEquals("Run 5k three times a week", stored.getSubgoals().get(1).getTitle());
+        assertEquals(3, stored.getNumTotalSubgoals());
+        assertEquals(1, stored.getNumCompletedSubgoals());
+    }
+
+    @Test
+    void onlyIncompleteSubgoalsOfExistingGoalsAreRegenerated() {
+        Goal goal = store.insert(goal("Learn guitar", "Buy a guitar", "Learn chords"));
+        store.completeSubgoal(goal.getId(), "Buy a guitar");
+
+        assertEquals(409, service.regenerate(goal.getId(), "Buy a guitar", null, null, Lane.INTERACTIVE).getStatus());
+        assertEquals(404, service.regenerate(goal.getId(), "Play a song", null, null, Lane.INTERACTIVE).getStatus());
+        assertEquals(404, service.regenerate(99, "Learn chords", null, null, Lane.INTERACTIVE).getStatus());
+
+        Goal bobs = goal("Learn piano", "Learn scales");
+        bobs.setOwnerId("bob");
+        store.insert(bobs);
+        assertEquals(404, service.regenerate(bobs.getId(), "Learn scales", null, "alice", Lane.INTERACTIVE).getStatus(),
+                "other users' goals look like missing ones");
+        assertEquals(404, service.regenerate(goal.getId(), "Learn chords", null, "alice", Lane.INTERACTIVE).getStatus(),
+                "anonymous goals are only shown to anonymous requests");
+        assertTrue(prompts.isEmpty(), "Gemini is not called for requests that cannot succeed");
+    }
+
+    @Test
+    void completionsMadeDuringTheGeminiCallAreKept() {
+        // Compact store hands out copies; another request completes a subgoal right after the next read
+        AtomicBoolean racing = new AtomicBoolean();
+        GoalStore compact = new CompactGoalStore(event -> { }) {
+            @Override
+            public synchronized Optional<Goal> findById(int id) {
+                Optional<Goal> copy = super.findById(id);
+                if (racing.getAndSet(false)) {
+                    super.completeSubgoal(id, "Sign up");
+                }
+                return copy;
+            }
+        };
+        Goal goal = compact.insert(goal("Run a marathon", "Buy shoes", "Run 10k", "Sign up"));
+        SubgoalRegenerationService service = new SubgoalRegenerationService(
+                (goalTitle, siblings, subgoalTitle, feedback, userId) -> {
+                    racing.set(true);
+                    return geminiResponse(modelText);
+                },
+                compact, new TokenUsageMeter(0, 0, ""), scheduler);
+
+        assertEquals(200, service.regenerate(goal.getId(), "Run 10k", null, null, Lane.INTERACTIVE).getStatus());
+        if (racing.getAndSet(false)) {
+            compact.completeSubgoal(goal.getId(), "Sign up");   // the write did not read first
+        }
+
+        Goal stored = compact.findById(goal.getId()).orElseThrow();
+        assertEquals("Run 5k three times a week", stored.getSubgoals().get(1).getTitle());
+        assertTrue(stored.getSubgoals().get(2).getIsCompleted());
+        assertEquals(1, stored.getNumCompletedSubgoals());
+    }
+
+    @Test
+    void acceptsFencedAnswersAndRejectsEmptyTitles() {
+        Goal goal = store.insert(goal("Learn guitar", "Learn chords"));
+
+        modelText = "```json\n{\"title\": \"Learn G, C and D\"}\n```";
+        GenerationOutcome fenced = service.regenerate(goal.getId(), "Learn chords", null, null, Lane.RETRY);
+        assertEquals(200, fenced.getStatus());
+        assertEquals("No description provided", ((Subgoal) fenced.getBody()).getDescription());
+
+        modelText = "{\"title\": \"  \"}";
+        GenerationOutcome empty = service.regenerate(goal.getId(), "Learn G, C and D", null, null, Lane.RETRY);
+        assertEquals(500, empty.getStatus());
+        assertEquals("Learn G, C and D", store.findById(goal.getId()).orElseThrow().getSubgoals().get(0).getTitle());
+    }
+
+    private static String geminiResponse(String text) {
+        return "{\"candidates\": [{\"content\": {\"parts\": [{\"text\": " + TextNode.valueOf(text) + "}]}}]}";
+    }
+}
@@ -0,0 +1,79 @@
+package com.backend.goaltracker.similarity;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Optional;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PromptSimilarityIndexTest {
+
+    @Test
+    void paraphrasesMatchTheEarlierPrompt() {
+        PromptSimilarityIndex<String> index = new PromptSimilarityIndex<>(0.6, 100);
+        index.put("learn to play guitar", "guitar plan");
+        index.put("run a marathon", "marathon plan");
+
+        Optional<PromptSimilarityIndex.Match<String>> match = index.findSimilar("I want to learn guitar");
+        assertTrue(match.isPresent());
+        assertEquals("guitar plan", match.get().value);
+        assertEquals(2.0 / 3, match.get().similarity, 1e-9);
+
+        assertEquals(1.0, index.findSimilar("Learning to play the guitar!").get().similarity);
+        assertEquals("marathon plan", index.findSimilar("I'd like to run marathons").get().value);
+    }
+
+    @Test
+    void differentGoalsDoNotMatch() {
+        PromptSimilarityIndex<String> index = new PromptSimilarityIndex<>(0.6, 100);
+        index.put("learn to play guitar", "guitar plan");
+
+        assertTrue(index.findSimilar("learn to play piano").isEmpty());
+        assertTrue(index.findSimilar("please help me").isEmpty());  // nothing but stop words
+    }
+
+    @Test
+    void thresholdIsConfigurable() {
+        PromptSimilarityIndex<String> strict = new PromptSimilarityIndex<>(0.9, 100);
+        strict.put("learn to play guitar", "guitar plan");
+        assertTrue(strict.findSimilar("I want to learn guitar").isEmpty());
+
+        PromptSimilarityIndex<String> loose = new PromptSimilarityIndex<>(0.3, 100);
+        loose.put("learn to play guitar", "guitar plan");
+        assertTrue(loose.findSimilar("learn to play piano").isPresent());
+    }
+
+    @Test
+    void lshFindsNearDuplicatesAmongManyPrompts() {
+        PromptSimilarityIndex<Integer> index = new PromptSimilarityIndex<>(0.6, 10_000);
+        for (int i = 0; i < 2_000; i++) {
+            index.put("topic" + i + " skill" + i + " practice" + (i % 7), i);
+        }
+
+        int found = 0;
+        for (int i = 0; i < 2_000; i += 10) {
+            Optional<PromptSimilarityIndex.Match<Integer>> match =
+                    index.findSimilar("I want to topic" + i + " skill" + i + " practice" + (i % 7) + " daily");
+            if (match.isPresent() && match.get().value == i) found++;
+        }
+        assertTrue(found >= 190, "found " + found + " of 200");
+    }
+
+    @Test
+    void oldestEntriesAreEvicted() {
+        PromptSimilarityIndex<String> index = new PromptSimilarityIndex<>(0.6, 2);
+        index.put("learn guitar", "1");
+        index.put("learn piano", "2");
+        index.put("learn violin", "3");
+
+        assertEquals(2, index.size());
+        assertTrue(index.findSimilar("learn guitar").isEmpty());
+        assertEquals("3", index.findSimilar("learn violin").get().value);
+    }
+
+    @Test
+    void featuresDropStopWordsAndStem() {
+        assertEquals(Set.of("learn", "play", "guitar"), PromptSimilarityIndex.features("I'm learning to play guitars"));
+    }
+}
@@ -0,0 +1,143 @@
+package com.backend.goaltracker.stats;
+
+import com.backend.goaltracker.store.GoalChangedEvent;
+import com.backend.goaltracker.store.InMemoryGoalStore;
+import entities.Goal;
+import entities.Subgoal;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GoalStatsServiceTest {
+
+    /**
+     * Clock the test moves by hand; starts on Wednesday 2026-03-04
+     */
+    private static final class ManualClock extends Clock {
+        Instant now = Instant.parse("2026-03-04T10:00:00Z");
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+
+    private final ManualClock clock = new ManualClock();
+    private InMemoryGoalStore store;
+    private GoalStatsService stats;
+
+    @BeforeEach
+    void setUp() {
+        store = new InMemoryGoalStore(event -> stats.onGoalChanged((GoalChangedEvent) event));
+        stats = new GoalStatsService(store, clock);
+    }
+
+    private Goal insert(String owner, LocalDate deadline, int subgoals) {
+        Goal goal = new Goal("goal", "", deadline);
+        goal.setOwnerId(owner);
+        for (int i = 0; i < subgoals; i++) {
+            goal.addSubgoal(new Subgoal("step " + i, ""));
+        }
+        return store.insert(goal);
+    }
+
+    private void complete(Goal goal, String subgoal) {
+        goal.completeSubgoal(subgoal);
+        store.update(goal);
+    }
+
+    @Test
+    void countsGoalsAndSubgoalsPerUser() {
+        Goal a = insert("alice", LocalDate.of(2026, 4, 1), 2);
+        insert("alice", LocalDate.of(2026, 4, 1), 3);
+        insert("bob", LocalDate.of(2026, 4, 1), 1);
+
+        complete(a, "step 0");
+        complete(a, "step 1");
+
+        UserGoalStats alice = stats.getStats("alice");
+        assertEquals(2, alice.totalGoals);
+        assertEquals(1, alice.completedGoals);
+        assertEquals(0.5, alice.completionRate);
+        assertEquals(5, alice.totalSubgoals);
+        assertEquals(2, alice.completedSubgoals);
+        assertEquals(2, alice.subgoalsCompletedThisWeek);
+        assertEquals(1, stats.getStats("bob").totalGoals);
+        assertEquals(0, stats.getStats("carol").totalGoals);
+    }
+
+    @Test
+    void deletingAGoalRemovesItsContribution() {
+        Goal goal = insert(null, LocalDate.of(2026, 3, 1), 2);
+        assertEquals(1, stats.getStats(null).overdueGoals);
+
+        store.delete(goal.getId());
+        UserGoalStats anonymous = stats.getStats(null);
+        assertEquals(0, anonymous.totalGoals);
+        assertEquals(0, anonymous.totalSubgoals);
+        assertEquals(0, anonymous.overdueGoals);
+    }
+
+    @Test
+    void goalsBecomeOverdueWhenTheirDeadlineDayPasses() {
+        Goal due = insert("alice", LocalDate.of(2026, 3, 5), 1);
+        insert("alice", LocalDate.of(2026, 3, 9), 1);
+        assertEquals(0, stats.getStats("alice").overdueGoals);
+
+        clock.now = Instant.parse("2026-03-06T00:00:00Z");
+        assertEquals(1, stats.getStats("alice").overdueGoals);
+
+        complete(due, "step 0");
+        assertEquals(0, stats.getStats("alice").overdueGoals);
+
+        clock.now = Instant.parse("2026-03-20T00:00:00Z");
+        assertEquals(1, stats.getStats("alice").overdueGoals);
+    }
+
+    @Test
+    void weeklyCounterResetsOnMonday() {
+        Goal goal = insert("alice", LocalDate.of(2026, 4, 1), 3);
+        complete(goal, "step 0");
+        assertEquals(1, stats.getStats("alice").subgoalsCompletedThisWeek);
+
+        clock.now = Instant.parse("2026-03-09T08:00:00Z");  // Monday
+        assertEquals(0, stats.getStats("alice").subgoalsCompletedThisWeek);
+        complete(goal, "step 1");
+        assertEquals(1, stats.getStats("alice").subgoalsCompletedThisWeek);
+        assertEquals(2, stats.getStats("alice").completedSubgoals);
+    }
+
+    @Test
+    void rebuildMatchesIncrementalTotals() {
+        Goal goal = insert("alice", LocalDate.of(2026, 3, 1), 2);
+        insert("bob", LocalDate.of(2026, 4, 1), 1);
+        complete(goal, "step 0");
+
+        GoalStatsService restarted = new GoalStatsService(store, clock);
+        restarted.rebuild();
+
+        UserGoalStats before = stats.getStats("alice");
+        UserGoalStats after = restarted.getStats("alice");
+        assertEquals(before.totalGoals, after.totalGoals);
+        assertEquals(before.completedSubgoals, after.completedSubgoals);
+        assertEquals(before.overdueGoals, after.overdueGoals);
+        assertEquals(0, after.subgoalsCompletedThisWeek);
+    }
+}
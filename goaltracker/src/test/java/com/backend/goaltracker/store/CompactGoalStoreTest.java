@@ -0,0 +1,121 @@
+package com.backend.goaltracker.store;
+
+import entities.Goal;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static com.backend.goaltracker.GoalFixtures.OWNER;
+import static com.backend.goaltracker.GoalFixtures.ownedGoal;
+import static com.backend.goaltracker.GoalFixtures.withCompleted;
+import static org.junit.jupiter.api.Assertions.*;
+
+class CompactGoalStoreTest {
+
+    private final CompactGoalStore store = new CompactGoalStore(event -> { });
+
+    @Test
+    void readsBackWhatWasStored() {
+        Goal stored = store.insert(ownedGoal("Run a marathon", "Buy shoes", "Run 10k", "Run 10k"));
+        store.completeSubgoal(stored.getId(), "Run 10k");
+
+        Goal read = store.findById(stored.getId()).orElseThrow();
+        assertNotSame(stored, read);
+        assertEquals("Run a marathon", read.getTitle());
+        assertEquals("About Run a marathon", read.getDescription());
+        assertEquals(OWNER, read.getOwnerId());
+        assertEquals(LocalDate.of(2026, 12, 31), read.getDeadline());
+        assertEquals(3, read.getNumTotalSubgoals());
+        assertEquals(1, read.getNumCompletedSubgoals());
+        assertTrue(read.getSubgoals().get(1).getIsCompleted());
+        assertFalse(read.getSubgoals().get(2).getIsCompleted());
+        assertEquals("Do: Run 10k", read.getSubgoals().get(2).getDescription());
+        assertSame(read, read.getSubgoals().get(0).getOriginalGoal());
+    }
+
+    @Test
+    void completingEverySubgoalCompletesTheGoal() {
+        Goal goal = store.insert(ownedGoal("Learn Spanish", "Pick a course", "Practice daily"));
+        assertFalse(store.completeSubgoal(goal.getId(), "Pick a course").orElseThrow().isComplete());
+        assertEquals(1, store.completeSubgoal(goal.getId(), "Pick a course").orElseThrow().getNumCompletedSubgoals(),
+                "completing a completed subgoal changes nothing");
+        assertTrue(store.completeSubgoal(goal.getId(), "Practice daily").orElseThrow().isComplete());
+        assertTrue(store.findById(goal.getId()).orElseThrow().isComplete());
+        assertTrue(store.completeSubgoal(99, "Practice daily").isEmpty());
+    }
+
+    @Test
+    void duplicateTitlesKeepTheirOwnCompletion() {
+        int id = store.insert(withCompleted(ownedGoal("Stretch", "Hold 30 s", "Hold 30 s"), 1)).getId();
+
+        Goal read = store.findById(id).orElseThrow();
+        assertFalse(read.getSubgoals().get(0).getIsCompleted());
+        assertTrue(read.getSubgoals().get(1).getIsCompleted());
+        assertEquals(1, read.getNumCompletedSubgoals());
+    }
+
+    @Test
+    void sharedTextIsStoredOnceAndReleasedWithTheLastGoal() {
+        Goal first = store.insert(ownedGoal("Learn guitar", "Research beginner resources"));
+        Goal second = store.insert(ownedGoal("Learn piano", "Research beginner resources"));
+        // owner, 2 titles, 2 descriptions, 1 subgoal title, 1 subgoal description
+        assertEquals(7, store.stats().get("distinctTexts"));
+
+        store.delete(first.getId());
+        assertEquals(5, store.stats().get("distinctTexts"));
+        assertEquals("Research beginner resources",
+                store.findById(second.getId()).orElseThrow().getSubgoals().get(0).getTitle());
+
+        Goal renamed = store.findById(second.getId()).orElseThrow();
+        renamed.setTitle("Learn the piano");
+        store.update(renamed);
+        assertEquals(5, store.stats().get("distinctTexts"));
+        assertEquals(second.getId(), store.findByTitle(OWNER, "Learn the piano").orElseThrow().getId());
+        assertTrue(store.findByTitle(OWNER, "Learn piano").isEmpty());
+
+        store.delete(second.getId());
+        assertEquals(0, store.stats().get("distinctTexts"));
+    }
+
+    @Test
+    void scanWalksEveryGoalInIdOrderAcrossPages() {
+        int count = GoalStore.SCAN_PAGE_SIZE * 2 + 7;
+        for (int i = 0; i < count; i++) {
+            store.insert(ownedGoal("Goal " + i, "Step"));
+        }
+        store.delete(1);
+        store.delete(GoalStore.SCAN_PAGE_SIZE + 1);
+
+        int seen = 0;
+        int lastId = 0;
+        for (Goal goal : store.scan()) {
+            assertTrue(goal.getId() > lastId);
+            lastId = goal.getId();
+            seen++;
+        }
+        assertEquals(count - 2, seen);
+        assertEquals(count, lastId);
+    }
+
+    @Test
+    void idMapMatchesAHashMapUnderChurn() {
+        IntObjectMap<String> map = new IntObjectMap<>(4);
+        Map<Integer, String> expected = new HashMap<>();
+        Random random = new Random(42);
+        for (int i = 0; i < 50_000; i++) {
+            int key = 1 + random.nextInt(2_000);
+            if (random.nextInt(3) == 0) {
+                assertEquals(expected.remove(key), map.remove(key));
+            } else {
+                assertEquals(expected.put(key, "v" + i), map.put(key, "v" + i));
+            }
+        }
+        assertEquals(expected.size(), map.size());
+        for (int key = 1; key <= 2_000; key++) {
+            assertEquals(expected.get(key), map.get(key));
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package com.backend.goaltracker.store;
+
+import entities.Goal;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static com.backend.goaltracker.GoalFixtures.OWNER;
+import static com.backend.goaltracker.GoalFixtures.ownedGoal;
+import static com.backend.goaltracker.GoalFixtures.withCompleted;
+import static org.junit.jupiter.api.Assertions.*;
+
+class FileGoalStoreTest {
+
+    @TempDir
+    Path dir;
+
+    private FileGoalStore open() throws IOException {
+        return new FileGoalStore(dir.toString(), event -> { });
+    }
+
+    @Test
+    void goalsReadBackWithTheirCompletionCounters() throws IOException {
+        FileGoalStore store = open();
+        Goal marathon = store.insert(ownedGoal("Run a marathon", "Buy shoes", "Run 10k"));
+        store.completeSubgoal(marathon.getId(), "Run 10k");
+        Goal done = store.insert(ownedGoal("Learn guitar", "Buy a guitar"));
+        store.completeSubgoal(done.getId(), "Buy a guitar");
+
+        FileGoalStore reopened = open();
+        Goal restored = reopened.findById(marathon.getId()).orElseThrow();
+        assertEquals("Run a marathon", restored.getTitle());
+        assertEquals(OWNER, restored.getOwnerId());
+        assertEquals(LocalDate.of(2026, 12, 31), restored.getDeadline());
+        assertEquals(2, restored.getNumTotalSubgoals());
+        assertEquals(1, restored.getNumCompletedSubgoals());
+        assertTrue(restored.getSubgoals().get(1).getIsCompleted());
+        assertFalse(restored.isComplete());
+        assertSame(restored, restored.getSubgoals().get(0).getOriginalGoal());
+
+        Goal restoredDone = reopened.findAll().get(1);
+        assertEquals(1, restoredDone.getNumCompletedSubgoals());
+        assertTrue(restoredDone.isComplete());
+        assertEquals(1, reopened.findPage(0, 1).size());
+    }
+
+    @Test
+    void duplicateTitlesKeepTheirOwnCompletion() throws IOException {
+        int id = open().insert(withCompleted(ownedGoal("Stretch", "Hold 30 s", "Hold 30 s"), 1)).getId();
+
+        Goal read = open().findById(id).orElseThrow();
+        assertFalse(read.getSubgoals().get(0).getIsCompleted());
+        assertTrue(read.getSubgoals().get(1).getIsCompleted());
+        assertEquals(1, read.getNumCompletedSubgoals());
+    }
+
+    @Test
+    void completionsFromTwoNodesAreBothKept() throws Exception {
+        String[] steps = new String[20];
+        for (int i = 0; i < steps.length; i++) {
+            steps[i] = "Step " + i;
+        }
+        int id = open().insert(ownedGoal("Run a marathon", steps)).getId();
+        // Two instances on one directory, as two cluster nodes would be
+        FileGoalStore[] nodes = {open(), open()};
+
+        ExecutorService pool = Executors.newFixedThreadPool(2);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> done = new ArrayList<>();
+        for (int node = 0; node < 2; node++) {
+            int first = node;
+            done.add(pool.submit(() -> {
+                start.await();
+                for (int i = first; i < steps.length; i += 2) {
+                    nodes[first].completeSubgoal(id, steps[i]);
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : done) {
+            future.get();
+        }
+        pool.shutdown();
+
+        Goal goal = open().findById(id).orElseThrow();
+        assertEquals(steps.length, goal.getNumCompletedSubgoals());
+        assertTrue(goal.isComplete());
+    }
+}
@@ -0,0 +1,82 @@
+package com.backend.goaltracker.store;
+
+import entities.Goal;
+import entities.GoalIndex;
+import entities.Subgoal;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.lang.management.ManagementFactory;
+import java.time.LocalDate;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Heap bytes per stored goal: Goal entities in a GoalIndex (the memory store) against the
+ * compact store. Plans are shaped like generated ones: 6 subgoals whose titles and descriptions
+ * come from a shared pool of phrases, and a goal description of its own. Every string is a new
+ * instance, like text parsed from a Gemini response.
+ *
+ *   ./mvnw test -Dtest=GoalMemoryBenchmark -Dgoaltracker.benchmark=true [-Dgoaltracker.benchmark.goals=200000]
+ */
+@EnabledIfSystemProperty(named = "goaltracker.benchmark", matches = "true")
+class GoalMemoryBenchmark {
+
+    private static final int SUBGOALS_PER_GOAL = 6;
+
+    @Test
+    void bytesPerGoal() throws InterruptedException {
+        int goals = Integer.getInteger("goaltracker.benchmark.goals", 200_000);
+
+        long before = usedHeap();
+        GoalIndex entities = new GoalIndex();
+        Random random = new Random(1);
+        for (int i = 1; i <= goals; i++) {
+            Goal goal = plan(i, random);
+            GoalIds.assign(goal, i);
+            entities.add(goal);
+        }
+        long entityBytes = usedHeap() - before;
+        assertEquals(goals, entities.size());   // keeps the entities reachable until measured
+        entities = null;
+
+        before = usedHeap();
+        CompactGoalStore compact = new CompactGoalStore(event -> { });
+        random = new Random(1);
+        for (int i = 1; i <= goals; i++) {
+            compact.insert(plan(i, random));
+        }
+        long compactBytes = usedHeap() - before;
+        assertEquals(goals, compact.stats().get("goals"));
+
+        System.out.printf("✅ %d goals: entities %d bytes/goal, compact %d bytes/goal (%.1fx smaller)%n",
+                goals, entityBytes / goals, compactBytes / goals, (double) entityBytes / compactBytes);
+        assertTrue(compactBytes < entityBytes);
+    }
+
+    private static Goal plan(int i, Random random) {
+        Goal goal = new Goal(new String("Learn skill " + (i % 500)),
+                new String("A personal plan, number " + i + ", to get better at skill " + (i % 500)),
+                LocalDate.of(2026, 1, 1).plusDays(random.nextInt(365)));
+        goal.setOwnerId(new String("user-" + (i % 50_000)));
+        for (int s = 0; s < SUBGOALS_PER_GOAL; s++) {
+            int phrase = random.nextInt(300);
+            goal.addSubgoal(new Subgoal(new String("Research beginner resources, step " + phrase),
+                    new String("Spend an hour a day on step " + phrase + " and write down what you learned")));
+        }
+        if (random.nextBoolean()) {
+            goal.completeSubgoal(goal.getSubgoals().get(0).getTitle());
+        }
+        return goal;
+    }
+
+    private static long usedHeap() throws InterruptedException {
+        for (int i = 0; i < 5; i++) {
+            System.gc();
+            Thread.sleep(50);
+        }
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+}
@@ -0,0 +1,205 @@
+package com.backend.goaltracker.store;
+
+import entities.Goal;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static com.backend.goaltracker.GoalFixtures.OWNER;
+import static com.backend.goaltracker.GoalFixtures.ownedGoal;
+import static com.backend.goaltracker.GoalFixtures.withCompleted;
+import static org.junit.jupiter.api.Assertions.*;
+
+class JournalGoalStoreTest {
+
+    @TempDir
+    Path dir;
+
+    private final List<GoalChangedEvent> events = new ArrayList<>();
+
+    private JournalGoalStore open(long snapshotEvery) {
+        return new JournalGoalStore(new GoalJournal(dir, true), snapshotEvery,
+                event -> {
+                    synchronized (events) {
+                        events.add((GoalChangedEvent) event);
+                    }
+                });
+    }
+
+    @Test
+    void reopeningReplaysCreatesCompletionsAndDeletes() {
+        JournalGoalStore store = open(10_000);
+        Goal marathon = store.insert(ownedGoal("Run a marathon", "Buy shoes", "Run 10k", "Run 10k"));
+        Goal guitar = store.insert(ownedGoal("Learn guitar", "Buy a guitar"));
+        store.completeSubgoal(marathon.getId(), "Run 10k");
+        store.completeSubgoal(marathon.getId(), "Buy shoes");
+        assertTrue(store.delete(guitar.getId()));
+        assertEquals(5, events.size());
+        // No close(): like a crash, nothing but the journal survives
+
+        JournalGoalStore reopened = open(10_000);
+        assertTrue(reopened.findById(guitar.getId()).isEmpty());
+        Goal restored = reopened.findById(marathon.getId()).orElseThrow();
+        assertEquals("Run a marathon", restored.getTitle());
+        assertEquals(OWNER, restored.getOwnerId());
+        assertEquals(LocalDate.of(2026, 12, 31), restored.getDeadline());
+        assertEquals(3, restored.getNumTotalSubgoals());
+        assertEquals(2, restored.getNumCompletedSubgoals());
+        assertFalse(restored.isComplete());
+        assertSame(restored, restored.getSubgoals().get(0).getOriginalGoal());
+
+        // Ids keep counting from where the journal left off
+        assertEquals(guitar.getId() + 1, reopened.insert(ownedGoal("Read 12 books")).getId());
+        reopened.close();
+    }
+
+    @Test
+    void snapshotBoundsTheReplayedTail() throws IOException {
+        JournalGoalStore store = open(10_000);
+        for (int i = 0; i < 20; i++) {
+            store.insert(ownedGoal("Goal " + i, "Step"));
+        }
+        store.snapshot();
+        store.completeSubgoal(1, "Step");
+        store.delete(2);
+
+        assertEquals(1, count("snapshot-*.bin"));
+        assertEquals(1, count("journal-*.log"), "segments covered by the snapshot are deleted");
+
+        JournalGoalStore reopened = open(10_000);
+        assertEquals(19, reopened.findAll().size());
+        assertTrue(reopened.findById(1).orElseThrow().isComplete());
+        assertTrue(reopened.findById(2).isEmpty());
+        assertEquals(21, reopened.insert(ownedGoal("After restart")).getId());
+        reopened.close();
+    }
+
+    @Test
+    void duplicateTitlesKeepTheirOwnCompletionInReplayAndSnapshot() {
+        JournalGoalStore store = open(10_000);
+        int id = store.insert(withCompleted(ownedGoal("Stretch", "Hold 30 s", "Hold 30 s"), 1)).getId();
+
+        JournalGoalStore replayed = open(10_000);
+        assertOnlySecondComplete(replayed.findById(id).orElseThrow());
+        replayed.close();   // snapshots the state
+
+        assertOnlySecondComplete(open(10_000).findById(id).orElseThrow());
+    }
+
+    @Test
+    void tornTailRecordIsDroppedOnRecovery() throws IOException {
+        JournalGoalStore store = open(10_000);
+        store.insert(ownedGoal("Kept"));
+        store.insert(ownedGoal("Also kept"));
+
+        // A crash in the middle of the next write leaves half a record behind
+        Path segment;
+        try (DirectoryStream<Path> segments = Files.newDirectoryStream(dir, "journal-*.log")) {
+            segment = segments.iterator().next();
+        }
+        long intact = Files.size(segment);
+        Files.write(segment, new byte[]{0, 0, 0, 40, 1, 2, 3}, StandardOpenOption.APPEND);
+
+        JournalGoalStore reopened = open(10_000);
+        assertEquals(List.of("Kept", "Also kept"), reopened.findAll().stream().map(Goal::getTitle).toList());
+        assertEquals(intact, Files.size(segment));
+
+        reopened.insert(ownedGoal("Written after recovery"));
+        assertEquals(3, open(10_000).findAll().size());
+    }
+
+    @Test
+    void concurrentWritersLoseNothing() throws Exception {
+        JournalGoalStore store = open(10_000);
+        int writers = 8;
+        int goalsPerWriter = 50;
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(writers);
+        List<Future<?>> done = new ArrayList<>();
+        for (int w = 0; w < writers; w++) {
+            int writer = w;
+            done.add(pool.submit(() -> {
+                start.await();
+                for (int i = 0; i < goalsPerWriter; i++) {
+                    store.insert(ownedGoal("Writer " + writer + " goal " + i));
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : done) {
+            future.get();
+        }
+        pool.shutdown();
+
+        assertEquals(writers * goalsPerWriter, store.findAll().size());
+        assertEquals(writers * goalsPerWriter, open(10_000).findAll().size());
+    }
+
+    @Test
+    void groupCommitWritesSeveralRecordsWithOneSync() {
+        GoalJournal journal = new GoalJournal(dir, true);
+        journal.recover(payload -> { }, (seq, type, payload) -> { });
+        journal.append(JournalGoalStore.DELETE, new byte[4]);
+        journal.append(JournalGoalStore.DELETE, new byte[4]);
+        long last = journal.append(JournalGoalStore.DELETE, new byte[4]);
+        journal.awaitDurable(last);
+
+        long[] stats = journal.commitStats();
+        assertEquals(1, stats[0]);
+        assertEquals(3, stats[1]);
+        journal.close();
+    }
+
+    @Test
+    void batchInsertIsOneCommit() {
+        GoalJournal journal = new GoalJournal(dir, true);
+        JournalGoalStore store = new JournalGoalStore(journal, 10_000, event -> { });
+        List<Goal> inserted = store.insertAll(List.of(ownedGoal("Run a marathon"), ownedGoal("Learn guitar"), ownedGoal("Read more")));
+
+        assertEquals(List.of(1, 2, 3), inserted.stream().map(Goal::getId).toList());
+        assertEquals(1, journal.commitStats()[0]);
+        assertEquals(3, open(10_000).findAll().size());
+    }
+
+    @Test
+    void snapshotIsTakenInTheBackgroundAfterEnoughRecords() throws Exception {
+        JournalGoalStore store = open(5);
+        for (int i = 0; i < 12; i++) {
+            store.insert(ownedGoal("Goal " + i));
+        }
+        for (int i = 0; i < 50 && count("snapshot-*.bin") == 0; i++) {
+            Thread.sleep(20);
+        }
+        assertTrue(count("snapshot-*.bin") >= 1);
+        store.close();
+
+        assertEquals(12, open(5).findAll().size());
+    }
+
+    private long count(String glob) throws IOException {
+        long files = 0;
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(dir, glob)) {
+            for (Path ignored : stream) files++;
+        }
+        return files;
+    }
+
+    private static void assertOnlySecondComplete(Goal goal) {
+        assertFalse(goal.getSubgoals().get(0).getIsCompleted());
+        assertTrue(goal.getSubgoals().get(1).getIsCompleted());
+        assertEquals(1, goal.getNumCompletedSubgoals());
+    }
+}
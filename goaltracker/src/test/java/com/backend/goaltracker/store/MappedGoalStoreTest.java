@@ -0,0 +1,128 @@
+package com.backend.goaltracker.store;
+
+import entities.Goal;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.List;
+
+import static com.backend.goaltracker.GoalFixtures.OWNER;
+import static com.backend.goaltracker.GoalFixtures.goal;
+import static com.backend.goaltracker.GoalFixtures.ownedGoal;
+import static com.backend.goaltracker.GoalFixtures.withCompleted;
+import static org.junit.jupiter.api.Assertions.*;
+
+class MappedGoalStoreTest {
+
+    @TempDir
+    Path dir;
+
+    private MappedGoalStore open() {
+        return new MappedGoalStore(dir, event -> { });
+    }
+
+    @Test
+    void goalsAreMaterializedFromTheMappedFilesAfterReopening() {
+        MappedGoalStore store = open();
+        Goal marathon = store.insert(ownedGoal("Run a marathon", "Buy shoes", "Run 10k", "Run 10k"));
+        Goal guitar = store.insert(ownedGoal("Learn guitar", "Buy a guitar"));
+        store.completeSubgoal(marathon.getId(), "Run 10k");
+        assertTrue(store.delete(guitar.getId()));
+        store.close();
+
+        MappedGoalStore reopened = open();
+        assertTrue(reopened.findById(guitar.getId()).isEmpty());
+        Goal restored = reopened.findById(marathon.getId()).orElseThrow();
+        assertEquals("Run a marathon", restored.getTitle());
+        assertEquals("About Run a marathon", restored.getDescription());
+        assertEquals(OWNER, restored.getOwnerId());
+        assertEquals(LocalDate.of(2026, 12, 31), restored.getDeadline());
+        assertEquals(LocalDate.now(), restored.getCreatedAt());
+        assertEquals(3, restored.getNumTotalSubgoals());
+        assertEquals(1, restored.getNumCompletedSubgoals());
+        assertTrue(restored.getSubgoals().get(1).getIsCompleted());
+        assertFalse(restored.getSubgoals().get(2).getIsCompleted());
+        assertSame(restored, restored.getSubgoals().get(0).getOriginalGoal());
+
+        assertEquals(guitar.getId() + 1, reopened.insert(ownedGoal("Read 12 books")).getId());
+        reopened.close();
+    }
+
+    @Test
+    void duplicateTitlesKeepTheirOwnCompletion() {
+        MappedGoalStore store = open();
+        int id = store.insert(withCompleted(ownedGoal("Stretch", "Hold 30 s", "Hold 30 s"), 1)).getId();
+
+        Goal read = store.findById(id).orElseThrow();
+        assertFalse(read.getSubgoals().get(0).getIsCompleted());
+        assertTrue(read.getSubgoals().get(1).getIsCompleted());
+        assertEquals(1, read.getNumCompletedSubgoals());
+        assertEquals(2, read.getNumTotalSubgoals());
+        store.close();
+    }
+
+    @Test
+    void completingSubgoalsRewritesOnlyTheRecord() {
+        MappedGoalStore store = open();
+        Goal goal = store.insert(ownedGoal("Learn Spanish", "Pick a course", "Practice daily"));
+        long arenaBytes = store.footprint()[3];
+
+        store.completeSubgoal(goal.getId(), "Pick a course");
+        Goal done = store.completeSubgoal(goal.getId(), "Practice daily").orElseThrow();
+        assertTrue(done.isComplete());
+        assertTrue(store.findById(goal.getId()).orElseThrow().isComplete());
+        assertEquals(arenaBytes, store.footprint()[3], "unchanged text is not appended again");
+
+        done.setTitle("Learn Spanish well");
+        store.update(done);
+        assertTrue(store.footprint()[3] > arenaBytes);
+        store.close();
+    }
+
+    @Test
+    void findsAnOwnersGoalsByTitle() {
+        MappedGoalStore store = open();
+        Goal guitar = store.insert(ownedGoal("Learn guitar"));
+        Goal anonymous = store.insert(goal("Learn Spanish"));
+        Goal spanish = store.insert(ownedGoal("Learn Spanish"));
+        store.insert(ownedGoal("Learn Spanish"));
+
+        assertEquals(spanish.getId(), store.findByTitle(OWNER, "Learn Spanish").orElseThrow().getId());
+        assertEquals(anonymous.getId(), store.findByTitle(null, "Learn Spanish").orElseThrow().getId());
+        assertTrue(store.findByTitle(OWNER, "Learn Italian").isEmpty());
+        assertTrue(store.findByTitle("owner-2", "Learn guitar").isEmpty());
+        assertEquals(List.of(guitar.getId(), spanish.getId(), spanish.getId() + 1),
+                store.findByOwner(OWNER).stream().map(Goal::getId).toList());
+        assertEquals(List.of(anonymous.getId()), store.findByOwner(null).stream().map(Goal::getId).toList());
+        store.close();
+    }
+
+    @Test
+    void growsAcrossMappedChunks() {
+        MappedGoalStore store = open();
+        int goals = 20_000;   // more records than fit in one chunk
+        for (int i = 0; i < goals; i++) {
+            store.insert(ownedGoal("Goal " + i, "Step " + i));
+        }
+        store.close();
+
+        MappedGoalStore reopened = open();
+        assertEquals(goals, reopened.findAll().size());
+        assertEquals("Step 19999", reopened.findById(goals).orElseThrow().getSubgoals().get(0).getTitle());
+        reopened.close();
+    }
+
+    @Test
+    void rejectsMoreSubgoalsThanTheCompletionBitset() {
+        MappedGoalStore store = open();
+        String[] subgoals = new String[MappedGoalStore.MAX_SUBGOALS + 1];
+        for (int i = 0; i < subgoals.length; i++) {
+            subgoals[i] = "Step " + i;
+        }
+        assertThrows(IllegalArgumentException.class, () -> store.insert(ownedGoal("Too big", subgoals)));
+        assertTrue(store.findAll().isEmpty());
+        store.close();
+    }
+}
@@ -0,0 +1,178 @@
+package com.backend.goaltracker.tracing;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TracerTest {
+
+    private static final String TRACE_ID = "4bf92f3577b34da6a3ce929d0e0e4736";
+    private static final String APP_SPAN_ID = "00f067aa0ba902b7";
+
+    private final InMemorySpanExporter memory = new InMemorySpanExporter(1_000);
+    private final Tracer tracer = new Tracer("goaltracker-backend", 1.0, List.of(memory));
+
+    @Test
+    void serverSpanContinuesTheCallersTraceAcrossWorkerThreads() throws Exception {
+        ExecutorService worker = Executors.newSingleThreadExecutor();
+        try (Span server = tracer.startServer("POST /api/goals/generate", "00-" + TRACE_ID + "-" + APP_SPAN_ID + "-01")) {
+            try (Span call = Tracer.start("generate.model-call")) {
+                String answer = worker.submit(Tracer.wrap(() -> {
+                    try (Span model = Tracer.start(Tracer.MODEL_SPAN_PREFIX + "fast", Span.Kind.CLIENT)) {
+                        return model.getTraceId();
+                    }
+                }, Tracer.QUEUE_WAIT_SPAN)).get();
+                assertEquals(TRACE_ID, answer);
+                assertSame(call, Tracer.current());
+            }
+            assertSame(server, Tracer.current());
+        } finally {
+            worker.shutdown();
+        }
+        assertFalse(Tracer.current().isRecording());
+
+        List<Span> spans = memory.trace(TRACE_ID);
+        assertEquals(List.of("POST /api/goals/generate", "generate.model-call", Tracer.QUEUE_WAIT_SPAN, "model fast"),
+                spans.stream().map(Span::getName).toList());
+        assertEquals(APP_SPAN_ID, spans.get(0).getParentSpanId());
+        assertEquals(spans.get(0).getSpanId(), spans.get(1).getParentSpanId());
+        assertEquals(spans.get(1).getSpanId(), spans.get(2).getParentSpanId());
+        assertEquals(spans.get(1).getSpanId(), spans.get(3).getParentSpanId());
+    }
+
+    @Test
+    void unsampledRequestsRecordNothing() {
+        try (Span server = tracer.startServer("GET /api/goals/", "00-" + TRACE_ID + "-" + APP_SPAN_ID + "-00")) {
+            assertFalse(server.isRecording());
+            assertFalse(Tracer.start("generate.parse").isRecording());
+        }
+        Tracer neverSamples = new Tracer("goaltracker-backend", 0, List.of(memory));
+        assertFalse(neverSamples.startServer("GET /api/goals/", null).isRecording());
+        // A malformed traceparent starts a new trace rather than failing the request
+        try (Span server = tracer.startServer("GET /api/goals/", "00-xyz-01")) {
+            assertTrue(server.isRecording());
+            assertNull(server.getParentSpanId());
+        }
+        assertEquals(1, memory.recentRequests(10).size());
+    }
+
+    @Test
+    void filterNamesTheRouteAndReturnsTheTrace() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("PATCH", "/api/goals/42/subgoals/complete");
+        request.addHeader(Tracer.TRACEPARENT_HEADER, "00-" + TRACE_ID + "-" + APP_SPAN_ID + "-01");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        new TracingFilter(tracer).doFilter(request, response, (req, res) -> {
+            Tracer.start("generate.store").close();
+            ((MockHttpServletResponse) res).setStatus(204);
+        });
+
+        List<Span> spans = memory.trace(TRACE_ID);
+        Span server = spans.get(0);
+        assertEquals("PATCH /api/goals/{id}/subgoals/complete", server.getName());
+        assertEquals(204, server.getAttributes().get("http.status_code"));
+        assertEquals(server.getSpanId(), spans.get(1).getParentSpanId());
+        assertEquals(server.traceparent(), response.getHeader(Tracer.TRACERESPONSE_HEADER));
+        assertEquals("GET /api/goals/jobs/{id}",
+                TracingFilter.route("GET", "/api/goals/jobs/3f2b8c1e-9d4a-4c6b-8e2f-1a2b3c4d5e6f"));
+    }
+
+    @Test
+    void breakdownSplitsTheTimeBetweenPhoneNetworkQueueServerAndModel() {
+        String root = "1000000000000001";
+        String http = "1000000000000002";
+        String server = "1000000000000003";
+        List<Map<String, Object>> app = new ArrayList<>();
+        app.add(span(root, null, "generate goal", "INTERNAL", null, 0, 1_000));
+        app.add(span(http, root, "POST /api/goals/generate", "CLIENT", null, 10, 810));
+        app.add(span("1000000000000004", root, "decode goal", "INTERNAL", null, 820, 870));
+        List<Map<String, Object>> backend = new ArrayList<>();
+        backend.add(span(server, http, "POST /api/goals/generate", "SERVER", null, 110, 710));
+        backend.add(span("1000000000000005", server, Tracer.QUEUE_WAIT_SPAN, "INTERNAL", null, 120, 220));
+        backend.add(span("1000000000000006", server, "model fast", "CLIENT", null, 220, 520));
+        assertEquals(3, tracer.importSpans(app, "android-app"));
+        assertEquals(3, tracer.importSpans(backend, "goaltracker-backend"));
+
+        @SuppressWarnings("unchecked")
+        Map<String, Double> breakdown = (Map<String, Double>) memory.breakdown(TRACE_ID, "goaltracker-backend")
+                .get("breakdownMs");
+        assertEquals(200.0, breakdown.get("client"), 0.001);
+        assertEquals(200.0, breakdown.get("network"), 0.001);
+        assertEquals(100.0, breakdown.get("queue"), 0.001);
+        assertEquals(200.0, breakdown.get("server"), 0.001);
+        assertEquals(300.0, breakdown.get("model"), 0.001);
+        assertNull(memory.breakdown("ffffffffffffffffffffffffffffffff", "goaltracker-backend"));
+    }
+
+    @Test
+    void malformedUploadedSpansAreRejected() {
+        Map<String, Object> good = span("1000000000000001", null, "render goal", "INTERNAL", null, 0, 10);
+        Map<String, Object> badId = span("xyz", null, "render goal", "INTERNAL", null, 0, 10);
+        Map<String, Object> backwards = span("1000000000000002", null, "render goal", "INTERNAL", null, 10, 0);
+
+        IllegalArgumentException error = assertThrows(IllegalArgumentException.class,
+                () -> tracer.importSpans(List.of(good, badId), "android-app"));
+        assertEquals("Span 2: invalid spanId", error.getMessage());
+        assertThrows(IllegalArgumentException.class, () -> tracer.importSpans(List.of(backwards), "android-app"));
+        assertTrue(memory.trace(TRACE_ID).isEmpty(), "nothing of a rejected upload is kept");
+    }
+
+    @Test
+    void uploadedSpansCannotClaimToBeTheServers() {
+        tracer.importSpans(List.of(span("1000000000000001", null, "POST /api/goals/generate", "SERVER",
+                "goaltracker-backend", 0, 10)), "android-app");
+
+        assertEquals("android-app", memory.trace(TRACE_ID).get(0).getService());
+    }
+
+    @Test
+    void fileExporterWritesOneJsonLinePerSpanAndRotates(@TempDir Path dir) throws Exception {
+        Path file = dir.resolve("spans.ndjson");
+        FileSpanExporter exporter = new FileSpanExporter(file, 600);
+        Tracer fileTracer = new Tracer("goaltracker-backend", 1.0, List.of(exporter));
+        for (int i = 0; i < 5; i++) {
+            try (Span server = fileTracer.startServer("GET /api/goals/", null)) {
+                server.setAttribute("http.status_code", 200);
+            }
+            exporter.flush();
+        }
+
+        assertTrue(Files.exists(dir.resolve("spans.ndjson.1")));
+        List<String> lines = Files.readAllLines(file);
+        assertFalse(lines.isEmpty());
+        Map<?, ?> span = new ObjectMapper().readValue(lines.get(0), Map.class);
+        assertEquals("GET /api/goals/", span.get("name"));
+        assertEquals("SERVER", span.get("kind"));
+        assertEquals(200, ((Map<?, ?>) span.get("attributes")).get("http.status_code"));
+        assertEquals(0, exporter.getDropped());
+    }
+
+    private static Map<String, Object> span(String spanId, String parentSpanId, String name, String kind,
+                                            String service, long startMs, long endMs) {
+        long base = 1_750_000_000_000_000_000L;
+        Map<String, Object> span = new LinkedHashMap<>();
+        span.put("traceId", TRACE_ID);
+        span.put("spanId", spanId);
+        span.put("parentSpanId", parentSpanId);
+        span.put("name", name);
+        span.put("kind", kind);
+        if (service != null) span.put("service", service);
+        span.put("startTimeUnixNano", base + startMs * 1_000_000);
+        span.put("endTimeUnixNano", String.valueOf(base + endMs * 1_000_000));
+        span.put("attributes", Map.of("screen", "CreateGoalActivity"));
+        return span;
+    }
+}
@@ -0,0 +1,133 @@
+package com.backend.goaltracker.transfer;
+
+import com.backend.goaltracker.store.CompactGoalStore;
+import com.backend.goaltracker.store.GoalStore;
+import com.backend.goaltracker.store.InMemoryGoalStore;
+import entities.Goal;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static com.backend.goaltracker.GoalFixtures.goal;
+import static org.junit.jupiter.api.Assertions.*;
+
+class GoalTransferServiceTest {
+
+    @Test
+    void ndjsonExportImportsIntoAnotherStoreUnchanged() throws IOException {
+        roundTrip(GoalTransferService.Format.NDJSON);
+    }
+
+    @Test
+    void binaryExportImportsIntoAnotherStoreUnchanged() throws IOException {
+        roundTrip(GoalTransferService.Format.BINARY);
+    }
+
+    @Test
+    void exportPagesThroughTheStoreSkippingDeletedGoals() throws IOException {
+        GoalStore source = new CompactGoalStore(event -> { });
+        for (int i = 0; i < 50; i++) {
+            source.insert(goal("Goal " + i, "Step"));
+        }
+        for (int id = 1; id <= 50; id += 3) {
+            source.delete(id);
+        }
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        assertEquals(33, new GoalTransferService(source, 7, 10, 1 << 20).export(out, GoalTransferService.Format.NDJSON, null));
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(33, lines.length);
+        assertTrue(lines[0].contains("\"title\":\"Goal 1\""));
+        assertTrue(lines[32].contains("\"title\":\"Goal 49\""));
+    }
+
+    @Test
+    void malformedLinesAreSkippedAndReported() throws IOException {
+        GoalStore target = new InMemoryGoalStore(event -> { });
+        String body = "{\"title\":\"Run a marathon\",\"subgoals\":[{\"title\":\"Buy shoes\",\"isCompleted\":true}]}\n"
+                + "\n"
+                + "{not json\n"
+                + "{\"title\":\"\"}\n"
+                + "{\"title\":\"" + "x".repeat(200) + "\"}\n"
+                + "{\"title\":\"Learn guitar\"}";   // no trailing newline
+
+        GoalTransferService.ImportResult result = new GoalTransferService(target, 10, 10, 100)
+                .importGoals(new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)),
+                        GoalTransferService.Format.NDJSON, null);
+
+        assertEquals(2, result.imported);
+        assertEquals(3, result.skipped);
+        assertTrue(result.errors.get(0).startsWith("Line 3: "));
+        assertEquals("Line 4: Goal title cannot be empty", result.errors.get(1));
+        assertEquals("Line 5: longer than 100 bytes", result.errors.get(2));
+        Goal marathon = target.findByTitle(null, "Run a marathon").orElseThrow();
+        assertTrue(marathon.isComplete());
+        assertEquals(1, marathon.getNumCompletedSubgoals());
+        assertTrue(target.findByTitle(null, "Learn guitar").isPresent());
+    }
+
+    @Test
+    void duplicateSubgoalTitlesKeepTheirOwnCompletion() throws IOException {
+        GoalStore target = new InMemoryGoalStore(event -> { });
+        String body = "{\"title\":\"Practice\",\"subgoals\":[{\"title\":\"Scales\",\"isCompleted\":false},"
+                + "{\"title\":\"Scales\",\"isCompleted\":true}]}\n";
+
+        new GoalTransferService(target, 10, 10, 1 << 20)
+                .importGoals(new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)),
+                        GoalTransferService.Format.NDJSON, null);
+
+        Goal practice = target.findByTitle(null, "Practice").orElseThrow();
+        assertFalse(practice.getSubgoals().get(0).getIsCompleted());
+        assertTrue(practice.getSubgoals().get(1).getIsCompleted());
+        assertEquals(1, practice.getNumCompletedSubgoals());
+        assertFalse(practice.isComplete());
+    }
+
+    private static void roundTrip(GoalTransferService.Format format) throws IOException {
+        GoalStore source = new InMemoryGoalStore(event -> { });
+        for (int i = 0; i < 1_200; i++) {
+            Goal goal = goal("Goal " + i, "Plan", "Practice", "Review");
+            goal.setOwnerId(i % 2 == 0 ? "alice" : "bob");
+            source.insert(goal);
+            if (i % 3 == 0) source.completeSubgoal(goal.getId(), "Practice");
+            if (i % 5 == 0) {
+                source.completeSubgoal(goal.getId(), "Plan");
+                source.completeSubgoal(goal.getId(), "Practice");
+                source.completeSubgoal(goal.getId(), "Review");
+            }
+        }
+        source.delete(11);   // one of alice's
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        assertEquals(599, new GoalTransferService(source, 100, 64, 1 << 20).export(out, format, "alice"));
+
+        GoalStore target = new CompactGoalStore(event -> { });
+        GoalTransferService.ImportResult result = new GoalTransferService(target, 100, 64, 1 << 20)
+                .importGoals(new ByteArrayInputStream(out.toByteArray()), format, "carol");
+        assertEquals(599, result.imported);
+        assertEquals(0, result.skipped);
+
+        List<Goal> expected = source.findAll().stream()
+                .filter(goal -> "alice".equals(goal.getOwnerId()))
+                .toList();
+        List<Goal> actual = target.findAll();
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            Goal a = expected.get(i);
+            Goal b = actual.get(i);
+            assertEquals(a.getTitle(), b.getTitle());
+            assertEquals("carol", b.getOwnerId(), "imported goals belong to the importing user");
+            assertEquals(a.getDeadline(), b.getDeadline());
+            assertEquals(a.getCreatedAt(), b.getCreatedAt());
+            assertEquals(a.getNumCompletedSubgoals(), b.getNumCompletedSubgoals(), a.getTitle());
+            assertEquals(a.isComplete(), b.isComplete(), a.getTitle());
+            for (int s = 0; s < a.getSubgoals().size(); s++) {
+                assertEquals(a.getSubgoals().get(s).getIsCompleted(), b.getSubgoals().get(s).getIsCompleted());
+            }
+        }
+    }
+}
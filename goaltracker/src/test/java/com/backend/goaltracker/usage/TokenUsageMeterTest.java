@@ -0,0 +1,118 @@
+package com.backend.goaltracker.usage;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TokenUsageMeterTest {
+
+    /**
+     * Clock the test moves by hand
+     */
+    private static final class ManualClock extends Clock {
+        Instant now = Instant.parse("2026-03-04T22:00:00Z");
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+
+    private final ManualClock clock = new ManualClock();
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void readsUsageMetadataFromTheGeminiResponse() throws Exception {
+        TokenUsageMeter meter = new TokenUsageMeter(0, 0, clock);
+        String response = "{\"candidates\":[],\"usageMetadata\":"
+                + "{\"promptTokenCount\":120,\"candidatesTokenCount\":380,\"totalTokenCount\":500}}";
+        meter.record("alice", "generate", new ObjectMapper().readTree(response).path("usageMetadata"));
+        meter.record(null, "generate", new ObjectMapper().readTree("{}").path("usageMetadata"));
+
+        Map<String, Long> total = (Map<String, Long>) meter.summary().get("total");
+        assertEquals(2, total.get("calls"));
+        assertEquals(120, total.get("promptTokens"));
+        assertEquals(380, total.get("outputTokens"));
+        assertEquals(500, total.get("totalTokens"));
+        assertEquals(500L, meter.userSummary("alice").get("tokensToday"));
+        assertEquals(2, meter.summary().get("users"));
+    }
+
+    @Test
+    void usersIdleForADayAreDropped() {
+        TokenUsageMeter meter = new TokenUsageMeter(1_000, 0, clock);
+        meter.record("alice", "generate", 0, 0, 100);
+        meter.record("bob", "generate", 0, 0, 100);
+
+        clock.now = clock.now.plus(Duration.ofDays(1));
+        meter.record("alice", "generate", 0, 0, 100);
+        assertEquals(2, meter.summary().get("users"), "bob was active yesterday");
+
+        clock.now = clock.now.plus(Duration.ofDays(1));
+        meter.record("alice", "generate", 0, 0, 100);
+        assertEquals(1, meter.summary().get("users"));
+        assertEquals(0L, meter.userSummary("bob").get("tokensToday"));
+    }
+
+    @Test
+    void quotaBlocksUntilMidnight() {
+        TokenUsageMeter meter = new TokenUsageMeter(1_000, 0, clock);
+        meter.record("alice", "generate", 100, 800, 900);
+        assertNull(meter.quotaExceeded("alice"));
+
+        meter.record("alice", "generate", 50, 100, 150);
+        assertEquals(Duration.ofHours(2), meter.quotaExceeded("alice"));
+        assertNull(meter.quotaExceeded("bob"));
+        assertNull(meter.quotaExceeded(null));  // anonymous quota disabled
+
+        clock.now = Instant.parse("2026-03-05T00:00:01Z");
+        assertNull(meter.quotaExceeded("alice"));
+        assertEquals(0L, meter.userSummary("alice").get("tokensToday"));
+        assertEquals(1_000L, meter.userSummary("alice").get("remainingToday"));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void concurrentRecordingLosesNothing() throws InterruptedException {
+        TokenUsageMeter meter = new TokenUsageMeter(0, 0, clock);
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            String user = "user" + (t % 2);
+            Thread thread = new Thread(() -> {
+                for (int i = 0; i < 10_000; i++) {
+                    meter.record(user, i % 2 == 0 ? "generate" : "regenerate-subgoal", 1, 2, 3);
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        Map<String, Long> total = (Map<String, Long>) meter.summary().get("total");
+        assertEquals(80_000, total.get("calls"));
+        assertEquals(240_000, total.get("totalTokens"));
+        assertEquals(120_000L, meter.userSummary("user0").get("tokensToday"));
+    }
+}
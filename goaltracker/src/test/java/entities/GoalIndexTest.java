@@ -0,0 +1,99 @@
+package entities;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GoalIndexTest {
+
+    private static Goal goal(int id, String title, LocalDate deadline) {
+        Goal goal = new Goal(title, "", deadline);
+        goal.setId(id);
+        return goal;
+    }
+
+    @Test
+    void findsGoalsByIdAndTitle() {
+        GoalIndex index = new GoalIndex();
+        Goal run = goal(1, "Run a marathon", LocalDate.of(2026, 5, 1));
+        Goal read = goal(2, "Read 20 books", null);
+        index.add(run);
+        index.add(read);
+
+        assertSame(run, index.get(1));
+        assertSame(read, index.getByTitle("Read 20 books"));
+        assertNull(index.get(3));
+        assertNull(index.getByTitle("Learn piano"));
+    }
+
+    @Test
+    void ordersByDeadlineWithUndatedGoalsLast() {
+        GoalIndex index = new GoalIndex();
+        Goal undated = goal(1, "a", null);
+        Goal late = goal(2, "b", LocalDate.of(2026, 12, 1));
+        Goal early = goal(3, "c", LocalDate.of(2026, 1, 1));
+        Goal sameDay = goal(4, "d", LocalDate.of(2026, 1, 1));
+        index.add(undated);
+        index.add(late);
+        index.add(early);
+        index.add(sameDay);
+
+        assertEquals(List.of(early, sameDay, late, undated), index.byDeadline());
+        assertEquals(List.of(early, sameDay), index.dueOnOrBefore(LocalDate.of(2026, 1, 1)));
+        assertSame(early, index.nextDue());
+        assertEquals(List.of(undated, late, early, sameDay), index.values());
+    }
+
+    @Test
+    void removeKeepsEveryIndexInSync() {
+        GoalIndex index = new GoalIndex();
+        Goal first = goal(1, "Same title", LocalDate.of(2026, 3, 1));
+        Goal second = goal(2, "Same title", LocalDate.of(2026, 2, 1));
+        index.add(first);
+        index.add(second);
+
+        assertEquals(List.of(first, second), index.findAllByTitle("Same title"));
+        assertSame(first, index.remove(1));
+
+        assertSame(second, index.getByTitle("Same title"));
+        assertEquals(List.of(second), index.byDeadline());
+        assertEquals(1, index.size());
+        assertNull(index.remove(1));
+    }
+
+    @Test
+    void reindexPicksUpChangedTitleAndDeadline() {
+        GoalIndex index = new GoalIndex();
+        Goal goal = goal(1, "Old title", LocalDate.of(2026, 6, 1));
+        Goal other = goal(2, "Other", LocalDate.of(2026, 4, 1));
+        index.add(goal);
+        index.add(other);
+
+        goal.setTitle("New title");
+        goal.setDeadline(LocalDate.of(2026, 3, 1));
+        assertTrue(index.reindex(goal));
+
+        assertNull(index.getByTitle("Old title"));
+        assertSame(goal, index.getByTitle("New title"));
+        assertEquals(List.of(goal, other), index.byDeadline());
+        assertFalse(index.reindex(goal(9, "Missing", null)));
+    }
+
+    @Test
+    void addingTheSameIdReplacesTheOldGoal() {
+        User user = new User(1, "Sam");
+        user.addGoal(goal(1, "Draft", null));
+        Goal replacement = goal(1, "Final", LocalDate.of(2026, 1, 1));
+        user.addGoal(replacement);
+
+        assertEquals(1, user.getNumGoals());
+        assertNull(user.getGoalByTitle("Draft"));
+        assertSame(replacement, user.getGoal(1));
+
+        user.removeGoal(goal(1, "Final", null));
+        assertEquals(0, user.getNumGoals());
+    }
+}